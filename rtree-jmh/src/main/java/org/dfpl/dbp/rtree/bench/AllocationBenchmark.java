@@ -0,0 +1,89 @@
+package org.dfpl.dbp.rtree.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.dfpl.dbp.rtree.team1.Point;
+import org.dfpl.dbp.rtree.team1.RTreeImpl;
+import org.dfpl.dbp.rtree.team1.RTreeObserver;
+import org.dfpl.dbp.rtree.team1.Rectangle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 분할/병합이 일어나지 않는 RTreeImpl add, delete의 할당량을 재는 벤치마크입니다.
+ * -prof gc의 gc.alloc.rate.norm(B/op)이 0이어야 합니다.
+ *
+ * Point 생성 비용을 빼기 위해 삽입할 Point는 미리 만들어 두고, setup에서 옵저버로 분할 이벤트를 확인해
+ * 넣어도 분할이 일어나지 않는 점만 남깁니다. 매 호출은 같은 점을 add한 뒤 delete하므로 트리는 그대로 유지됩니다.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx2g" })
+public class AllocationBenchmark {
+
+	private static final int POOL = 1 << 12;
+
+	@Param({ "4", "32" })
+	public int maxEntries;
+
+	@Param({ "100000" })
+	public int size;
+
+	private RTreeImpl tree;
+	private Point[] fresh;
+	private int cursor;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		double[][] data = Datasets.generate("uniform", size, 42);
+		tree = RTreeImpl.builder().maxEntries(maxEntries).build();
+		for (int i = 0; i < size; i++) {
+			tree.add(new Point(data[0][i], data[1][i]));
+		}
+
+		boolean[] split = new boolean[1];
+		tree.setObserver(new RTreeObserver() {
+			@Override
+			public void split(Rectangle group1, Rectangle group2) {
+				split[0] = true;
+			}
+		});
+		double[][] candidates = Datasets.generate("uniform", POOL * 4, 99);
+		List<Point> kept = new ArrayList<>();
+		for (int i = 0; i < candidates[0].length && kept.size() < POOL; i++) {
+			Point p = new Point(candidates[0][i], candidates[1][i]);
+			split[0] = false;
+			tree.add(p);
+			if (split[0]) {
+				// 분할된 트리는 그대로 두고 이 점은 버림
+				continue;
+			}
+			tree.delete(p);
+			kept.add(p);
+		}
+		tree.setObserver(null);
+		fresh = kept.toArray(new Point[0]);
+	}
+
+	@Benchmark
+	public void addDelete() {
+		Point p = fresh[cursor++ % fresh.length];
+		tree.add(p);
+		tree.delete(p);
+	}
+}
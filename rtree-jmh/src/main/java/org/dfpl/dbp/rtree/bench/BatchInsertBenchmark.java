@@ -0,0 +1,84 @@
+package org.dfpl.dbp.rtree.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.dfpl.dbp.rtree.team1.Point;
+import org.dfpl.dbp.rtree.team1.RTreeImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 이미 채워진 트리에 batch개씩 들어오는 점을 add 반복과 addAll로 넣는 시간을 비교합니다.
+ * 반복(iteration)마다 STR로 트리를 다시 만들고, 호출마다 새 batch 하나를 넣습니다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, batchSize = 1)
+@Measurement(iterations = 10, batchSize = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx6g" })
+public class BatchInsertBenchmark {
+
+	@Param({ "1000000" })
+	public int size;
+
+	@Param({ "1000", "100000" })
+	public int batch;
+
+	@Param({ "uniform", "clustered" })
+	public String distribution;
+
+	private List<Point> initial;
+	private List<List<Point>> batches;
+	private RTreeImpl tree;
+	private int cursor;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		double[][] data = Datasets.generate(distribution, size, 42);
+		initial = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			initial.add(new Point(data[0][i], data[1][i]));
+		}
+		batches = new ArrayList<>();
+		for (int b = 0; b < 15; b++) {
+			double[][] fresh = Datasets.generate(distribution, batch, 100 + b);
+			List<Point> points = new ArrayList<>(batch);
+			for (int i = 0; i < batch; i++) {
+				points.add(new Point(fresh[0][i], fresh[1][i]));
+			}
+			batches.add(points);
+		}
+	}
+
+	@Setup(Level.Iteration)
+	public void rebuild() {
+		tree = RTreeImpl.builder().maxEntries(32).bulkLoad(initial);
+	}
+
+	@Benchmark
+	public RTreeImpl add() {
+		for (Point p : batches.get(cursor++ % batches.size())) {
+			tree.add(p);
+		}
+		return tree;
+	}
+
+	@Benchmark
+	public RTreeImpl addAll() {
+		tree.addAll(batches.get(cursor++ % batches.size()));
+		return tree;
+	}
+}
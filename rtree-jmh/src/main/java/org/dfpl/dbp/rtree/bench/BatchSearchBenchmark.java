@@ -0,0 +1,98 @@
+package org.dfpl.dbp.rtree.bench;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.dfpl.dbp.rtree.team1.Point;
+import org.dfpl.dbp.rtree.team1.RTreeImpl;
+import org.dfpl.dbp.rtree.team1.Rectangle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * 타일 렌더러처럼 화면(좌표 공간의 1/5 x 1/5)을 tiles x tiles개의 인접한 타일로 나눠 검색합니다.
+ * individual은 타일마다 search를 호출하고, batch는 searchBatch로 한 번에 순회합니다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx6g" })
+public class BatchSearchBenchmark {
+
+	private static final int FRAMES = 64;
+
+	@Param({ "1000000" })
+	public int size;
+
+	@Param({ "4", "32" })
+	public int maxEntries;
+
+	@Param({ "16", "64" })
+	public int tiles;
+
+	private RTreeImpl tree;
+	private List<List<Rectangle>> frames;
+	private int cursor;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		double[][] data = Datasets.generate("uniform", size, 42);
+		tree = RTreeImpl.builder().maxEntries(maxEntries).build();
+		double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < size; i++) {
+			tree.add(new Point(data[0][i], data[1][i]));
+			minX = Math.min(minX, data[0][i]);
+			minY = Math.min(minY, data[1][i]);
+			maxX = Math.max(maxX, data[0][i]);
+			maxY = Math.max(maxY, data[1][i]);
+		}
+		double viewW = (maxX - minX) / 5;
+		double viewH = (maxY - minY) / 5;
+		Random random = new Random(7);
+		frames = new ArrayList<>(FRAMES);
+		for (int f = 0; f < FRAMES; f++) {
+			double x0 = minX + random.nextDouble() * (maxX - minX - viewW);
+			double y0 = minY + random.nextDouble() * (maxY - minY - viewH);
+			List<Rectangle> frame = new ArrayList<>(tiles * tiles);
+			for (int i = 0; i < tiles; i++) {
+				for (int j = 0; j < tiles; j++) {
+					frame.add(new Rectangle(new Point(x0 + i * viewW / tiles, y0 + j * viewH / tiles),
+							new Point(x0 + (i + 1) * viewW / tiles, y0 + (j + 1) * viewH / tiles)));
+				}
+			}
+			frames.add(frame);
+		}
+	}
+
+	@Benchmark
+	public void individual(Blackhole bh) {
+		for (Rectangle r : frames.get(cursor++ % FRAMES)) {
+			Iterator<Point> it = tree.search(r);
+			while (it.hasNext()) {
+				bh.consume(it.next());
+			}
+		}
+	}
+
+	@Benchmark
+	public void batch(Blackhole bh) {
+		tree.searchBatch(frames.get(cursor++ % FRAMES), (point, query) -> bh.consume(point));
+	}
+}
@@ -0,0 +1,45 @@
+package org.dfpl.dbp.rtree.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 처리량(ops/s)과 지연시간 분포(p99, us)를 각각 알맞은 단위로 측정하고, 두 번 모두 gc 프로파일러로
+ * 할당률(gc.alloc.rate.norm, B/op)을 함께 기록합니다.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar org.dfpl.dbp.rtree.bench.BenchmarkMain [정규식] [-p 이름=값,값...]
+ * </pre>
+ *
+ * 일부 조합만 돌릴 때는 표준 JMH 실행기(java -jar target/benchmarks.jar -prof gc ...)를 써도 됩니다.
+ */
+public class BenchmarkMain {
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(options(args, Mode.Throughput, TimeUnit.SECONDS)).run();
+		new Runner(options(args, Mode.SampleTime, TimeUnit.MICROSECONDS)).run();
+	}
+
+	// 명령행 인자(정규식, -p 이름=값,...)를 해석해 한 번의 실행 옵션을 만듦.
+	private static Options options(String[] args, Mode mode, TimeUnit timeUnit) {
+		ChainedOptionsBuilder builder = new OptionsBuilder().addProfiler(GCProfiler.class).mode(mode)
+				.timeUnit(timeUnit);
+		String include = ".*Benchmark.*";
+		for (int i = 0; i < args.length; i++) {
+			if ("-p".equals(args[i]) && i + 1 < args.length) {
+				String[] kv = args[++i].split("=", 2);
+				builder = builder.param(kv[0], kv[1].split(","));
+			} else {
+				include = args[i];
+			}
+		}
+		return builder.include(include).build();
+	}
+}
@@ -0,0 +1,93 @@
+package org.dfpl.dbp.rtree.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.dfpl.dbp.rtree.team1.RTreeImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * RTreeImpl의 노드 용량(M, leaf와 내부 노드 동일, m = M/2)별 add / search / nearest 비교입니다.
+ * RTreeImpl.Builder의 용량 가이드는 이 벤치마크 결과를 근거로 합니다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx6g" })
+public class CapacityBenchmark {
+
+	private static final int QUERIES = 1024;
+
+	@Param({ "4", "8", "16", "32", "64", "128" })
+	public int maxEntries;
+
+	@Param({ "1000000" })
+	public int size;
+
+	@Param({ "uniform", "clustered" })
+	public String distribution;
+
+	private TreeAdapter tree;
+	private double[][] queries;
+	private double[][] sources;
+	private double[][] fresh;
+	private int cursor;
+	private boolean undoAdd;
+	private double lastX;
+	private double lastY;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		double[][] data = Datasets.generate(distribution, size, 42);
+		tree = new TreeAdapter.Team1(RTreeImpl.builder().maxEntries(maxEntries).build());
+		for (int i = 0; i < size; i++) {
+			tree.add(data[0][i], data[1][i]);
+		}
+		queries = Datasets.queries(data, 0.001, QUERIES, 7);
+		sources = Datasets.generate(distribution, QUERIES, 11);
+		fresh = Datasets.generate(distribution, QUERIES, 99);
+	}
+
+	@Benchmark
+	public void search(Blackhole bh) {
+		double[] q = queries[cursor++ & (QUERIES - 1)];
+		tree.search(q[0], q[1], q[2], q[3], bh);
+	}
+
+	@Benchmark
+	public void nearest(Blackhole bh) {
+		int i = cursor++ & (QUERIES - 1);
+		tree.nearest(sources[0][i], sources[1][i], 10, bh);
+	}
+
+	@Benchmark
+	public void add() {
+		int i = cursor++ & (QUERIES - 1);
+		lastX = fresh[0][i];
+		lastY = fresh[1][i];
+		tree.add(lastX, lastY);
+		undoAdd = true;
+	}
+
+	@TearDown(Level.Invocation)
+	public void undo() {
+		if (undoAdd) {
+			tree.delete(lastX, lastY);
+			undoAdd = false;
+		}
+	}
+}
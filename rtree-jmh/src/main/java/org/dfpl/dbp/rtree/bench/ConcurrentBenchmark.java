@@ -0,0 +1,157 @@
+package org.dfpl.dbp.rtree.bench;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.dfpl.dbp.rtree.team1.ConcurrentRTree;
+import org.dfpl.dbp.rtree.team1.Point;
+import org.dfpl.dbp.rtree.team1.RTree;
+import org.dfpl.dbp.rtree.team1.RTreeImpl;
+import org.dfpl.dbp.rtree.team1.Rectangle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * 읽기 스레드 8개(search 4, nearest 4)와 쓰기 스레드 1개(add 후 delete)를 함께 돌리는 벤치마크입니다.
+ * lock=synchronized는 모든 호출을 전역 락 하나로 감싼 기존 방식, lock=concurrent는 ConcurrentRTree 입니다.
+ * 쓰기 스레드가 트리 크기를 유지하므로 실행 중에도 size는 거의 변하지 않습니다.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx4g" })
+public class ConcurrentBenchmark {
+
+	private static final int QUERIES = 1024;
+
+	@Param({ "synchronized", "concurrent" })
+	public String lock;
+
+	@Param({ "1000000" })
+	public int size;
+
+	private RTree tree;
+	private ConcurrentRTree concurrent;
+	private double[][] queries;
+	private double[][] sources;
+	private double[][] fresh;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		double[][] data = Datasets.generate("uniform", size, 42);
+		RTreeImpl impl = RTreeImpl.builder().maxEntries(32).build();
+		for (int i = 0; i < size; i++) {
+			impl.add(new Point(data[0][i], data[1][i]));
+		}
+		if ("concurrent".equals(lock)) {
+			concurrent = new ConcurrentRTree(impl);
+			tree = concurrent;
+		} else {
+			tree = new SynchronizedRTree(impl);
+		}
+		queries = Datasets.queries(data, 0.0001, QUERIES, 7);
+		sources = Datasets.generate("uniform", QUERIES, 11);
+		fresh = Datasets.generate("uniform", QUERIES, 99);
+	}
+
+	@TearDown(Level.Trial)
+	public void report() {
+		if (concurrent != null) {
+			System.out.printf("%n[lock] reads=%d (contended %d, wait %.1f ms) writes=%d (contended %d, wait %.1f ms)%n",
+					concurrent.getReadCount(), concurrent.getContendedReadCount(), concurrent.getReadWaitNanos() / 1e6,
+					concurrent.getWriteCount(), concurrent.getContendedWriteCount(),
+					concurrent.getWriteWaitNanos() / 1e6);
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Cursor {
+		int next;
+	}
+
+	@Benchmark
+	@Group("mixed")
+	@GroupThreads(4)
+	public void search(Cursor cursor, Blackhole bh) {
+		double[] q = queries[cursor.next++ & (QUERIES - 1)];
+		Iterator<Point> it = tree.search(new Rectangle(new Point(q[0], q[1]), new Point(q[2], q[3])));
+		while (it.hasNext()) {
+			bh.consume(it.next());
+		}
+	}
+
+	@Benchmark
+	@Group("mixed")
+	@GroupThreads(4)
+	public void nearest(Cursor cursor, Blackhole bh) {
+		int i = cursor.next++ & (QUERIES - 1);
+		Iterator<Point> it = tree.nearest(new Point(sources[0][i], sources[1][i]), 10);
+		while (it.hasNext()) {
+			bh.consume(it.next());
+		}
+	}
+
+	@Benchmark
+	@Group("mixed")
+	@GroupThreads(1)
+	public void write(Cursor cursor) {
+		int i = cursor.next++ & (QUERIES - 1);
+		Point p = new Point(fresh[0][i], fresh[1][i]);
+		tree.add(p);
+		tree.delete(p);
+	}
+
+	// 모든 호출을 전역 락 하나로 감싼 비교 대상.
+	static final class SynchronizedRTree implements RTree {
+		private final RTreeImpl tree;
+
+		SynchronizedRTree(RTreeImpl tree) {
+			this.tree = tree;
+		}
+
+		@Override
+		public synchronized void add(Point point) {
+			tree.add(point);
+		}
+
+		@Override
+		public synchronized Iterator<Point> search(Rectangle rectangle) {
+			List<Point> result = new ArrayList<>();
+			tree.search(rectangle).forEachRemaining(result::add);
+			return result.iterator();
+		}
+
+		@Override
+		public synchronized Iterator<Point> nearest(Point source, int maxCount) {
+			return tree.nearest(source, maxCount);
+		}
+
+		@Override
+		public synchronized void delete(Point point) {
+			tree.delete(point);
+		}
+
+		@Override
+		public synchronized boolean isEmpty() {
+			return tree.isEmpty();
+		}
+	}
+}
@@ -0,0 +1,50 @@
+package org.dfpl.dbp.rtree.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 구현(impl), 데이터 크기(size), 분포(distribution)별로 트리를 한 번 만들어 두는 공통 상태입니다.
+ * 하위 클래스는 prepare()에서 질의 등 추가 입력을 준비합니다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx6g" })
+public abstract class DatasetState {
+
+	@Param({ "team1", "team1-str", "team1-rstar", "team1-flat", "team1-persistent", "team1-hilbert", "davidmoten" })
+	public String impl;
+
+	@Param({ "1000", "10000", "100000", "1000000", "10000000" })
+	public int size;
+
+	@Param({ "uniform", "clustered", "skewed" })
+	public String distribution;
+
+	protected double[][] data;
+	protected TreeAdapter tree;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		data = Datasets.generate(distribution, size, 42);
+		tree = TreeAdapter.load(impl, data);
+		prepare();
+	}
+
+	protected void prepare() {
+	}
+}
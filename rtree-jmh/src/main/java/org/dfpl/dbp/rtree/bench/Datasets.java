@@ -0,0 +1,84 @@
+package org.dfpl.dbp.rtree.bench;
+
+import java.util.Random;
+
+/**
+ * 벤치마크용 점 데이터셋 생성기입니다. 모든 좌표는 [0, EXTENT) 범위에 있습니다.
+ */
+public final class Datasets {
+
+	public static final double EXTENT = 1_000_000;
+
+	private static final int CLUSTERS = 50;
+
+	private Datasets() {
+	}
+
+	/**
+	 * distribution에 따라 n개의 점을 만들어 {xs, ys}로 반환합니다.
+	 *
+	 * @param distribution uniform, clustered, skewed 중 하나
+	 * @param n
+	 * @param seed
+	 * @return double[2][n]
+	 */
+	public static double[][] generate(String distribution, int n, long seed) {
+		Random random = new Random(seed);
+		double[] xs = new double[n];
+		double[] ys = new double[n];
+		switch (distribution) {
+		case "uniform":
+			for (int i = 0; i < n; i++) {
+				xs[i] = random.nextDouble() * EXTENT;
+				ys[i] = random.nextDouble() * EXTENT;
+			}
+			break;
+		case "clustered":
+			// 균일하게 뿌린 중심 주변에 정규분포(표준편차 = EXTENT의 1%)로 모임
+			double[] cx = new double[CLUSTERS];
+			double[] cy = new double[CLUSTERS];
+			for (int c = 0; c < CLUSTERS; c++) {
+				cx[c] = random.nextDouble() * EXTENT;
+				cy[c] = random.nextDouble() * EXTENT;
+			}
+			for (int i = 0; i < n; i++) {
+				int c = random.nextInt(CLUSTERS);
+				xs[i] = clamp(cx[c] + random.nextGaussian() * EXTENT * 0.01);
+				ys[i] = clamp(cy[c] + random.nextGaussian() * EXTENT * 0.01);
+			}
+			break;
+		case "skewed":
+			// 원점 근처로 몰리는 분포 (u^4)
+			for (int i = 0; i < n; i++) {
+				double u = random.nextDouble();
+				double v = random.nextDouble();
+				xs[i] = u * u * u * u * EXTENT;
+				ys[i] = v * v * v * v * EXTENT;
+			}
+			break;
+		default:
+			throw new IllegalArgumentException("알 수 없는 분포: " + distribution);
+		}
+		return new double[][] { xs, ys };
+	}
+
+	/**
+	 * 데이터 점을 중심으로 하고 면적이 전체 공간의 selectivity 비율인 정사각형 질의를 count개 만듭니다.
+	 *
+	 * @return double[count][4] = {minX, minY, maxX, maxY}
+	 */
+	public static double[][] queries(double[][] data, double selectivity, int count, long seed) {
+		Random random = new Random(seed);
+		double half = Math.sqrt(selectivity) * EXTENT / 2;
+		double[][] queries = new double[count][];
+		for (int i = 0; i < count; i++) {
+			int j = random.nextInt(data[0].length);
+			queries[i] = new double[] { data[0][j] - half, data[1][j] - half, data[0][j] + half, data[1][j] + half };
+		}
+		return queries;
+	}
+
+	private static double clamp(double v) {
+		return Math.max(0, Math.min(EXTENT - 1e-9, v));
+	}
+}
@@ -0,0 +1,58 @@
+package org.dfpl.dbp.rtree.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * add / delete 벤치마크. 매 호출 뒤(측정 밖에서) 변경을 되돌려 트리 크기를 size로 유지합니다.
+ * 연산 하나가 마이크로초 단위이므로 Level.Invocation 오버헤드는 무시할 만합니다.
+ */
+public class MutationBenchmark extends DatasetState {
+
+	private static final int POOL = 1 << 16;
+
+	// 트리에 없는 새 점들 (다른 seed)
+	private double[][] fresh;
+	private int cursor;
+
+	private boolean undoAdd;
+	private boolean undoDelete;
+	private double lastX;
+	private double lastY;
+
+	@Override
+	protected void prepare() {
+		fresh = Datasets.generate(distribution, POOL, 99);
+	}
+
+	@Benchmark
+	public void add() {
+		int i = cursor++ & (POOL - 1);
+		lastX = fresh[0][i];
+		lastY = fresh[1][i];
+		tree.add(lastX, lastY);
+		undoAdd = true;
+	}
+
+	@Benchmark
+	public void delete() {
+		int i = cursor++ % size;
+		lastX = data[0][i];
+		lastY = data[1][i];
+		tree.delete(lastX, lastY);
+		undoDelete = true;
+	}
+
+	@TearDown(Level.Invocation)
+	public void undo() {
+		if (undoAdd) {
+			tree.delete(lastX, lastY);
+			undoAdd = false;
+		}
+		if (undoDelete) {
+			tree.add(lastX, lastY);
+			undoDelete = false;
+		}
+	}
+}
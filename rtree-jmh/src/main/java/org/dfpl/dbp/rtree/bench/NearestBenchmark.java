@@ -0,0 +1,30 @@
+package org.dfpl.dbp.rtree.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * nearest(Point, k) 벤치마크. 질의점은 데이터와 같은 분포에서 따로 뽑습니다.
+ */
+public class NearestBenchmark extends DatasetState {
+
+	private static final int QUERIES = 1024;
+
+	@Param({ "1", "10", "100" })
+	public int k;
+
+	private double[][] sources;
+	private int cursor;
+
+	@Override
+	protected void prepare() {
+		sources = Datasets.generate(distribution, QUERIES, 11);
+	}
+
+	@Benchmark
+	public void nearest(Blackhole bh) {
+		int i = cursor++ & (QUERIES - 1);
+		tree.nearest(sources[0][i], sources[1][i], k, bh);
+	}
+}
@@ -0,0 +1,92 @@
+package org.dfpl.dbp.rtree.bench;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+import org.dfpl.dbp.rtree.team1.Point;
+import org.dfpl.dbp.rtree.team1.RTreeImpl;
+import org.dfpl.dbp.rtree.team1.Rectangle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * 트리의 큰 부분을 읽는 분석용 질의(선택도 0.1 범위 검색, k=10000 KNN)를 순차 search/nearest와
+ * 공용 ForkJoinPool을 쓰는 parallelSearch/parallelNearest로 비교합니다. 병렬 이득은 코어 수에 비례하므로
+ * 결과와 함께 Runtime.availableProcessors()를 기록해야 합니다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx6g" })
+public class ParallelQueryBenchmark {
+
+	private static final int QUERIES = 64;
+
+	@Param({ "1000000" })
+	public int size;
+
+	@Param({ "uniform", "clustered" })
+	public String distribution;
+
+	private RTreeImpl tree;
+	private double[][] queries;
+	private double[][] sources;
+	private int cursor;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		double[][] data = Datasets.generate(distribution, size, 42);
+		tree = RTreeImpl.builder().maxEntries(32).build();
+		for (int i = 0; i < size; i++) {
+			tree.add(new Point(data[0][i], data[1][i]));
+		}
+		queries = Datasets.queries(data, 0.1, QUERIES, 7);
+		sources = Datasets.generate(distribution, QUERIES, 11);
+	}
+
+	@Benchmark
+	public void search(Blackhole bh) {
+		consume(tree.search(nextQuery()), bh);
+	}
+
+	@Benchmark
+	public void parallelSearch(Blackhole bh) {
+		consume(tree.parallelSearch(nextQuery()), bh);
+	}
+
+	@Benchmark
+	public void nearest(Blackhole bh) {
+		int i = cursor++ % QUERIES;
+		consume(tree.nearest(new Point(sources[0][i], sources[1][i]), 10000), bh);
+	}
+
+	@Benchmark
+	public void parallelNearest(Blackhole bh) {
+		int i = cursor++ % QUERIES;
+		consume(tree.parallelNearest(new Point(sources[0][i], sources[1][i]), 10000), bh);
+	}
+
+	private Rectangle nextQuery() {
+		double[] q = queries[cursor++ % QUERIES];
+		return new Rectangle(new Point(q[0], q[1]), new Point(q[2], q[3]));
+	}
+
+	private static void consume(Iterator<Point> it, Blackhole bh) {
+		while (it.hasNext()) {
+			bh.consume(it.next());
+		}
+	}
+}
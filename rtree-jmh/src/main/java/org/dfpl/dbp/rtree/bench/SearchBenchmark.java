@@ -0,0 +1,30 @@
+package org.dfpl.dbp.rtree.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * search(Rectangle) 벤치마크. selectivity는 질의 사각형 면적이 전체 공간에서 차지하는 비율입니다.
+ */
+public class SearchBenchmark extends DatasetState {
+
+	private static final int QUERIES = 1024;
+
+	@Param({ "0.0001", "0.001", "0.01" })
+	public double selectivity;
+
+	private double[][] queries;
+	private int cursor;
+
+	@Override
+	protected void prepare() {
+		queries = Datasets.queries(data, selectivity, QUERIES, 7);
+	}
+
+	@Benchmark
+	public void search(Blackhole bh) {
+		double[] q = queries[cursor++ & (QUERIES - 1)];
+		tree.search(q[0], q[1], q[2], q[3], bh);
+	}
+}
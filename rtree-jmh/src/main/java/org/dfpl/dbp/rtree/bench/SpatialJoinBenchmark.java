@@ -0,0 +1,97 @@
+package org.dfpl.dbp.rtree.bench;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.dfpl.dbp.rtree.team1.Point;
+import org.dfpl.dbp.rtree.team1.RTreeImpl;
+import org.dfpl.dbp.rtree.team1.Rectangle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * 고객(customers개)과 매장(stores개)을 "거리 distance 이내"로 조인합니다.
+ * nestedLoop은 고객마다 매장 트리에 search를 호출하고, distanceJoin은 두 트리를 함께 순회합니다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx6g" })
+public class SpatialJoinBenchmark {
+
+	@Param({ "1000000" })
+	public int customers;
+
+	@Param({ "100000" })
+	public int stores;
+
+	@Param({ "1000", "5000" })
+	public double distance;
+
+	@Param({ "uniform", "clustered" })
+	public String distribution;
+
+	private List<Point> customerPoints;
+	private RTreeImpl customerTree;
+	private RTreeImpl storeTree;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		customerPoints = points(Datasets.generate(distribution, customers, 42));
+		customerTree = RTreeImpl.builder().maxEntries(32).bulkLoad(customerPoints);
+		storeTree = RTreeImpl.builder().maxEntries(32).bulkLoad(points(Datasets.generate(distribution, stores, 43)));
+	}
+
+	private static List<Point> points(double[][] data) {
+		List<Point> points = new ArrayList<>(data[0].length);
+		for (int i = 0; i < data[0].length; i++) {
+			points.add(new Point(data[0][i], data[1][i]));
+		}
+		return points;
+	}
+
+	@Benchmark
+	public long nestedLoop(Blackhole bh) {
+		long pairs = 0;
+		double d2 = distance * distance;
+		for (Point p : customerPoints) {
+			Iterator<Point> it = storeTree.search(new Rectangle(new Point(p.getX() - distance, p.getY() - distance),
+					new Point(p.getX() + distance, p.getY() + distance)));
+			while (it.hasNext()) {
+				Point q = it.next();
+				double dx = p.getX() - q.getX();
+				double dy = p.getY() - q.getY();
+				if (dx * dx + dy * dy <= d2) {
+					bh.consume(q);
+					pairs++;
+				}
+			}
+		}
+		return pairs;
+	}
+
+	@Benchmark
+	public long distanceJoin(Blackhole bh) {
+		long[] pairs = new long[1];
+		customerTree.distanceJoin(storeTree, distance, (p, q) -> {
+			bh.consume(q);
+			pairs[0]++;
+		});
+		return pairs[0];
+	}
+}
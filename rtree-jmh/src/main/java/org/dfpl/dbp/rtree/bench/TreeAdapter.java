@@ -0,0 +1,134 @@
+package org.dfpl.dbp.rtree.bench;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.dfpl.dbp.rtree.team1.FlatRTree;
+import org.dfpl.dbp.rtree.team1.HilbertRTree;
+import org.dfpl.dbp.rtree.team1.PersistentRTree;
+import org.dfpl.dbp.rtree.team1.Point;
+import org.dfpl.dbp.rtree.team1.RTreeImpl;
+import org.dfpl.dbp.rtree.team1.Rectangle;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.github.davidmoten.rtree.RTree;
+import com.github.davidmoten.rtree.geometry.Geometries;
+
+/**
+ * 비교 대상 R-Tree 구현들을 같은 연산으로 다루기 위한 어댑터입니다.
+ * davidmoten rtree는 불변 트리이므로 어댑터가 최신 버전을 보관해 가변 트리처럼 사용합니다.
+ */
+public interface TreeAdapter {
+
+	void add(double x, double y);
+
+	void delete(double x, double y);
+
+	void search(double minX, double minY, double maxX, double maxY, Blackhole bh);
+
+	void nearest(double x, double y, int k, Blackhole bh);
+
+	/**
+	 * impl 이름으로 비어있는 트리를 만듭니다.
+	 *
+	 * @param impl team1, team1-str, team1-rstar, team1-flat, team1-persistent, team1-hilbert, davidmoten
+	 */
+	static TreeAdapter create(String impl) {
+		switch (impl) {
+		case "team1":
+		case "team1-str":
+			return new Team1(new RTreeImpl());
+		case "team1-rstar":
+			return new Team1(RTreeImpl.builder().insertionMode(RTreeImpl.InsertionMode.RSTAR).build());
+		case "team1-flat":
+			return new Team1(new FlatRTree());
+		case "team1-persistent":
+			return new Team1(new PersistentRTree());
+		case "team1-hilbert":
+			return new Team1(new HilbertRTree(
+					new Rectangle(new Point(0, 0), new Point(Datasets.EXTENT, Datasets.EXTENT))));
+		case "davidmoten":
+			return new DavidMoten();
+		default:
+			throw new IllegalArgumentException("알 수 없는 구현: " + impl);
+		}
+	}
+
+	/**
+	 * data의 모든 점을 add로 삽입한 트리를 만듭니다. team1-str은 STR bulkLoad로 만듭니다.
+	 */
+	static TreeAdapter load(String impl, double[][] data) {
+		if ("team1-str".equals(impl)) {
+			List<Point> points = new ArrayList<>(data[0].length);
+			for (int i = 0; i < data[0].length; i++) {
+				points.add(new Point(data[0][i], data[1][i]));
+			}
+			return new Team1(RTreeImpl.bulkLoad(points));
+		}
+		TreeAdapter tree = create(impl);
+		for (int i = 0; i < data[0].length; i++) {
+			tree.add(data[0][i], data[1][i]);
+		}
+		return tree;
+	}
+
+	final class Team1 implements TreeAdapter {
+		private final org.dfpl.dbp.rtree.team1.RTree tree;
+
+		Team1(org.dfpl.dbp.rtree.team1.RTree tree) {
+			this.tree = tree;
+		}
+
+		@Override
+		public void add(double x, double y) {
+			tree.add(new Point(x, y));
+		}
+
+		@Override
+		public void delete(double x, double y) {
+			tree.delete(new Point(x, y));
+		}
+
+		@Override
+		public void search(double minX, double minY, double maxX, double maxY, Blackhole bh) {
+			Iterator<Point> it = tree.search(new Rectangle(new Point(minX, minY), new Point(maxX, maxY)));
+			while (it.hasNext()) {
+				bh.consume(it.next());
+			}
+		}
+
+		@Override
+		public void nearest(double x, double y, int k, Blackhole bh) {
+			Iterator<Point> it = tree.nearest(new Point(x, y), k);
+			while (it.hasNext()) {
+				bh.consume(it.next());
+			}
+		}
+	}
+
+	final class DavidMoten implements TreeAdapter {
+		private static final Object VALUE = Boolean.TRUE;
+		private RTree<Object, com.github.davidmoten.rtree.geometry.Point> tree = RTree.create();
+
+		@Override
+		public void add(double x, double y) {
+			tree = tree.add(VALUE, Geometries.point(x, y));
+		}
+
+		@Override
+		public void delete(double x, double y) {
+			tree = tree.delete(VALUE, Geometries.point(x, y));
+		}
+
+		@Override
+		public void search(double minX, double minY, double maxX, double maxY, Blackhole bh) {
+			tree.search(Geometries.rectangle(minX, minY, maxX, maxY)).forEach(bh::consume);
+		}
+
+		@Override
+		public void nearest(double x, double y, int k, Blackhole bh) {
+			tree.nearest(Geometries.point(x, y), Double.MAX_VALUE, k).forEach(bh::consume);
+		}
+	}
+}
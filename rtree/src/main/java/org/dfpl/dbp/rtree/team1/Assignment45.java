@@ -18,20 +18,24 @@ public class Assignment45 {
 		// Task1: 4-way R-Tree의 생성 (5점)
 		// 요건: point가 추가될 때마다 Java Swing 혹은 Java Fx 등의 GUI에 추가된 점과 함께
 		// 점에 의해 변형된 계층적 Bounding Box들이 표시되어야 함
-		RTree rTree = new RTreeImpl();
+		RTreeImpl rTree = new RTreeImpl();
+		RTreeVisualizer visualizer = new RTreeVisualizer(rTree);
 		for (Point point : pointList) {
 			rTree.add(point);
 		}
 
 		// Task234는 Task1이 성공하지 않으면 평가하지 않는다.
+		visualizer.announce("Task 1 Complete", "Task 1 complete\n\nPress OK to start Range Search...");
 
 		// 과제2: 4-way R-Tree의 탐색 (5점)
 		// 요건: 탐색 박스 (0,0,100,100)을 보여주고 내부의 포인트가 드러나게 함 (부분 2.5점)
 		// 요건: 검색 범위와 겹치지 않는 영역이 가지치기 되는 점을 부각할 수 있어야 함 (부분 2.5점)
 		Iterator<Point> iterator = rTree.search(new Rectangle(new Point(0, 0), new Point(100, 100)));
+		int found = 0;
 		while (iterator.hasNext()) {
 			Point next = iterator.next();
 			System.out.println(next);
+			found++;
 //		 	(45,15)
 //	     	(35,20)
 //	        (25,25)
@@ -44,6 +48,8 @@ public class Assignment45 {
 //	        (95,90)
 //	        (100,65)
 		}
+		visualizer.announce("Task 2 Complete",
+				"Task 2 complete\n\nFound " + found + " points\n\nPress OK to start KNN search...");
 
 		// 과제3: 4-way R-Tree의 KNN 검색 (5점)
 		// 요건: 탐색된 점들을 보여줄 수 있다 (부분 2.5점)
@@ -59,6 +65,7 @@ public class Assignment45 {
 //		       	(100,65) : 32.02
 //		       	(120,100) : 47.43
 		}
+		visualizer.announce("Task 3 Complete", "Task 3 complete\n\nPress OK to start deletion...");
 
 		// 과제4: 4-way R-Tree의 노드 제거 (5점)
 		// 요건: point가 제거될 때마다 변형된 계층적 Bounding Box들이 표시되어야 함
@@ -73,5 +80,6 @@ public class Assignment45 {
 			rTree.delete(point);
 		}
 		System.out.println(rTree.isEmpty());
+		visualizer.announce("Task 4 complete", "Task 4 complete");
 	}
 }
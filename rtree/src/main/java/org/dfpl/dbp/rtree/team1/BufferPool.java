@@ -0,0 +1,213 @@
+package org.dfpl.dbp.rtree.team1;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 다른 PageStore 앞에 두는 크기 제한 페이지 캐시입니다.
+ *
+ * 읽은 페이지를 힙 버퍼(프레임)에 두고 다음 pin부터는 저장소를 거치지 않습니다. 프레임 수는 memoryBytes / pageSize로
+ * 정해지며, 자리가 없으면 가장 오래 쓰이지 않은 프레임(LRU)을 내보냅니다. pin 중인 프레임과 retain으로 표시된
+ * 프레임(PagedRTree의 헤더, 루트, 내부 노드)은 내보내지 않습니다. retain 표시는 전체 프레임의 1/4까지만 받고 그 뒤의
+ * 표시는 무시하므로, 상위 레벨이 한도보다 커져도 leaf가 쓸 자리는 남습니다. 모든 프레임이 pin 또는 retain 상태이면
+ * 잠시 한도를 넘겨 읽고, 다음 읽기에서 내보낼 수 있는 프레임을 여러 개 내보내 한도 안으로 다시 줄입니다.
+ *
+ * unpin(id, true)로 바뀐 프레임은 내보낼 때 또는 flush/close 때 저장소에 씁니다(write-back). 적중, 실패, 내보낸 횟수,
+ * 다시 쓴 횟수를 기록합니다. 스레드 안전하지 않습니다.
+ */
+public class BufferPool implements PageStore {
+
+	// 한 번의 트리 연산이 동시에 pin하는 페이지(경로 길이)보다 넉넉한 최소 프레임 수
+	static final int MIN_FRAMES = 16;
+
+	// Frame 클래스. 캐시된 페이지 하나.
+	private static final class Frame {
+		final ByteBuffer buffer;
+		int pins;
+		boolean dirty;
+
+		Frame(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+	}
+
+	private final PageStore backing;
+	private final int pageSize;
+	private final int capacity;
+	private final int retainCapacity;
+	// 접근 순서 LinkedHashMap. 맨 앞이 가장 오래 쓰이지 않은 프레임.
+	private final LinkedHashMap<Integer, Frame> frames;
+	private final Set<Integer> retained = new HashSet<>();
+
+	private long hits;
+	private long misses;
+	private long evictions;
+	private long writeBacks;
+
+	/**
+	 * @param backing     실제 페이지 저장소. 풀이 닫힐 때 함께 닫힘
+	 * @param memoryBytes 프레임에 쓸 메모리 한도 (바이트). 페이지 MIN_FRAMES개 이상
+	 */
+	public BufferPool(PageStore backing, long memoryBytes) {
+		this.backing = backing;
+		this.pageSize = backing.pageSize();
+		long frameCount = memoryBytes / pageSize;
+		if (frameCount < MIN_FRAMES) {
+			throw new IllegalArgumentException(
+					"메모리 한도가 너무 작습니다: " + memoryBytes + " (페이지 " + MIN_FRAMES + "개 이상 필요)");
+		}
+		this.capacity = (int) Math.min(frameCount, Integer.MAX_VALUE - 8);
+		this.retainCapacity = capacity / 4;
+		this.frames = new LinkedHashMap<>(Math.min(capacity, 1 << 16), 0.75f, true);
+	}
+
+	@Override
+	public int pageSize() {
+		return pageSize;
+	}
+
+	@Override
+	public int pageCount() {
+		return backing.pageCount();
+	}
+
+	@Override
+	public ByteBuffer pin(int id) throws IOException {
+		Frame frame = frames.get(id);
+		if (frame != null) {
+			hits++;
+		} else {
+			misses++;
+			frame = new Frame(freeBuffer());
+			backing.read(id, frame.buffer);
+			frames.put(id, frame);
+		}
+		frame.pins++;
+		return frame.buffer;
+	}
+
+	@Override
+	public void unpin(int id, boolean dirty) throws IOException {
+		Frame frame = frames.get(id);
+		if (frame == null || frame.pins == 0) {
+			throw new IllegalStateException("pin되지 않은 페이지입니다: " + id);
+		}
+		frame.pins--;
+		frame.dirty |= dirty;
+	}
+
+	@Override
+	public void retain(int id, boolean retain) {
+		if (!retain) {
+			retained.remove(id);
+		} else if (retained.size() < retainCapacity) {
+			retained.add(id);
+		}
+	}
+
+	@Override
+	public int extend() throws IOException {
+		int id = backing.extend();
+		// 저장소의 새 페이지도 0으로 채워져 있으므로 깨끗한 프레임으로 둠
+		ByteBuffer buffer = freeBuffer();
+		Arrays.fill(buffer.array(), (byte) 0);
+		frames.put(id, new Frame(buffer));
+		return id;
+	}
+
+	@Override
+	public void flush() throws IOException {
+		for (Map.Entry<Integer, Frame> e : frames.entrySet()) {
+			if (e.getValue().dirty) {
+				writeBack(e.getKey(), e.getValue());
+			}
+		}
+		backing.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			flush();
+		} finally {
+			frames.clear();
+			retained.clear();
+			backing.close();
+		}
+	}
+
+	// capacity 메서드. 메모리 한도로 정해진 프레임 수.
+	public int capacity() {
+		return capacity;
+	}
+
+	// residentPages 메서드. 지금 캐시에 있는 페이지 수.
+	public int residentPages() {
+		return frames.size();
+	}
+
+	// retainedPages 메서드. retain으로 표시되어 내보내지 않는 페이지 수.
+	public int retainedPages() {
+		return retained.size();
+	}
+
+	public long hits() {
+		return hits;
+	}
+
+	public long misses() {
+		return misses;
+	}
+
+	public long evictions() {
+		return evictions;
+	}
+
+	// writeBacks 메서드. 바뀐 프레임을 저장소에 쓴 횟수.
+	public long writeBacks() {
+		return writeBacks;
+	}
+
+	// resetStats 메서드. 적중/실패/내보냄/다시 쓴 횟수를 0으로 되돌림.
+	public void resetStats() {
+		hits = 0;
+		misses = 0;
+		evictions = 0;
+		writeBacks = 0;
+	}
+
+	// freeBuffer 헬퍼 메서드. 새 프레임에 쓸 버퍼. 한도가 찼으면 새 프레임이 들어갈 자리가 생길 때까지 LRU 프레임을
+	// 내보내고 처음 내보낸 버퍼를 다시 씀. 모두 pin 또는 retain 상태여서 한도를 넘겼다면 여기서 다시 한도 안으로 줄임.
+	private ByteBuffer freeBuffer() throws IOException {
+		ByteBuffer reuse = null;
+		Iterator<Map.Entry<Integer, Frame>> it = frames.entrySet().iterator();
+		while (frames.size() >= capacity && it.hasNext()) {
+			Map.Entry<Integer, Frame> e = it.next();
+			Frame victim = e.getValue();
+			if (victim.pins > 0 || retained.contains(e.getKey())) {
+				continue;
+			}
+			if (victim.dirty) {
+				writeBack(e.getKey(), victim);
+			}
+			it.remove();
+			evictions++;
+			if (reuse == null) {
+				reuse = victim.buffer;
+			}
+		}
+		return reuse != null ? reuse : ByteBuffer.allocate(pageSize);
+	}
+
+	private void writeBack(int id, Frame frame) throws IOException {
+		backing.write(id, frame.buffer);
+		frame.dirty = false;
+		writeBacks++;
+	}
+}
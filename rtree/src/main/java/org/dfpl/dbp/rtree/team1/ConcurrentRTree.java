@@ -0,0 +1,200 @@
+package org.dfpl.dbp.rtree.team1;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 여러 스레드가 함께 사용할 수 있는 RTreeImpl 래퍼입니다.
+ *
+ * search와 nearest는 읽기 잠금을 잡고 동시에 실행되며, add와 delete는 쓰기 잠금으로 하나씩 실행됩니다.
+ * RTreeImpl의 search iterator는 lazy이므로 잠금 밖으로 내보낼 수 없어, 여기서는 읽기 잠금 안에서 결과를 모두
+ * 모아 반환합니다. 결과를 일부만 쓰는 호출자는 count처럼 잠금 안에서 끝나는 메서드를 사용하는 편이 좋습니다.
+ *
+ * 잠금은 비공정 ReentrantReadWriteLock을 사용합니다. 대기열 맨 앞에 쓰기 스레드가 있으면 새 읽기 스레드가 줄을
+ * 서므로, 읽기가 끊임없이 겹쳐도 쓰기가 굶지 않습니다. (StampedLock은 읽기가 대기 중인 쓰기를 앞지를 수 있어
+ * 읽기 8개, 쓰기 1개 벤치마크에서 쓰기가 잠금을 얻지 못했습니다.) 순회 중 노드 리스트가 바뀌면 안 되므로 낙관적
+ * 읽기는 사용하지 않습니다. 잠금 획득 횟수, 경합으로 기다린 횟수, 대기 시간을 LongAdder로 기록하며 getXxx
+ * 메서드로 읽을 수 있습니다.
+ *
+ * 감싼 RTreeImpl에는 옵저버를 등록하지 않아야 하고, 래퍼를 거치지 않고 직접 수정해서도 안 됩니다.
+ */
+public class ConcurrentRTree implements RTree {
+
+	private final RTreeImpl tree;
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private final LongAdder reads = new LongAdder();
+	private final LongAdder writes = new LongAdder();
+	private final LongAdder contendedReads = new LongAdder();
+	private final LongAdder contendedWrites = new LongAdder();
+	private final LongAdder readWaitNanos = new LongAdder();
+	private final LongAdder writeWaitNanos = new LongAdder();
+
+	/**
+	 * 4-way RTreeImpl을 감싸는 트리를 생성합니다.
+	 */
+	public ConcurrentRTree() {
+		this(new RTreeImpl());
+	}
+
+	/**
+	 * @param tree 감쌀 트리 (예: RTreeImpl.builder()로 용량을 지정한 트리)
+	 */
+	public ConcurrentRTree(RTreeImpl tree) {
+		if (tree == null) {
+			throw new IllegalArgumentException("tree가 null입니다.");
+		}
+		this.tree = tree;
+	}
+
+	@Override
+	public void add(Point point) {
+		writeLock();
+		try {
+			tree.add(point);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public Iterator<Point> search(Rectangle rectangle) {
+		readLock();
+		try {
+			List<Point> result = new ArrayList<>();
+			tree.search(rectangle).forEachRemaining(result::add);
+			return result.iterator();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * rectangle 범위 안의 Point 개수를 반환합니다. RTreeImpl.count를 사용하므로 범위에 완전히 들어가는 서브트리는
+	 * 내려가지 않고 점 개수만 더합니다.
+	 *
+	 * @param rectangle
+	 * @return 범위 안의 Point 수
+	 */
+	public long count(Rectangle rectangle) {
+		readLock();
+		try {
+			return tree.count(rectangle);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public Iterator<Point> nearest(Point source, int maxCount) {
+		readLock();
+		try {
+			return tree.nearest(source, maxCount);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public void delete(Point point) {
+		writeLock();
+		try {
+			tree.delete(point);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public boolean isEmpty() {
+		readLock();
+		try {
+			return tree.isEmpty();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	// readLock 헬퍼 메서드. 요청 시점에 쓰기 잠금이 잡혀 있거나 기다리는 스레드가 있으면 경합으로 세고 기다린 시간을 기록.
+	// ReadLock.tryLock은 대기 중인 쓰기 스레드를 앞지르므로 사용하지 않음.
+	private void readLock() {
+		reads.increment();
+		if (!lock.isWriteLocked() && !lock.hasQueuedThreads()) {
+			lock.readLock().lock();
+			return;
+		}
+		contendedReads.increment();
+		long start = System.nanoTime();
+		lock.readLock().lock();
+		readWaitNanos.add(System.nanoTime() - start);
+	}
+
+	// writeLock 헬퍼 메서드. 곧바로 얻지 못하면 경합으로 세고 기다린 시간을 기록.
+	private void writeLock() {
+		writes.increment();
+		if (lock.writeLock().tryLock()) {
+			return;
+		}
+		contendedWrites.increment();
+		long start = System.nanoTime();
+		lock.writeLock().lock();
+		writeWaitNanos.add(System.nanoTime() - start);
+	}
+
+	/**
+	 * @return 읽기 잠금(search, count, nearest, isEmpty) 획득 횟수
+	 */
+	public long getReadCount() {
+		return reads.sum();
+	}
+
+	/**
+	 * @return 쓰기 잠금(add, delete) 획득 횟수
+	 */
+	public long getWriteCount() {
+		return writes.sum();
+	}
+
+	/**
+	 * @return 쓰기 잠금이 잡혀 있거나 쓰기가 대기 중이어서 읽기 잠금을 기다린 횟수
+	 */
+	public long getContendedReadCount() {
+		return contendedReads.sum();
+	}
+
+	/**
+	 * @return 쓰기 잠금을 곧바로 얻지 못하고 기다린 횟수
+	 */
+	public long getContendedWriteCount() {
+		return contendedWrites.sum();
+	}
+
+	/**
+	 * @return 읽기 잠금을 기다린 시간의 합 (나노초)
+	 */
+	public long getReadWaitNanos() {
+		return readWaitNanos.sum();
+	}
+
+	/**
+	 * @return 쓰기 잠금을 기다린 시간의 합 (나노초)
+	 */
+	public long getWriteWaitNanos() {
+		return writeWaitNanos.sum();
+	}
+
+	/**
+	 * 잠금 통계를 0으로 되돌립니다.
+	 */
+	public void resetStats() {
+		reads.reset();
+		writes.reset();
+		contendedReads.reset();
+		contendedWrites.reset();
+		readWaitNanos.reset();
+		writeWaitNanos.reset();
+	}
+}
@@ -0,0 +1,97 @@
+package org.dfpl.dbp.rtree.team1;
+
+import java.util.Arrays;
+
+/**
+ * double 키와 값을 두 배열에 나눠 저장하는 최소 힙입니다.
+ * PriorityQueue와 달리 키를 박싱하거나 항목마다 래퍼 객체를 만들지 않습니다.
+ * KNN 검색에서 거리의 제곱을 키로, 노드나 Point를 값으로 사용합니다.
+ */
+final class DistanceHeap<T> {
+
+	private double[] keys;
+	private Object[] values;
+	private int size;
+
+	DistanceHeap(int capacity) {
+		keys = new double[Math.max(1, capacity)];
+		values = new Object[keys.length];
+	}
+
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	int size() {
+		return size;
+	}
+
+	void add(double key, T value) {
+		if (size == keys.length) {
+			keys = Arrays.copyOf(keys, size * 2);
+			values = Arrays.copyOf(values, size * 2);
+		}
+		// sift up
+		int i = size++;
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (keys[parent] <= key) {
+				break;
+			}
+			keys[i] = keys[parent];
+			values[i] = values[parent];
+			i = parent;
+		}
+		keys[i] = key;
+		values[i] = value;
+	}
+
+	// peekKey 메서드. 가장 작은 키. 비어있으면 +inf.
+	double peekKey() {
+		return size == 0 ? Double.POSITIVE_INFINITY : keys[0];
+	}
+
+	@SuppressWarnings("unchecked")
+	T peek() {
+		return size == 0 ? null : (T) values[0];
+	}
+
+	// poll 메서드. 가장 작은 키의 값을 꺼냄. 키는 꺼내기 전에 peekKey로 읽음.
+	@SuppressWarnings("unchecked")
+	T poll() {
+		if (size == 0) {
+			return null;
+		}
+		T top = (T) values[0];
+		size--;
+		double key = keys[size];
+		Object value = values[size];
+		values[size] = null;
+		// sift down
+		int i = 0;
+		int half = size >>> 1;
+		while (i < half) {
+			int child = 2 * i + 1;
+			if (child + 1 < size && keys[child + 1] < keys[child]) {
+				child++;
+			}
+			if (key <= keys[child]) {
+				break;
+			}
+			keys[i] = keys[child];
+			values[i] = values[child];
+			i = child;
+		}
+		if (size > 0) {
+			keys[i] = key;
+			values[i] = value;
+		}
+		return top;
+	}
+
+	// valueAt 메서드. 힙 배열 순서(정렬 안 됨)로 i번째 값. 남은 항목을 훑어볼 때 사용.
+	@SuppressWarnings("unchecked")
+	T valueAt(int i) {
+		return (T) values[i];
+	}
+}
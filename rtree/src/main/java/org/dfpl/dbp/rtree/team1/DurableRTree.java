@@ -0,0 +1,392 @@
+package org.dfpl.dbp.rtree.team1;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * add/delete를 변경 기록(write-ahead log)에 남겨 프로세스가 죽어도 잃지 않는 RTreeImpl 래퍼입니다.
+ *
+ * 디렉터리에는 마지막 체크포인트의 스냅샷(snapshot.bin, RTreeImpl.save 형식)과 그 뒤의 변경 기록(wal-세대.log)이
+ * 있습니다. 열 때 스냅샷을 load하고 기록을 세대 순서대로 다시 적용합니다. add/delete는 같은 점에 대해 마지막
+ * 변경만 결과를 정하므로, 체크포인트 도중 멈춰 이미 스냅샷에 들어간 기록을 다시 적용해도 결과가 같습니다.
+ *
+ * 변경은 쓰기 잠금 안에서 트리에 적용하고 기록 버퍼에 덧붙인 뒤, 잠금을 놓고 나서 SyncPolicy에 따라 fsync를
+ * 기다립니다. search와 nearest는 읽기 잠금만 잡으며 기록 파일에 접근하지 않습니다. 기록이 checkpointBytes를
+ * 넘으면 그 변경을 한 스레드가 체크포인트를 만듭니다. 새 세대의 기록 파일로 바꾼 뒤 읽기 잠금으로 낮춰 스냅샷을
+ * 쓰므로, 체크포인트 동안 검색은 계속되고 변경만 기다립니다.
+ *
+ * 트리 상태는 fsync 전에 다른 스레드의 검색에 보일 수 있습니다. 감싼 RTreeImpl에는 옵저버를 등록하지 않아야 합니다.
+ */
+public class DurableRTree implements RTree, Closeable {
+
+	// SyncPolicy 열거형. 변경을 저장 장치에 내려쓰는 시점.
+	//  - EVERY_OP: add/delete가 자기 기록의 fsync를 기다린 뒤 반환. 동시에 기다리는 변경은 fsync 한 번으로 함께 기록됨.
+	//  - INTERVAL: 배경 스레드가 syncIntervalMillis마다 fsync. 그 사이의 변경은 잃을 수 있음.
+	//  - NONE: fsync 하지 않음. 버퍼가 차거나 닫을 때 파일에 쓰고, 내려쓰기는 OS가 결정.
+	public enum SyncPolicy {
+		EVERY_OP, INTERVAL, NONE
+	}
+
+	static final String SNAPSHOT_FILE = "snapshot.bin";
+	private static final String SNAPSHOT_TEMP_FILE = "snapshot.tmp";
+	private static final String LOG_PREFIX = "wal-";
+	private static final String LOG_SUFFIX = ".log";
+
+	static final long DEFAULT_SYNC_INTERVAL_MILLIS = 10;
+	static final long DEFAULT_CHECKPOINT_BYTES = 64L << 20;
+
+	private final Path dir;
+	private final RTreeImpl tree;
+	private final SyncPolicy syncPolicy;
+	private final long checkpointBytes;
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	private final ScheduledExecutorService syncer;
+
+	// 현재 세대의 기록. 쓰기 잠금 안에서만 바뀜.
+	private WriteAheadLog log;
+	private long generation;
+	private long checkpoints;
+	private long replayed;
+
+	// Builder 클래스. 디렉터리와 동기화 정책, 체크포인트 주기를 지정해 트리를 엶.
+	public static class Builder {
+		private final Path dir;
+		private RTreeImpl.Builder tree = RTreeImpl.builder();
+		private SyncPolicy syncPolicy = SyncPolicy.EVERY_OP;
+		private long syncIntervalMillis = DEFAULT_SYNC_INTERVAL_MILLIS;
+		private long checkpointBytes = DEFAULT_CHECKPOINT_BYTES;
+
+		private Builder(Path dir) {
+			this.dir = dir;
+		}
+
+		// 스냅샷이 없을 때 새로 만들 트리의 옵션. 스냅샷이 있으면 스냅샷의 옵션을 사용.
+		public Builder tree(RTreeImpl.Builder tree) {
+			if (tree == null) {
+				throw new IllegalArgumentException("tree가 null입니다.");
+			}
+			this.tree = tree;
+			return this;
+		}
+
+		// 동기화 정책. 기본값은 EVERY_OP.
+		public Builder syncPolicy(SyncPolicy policy) {
+			if (policy == null) {
+				throw new IllegalArgumentException("syncPolicy가 null입니다.");
+			}
+			this.syncPolicy = policy;
+			return this;
+		}
+
+		// INTERVAL 정책의 fsync 주기.
+		public Builder syncIntervalMillis(long millis) {
+			if (millis < 1) {
+				throw new IllegalArgumentException("syncIntervalMillis는 1 이상이어야 합니다: " + millis);
+			}
+			this.syncIntervalMillis = millis;
+			return this;
+		}
+
+		// 기록이 이 크기를 넘으면 체크포인트를 만듦. 작을수록 복구가 빠르지만 스냅샷을 자주 씀.
+		public Builder checkpointBytes(long bytes) {
+			if (bytes < WriteAheadLog.RECORD_BYTES) {
+				throw new IllegalArgumentException("checkpointBytes가 너무 작습니다: " + bytes);
+			}
+			this.checkpointBytes = bytes;
+			return this;
+		}
+
+		// open 메서드. 디렉터리를 만들거나, 있으면 스냅샷과 기록으로 트리를 복구.
+		public DurableRTree open() throws IOException {
+			return new DurableRTree(this);
+		}
+	}
+
+	// builder 메서드. dir 디렉터리를 사용하는 트리의 Builder를 반환.
+	public static Builder builder(Path dir) {
+		if (dir == null) {
+			throw new IllegalArgumentException("dir이 null입니다.");
+		}
+		return new Builder(dir);
+	}
+
+	// open 메서드. 기본 옵션(4-way 트리, EVERY_OP)으로 dir의 트리를 엶.
+	public static DurableRTree open(Path dir) throws IOException {
+		return builder(dir).open();
+	}
+
+	private DurableRTree(Builder builder) throws IOException {
+		this.dir = builder.dir;
+		this.syncPolicy = builder.syncPolicy;
+		this.checkpointBytes = builder.checkpointBytes;
+		Files.createDirectories(dir);
+
+		Path snapshot = dir.resolve(SNAPSHOT_FILE);
+		this.tree = Files.exists(snapshot) ? RTreeImpl.load(snapshot) : builder.tree.build();
+		for (Path file : logFiles()) {
+			replayed += WriteAheadLog.replay(file, tree);
+			generation = Math.max(generation, generationOf(file));
+		}
+		// 끝이 잘렸을 수 있는 기존 파일에 덧붙이지 않고 새 세대를 시작
+		generation++;
+		this.log = new WriteAheadLog(logFile(generation));
+
+		if (syncPolicy == SyncPolicy.INTERVAL) {
+			this.syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread t = new Thread(r, "DurableRTree-sync");
+				t.setDaemon(true);
+				return t;
+			});
+			syncer.scheduleWithFixedDelay(this::backgroundSync, builder.syncIntervalMillis,
+					builder.syncIntervalMillis, TimeUnit.MILLISECONDS);
+		} else {
+			this.syncer = null;
+		}
+	}
+
+	@Override
+	public void add(Point point) {
+		mutate(WriteAheadLog.ADD, point);
+	}
+
+	@Override
+	public void delete(Point point) {
+		mutate(WriteAheadLog.DELETE, point);
+	}
+
+	@Override
+	public Iterator<Point> search(Rectangle rectangle) {
+		lock.readLock().lock();
+		try {
+			List<Point> result = new ArrayList<>();
+			tree.search(rectangle).forEachRemaining(result::add);
+			return result.iterator();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public Iterator<Point> nearest(Point source, int maxCount) {
+		lock.readLock().lock();
+		try {
+			List<Point> result = new ArrayList<>();
+			tree.nearest(source, maxCount).forEachRemaining(result::add);
+			return result.iterator();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public boolean isEmpty() {
+		lock.readLock().lock();
+		try {
+			return tree.isEmpty();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * 스냅샷을 만들고 그 전의 기록 파일을 지웁니다. 스냅샷을 쓰는 동안 검색은 계속되고 변경은 기다립니다.
+	 */
+	public void checkpoint() throws IOException {
+		checkpoint(0);
+	}
+
+	// checkpoint 헬퍼 메서드. 쓰기 잠금을 잡은 뒤 기록이 minBytes 이상일 때만 체크포인트를 만듦.
+	private void checkpoint(long minBytes) throws IOException {
+		lock.writeLock().lock();
+		boolean downgraded = false;
+		try {
+			if (log.bytes() < minBytes) {
+				return;
+			}
+			// 지금까지의 기록을 닫고 새 세대로 바꾼 뒤, 읽기 잠금으로 낮춰 스냅샷을 씀
+			log.syncAll();
+			log.close();
+			long covered = generation;
+			generation++;
+			log = new WriteAheadLog(logFile(generation));
+			lock.readLock().lock();
+			lock.writeLock().unlock();
+			downgraded = true;
+
+			Path temp = dir.resolve(SNAPSHOT_TEMP_FILE);
+			tree.save(temp);
+			try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+				channel.force(true);
+			}
+			Files.move(temp, dir.resolve(SNAPSHOT_FILE), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+			// 이름 바꾸기가 디스크에 남기 전에 기록 파일 삭제만 남으면 이전 스냅샷 이후의 변경을 모두 잃으므로 먼저 fsync
+			syncDirectory(dir);
+			for (Path file : logFiles()) {
+				if (generationOf(file) <= covered) {
+					Files.delete(file);
+				}
+			}
+			synchronized (this) {
+				checkpoints++;
+			}
+		} finally {
+			if (downgraded) {
+				lock.readLock().unlock();
+			} else {
+				lock.writeLock().unlock();
+			}
+		}
+	}
+
+	// close 메서드. 배경 동기화를 멈추고 남은 기록을 모두 fsync한 뒤 파일을 닫음. 체크포인트는 만들지 않음.
+	@Override
+	public void close() throws IOException {
+		if (syncer != null) {
+			// shutdownNow의 인터럽트는 fsync 중인 FileChannel을 닫아버리므로 끝나기를 기다림
+			syncer.shutdown();
+			try {
+				syncer.awaitTermination(1, TimeUnit.MINUTES);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		lock.writeLock().lock();
+		try {
+			log.syncAll();
+			log.close();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	// replayedRecords 메서드. 열 때 다시 적용한 기록 수.
+	public long replayedRecords() {
+		return replayed;
+	}
+
+	// syncCount 메서드. 현재 기록 파일에서 실행한 fsync 횟수. 변경 수보다 적으면 group commit이 일어난 것.
+	public long syncCount() {
+		lock.readLock().lock();
+		try {
+			return log.syncCount();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public synchronized long checkpointCount() {
+		return checkpoints;
+	}
+
+	// mutate 헬퍼 메서드. 쓰기 잠금 안에서 트리에 적용하고 기록에 덧붙인 뒤, 잠금 밖에서 정책에 따라 기록을 기다림.
+	private void mutate(byte op, Point point) {
+		WriteAheadLog current;
+		long lsn;
+		boolean checkpointDue;
+		lock.writeLock().lock();
+		try {
+			current = log;
+			lsn = current.append(op, point.getX(), point.getY());
+			if (op == WriteAheadLog.ADD) {
+				tree.add(point);
+			} else {
+				tree.delete(point);
+			}
+			checkpointDue = current.bytes() >= checkpointBytes;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			lock.writeLock().unlock();
+		}
+		try {
+			if (syncPolicy == SyncPolicy.EVERY_OP) {
+				current.sync(lsn);
+			}
+			if (checkpointDue) {
+				checkpointIfDue();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	// checkpointIfDue 헬퍼 메서드. 다른 스레드가 먼저 체크포인트를 만들었으면 건너뜀.
+	// 여러 변경이 함께 한도를 넘을 수 있으므로 읽기 잠금으로 미리 본 뒤 checkpoint가 쓰기 잠금 안에서 다시 확인함.
+	private void checkpointIfDue() throws IOException {
+		lock.readLock().lock();
+		boolean due;
+		try {
+			due = log.bytes() >= checkpointBytes;
+		} finally {
+			lock.readLock().unlock();
+		}
+		if (due) {
+			checkpoint(checkpointBytes);
+		}
+	}
+
+	// syncDirectory 헬퍼 메서드. 디렉터리 항목(파일 이름 바꾸기, 삭제)을 디스크에 기록.
+	// Windows는 디렉터리를 FileChannel로 열 수 없고 NTFS가 메타데이터를 저널에 남기므로 건너뜀.
+	private static void syncDirectory(Path directory) throws IOException {
+		if (System.getProperty("os.name", "").startsWith("Windows")) {
+			return;
+		}
+		try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+			channel.force(true);
+		}
+	}
+
+	// backgroundSync 헬퍼 메서드. INTERVAL 정책의 배경 스레드에서 실행.
+	// fsync는 잠금 밖에서 하므로 변경을 막지 않음. 그 사이 체크포인트가 기록을 바꿨다면 이미 모두 기록된 뒤라 바로 끝남.
+	private void backgroundSync() {
+		WriteAheadLog current;
+		lock.readLock().lock();
+		try {
+			current = log;
+		} finally {
+			lock.readLock().unlock();
+		}
+		try {
+			current.syncAll();
+		} catch (IOException e) {
+			// 다음 주기에 다시 시도. close가 같은 기록을 fsync하며 그때 오류가 호출자에게 전달됨
+		}
+	}
+
+	// logFiles 헬퍼 메서드. 디렉터리의 기록 파일을 세대 순서대로 반환.
+	private List<Path> logFiles() throws IOException {
+		List<Path> files = new ArrayList<>();
+		try (Stream<Path> list = Files.list(dir)) {
+			list.filter(p -> {
+				String name = p.getFileName().toString();
+				return name.startsWith(LOG_PREFIX) && name.endsWith(LOG_SUFFIX);
+			}).forEach(files::add);
+		}
+		files.sort((a, b) -> Long.compare(generationOf(a), generationOf(b)));
+		return files;
+	}
+
+	private Path logFile(long generation) {
+		return dir.resolve(LOG_PREFIX + generation + LOG_SUFFIX);
+	}
+
+	private static long generationOf(Path file) {
+		String name = file.getFileName().toString();
+		return Long.parseLong(name.substring(LOG_PREFIX.length(), name.length() - LOG_SUFFIX.length()));
+	}
+}
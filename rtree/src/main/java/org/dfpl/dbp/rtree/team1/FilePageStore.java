@@ -0,0 +1,178 @@
+package org.dfpl.dbp.rtree.team1;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * FileChannel의 위치 지정 read/write로 페이지를 읽고 쓰는 PageStore 입니다. 캐시가 없습니다.
+ *
+ * pin은 페이지를 새 힙 버퍼로 읽고, 마지막 unpin이 바뀐 페이지를 파일에 씁니다. 같은 페이지를 여러 번 pin하면 같은
+ * 버퍼를 돌려줍니다. 반복해서 읽는 페이지를 메모리에 두려면 BufferPool로 감쌉니다.
+ */
+public class FilePageStore implements PageStore {
+
+	// Frame 클래스. pin된 페이지 하나의 버퍼와 pin 횟수.
+	private static final class Frame {
+		final ByteBuffer buffer;
+		int pins;
+		boolean dirty;
+
+		Frame(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+	}
+
+	private final FileChannel channel;
+	private final int pageSize;
+	private final Map<Integer, Frame> pinned = new HashMap<>();
+	private int pageCount;
+	private long reads;
+	private long writes;
+
+	/**
+	 * file을 열거나 만듭니다. 기존 파일은 크기가 pageSize의 배수여야 합니다.
+	 *
+	 * @param file     페이지 파일
+	 * @param pageSize 페이지 크기 (바이트, 8의 배수, 64 이상)
+	 */
+	public FilePageStore(Path file, int pageSize) throws IOException {
+		if (pageSize < 64 || pageSize % 8 != 0) {
+			throw new IllegalArgumentException("페이지 크기가 잘못되었습니다: " + pageSize);
+		}
+		this.pageSize = pageSize;
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		long bytes = channel.size();
+		if (bytes % pageSize != 0 || bytes / pageSize > Integer.MAX_VALUE) {
+			channel.close();
+			throw new IOException("파일 크기(" + bytes + ")가 페이지 크기(" + pageSize + ")와 맞지 않습니다: " + file);
+		}
+		this.pageCount = (int) (bytes / pageSize);
+	}
+
+	@Override
+	public int pageSize() {
+		return pageSize;
+	}
+
+	@Override
+	public int pageCount() {
+		return pageCount;
+	}
+
+	@Override
+	public ByteBuffer pin(int id) throws IOException {
+		checkPage(id);
+		Frame frame = pinned.get(id);
+		if (frame == null) {
+			ByteBuffer buffer = ByteBuffer.allocate(pageSize);
+			readPage(id, buffer);
+			frame = new Frame(buffer);
+			pinned.put(id, frame);
+		}
+		frame.pins++;
+		return frame.buffer;
+	}
+
+	@Override
+	public void unpin(int id, boolean dirty) throws IOException {
+		Frame frame = pinned.get(id);
+		if (frame == null) {
+			throw new IllegalStateException("pin되지 않은 페이지입니다: " + id);
+		}
+		frame.dirty |= dirty;
+		if (--frame.pins > 0) {
+			return;
+		}
+		pinned.remove(id);
+		if (frame.dirty) {
+			writePage(id, frame.buffer);
+		}
+	}
+
+	@Override
+	public void read(int id, ByteBuffer dst) throws IOException {
+		Frame frame = pinned.get(id);
+		if (frame != null) {
+			dst.put(0, frame.buffer, 0, pageSize);
+		} else {
+			checkPage(id);
+			readPage(id, dst);
+		}
+	}
+
+	@Override
+	public void write(int id, ByteBuffer src) throws IOException {
+		Frame frame = pinned.get(id);
+		if (frame != null) {
+			frame.buffer.put(0, src, 0, pageSize);
+			frame.dirty = true;
+		} else {
+			checkPage(id);
+			writePage(id, src);
+		}
+	}
+
+	@Override
+	public int extend() throws IOException {
+		if (pageCount == Integer.MAX_VALUE) {
+			throw new IOException("페이지 번호가 int 범위를 넘습니다.");
+		}
+		writePage(pageCount, ByteBuffer.allocate(pageSize));
+		return pageCount++;
+	}
+
+	@Override
+	public void flush() throws IOException {
+		channel.force(false);
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (channel.isOpen()) {
+			flush();
+			channel.close();
+		}
+	}
+
+	// reads 메서드. 파일에서 페이지를 읽은 횟수.
+	public long reads() {
+		return reads;
+	}
+
+	// writes 메서드. 파일에 페이지를 쓴 횟수 (extend 포함).
+	public long writes() {
+		return writes;
+	}
+
+	private void checkPage(int id) {
+		if (id < 0 || id >= pageCount) {
+			throw new IllegalArgumentException("없는 페이지입니다: " + id + " (pageCount=" + pageCount + ")");
+		}
+	}
+
+	private void readPage(int id, ByteBuffer page) throws IOException {
+		ByteBuffer dst = page.duplicate().clear().limit(pageSize);
+		long position = (long) id * pageSize;
+		while (dst.hasRemaining()) {
+			if (channel.read(dst, position + dst.position()) < 0) {
+				throw new IOException("페이지를 끝까지 읽지 못했습니다: " + id);
+			}
+		}
+		reads++;
+	}
+
+	private void writePage(int id, ByteBuffer page) throws IOException {
+		ByteBuffer src = page.duplicate().clear().limit(pageSize);
+		long position = (long) id * pageSize;
+		while (src.hasRemaining()) {
+			channel.write(src, position + src.position());
+		}
+		writes++;
+	}
+}
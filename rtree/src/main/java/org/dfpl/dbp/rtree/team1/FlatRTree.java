@@ -0,0 +1,426 @@
+package org.dfpl.dbp.rtree.team1;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 노드의 엔트리를 Point/Rectangle 객체 대신 double 배열(structure-of-arrays)에 저장하는 R-Tree 입니다.
+ *
+ * leaf는 점 좌표를 minX/minY 배열에, 내부 노드는 자식 MBR을 minX/minY/maxX/maxY 배열에 슬롯 순서대로 저장하고
+ * count로 사용 중인 슬롯 수를 관리합니다. 범위 검색, 중복 확인, KNN 거리 계산이 모두 배열을 앞에서부터 읽는 선형
+ * 스캔이 되므로 RTreeImpl보다 점당 힙 사용량이 작고 캐시 효율이 좋습니다.
+ *
+ * 좌표만 저장하므로 search/nearest는 결과마다 새 Point를 만들어 반환합니다(삽입한 Point와 다른 인스턴스).
+ * 삭제 후 최소 채움 미만이 된 노드는 Guttman의 CondenseTree처럼 떼어내 엔트리를 다시 삽입합니다.
+ * RTreeObserver는 지원하지 않습니다.
+ */
+public class FlatRTree implements RTree {
+
+	// RTreeImpl.Builder의 용량 가이드에서 범용으로 권장하는 M=32.
+	static final int DEFAULT_MAX_ENTRIES = 32;
+
+	private final int maxEntries;
+	private final int minEntries;
+	private final SplitStrategy splitStrategy;
+
+	private Node root;
+	// 루트의 레벨 (leaf = 0).
+	private int rootLevel;
+	private int size;
+
+	// Node 클래스. 슬롯 i의 경계는 (minX[i], minY[i], maxX[i], maxY[i]).
+	// leaf이면 minX/minY가 점 좌표이고 maxX/maxY/children은 null.
+	static final class Node {
+		final boolean leaf;
+		final double[] minX;
+		final double[] minY;
+		final double[] maxX;
+		final double[] maxY;
+		final Node[] children;
+		Node parent;
+		int count;
+
+		Node(boolean leaf, int capacity) {
+			this.leaf = leaf;
+			this.minX = new double[capacity];
+			this.minY = new double[capacity];
+			this.maxX = leaf ? null : new double[capacity];
+			this.maxY = leaf ? null : new double[capacity];
+			this.children = leaf ? null : new Node[capacity];
+		}
+
+		double slotMaxX(int i) {
+			return leaf ? minX[i] : maxX[i];
+		}
+
+		double slotMaxY(int i) {
+			return leaf ? minY[i] : maxY[i];
+		}
+	}
+
+	/**
+	 * M=32, m=16, quadratic split을 사용하는 트리를 생성합니다.
+	 */
+	public FlatRTree() {
+		this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_ENTRIES / 2, SplitStrategy.QUADRATIC);
+	}
+
+	/**
+	 * @param maxEntries    노드의 최대 엔트리 수 (M >= 2)
+	 * @param minEntries    루트가 아닌 노드의 최소 엔트리 수 (1 <= m <= M/2)
+	 * @param splitStrategy 넘친 노드의 분할 알고리즘
+	 */
+	public FlatRTree(int maxEntries, int minEntries, SplitStrategy splitStrategy) {
+		if (maxEntries < 2 || minEntries < 1 || minEntries > maxEntries / 2) {
+			throw new IllegalArgumentException(
+					"노드 용량이 잘못되었습니다: M=" + maxEntries + ", m=" + minEntries + " (2 <= M, 1 <= m <= M/2)");
+		}
+		if (splitStrategy == null) {
+			throw new IllegalArgumentException("splitStrategy가 null입니다.");
+		}
+		this.maxEntries = maxEntries;
+		this.minEntries = minEntries;
+		this.splitStrategy = splitStrategy;
+		this.root = newNode(true);
+	}
+
+	// getRoot 메서드. 같은 패키지의 읽기 전용 순회(테스트)를 위해 루트를 반환.
+	Node getRoot() {
+		return root;
+	}
+
+	@Override
+	public void add(Point point) {
+		double x = point.getX();
+		double y = point.getY();
+		if (findLeaf(root, x, y) != null) {
+			return;
+		}
+		insertPoint(x, y);
+		size++;
+	}
+
+	@Override
+	public Iterator<Point> search(Rectangle rectangle) {
+		double qMinX = rectangle.getLeftTop().getX();
+		double qMinY = rectangle.getLeftTop().getY();
+		double qMaxX = rectangle.getRightBottom().getX();
+		double qMaxY = rectangle.getRightBottom().getY();
+		List<Point> result = new ArrayList<>();
+		search(root, qMinX, qMinY, qMaxX, qMaxY, result);
+		return result.iterator();
+	}
+
+	@Override
+	public Iterator<Point> nearest(Point source, int maxCount) {
+		double sx = source.getX();
+		double sy = source.getY();
+		List<Point> result = new ArrayList<>();
+		// 힙 값은 Node 또는 leaf의 점(Point). 점은 leaf를 펼칠 때 만들어 넣으므로 결과에 그대로 씀.
+		DistanceHeap<Object> heap = new DistanceHeap<>(64);
+		heap.add(0, root);
+
+		while (!heap.isEmpty() && result.size() < maxCount) {
+			Object top = heap.poll();
+			if (top instanceof Point) {
+				result.add((Point) top);
+				continue;
+			}
+			Node node = (Node) top;
+			if (node.leaf) {
+				for (int i = 0; i < node.count; i++) {
+					double dx = node.minX[i] - sx;
+					double dy = node.minY[i] - sy;
+					heap.add(dx * dx + dy * dy, new Point(node.minX[i], node.minY[i]));
+				}
+			} else {
+				for (int i = 0; i < node.count; i++) {
+					heap.add(minDistSq(node, i, sx, sy), node.children[i]);
+				}
+			}
+		}
+		return result.iterator();
+	}
+
+	@Override
+	public void delete(Point point) {
+		double x = point.getX();
+		double y = point.getY();
+		Node leaf = findLeaf(root, x, y);
+		if (leaf == null) {
+			return;
+		}
+		for (int i = 0; i < leaf.count; i++) {
+			if (leaf.minX[i] == x && leaf.minY[i] == y) {
+				removeSlot(leaf, i);
+				break;
+			}
+		}
+		size--;
+		if (size == 0) {
+			root = newNode(true);
+			rootLevel = 0;
+			return;
+		}
+		condenseTree(leaf);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	// search 헬퍼 메서드. 질의 사각형과 겹치는 슬롯만 따라 내려감.
+	private static void search(Node node, double qMinX, double qMinY, double qMaxX, double qMaxY, List<Point> result) {
+		double[] minX = node.minX;
+		double[] minY = node.minY;
+		if (node.leaf) {
+			for (int i = 0; i < node.count; i++) {
+				double x = minX[i];
+				double y = minY[i];
+				if (x >= qMinX && x <= qMaxX && y >= qMinY && y <= qMaxY) {
+					result.add(new Point(x, y));
+				}
+			}
+			return;
+		}
+		double[] maxX = node.maxX;
+		double[] maxY = node.maxY;
+		for (int i = 0; i < node.count; i++) {
+			if (minX[i] <= qMaxX && maxX[i] >= qMinX && minY[i] <= qMaxY && maxY[i] >= qMinY) {
+				search(node.children[i], qMinX, qMinY, qMaxX, qMaxY, result);
+			}
+		}
+	}
+
+	// findLeaf 헬퍼 메서드. (x, y)가 들어있는 leaf를 찾음. 없으면 null.
+	private static Node findLeaf(Node node, double x, double y) {
+		if (node.leaf) {
+			for (int i = 0; i < node.count; i++) {
+				if (node.minX[i] == x && node.minY[i] == y) {
+					return node;
+				}
+			}
+			return null;
+		}
+		for (int i = 0; i < node.count; i++) {
+			if (node.minX[i] <= x && node.maxX[i] >= x && node.minY[i] <= y && node.maxY[i] >= y) {
+				Node leaf = findLeaf(node.children[i], x, y);
+				if (leaf != null) {
+					return leaf;
+				}
+			}
+		}
+		return null;
+	}
+
+	// minDistSq 헬퍼 메서드. 내부 노드 슬롯 i의 MBR과 (x, y) 사이 최소 거리의 제곱(MINDIST^2).
+	private static double minDistSq(Node node, int i, double x, double y) {
+		double dx = Math.max(0, Math.max(node.minX[i] - x, x - node.maxX[i]));
+		double dy = Math.max(0, Math.max(node.minY[i] - y, y - node.maxY[i]));
+		return dx * dx + dy * dy;
+	}
+
+	// insertPoint 메서드. 중복 확인 없이 점을 leaf에 넣고 트리를 재조정.
+	private void insertPoint(double x, double y) {
+		Node leaf = chooseNode(x, y, x, y, 0);
+		leaf.minX[leaf.count] = x;
+		leaf.minY[leaf.count] = y;
+		leaf.count++;
+		adjustTree(leaf);
+	}
+
+	// insertSubtree 메서드. level 레벨의 서브트리를 level + 1 레벨의 노드에 넣고 트리를 재조정.
+	private void insertSubtree(Node subtree, int level) {
+		double[] b = bounds(subtree);
+		Node target = chooseNode(b[0], b[1], b[2], b[3], level + 1);
+		setChild(target, target.count, subtree, b);
+		target.count++;
+		adjustTree(target);
+	}
+
+	// chooseNode 메서드. 루트에서 level 레벨까지 면적 증가(동률이면 면적)가 가장 작은 슬롯을 따라 내려감.
+	private Node chooseNode(double minX, double minY, double maxX, double maxY, int level) {
+		Node node = root;
+		for (int lv = rootLevel; lv > level; lv--) {
+			int best = 0;
+			double bestEnlargement = Double.POSITIVE_INFINITY;
+			double bestArea = Double.POSITIVE_INFINITY;
+			for (int i = 0; i < node.count; i++) {
+				double area = (node.maxX[i] - node.minX[i]) * (node.maxY[i] - node.minY[i]);
+				double enlarged = (Math.max(node.maxX[i], maxX) - Math.min(node.minX[i], minX))
+						* (Math.max(node.maxY[i], maxY) - Math.min(node.minY[i], minY));
+				double enlargement = enlarged - area;
+				if (enlargement < bestEnlargement || (enlargement == bestEnlargement && area < bestArea)) {
+					best = i;
+					bestEnlargement = enlargement;
+					bestArea = area;
+				}
+			}
+			node = node.children[best];
+		}
+		return node;
+	}
+
+	// adjustTree 메서드. node부터 루트까지 올라가며 넘친 노드를 분할하고 부모 슬롯의 MBR을 갱신.
+	// 분할이 없고 부모 슬롯의 MBR이 그대로이면 더 올라가지 않음.
+	private void adjustTree(Node node) {
+		Node n = node;
+		while (true) {
+			Node sibling = n.count > maxEntries ? splitNode(n) : null;
+			Node parent = n.parent;
+			if (parent == null) {
+				if (sibling != null) {
+					Node newRoot = newNode(false);
+					setChild(newRoot, 0, n, bounds(n));
+					setChild(newRoot, 1, sibling, bounds(sibling));
+					newRoot.count = 2;
+					root = newRoot;
+					rootLevel++;
+				}
+				return;
+			}
+			boolean changed = writeSlot(parent, slotOf(parent, n), bounds(n));
+			if (sibling != null) {
+				setChild(parent, parent.count, sibling, bounds(sibling));
+				parent.count++;
+			} else if (!changed) {
+				return;
+			}
+			n = parent;
+		}
+	}
+
+	// splitNode 메서드. splitStrategy가 두 번째 그룹으로 고른 슬롯을 새 노드로 옮기고, 남은 슬롯은 앞으로 당김.
+	private Node splitNode(Node node) {
+		boolean[] second = splitStrategy.split(node.minX, node.minY, node.leaf ? node.minX : node.maxX,
+				node.leaf ? node.minY : node.maxY, node.count, minEntries);
+		Node sibling = newNode(node.leaf);
+		int kept = 0;
+		for (int i = 0; i < node.count; i++) {
+			Node target = second[i] ? sibling : node;
+			int to = second[i] ? sibling.count++ : kept++;
+			target.minX[to] = node.minX[i];
+			target.minY[to] = node.minY[i];
+			if (!node.leaf) {
+				target.maxX[to] = node.maxX[i];
+				target.maxY[to] = node.maxY[i];
+				target.children[to] = node.children[i];
+				target.children[to].parent = target;
+			}
+		}
+		if (!node.leaf) {
+			for (int i = kept; i < node.count; i++) {
+				node.children[i] = null;
+			}
+		}
+		node.count = kept;
+		if (kept < minEntries || sibling.count < minEntries) {
+			throw new IllegalStateException(
+					splitStrategy.getClass().getSimpleName() + "가 최소 채움(m=" + minEntries + ")을 지키지 않았습니다.");
+		}
+		return sibling;
+	}
+
+	// condenseTree 메서드. leaf부터 루트까지 올라가며 최소 채움 미만인 노드를 부모에서 떼어내고,
+	// 떼어낸 노드의 점과 서브트리를 원래 레벨에 다시 삽입. 마지막으로 자식이 하나뿐인 루트를 줄임.
+	private void condenseTree(Node leaf) {
+		List<Node> orphans = new ArrayList<>();
+		List<Integer> orphanLevels = new ArrayList<>();
+		Node n = leaf;
+		int level = 0;
+		while (n != root) {
+			Node parent = n.parent;
+			int slot = slotOf(parent, n);
+			if (n.count < minEntries) {
+				removeSlot(parent, slot);
+				n.parent = null;
+				orphans.add(n);
+				orphanLevels.add(level);
+			} else {
+				writeSlot(parent, slot, bounds(n));
+			}
+			n = parent;
+			level++;
+		}
+
+		for (int o = 0; o < orphans.size(); o++) {
+			Node orphan = orphans.get(o);
+			for (int i = 0; i < orphan.count; i++) {
+				if (orphan.leaf) {
+					insertPoint(orphan.minX[i], orphan.minY[i]);
+				} else {
+					insertSubtree(orphan.children[i], orphanLevels.get(o) - 1);
+				}
+			}
+		}
+
+		while (!root.leaf && root.count == 1) {
+			root = root.children[0];
+			root.parent = null;
+			rootLevel--;
+		}
+	}
+
+	private Node newNode(boolean leaf) {
+		return new Node(leaf, maxEntries + 1);
+	}
+
+	// slotOf 헬퍼 메서드. parent에서 child가 들어있는 슬롯 번호.
+	private static int slotOf(Node parent, Node child) {
+		for (int i = 0; i < parent.count; i++) {
+			if (parent.children[i] == child) {
+				return i;
+			}
+		}
+		throw new IllegalStateException("부모 노드에 자식이 없습니다.");
+	}
+
+	// setChild 헬퍼 메서드. parent의 slot에 child와 그 MBR b를 기록.
+	private static void setChild(Node parent, int slot, Node child, double[] b) {
+		parent.children[slot] = child;
+		child.parent = parent;
+		writeSlot(parent, slot, b);
+	}
+
+	// writeSlot 헬퍼 메서드. 슬롯의 MBR을 b로 바꾸고, 값이 달라졌으면 true.
+	private static boolean writeSlot(Node parent, int slot, double[] b) {
+		boolean changed = parent.minX[slot] != b[0] || parent.minY[slot] != b[1] || parent.maxX[slot] != b[2]
+				|| parent.maxY[slot] != b[3];
+		parent.minX[slot] = b[0];
+		parent.minY[slot] = b[1];
+		parent.maxX[slot] = b[2];
+		parent.maxY[slot] = b[3];
+		return changed;
+	}
+
+	// removeSlot 헬퍼 메서드. 마지막 슬롯을 slot 자리로 옮겨 슬롯을 지움.
+	private static void removeSlot(Node node, int slot) {
+		int last = node.count - 1;
+		node.minX[slot] = node.minX[last];
+		node.minY[slot] = node.minY[last];
+		if (!node.leaf) {
+			node.maxX[slot] = node.maxX[last];
+			node.maxY[slot] = node.maxY[last];
+			node.children[slot] = node.children[last];
+			node.children[last] = null;
+		}
+		node.count = last;
+	}
+
+	// bounds 헬퍼 메서드. 노드의 모든 슬롯을 감싸는 MBR { minX, minY, maxX, maxY }.
+	private static double[] bounds(Node node) {
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < node.count; i++) {
+			minX = Math.min(minX, node.minX[i]);
+			minY = Math.min(minY, node.minY[i]);
+			maxX = Math.max(maxX, node.slotMaxX(i));
+			maxY = Math.max(maxY, node.slotMaxY(i));
+		}
+		return new double[] { minX, minY, maxX, maxY };
+	}
+}
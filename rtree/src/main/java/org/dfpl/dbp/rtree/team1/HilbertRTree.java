@@ -0,0 +1,439 @@
+package org.dfpl.dbp.rtree.team1;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Kamel & Faloutsos의 Hilbert R-Tree 입니다.
+ *
+ * 점은 world 사각형 기준 격자의 Hilbert 순번(SpaceFillingCurves)으로 정렬되어 저장되고, 내부 노드의 각 자식은 그
+ * 서브트리의 가장 큰 Hilbert 순번(LHV, largest Hilbert value)을 가집니다. 삽입은 면적 증가 대신 LHV가 새 점의
+ * 순번 이상인 첫 자식을 따라 내려가므로, 같은 순서로 넣으면 항상 같은 트리가 만들어집니다.
+ *
+ * 넘친 노드는 quadratic split 대신 이웃 형제 하나와 엔트리를 나눠 가지고(협력 형제 s = 2), 형제도 가득 차 있을 때만
+ * 두 노드의 엔트리를 세 노드로 나눕니다(2-to-3 split). 그래서 노드가 평균 2/3 이상, 보통 그보다 훨씬 가득 찹니다.
+ * 삭제로 최소 채움 미만이 된 노드는 형제에게서 엔트리를 빌리고, 빌릴 수 없으면 형제와 합칩니다.
+ *
+ * world 밖의 좌표도 저장할 수 있지만 격자의 가장자리로 잘려 같은 순번을 받으므로 공간 국소성이 떨어집니다.
+ * RTreeObserver는 지원하지 않습니다.
+ */
+public class HilbertRTree implements RTree {
+
+	private final int maxEntries;
+	private final int minEntries;
+	private final double worldMinX;
+	private final double worldMinY;
+	private final double worldMaxX;
+	private final double worldMaxY;
+
+	private Node root;
+	private int size;
+
+	// Node 클래스. entries는 leaf이면 Point, 내부 노드이면 Node이며 keys(점의 순번 또는 자식의 LHV) 오름차순.
+	static final class Node {
+		final boolean leaf;
+		final Object[] entries;
+		final long[] keys;
+		int count;
+		Node parent;
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+
+		Node(boolean leaf, int capacity) {
+			this.leaf = leaf;
+			this.entries = new Object[capacity];
+			this.keys = new long[capacity];
+		}
+
+		// lhv 메서드. 서브트리의 가장 큰 Hilbert 순번. 비어있으면 -1.
+		long lhv() {
+			return count == 0 ? -1 : keys[count - 1];
+		}
+
+		// recalc 메서드. 엔트리로부터 MBR을 다시 계산.
+		void recalc() {
+			minX = Double.POSITIVE_INFINITY;
+			minY = Double.POSITIVE_INFINITY;
+			maxX = Double.NEGATIVE_INFINITY;
+			maxY = Double.NEGATIVE_INFINITY;
+			for (int i = 0; i < count; i++) {
+				if (leaf) {
+					Point p = (Point) entries[i];
+					minX = Math.min(minX, p.getX());
+					minY = Math.min(minY, p.getY());
+					maxX = Math.max(maxX, p.getX());
+					maxY = Math.max(maxY, p.getY());
+				} else {
+					Node c = (Node) entries[i];
+					minX = Math.min(minX, c.minX);
+					minY = Math.min(minY, c.minY);
+					maxX = Math.max(maxX, c.maxX);
+					maxY = Math.max(maxY, c.maxY);
+				}
+			}
+		}
+	}
+
+	/**
+	 * M=32, m=16 트리를 생성합니다.
+	 *
+	 * @param world Hilbert 순번을 계산할 좌표 범위. 데이터가 들어올 전체 영역을 지정합니다.
+	 */
+	public HilbertRTree(Rectangle world) {
+		this(world, FlatRTree.DEFAULT_MAX_ENTRIES);
+	}
+
+	/**
+	 * @param world      Hilbert 순번을 계산할 좌표 범위
+	 * @param maxEntries 노드의 최대 엔트리 수 (M >= 3). 최소 채움은 M/2
+	 */
+	public HilbertRTree(Rectangle world, int maxEntries) {
+		if (world == null) {
+			throw new IllegalArgumentException("world가 null입니다.");
+		}
+		if (maxEntries < 3) {
+			throw new IllegalArgumentException("노드 용량이 잘못되었습니다: M=" + maxEntries + " (M >= 3)");
+		}
+		this.maxEntries = maxEntries;
+		this.minEntries = maxEntries / 2;
+		this.worldMinX = world.getLeftTop().getX();
+		this.worldMinY = world.getLeftTop().getY();
+		this.worldMaxX = world.getRightBottom().getX();
+		this.worldMaxY = world.getRightBottom().getY();
+		this.root = newNode(true);
+	}
+
+	// getRoot 메서드. 같은 패키지의 읽기 전용 순회(테스트)를 위해 루트를 반환.
+	Node getRoot() {
+		return root;
+	}
+
+	@Override
+	public void add(Point point) {
+		if (findLeaf(root, point) != null) {
+			return;
+		}
+		long h = hilbert(point);
+		Node leaf = chooseLeaf(h);
+		insertEntry(leaf, point, h);
+		size++;
+		handleOverflow(leaf);
+	}
+
+	@Override
+	public Iterator<Point> search(Rectangle rectangle) {
+		List<Point> result = new ArrayList<>();
+		if (size > 0) {
+			search(root, rectangle.getLeftTop().getX(), rectangle.getLeftTop().getY(),
+					rectangle.getRightBottom().getX(), rectangle.getRightBottom().getY(), result);
+		}
+		return result.iterator();
+	}
+
+	@Override
+	public Iterator<Point> nearest(Point source, int maxCount) {
+		double sx = source.getX();
+		double sy = source.getY();
+		List<Point> result = new ArrayList<>();
+		if (size == 0) {
+			return result.iterator();
+		}
+		DistanceHeap<Object> heap = new DistanceHeap<>(64);
+		heap.add(0, root);
+		while (!heap.isEmpty() && result.size() < maxCount) {
+			Object top = heap.poll();
+			if (top instanceof Point) {
+				result.add((Point) top);
+				continue;
+			}
+			Node node = (Node) top;
+			for (int i = 0; i < node.count; i++) {
+				if (node.leaf) {
+					Point p = (Point) node.entries[i];
+					double dx = p.getX() - sx;
+					double dy = p.getY() - sy;
+					heap.add(dx * dx + dy * dy, p);
+				} else {
+					Node c = (Node) node.entries[i];
+					double dx = Math.max(0, Math.max(c.minX - sx, sx - c.maxX));
+					double dy = Math.max(0, Math.max(c.minY - sy, sy - c.maxY));
+					heap.add(dx * dx + dy * dy, c);
+				}
+			}
+		}
+		return result.iterator();
+	}
+
+	@Override
+	public void delete(Point point) {
+		Node leaf = findLeaf(root, point);
+		if (leaf == null) {
+			return;
+		}
+		for (int i = 0; i < leaf.count; i++) {
+			Point p = (Point) leaf.entries[i];
+			if (p.getX() == point.getX() && p.getY() == point.getY()) {
+				removeAt(leaf, i);
+				break;
+			}
+		}
+		size--;
+		handleUnderflow(leaf);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	// hilbert 메서드. world 격자에서 점의 Hilbert 순번.
+	private long hilbert(Point p) {
+		return SpaceFillingCurves.hilbertIndex(SpaceFillingCurves.gridCoordinate(p.getX(), worldMinX, worldMaxX),
+				SpaceFillingCurves.gridCoordinate(p.getY(), worldMinY, worldMaxY));
+	}
+
+	// chooseLeaf 메서드. 각 단계에서 LHV가 h 이상인 첫 자식(없으면 마지막 자식)을 따라 내려감.
+	private Node chooseLeaf(long h) {
+		Node node = root;
+		while (!node.leaf) {
+			int i = 0;
+			while (i < node.count - 1 && node.keys[i] < h) {
+				i++;
+			}
+			node = (Node) node.entries[i];
+		}
+		return node;
+	}
+
+	// search 헬퍼 메서드. 질의 사각형과 겹치는 자식만 따라 내려감.
+	private static void search(Node node, double qMinX, double qMinY, double qMaxX, double qMaxY, List<Point> result) {
+		for (int i = 0; i < node.count; i++) {
+			if (node.leaf) {
+				Point p = (Point) node.entries[i];
+				if (p.getX() >= qMinX && p.getX() <= qMaxX && p.getY() >= qMinY && p.getY() <= qMaxY) {
+					result.add(p);
+				}
+			} else {
+				Node c = (Node) node.entries[i];
+				if (c.minX <= qMaxX && c.maxX >= qMinX && c.minY <= qMaxY && c.maxY >= qMinY) {
+					search(c, qMinX, qMinY, qMaxX, qMaxY, result);
+				}
+			}
+		}
+	}
+
+	// findLeaf 헬퍼 메서드. 같은 좌표의 점이 들어있는 leaf. 없으면 null.
+	private static Node findLeaf(Node node, Point point) {
+		double x = point.getX();
+		double y = point.getY();
+		for (int i = 0; i < node.count; i++) {
+			if (node.leaf) {
+				Point p = (Point) node.entries[i];
+				if (p.getX() == x && p.getY() == y) {
+					return node;
+				}
+			} else {
+				Node c = (Node) node.entries[i];
+				if (c.minX <= x && c.maxX >= x && c.minY <= y && c.maxY >= y) {
+					Node leaf = findLeaf(c, point);
+					if (leaf != null) {
+						return leaf;
+					}
+				}
+			}
+		}
+		return null;
+	}
+
+	// insertEntry 헬퍼 메서드. 순번 순서를 지키는 자리에 엔트리를 넣음. 노드는 잠시 M + 1개까지 가질 수 있음.
+	private static void insertEntry(Node node, Object entry, long key) {
+		int pos = node.count;
+		while (pos > 0 && node.keys[pos - 1] > key) {
+			node.entries[pos] = node.entries[pos - 1];
+			node.keys[pos] = node.keys[pos - 1];
+			pos--;
+		}
+		node.entries[pos] = entry;
+		node.keys[pos] = key;
+		node.count++;
+		if (!node.leaf) {
+			((Node) entry).parent = node;
+		}
+	}
+
+	private static void removeAt(Node node, int index) {
+		System.arraycopy(node.entries, index + 1, node.entries, index, node.count - index - 1);
+		System.arraycopy(node.keys, index + 1, node.keys, index, node.count - index - 1);
+		node.count--;
+		node.entries[node.count] = null;
+	}
+
+	// handleOverflow 메서드. node부터 루트까지 올라가며 넘친 노드를 형제와 나누거나 2-to-3 split하고 MBR과 LHV를 갱신.
+	private void handleOverflow(Node node) {
+		Node n = node;
+		while (n != null) {
+			Node parent = n.parent;
+			if (n.count > maxEntries) {
+				if (parent == null) {
+					// 루트는 형제가 없으므로 둘로 나누고 새 루트를 만듦
+					Node newRoot = newNode(false);
+					Node sibling = newNode(n.leaf);
+					distribute(new Node[] { n, sibling });
+					appendChild(newRoot, n);
+					appendChild(newRoot, sibling);
+					newRoot.recalc();
+					root = newRoot;
+					return;
+				}
+				// 협력 형제는 오른쪽 형제, 마지막 자식이면 왼쪽 형제
+				int i = indexOf(parent, n);
+				Node left = n;
+				Node right = null;
+				if (i + 1 < parent.count) {
+					right = (Node) parent.entries[i + 1];
+				} else if (i > 0) {
+					left = (Node) parent.entries[i - 1];
+					right = n;
+				}
+				if (right != null && left.count + right.count <= 2 * maxEntries) {
+					// 형제에게 여유가 있으면 두 노드에 고르게 나눔
+					distribute(new Node[] { left, right });
+				} else {
+					Node extra = newNode(n.leaf);
+					Node last = right == null ? left : right;
+					distribute(right == null ? new Node[] { left, extra } : new Node[] { left, right, extra });
+					insertChildAt(parent, indexOf(parent, last) + 1, extra);
+				}
+				refreshKeys(parent);
+			} else if (parent != null) {
+				refreshKeys(parent);
+			}
+			n.recalc();
+			n = parent;
+		}
+	}
+
+	// handleUnderflow 메서드. 최소 채움 미만인 노드는 형제에게서 빌리거나 형제와 합치고, 루트까지 MBR과 LHV를 갱신.
+	private void handleUnderflow(Node node) {
+		Node n = node;
+		while (n.parent != null) {
+			Node parent = n.parent;
+			if (n.count < minEntries && parent.count == 1) {
+				// M = 3(m = 1)이면 합친 뒤 자식이 하나뿐인 내부 노드가 생길 수 있음. 형제가 없는 빈 자식은 떼어 내고
+				// 비게 된 부모는 다음 레벨에서 같은 방식으로 처리
+				removeAt(parent, 0);
+				n.parent = null;
+			} else if (n.count < minEntries) {
+				int i = indexOf(parent, n);
+				boolean hasRight = i + 1 < parent.count;
+				Node left = hasRight ? n : (Node) parent.entries[i - 1];
+				Node right = hasRight ? (Node) parent.entries[i + 1] : n;
+				if (left.count + right.count >= 2 * minEntries) {
+					distribute(new Node[] { left, right });
+				} else {
+					// 합쳐도 2m - 1 <= M 이므로 left에 모두 옮기고 right를 지움
+					moveAll(right, left);
+					removeAt(parent, indexOf(parent, right));
+					right.parent = null;
+					left.recalc();
+				}
+			} else {
+				n.recalc();
+			}
+			refreshKeys(parent);
+			n = parent;
+		}
+		n.recalc();
+		while (!root.leaf && root.count == 1) {
+			root = (Node) root.entries[0];
+			root.parent = null;
+		}
+		if (size == 0) {
+			root = newNode(true);
+		}
+	}
+
+	// distribute 헬퍼 메서드. 같은 부모 아래 나란히 있는 nodes의 엔트리를 순번 순서 그대로 이어 붙여 고르게 다시 나눔.
+	private void distribute(Node[] nodes) {
+		int total = 0;
+		for (Node n : nodes) {
+			total += n.count;
+		}
+		Object[] entries = new Object[total];
+		long[] keys = new long[total];
+		int k = 0;
+		for (Node n : nodes) {
+			System.arraycopy(n.entries, 0, entries, k, n.count);
+			System.arraycopy(n.keys, 0, keys, k, n.count);
+			k += n.count;
+			for (int i = 0; i < n.count; i++) {
+				n.entries[i] = null;
+			}
+			n.count = 0;
+		}
+		k = 0;
+		for (int j = 0; j < nodes.length; j++) {
+			int share = total / nodes.length + (j < total % nodes.length ? 1 : 0);
+			Node n = nodes[j];
+			for (int i = 0; i < share; i++, k++) {
+				n.entries[i] = entries[k];
+				n.keys[i] = keys[k];
+				if (!n.leaf) {
+					((Node) entries[k]).parent = n;
+				}
+			}
+			n.count = share;
+			n.recalc();
+		}
+	}
+
+	private static void moveAll(Node from, Node to) {
+		for (int i = 0; i < from.count; i++) {
+			to.entries[to.count] = from.entries[i];
+			to.keys[to.count] = from.keys[i];
+			if (!to.leaf) {
+				((Node) from.entries[i]).parent = to;
+			}
+			to.count++;
+			from.entries[i] = null;
+		}
+		from.count = 0;
+	}
+
+	private static void appendChild(Node parent, Node child) {
+		insertChildAt(parent, parent.count, child);
+	}
+
+	// insertChildAt 헬퍼 메서드. 부모의 키는 갱신 중일 수 있으므로 순번 비교 없이 지정한 자리에 넣음.
+	private static void insertChildAt(Node parent, int pos, Node child) {
+		System.arraycopy(parent.entries, pos, parent.entries, pos + 1, parent.count - pos);
+		System.arraycopy(parent.keys, pos, parent.keys, pos + 1, parent.count - pos);
+		parent.entries[pos] = child;
+		parent.keys[pos] = child.lhv();
+		parent.count++;
+		child.parent = parent;
+	}
+
+	// refreshKeys 헬퍼 메서드. 자식의 LHV가 바뀌었을 수 있으므로 부모의 키를 다시 읽음. 자식 순서는 그대로 정렬되어 있음.
+	private static void refreshKeys(Node parent) {
+		for (int i = 0; i < parent.count; i++) {
+			parent.keys[i] = ((Node) parent.entries[i]).lhv();
+		}
+	}
+
+	private static int indexOf(Node parent, Node child) {
+		for (int i = 0; i < parent.count; i++) {
+			if (parent.entries[i] == child) {
+				return i;
+			}
+		}
+		throw new IllegalStateException("부모 노드에 자식이 없습니다.");
+	}
+
+	private Node newNode(boolean leaf) {
+		return new Node(leaf, maxEntries + 1);
+	}
+}
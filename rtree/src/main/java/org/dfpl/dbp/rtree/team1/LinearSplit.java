@@ -0,0 +1,92 @@
+package org.dfpl.dbp.rtree.team1;
+
+/**
+ * Guttman의 linear split 입니다.
+ *
+ * 각 축에서 하한이 가장 큰 엔트리와 상한이 가장 작은 엔트리의 간격을 전체 폭으로 나눠, 가장 멀리 떨어진 쌍을
+ * 시드로 잡습니다. 나머지 엔트리는 입력 순서대로 한 번씩 보면서 면적 증가가 작은 그룹에 넣습니다. O(M).
+ */
+final class LinearSplit implements SplitStrategy {
+
+	@Override
+	public boolean[] split(double[] minX, double[] minY, double[] maxX, double[] maxY, int count, int minEntries) {
+		// 1. LinearPickSeeds
+		int[] seedsX = farthestPair(minX, maxX, count);
+		int[] seedsY = farthestPair(minY, maxY, count);
+		double separationX = separation(minX, maxX, count, seedsX);
+		double separationY = separation(minY, maxY, count, seedsY);
+		int[] seeds = separationX >= separationY ? seedsX : seedsY;
+		int seed1 = seeds[0];
+		int seed2 = seeds[1];
+
+		boolean[] second = new boolean[count];
+		second[seed2] = true;
+		double[] g1 = { minX[seed1], minY[seed1], maxX[seed1], maxY[seed1] };
+		double[] g2 = { minX[seed2], minY[seed2], maxX[seed2], maxY[seed2] };
+		int size1 = 1;
+		int size2 = 1;
+		int remaining = count - 2;
+
+		// 2. 남은 엔트리를 순서대로 배정
+		for (int i = 0; i < count; i++) {
+			if (i == seed1 || i == seed2) {
+				continue;
+			}
+			boolean toSecond;
+			if (size1 + remaining == minEntries) {
+				toSecond = false;
+			} else if (size2 + remaining == minEntries) {
+				toSecond = true;
+			} else {
+				double cost1 = QuadraticSplit.enlargement(g1, minX, minY, maxX, maxY, i);
+				double cost2 = QuadraticSplit.enlargement(g2, minX, minY, maxX, maxY, i);
+				if (cost1 != cost2) {
+					toSecond = cost2 < cost1;
+				} else {
+					double area1 = (g1[2] - g1[0]) * (g1[3] - g1[1]);
+					double area2 = (g2[2] - g2[0]) * (g2[3] - g2[1]);
+					toSecond = area1 != area2 ? area2 < area1 : size1 > size2;
+				}
+			}
+			second[i] = toSecond;
+			QuadraticSplit.include(toSecond ? g2 : g1, minX, minY, maxX, maxY, i);
+			if (toSecond) {
+				size2++;
+			} else {
+				size1++;
+			}
+			remaining--;
+		}
+		return second;
+	}
+
+	// farthestPair 헬퍼 메서드. { 상한이 가장 작은 엔트리, 하한이 가장 큰 엔트리 }. 둘이 같으면 다른 엔트리로 바꿈.
+	private static int[] farthestPair(double[] min, double[] max, int count) {
+		int lowestHigh = 0;
+		int highestLow = 0;
+		for (int i = 1; i < count; i++) {
+			if (max[i] < max[lowestHigh]) {
+				lowestHigh = i;
+			}
+			if (min[i] > min[highestLow]) {
+				highestLow = i;
+			}
+		}
+		if (lowestHigh == highestLow) {
+			highestLow = lowestHigh == 0 ? 1 : 0;
+		}
+		return new int[] { lowestHigh, highestLow };
+	}
+
+	// separation 헬퍼 메서드. 시드 쌍의 간격을 해당 축의 전체 폭으로 정규화.
+	private static double separation(double[] min, double[] max, int count, int[] seeds) {
+		double lo = Double.POSITIVE_INFINITY;
+		double hi = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < count; i++) {
+			lo = Math.min(lo, min[i]);
+			hi = Math.max(hi, max[i]);
+		}
+		double width = hi - lo;
+		return width > 0 ? (min[seeds[1]] - max[seeds[0]]) / width : 0;
+	}
+}
@@ -0,0 +1,122 @@
+package org.dfpl.dbp.rtree.team1;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 파일을 FileChannel.map으로 메모리에 매핑한 PageStore 입니다.
+ *
+ * 파일은 SEGMENT_BYTES 크기의 구간(segment)마다 따로 매핑합니다(MappedByteBuffer 하나는 2GB를 넘을 수 없음).
+ * pin은 매핑된 구간의 slice를 반환하므로 복사가 없고, 쓰기는 바로 OS 페이지 캐시에 반영됩니다. 그래서 unpin은
+ * 아무 일도 하지 않으며, 메모리에 남는 양은 JVM 힙이 아니라 OS 페이지 캐시가 결정합니다.
+ *
+ * 새 구간을 매핑하면 파일이 구간 크기만큼 커집니다. close가 파일을 실제 페이지 수에 맞게 자르며, close 없이 종료하면
+ * 끝에 0으로 채워진 페이지가 남습니다. 남은 페이지는 다시 열 때 빈 페이지로 취급되어 쓰이지 않을 뿐 내용에는 영향이
+ * 없습니다.
+ */
+public class MappedPageStore implements PageStore {
+
+	// 구간 하나의 크기. 페이지 크기의 배수로 내림해서 사용.
+	static final int SEGMENT_BYTES = 64 << 20;
+
+	private final FileChannel channel;
+	private final int pageSize;
+	private final int pagesPerSegment;
+	private final List<MappedByteBuffer> segments = new ArrayList<>();
+	private int pageCount;
+
+	/**
+	 * file을 열거나 만듭니다. 기존 파일은 크기가 pageSize의 배수여야 합니다.
+	 *
+	 * @param file     페이지 파일
+	 * @param pageSize 페이지 크기 (바이트, 8의 배수, 64 이상 SEGMENT_BYTES 이하)
+	 */
+	public MappedPageStore(Path file, int pageSize) throws IOException {
+		if (pageSize < 64 || pageSize > SEGMENT_BYTES || pageSize % 8 != 0) {
+			throw new IllegalArgumentException("페이지 크기가 잘못되었습니다: " + pageSize);
+		}
+		this.pageSize = pageSize;
+		this.pagesPerSegment = SEGMENT_BYTES / pageSize;
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		long bytes = channel.size();
+		if (bytes % pageSize != 0) {
+			channel.close();
+			throw new IOException("파일 크기(" + bytes + ")가 페이지 크기(" + pageSize + ")의 배수가 아닙니다: " + file);
+		}
+		if (bytes / pageSize > Integer.MAX_VALUE) {
+			channel.close();
+			throw new IOException("페이지가 너무 많습니다: " + file);
+		}
+		this.pageCount = (int) (bytes / pageSize);
+		while ((long) segments.size() * pagesPerSegment < pageCount) {
+			mapSegment();
+		}
+	}
+
+	@Override
+	public int pageSize() {
+		return pageSize;
+	}
+
+	@Override
+	public int pageCount() {
+		return pageCount;
+	}
+
+	@Override
+	public ByteBuffer pin(int id) {
+		if (id < 0 || id >= pageCount) {
+			throw new IllegalArgumentException("없는 페이지입니다: " + id + " (pageCount=" + pageCount + ")");
+		}
+		return segments.get(id / pagesPerSegment).slice((id % pagesPerSegment) * pageSize, pageSize);
+	}
+
+	@Override
+	public void unpin(int id, boolean dirty) {
+		// 매핑된 페이지에 직접 썼으므로 할 일이 없음
+	}
+
+	@Override
+	public int extend() throws IOException {
+		if (pageCount == Integer.MAX_VALUE) {
+			throw new IOException("페이지 번호가 int 범위를 넘습니다.");
+		}
+		if ((long) segments.size() * pagesPerSegment == pageCount) {
+			mapSegment();
+		}
+		// 열 때 파일 끝까지를 pageCount로 잡으므로, 그 뒤의 매핑 영역은 아직 쓴 적 없는 0 페이지
+		return pageCount++;
+	}
+
+	@Override
+	public void flush() {
+		for (MappedByteBuffer segment : segments) {
+			segment.force();
+		}
+	}
+
+	// close 메서드. 기록하고 파일을 페이지 수에 맞게 자름. 매핑 자체는 GC가 버퍼를 회수할 때 해제됨.
+	@Override
+	public void close() throws IOException {
+		if (!channel.isOpen()) {
+			return;
+		}
+		flush();
+		channel.truncate((long) pageCount * pageSize);
+		channel.close();
+		segments.clear();
+	}
+
+	// mapSegment 헬퍼 메서드. 다음 구간을 읽기/쓰기로 매핑. 파일 끝을 넘는 매핑은 파일을 늘림.
+	private void mapSegment() throws IOException {
+		long position = (long) segments.size() * pagesPerSegment * pageSize;
+		segments.add(channel.map(FileChannel.MapMode.READ_WRITE, position, (long) pagesPerSegment * pageSize));
+	}
+}
@@ -0,0 +1,79 @@
+package org.dfpl.dbp.rtree.team1;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * 고정 크기 페이지의 저장소입니다. PagedRTree는 노드 하나를 페이지 하나에 저장하고 페이지 번호로 자식을 가리킵니다.
+ *
+ * 페이지는 pin으로 빌려 쓰고 unpin으로 돌려줍니다. pin이 반환한 버퍼는 unpin 전까지만 유효하며, 내용을 바꿨으면
+ * unpin(id, true)로 알려야 합니다. pin과 unpin은 항상 짝을 맞춰 호출합니다. 스레드 안전하지 않습니다.
+ */
+public interface PageStore extends Closeable {
+
+	/**
+	 * @return 페이지 크기 (바이트)
+	 */
+	int pageSize();
+
+	/**
+	 * @return 지금까지 만들어진 페이지 수. 페이지 번호는 0 이상 pageCount() 미만입니다.
+	 */
+	int pageCount();
+
+	/**
+	 * id번 페이지를 빌립니다. 반환한 버퍼는 위치 0부터 pageSize() 바이트이며, 절대 위치(get/put(int index))로 읽고 씁니다.
+	 */
+	ByteBuffer pin(int id) throws IOException;
+
+	/**
+	 * pin으로 빌린 페이지를 돌려줍니다.
+	 *
+	 * @param dirty 페이지 내용을 바꿨으면 true
+	 */
+	void unpin(int id, boolean dirty) throws IOException;
+
+	/**
+	 * id번 페이지 전체를 dst의 위치 0부터 복사합니다. 기본 구현은 pin/unpin을 사용합니다.
+	 */
+	default void read(int id, ByteBuffer dst) throws IOException {
+		ByteBuffer page = pin(id);
+		try {
+			dst.put(0, page, 0, pageSize());
+		} finally {
+			unpin(id, false);
+		}
+	}
+
+	/**
+	 * src의 위치 0부터 pageSize() 바이트를 id번 페이지에 씁니다. 기본 구현은 pin/unpin을 사용합니다.
+	 */
+	default void write(int id, ByteBuffer src) throws IOException {
+		ByteBuffer page = pin(id);
+		try {
+			page.put(0, src, 0, pageSize());
+		} finally {
+			unpin(id, true);
+		}
+	}
+
+	/**
+	 * id번 페이지를 자주 읽히는 페이지(헤더, 루트, 상위 노드)로 표시하거나 표시를 지웁니다. 캐시가 있는 저장소는 표시된
+	 * 페이지를 되도록 메모리에 남겨둡니다. 기본 구현은 아무것도 하지 않습니다.
+	 *
+	 * @param retain 표시하려면 true, 지우려면 false
+	 */
+	default void retain(int id, boolean retain) {
+	}
+
+	/**
+	 * 0으로 채워진 페이지를 끝에 하나 추가하고 그 번호를 반환합니다.
+	 */
+	int extend() throws IOException;
+
+	/**
+	 * 바뀐 페이지를 모두 저장 장치에 기록합니다.
+	 */
+	void flush() throws IOException;
+}
@@ -0,0 +1,687 @@
+package org.dfpl.dbp.rtree.team1;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 노드를 PageStore의 고정 크기 페이지에 저장하는 디스크 기반 R-Tree 입니다.
+ *
+ * 노드 하나가 페이지 하나이며, 내부 노드는 자식을 Java 참조 대신 페이지 번호로 가리킵니다. search, nearest, 중복 확인은
+ * 페이지 버퍼를 직접 읽고, add/delete는 바뀌는 노드만 배열로 읽어 고친 뒤 같은 페이지에 다시 씁니다. 부모 참조는
+ * 저장하지 않고 내려온 경로를 기억하므로, 분할 때 옮겨진 자식 페이지를 다시 쓸 필요가 없습니다.
+ *
+ * 0번 페이지는 헤더(루트 페이지, 높이, 점 개수, 빈 페이지 목록)이며 변경마다 갱신됩니다. 지운 노드의 페이지는 빈 페이지
+ * 목록으로 돌아가 다음 할당에 재사용됩니다. 노드 용량은 페이지 크기로 정해지며(4KB 페이지: leaf 255, 내부 113),
+ * 최소 채움은 용량의 40%, 분할은 R* split 입니다. 삭제로 최소 채움 미만이 된 노드는 떼어내 엔트리를 다시 삽입합니다.
+ *
+ * 헤더와 내부 노드 페이지는 PageStore.retain으로 표시하므로, BufferPool 위에서는 루트와 상위 레벨이 메모리에 남고
+ * leaf만 LRU로 드나듭니다.
+ *
+ * 저장 장치 오류는 UncheckedIOException으로 전달됩니다. 스레드 안전하지 않습니다.
+ */
+public class PagedRTree implements RTree, Closeable {
+
+	static final int DEFAULT_PAGE_SIZE = 4096;
+
+	// 헤더 페이지의 필드 위치
+	private static final int MAGIC = 0x50525431; // "PRT1"
+	private static final int VERSION = 1;
+	private static final int HEADER_PAGE = 0;
+	private static final int H_MAGIC = 0;
+	private static final int H_VERSION = 4;
+	private static final int H_PAGE_SIZE = 8;
+	private static final int H_ROOT = 12;
+	private static final int H_HEIGHT = 16;
+	private static final int H_SIZE = 20;
+	private static final int H_FREE = 28;
+
+	// 노드 페이지: [type:1][pad:3][count:4][엔트리...]. leaf 엔트리는 (x, y), 내부 엔트리는 (minX, minY, maxX, maxY, child)
+	// 빈 페이지는 count 자리에 다음 빈 페이지 번호를 저장. 0으로 채워진 새 페이지는 빈 leaf.
+	static final byte LEAF = 0;
+	static final byte INTERNAL = 1;
+	static final byte FREE = 2;
+	private static final int N_TYPE = 0;
+	private static final int N_COUNT = 4;
+	private static final int N_ENTRIES = 8;
+	static final int LEAF_ENTRY_BYTES = 16;
+	static final int INTERNAL_ENTRY_BYTES = 36;
+
+	private final PageStore store;
+	private final SplitStrategy splitStrategy = SplitStrategy.RSTAR;
+	private final int leafCapacity;
+	private final int internalCapacity;
+	private final int minLeafEntries;
+	private final int minInternalEntries;
+
+	private int rootPage;
+	// 트리의 레벨 수 (leaf만 있으면 1).
+	private int height;
+	private long size;
+	private int freeHead;
+
+	// Node 클래스. 수정할 노드 한 개를 페이지에서 읽어온 작업용 사본. 분할 전 M + 1개까지 담음.
+	// leaf이면 minX/minY가 점 좌표이고 maxX/maxY/child는 null.
+	static final class Node {
+		final boolean leaf;
+		final double[] minX;
+		final double[] minY;
+		final double[] maxX;
+		final double[] maxY;
+		final int[] child;
+		int count;
+
+		Node(boolean leaf, int capacity) {
+			this.leaf = leaf;
+			this.minX = new double[capacity];
+			this.minY = new double[capacity];
+			this.maxX = leaf ? null : new double[capacity];
+			this.maxY = leaf ? null : new double[capacity];
+			this.child = leaf ? null : new int[capacity];
+		}
+
+		double slotMaxX(int i) {
+			return leaf ? minX[i] : maxX[i];
+		}
+
+		double slotMaxY(int i) {
+			return leaf ? minY[i] : maxY[i];
+		}
+	}
+
+	/**
+	 * file을 MappedPageStore로 열거나 만듭니다. 새 파일은 DEFAULT_PAGE_SIZE, 기존 파일은 헤더의 페이지 크기를 사용합니다.
+	 */
+	public static PagedRTree open(Path file) throws IOException {
+		return new PagedRTree(new MappedPageStore(file, pageSizeOf(file)));
+	}
+
+	/**
+	 * file을 FilePageStore로 열고 cacheBytes 크기의 BufferPool을 앞에 둡니다. 페이지 크기는 open(Path)와 같습니다.
+	 */
+	public static PagedRTree open(Path file, long cacheBytes) throws IOException {
+		FilePageStore pages = new FilePageStore(file, pageSizeOf(file));
+		try {
+			return new PagedRTree(new BufferPool(pages, cacheBytes));
+		} catch (IOException | RuntimeException e) {
+			pages.close();
+			throw e;
+		}
+	}
+
+	// pageSizeOf 헬퍼 메서드. 기존 파일이면 헤더의 페이지 크기, 아니면 DEFAULT_PAGE_SIZE.
+	private static int pageSizeOf(Path file) throws IOException {
+		if (Files.exists(file) && Files.size(file) >= H_PAGE_SIZE + 4) {
+			try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+				ByteBuffer header = ByteBuffer.allocate(H_PAGE_SIZE + 4);
+				if (channel.read(header, 0) == header.capacity() && header.getInt(H_MAGIC) == MAGIC) {
+					return header.getInt(H_PAGE_SIZE);
+				}
+			}
+		}
+		return DEFAULT_PAGE_SIZE;
+	}
+
+	/**
+	 * store 위에 트리를 엽니다. 비어있는 store이면 새 트리를 만들고, 아니면 헤더를 읽어 기존 트리를 이어서 사용합니다.
+	 *
+	 * @param store 페이지 저장소. 트리가 닫힐 때 함께 닫힘
+	 */
+	public PagedRTree(PageStore store) throws IOException {
+		int pageSize = store.pageSize();
+		if (pageSize < N_ENTRIES + 4 * INTERNAL_ENTRY_BYTES) {
+			throw new IllegalArgumentException("페이지 크기가 너무 작습니다: " + pageSize);
+		}
+		this.store = store;
+		this.leafCapacity = (pageSize - N_ENTRIES) / LEAF_ENTRY_BYTES;
+		this.internalCapacity = (pageSize - N_ENTRIES) / INTERNAL_ENTRY_BYTES;
+		this.minLeafEntries = Math.max(1, leafCapacity * 2 / 5);
+		this.minInternalEntries = Math.max(1, internalCapacity * 2 / 5);
+		if (store.pageCount() == 0) {
+			store.extend();
+			rootPage = store.extend();
+			height = 1;
+			size = 0;
+			freeHead = -1;
+			writeHeader();
+			store.retain(HEADER_PAGE, true);
+		} else {
+			ByteBuffer header = store.pin(HEADER_PAGE);
+			try {
+				if (header.getInt(H_MAGIC) != MAGIC || header.getInt(H_VERSION) != VERSION) {
+					throw new IOException("PagedRTree 파일이 아니거나 지원하지 않는 버전입니다.");
+				}
+				if (header.getInt(H_PAGE_SIZE) != pageSize) {
+					throw new IOException(
+							"페이지 크기가 다릅니다: 파일 " + header.getInt(H_PAGE_SIZE) + ", 저장소 " + pageSize);
+				}
+				rootPage = header.getInt(H_ROOT);
+				height = header.getInt(H_HEIGHT);
+				size = header.getLong(H_SIZE);
+				freeHead = header.getInt(H_FREE);
+			} finally {
+				store.unpin(HEADER_PAGE, false);
+			}
+			store.retain(HEADER_PAGE, true);
+			retainUpperLevels();
+		}
+	}
+
+	@Override
+	public void add(Point point) {
+		double x = point.getX();
+		double y = point.getY();
+		try {
+			if (findLeaf(rootPage, 0, x, y, new int[height], new int[height])) {
+				return;
+			}
+			insert(0, x, y, x, y, -1);
+			size++;
+			writeHeader();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public Iterator<Point> search(Rectangle rectangle) {
+		List<Point> result = new ArrayList<>();
+		try {
+			search(rootPage, rectangle.getLeftTop().getX(), rectangle.getLeftTop().getY(),
+					rectangle.getRightBottom().getX(), rectangle.getRightBottom().getY(), result);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return result.iterator();
+	}
+
+	@Override
+	public Iterator<Point> nearest(Point source, int maxCount) {
+		double sx = source.getX();
+		double sy = source.getY();
+		List<Point> result = new ArrayList<>();
+		DistanceHeap<Object> heap = new DistanceHeap<>(64);
+		heap.add(0, rootPage);
+		try {
+			while (!heap.isEmpty() && result.size() < maxCount) {
+				Object top = heap.poll();
+				if (top instanceof Point) {
+					result.add((Point) top);
+					continue;
+				}
+				int page = (Integer) top;
+				ByteBuffer buf = store.pin(page);
+				try {
+					int count = buf.getInt(N_COUNT);
+					if (buf.get(N_TYPE) == LEAF) {
+						for (int i = 0, at = N_ENTRIES; i < count; i++, at += LEAF_ENTRY_BYTES) {
+							double x = buf.getDouble(at);
+							double y = buf.getDouble(at + 8);
+							heap.add((x - sx) * (x - sx) + (y - sy) * (y - sy), new Point(x, y));
+						}
+					} else {
+						for (int i = 0, at = N_ENTRIES; i < count; i++, at += INTERNAL_ENTRY_BYTES) {
+							double dx = Math.max(0, Math.max(buf.getDouble(at) - sx, sx - buf.getDouble(at + 16)));
+							double dy = Math.max(0, Math.max(buf.getDouble(at + 8) - sy, sy - buf.getDouble(at + 24)));
+							heap.add(dx * dx + dy * dy, buf.getInt(at + 32));
+						}
+					}
+				} finally {
+					store.unpin(page, false);
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return result.iterator();
+	}
+
+	@Override
+	public void delete(Point point) {
+		try {
+			delete(point.getX(), point.getY());
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	// size 메서드. 저장된 점의 개수.
+	public long size() {
+		return size;
+	}
+
+	// flush 메서드. 헤더를 기록하고 바뀐 페이지를 모두 저장 장치에 내려씀.
+	public void flush() throws IOException {
+		writeHeader();
+		store.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		writeHeader();
+		store.close();
+	}
+
+	// height 메서드. 트리의 레벨 수 (leaf만 있으면 1).
+	int height() {
+		return height;
+	}
+
+	int rootPage() {
+		return rootPage;
+	}
+
+	int leafCapacity() {
+		return leafCapacity;
+	}
+
+	int internalCapacity() {
+		return internalCapacity;
+	}
+
+	// search 헬퍼 메서드. 페이지 버퍼에서 질의 사각형과 겹치는 엔트리만 따라 내려감.
+	private void search(int page, double qMinX, double qMinY, double qMaxX, double qMaxY, List<Point> result)
+			throws IOException {
+		ByteBuffer buf = store.pin(page);
+		try {
+			int count = buf.getInt(N_COUNT);
+			if (buf.get(N_TYPE) == LEAF) {
+				for (int i = 0, at = N_ENTRIES; i < count; i++, at += LEAF_ENTRY_BYTES) {
+					double x = buf.getDouble(at);
+					double y = buf.getDouble(at + 8);
+					if (x >= qMinX && x <= qMaxX && y >= qMinY && y <= qMaxY) {
+						result.add(new Point(x, y));
+					}
+				}
+				return;
+			}
+			for (int i = 0, at = N_ENTRIES; i < count; i++, at += INTERNAL_ENTRY_BYTES) {
+				if (buf.getDouble(at) <= qMaxX && buf.getDouble(at + 16) >= qMinX && buf.getDouble(at + 8) <= qMaxY
+						&& buf.getDouble(at + 24) >= qMinY) {
+					search(buf.getInt(at + 32), qMinX, qMinY, qMaxX, qMaxY, result);
+				}
+			}
+		} finally {
+			store.unpin(page, false);
+		}
+	}
+
+	// findLeaf 헬퍼 메서드. (x, y)가 들어있는 leaf까지의 경로를 pages/slots에 기록하고 찾았으면 true.
+	// pages[d]는 깊이 d의 페이지, slots[d]는 그 페이지에서 다음 깊이로 내려간 엔트리(leaf이면 점) 번호.
+	private boolean findLeaf(int page, int depth, double x, double y, int[] pages, int[] slots) throws IOException {
+		ByteBuffer buf = store.pin(page);
+		try {
+			pages[depth] = page;
+			int count = buf.getInt(N_COUNT);
+			if (buf.get(N_TYPE) == LEAF) {
+				for (int i = 0, at = N_ENTRIES; i < count; i++, at += LEAF_ENTRY_BYTES) {
+					if (buf.getDouble(at) == x && buf.getDouble(at + 8) == y) {
+						slots[depth] = i;
+						return true;
+					}
+				}
+				return false;
+			}
+			for (int i = 0, at = N_ENTRIES; i < count; i++, at += INTERNAL_ENTRY_BYTES) {
+				if (buf.getDouble(at) <= x && buf.getDouble(at + 16) >= x && buf.getDouble(at + 8) <= y
+						&& buf.getDouble(at + 24) >= y) {
+					slots[depth] = i;
+					if (findLeaf(buf.getInt(at + 32), depth + 1, x, y, pages, slots)) {
+						return true;
+					}
+				}
+			}
+			return false;
+		} finally {
+			store.unpin(page, false);
+		}
+	}
+
+	// insert 메서드. level 레벨(leaf = 0)의 노드에 엔트리를 넣고, 넘친 노드를 분할하며 경로의 MBR을 갱신.
+	// level이 0이면 점 (minX, minY), 아니면 child 페이지와 그 MBR.
+	private void insert(int level, double minX, double minY, double maxX, double maxY, int child) throws IOException {
+		int target = height - 1 - level;
+		int[] pages = new int[target + 1];
+		int[] slots = new int[target + 1];
+		int page = rootPage;
+		for (int d = 0; d < target; d++) {
+			pages[d] = page;
+			slots[d] = chooseSlot(page, minX, minY, maxX, maxY);
+			ByteBuffer buf = store.pin(page);
+			int next = buf.getInt(N_ENTRIES + slots[d] * INTERNAL_ENTRY_BYTES + 32);
+			store.unpin(page, false);
+			page = next;
+		}
+		pages[target] = page;
+
+		Node node = readNode(page);
+		int slot = node.count++;
+		if (node.leaf) {
+			node.minX[slot] = minX;
+			node.minY[slot] = minY;
+		} else {
+			setSlot(node, slot, new double[] { minX, minY, maxX, maxY }, child);
+		}
+
+		for (int d = target;; d--) {
+			Node sibling = node.count > capacity(node) ? splitNode(node) : null;
+			writeNode(pages[d], node);
+			int siblingPage = -1;
+			if (sibling != null) {
+				siblingPage = allocate();
+				writeNode(siblingPage, sibling);
+			}
+			if (d == 0) {
+				if (sibling != null) {
+					Node newRoot = new Node(false, internalCapacity + 1);
+					setSlot(newRoot, 0, bounds(node), pages[0]);
+					setSlot(newRoot, 1, bounds(sibling), siblingPage);
+					newRoot.count = 2;
+					rootPage = allocate();
+					writeNode(rootPage, newRoot);
+					height++;
+				}
+				return;
+			}
+			Node parent = readNode(pages[d - 1]);
+			boolean changed = setSlot(parent, slots[d - 1], bounds(node), pages[d]);
+			if (sibling != null) {
+				setSlot(parent, parent.count++, bounds(sibling), siblingPage);
+			} else if (!changed) {
+				return;
+			}
+			node = parent;
+		}
+	}
+
+	// chooseSlot 헬퍼 메서드. 내부 노드 페이지에서 면적 증가(동률이면 면적)가 가장 작은 엔트리 번호.
+	private int chooseSlot(int page, double minX, double minY, double maxX, double maxY) throws IOException {
+		ByteBuffer buf = store.pin(page);
+		try {
+			int count = buf.getInt(N_COUNT);
+			int best = 0;
+			double bestEnlargement = Double.POSITIVE_INFINITY;
+			double bestArea = Double.POSITIVE_INFINITY;
+			for (int i = 0, at = N_ENTRIES; i < count; i++, at += INTERNAL_ENTRY_BYTES) {
+				double eMinX = buf.getDouble(at);
+				double eMinY = buf.getDouble(at + 8);
+				double eMaxX = buf.getDouble(at + 16);
+				double eMaxY = buf.getDouble(at + 24);
+				double area = (eMaxX - eMinX) * (eMaxY - eMinY);
+				double enlargement = (Math.max(eMaxX, maxX) - Math.min(eMinX, minX))
+						* (Math.max(eMaxY, maxY) - Math.min(eMinY, minY)) - area;
+				if (enlargement < bestEnlargement || (enlargement == bestEnlargement && area < bestArea)) {
+					best = i;
+					bestEnlargement = enlargement;
+					bestArea = area;
+				}
+			}
+			return best;
+		} finally {
+			store.unpin(page, false);
+		}
+	}
+
+	// delete 헬퍼 메서드. 점을 지우고 경로를 올라가며 최소 채움 미만인 노드를 떼어낸 뒤, 그 엔트리를 원래 레벨에 다시 삽입.
+	private void delete(double x, double y) throws IOException {
+		int[] pages = new int[height];
+		int[] slots = new int[height];
+		if (!findLeaf(rootPage, 0, x, y, pages, slots)) {
+			return;
+		}
+		size--;
+		if (size == 0) {
+			freeSubtree(rootPage);
+			rootPage = allocate();
+			writeNode(rootPage, new Node(true, 0));
+			height = 1;
+			writeHeader();
+			return;
+		}
+
+		int leafDepth = height - 1;
+		Node node = readNode(pages[leafDepth]);
+		removeSlot(node, slots[leafDepth]);
+		List<Node> orphans = new ArrayList<>();
+		List<Integer> orphanLevels = new ArrayList<>();
+		for (int d = leafDepth; d > 0; d--) {
+			Node parent = readNode(pages[d - 1]);
+			if (node.count < (node.leaf ? minLeafEntries : minInternalEntries)) {
+				removeSlot(parent, slots[d - 1]);
+				orphans.add(node);
+				orphanLevels.add(leafDepth - d);
+				freePage(pages[d]);
+			} else {
+				writeNode(pages[d], node);
+				setSlot(parent, slots[d - 1], bounds(node), pages[d]);
+			}
+			node = parent;
+		}
+		writeNode(pages[0], node);
+
+		for (int o = 0; o < orphans.size(); o++) {
+			Node orphan = orphans.get(o);
+			for (int i = 0; i < orphan.count; i++) {
+				if (orphan.leaf) {
+					insert(0, orphan.minX[i], orphan.minY[i], orphan.minX[i], orphan.minY[i], -1);
+				} else {
+					insert(orphanLevels.get(o), orphan.minX[i], orphan.minY[i], orphan.maxX[i], orphan.maxY[i],
+							orphan.child[i]);
+				}
+			}
+		}
+
+		while (height > 1) {
+			Node root = readNode(rootPage);
+			if (root.count != 1) {
+				break;
+			}
+			freePage(rootPage);
+			rootPage = root.child[0];
+			height--;
+		}
+		writeHeader();
+	}
+
+	// splitNode 메서드. splitStrategy가 두 번째 그룹으로 고른 슬롯을 새 노드로 옮기고, 남은 슬롯은 앞으로 당김.
+	private Node splitNode(Node node) {
+		int minEntries = node.leaf ? minLeafEntries : minInternalEntries;
+		boolean[] second = splitStrategy.split(node.minX, node.minY, node.leaf ? node.minX : node.maxX,
+				node.leaf ? node.minY : node.maxY, node.count, minEntries);
+		Node sibling = new Node(node.leaf, capacity(node) + 1);
+		int kept = 0;
+		for (int i = 0; i < node.count; i++) {
+			Node target = second[i] ? sibling : node;
+			int to = second[i] ? sibling.count++ : kept++;
+			target.minX[to] = node.minX[i];
+			target.minY[to] = node.minY[i];
+			if (!node.leaf) {
+				target.maxX[to] = node.maxX[i];
+				target.maxY[to] = node.maxY[i];
+				target.child[to] = node.child[i];
+			}
+		}
+		node.count = kept;
+		return sibling;
+	}
+
+	private int capacity(Node node) {
+		return node.leaf ? leafCapacity : internalCapacity;
+	}
+
+	// readNode 메서드. 페이지를 작업용 Node로 읽음. 배열은 분할 전 한 개를 더 넣을 수 있는 크기.
+	Node readNode(int page) throws IOException {
+		ByteBuffer buf = store.pin(page);
+		try {
+			boolean leaf = buf.get(N_TYPE) == LEAF;
+			Node node = new Node(leaf, (leaf ? leafCapacity : internalCapacity) + 1);
+			node.count = buf.getInt(N_COUNT);
+			if (leaf) {
+				for (int i = 0, at = N_ENTRIES; i < node.count; i++, at += LEAF_ENTRY_BYTES) {
+					node.minX[i] = buf.getDouble(at);
+					node.minY[i] = buf.getDouble(at + 8);
+				}
+			} else {
+				for (int i = 0, at = N_ENTRIES; i < node.count; i++, at += INTERNAL_ENTRY_BYTES) {
+					node.minX[i] = buf.getDouble(at);
+					node.minY[i] = buf.getDouble(at + 8);
+					node.maxX[i] = buf.getDouble(at + 16);
+					node.maxY[i] = buf.getDouble(at + 24);
+					node.child[i] = buf.getInt(at + 32);
+				}
+			}
+			return node;
+		} finally {
+			store.unpin(page, false);
+		}
+	}
+
+	// writeNode 메서드. 작업용 Node를 페이지에 씀.
+	private void writeNode(int page, Node node) throws IOException {
+		ByteBuffer buf = store.pin(page);
+		try {
+			buf.put(N_TYPE, node.leaf ? LEAF : INTERNAL);
+			buf.putInt(N_COUNT, node.count);
+			if (node.leaf) {
+				for (int i = 0, at = N_ENTRIES; i < node.count; i++, at += LEAF_ENTRY_BYTES) {
+					buf.putDouble(at, node.minX[i]);
+					buf.putDouble(at + 8, node.minY[i]);
+				}
+			} else {
+				for (int i = 0, at = N_ENTRIES; i < node.count; i++, at += INTERNAL_ENTRY_BYTES) {
+					buf.putDouble(at, node.minX[i]);
+					buf.putDouble(at + 8, node.minY[i]);
+					buf.putDouble(at + 16, node.maxX[i]);
+					buf.putDouble(at + 24, node.maxY[i]);
+					buf.putInt(at + 32, node.child[i]);
+				}
+			}
+		} finally {
+			store.unpin(page, true);
+		}
+		store.retain(page, !node.leaf);
+	}
+
+	// retainUpperLevels 메서드. 다시 연 트리의 내부 노드 페이지를 루트부터 레벨 순서로 저장소에 알림. leaf 페이지는 읽지 않음.
+	private void retainUpperLevels() throws IOException {
+		List<Integer> level = List.of(rootPage);
+		for (int depth = 0; depth < height - 1; depth++) {
+			List<Integer> next = new ArrayList<>();
+			for (int page : level) {
+				store.retain(page, true);
+				if (depth + 1 < height - 1) {
+					Node node = readNode(page);
+					for (int i = 0; i < node.count; i++) {
+						next.add(node.child[i]);
+					}
+				}
+			}
+			level = next;
+		}
+	}
+
+	private void writeHeader() throws IOException {
+		ByteBuffer header = store.pin(HEADER_PAGE);
+		try {
+			header.putInt(H_MAGIC, MAGIC);
+			header.putInt(H_VERSION, VERSION);
+			header.putInt(H_PAGE_SIZE, store.pageSize());
+			header.putInt(H_ROOT, rootPage);
+			header.putInt(H_HEIGHT, height);
+			header.putLong(H_SIZE, size);
+			header.putInt(H_FREE, freeHead);
+		} finally {
+			store.unpin(HEADER_PAGE, true);
+		}
+	}
+
+	// allocate 메서드. 빈 페이지 목록의 첫 페이지를 꺼내고, 목록이 비어있으면 저장소를 늘림.
+	private int allocate() throws IOException {
+		if (freeHead < 0) {
+			return store.extend();
+		}
+		int page = freeHead;
+		ByteBuffer buf = store.pin(page);
+		try {
+			freeHead = buf.getInt(N_COUNT);
+		} finally {
+			store.unpin(page, false);
+		}
+		return page;
+	}
+
+	private void freePage(int page) throws IOException {
+		ByteBuffer buf = store.pin(page);
+		try {
+			buf.put(N_TYPE, FREE);
+			buf.putInt(N_COUNT, freeHead);
+		} finally {
+			store.unpin(page, true);
+		}
+		store.retain(page, false);
+		freeHead = page;
+	}
+
+	private void freeSubtree(int page) throws IOException {
+		Node node = readNode(page);
+		if (!node.leaf) {
+			for (int i = 0; i < node.count; i++) {
+				freeSubtree(node.child[i]);
+			}
+		}
+		freePage(page);
+	}
+
+	// setSlot 헬퍼 메서드. 내부 노드 slot에 child와 MBR b를 기록하고, MBR이 달라졌으면 true.
+	private static boolean setSlot(Node node, int slot, double[] b, int child) {
+		boolean changed = node.minX[slot] != b[0] || node.minY[slot] != b[1] || node.maxX[slot] != b[2]
+				|| node.maxY[slot] != b[3];
+		node.minX[slot] = b[0];
+		node.minY[slot] = b[1];
+		node.maxX[slot] = b[2];
+		node.maxY[slot] = b[3];
+		node.child[slot] = child;
+		return changed;
+	}
+
+	// removeSlot 헬퍼 메서드. 마지막 슬롯을 slot 자리로 옮겨 슬롯을 지움.
+	private static void removeSlot(Node node, int slot) {
+		int last = node.count - 1;
+		node.minX[slot] = node.minX[last];
+		node.minY[slot] = node.minY[last];
+		if (!node.leaf) {
+			node.maxX[slot] = node.maxX[last];
+			node.maxY[slot] = node.maxY[last];
+			node.child[slot] = node.child[last];
+		}
+		node.count = last;
+	}
+
+	// bounds 헬퍼 메서드. 노드의 모든 슬롯을 감싸는 MBR { minX, minY, maxX, maxY }.
+	private static double[] bounds(Node node) {
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < node.count; i++) {
+			minX = Math.min(minX, node.minX[i]);
+			minY = Math.min(minY, node.minY[i]);
+			maxX = Math.max(maxX, node.slotMaxX(i));
+			maxY = Math.max(maxY, node.slotMaxY(i));
+		}
+		return new double[] { minX, minY, maxX, maxY };
+	}
+}
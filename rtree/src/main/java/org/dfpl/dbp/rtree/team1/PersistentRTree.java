@@ -0,0 +1,551 @@
+package org.dfpl.dbp.rtree.team1;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 노드를 한 번 만들면 바꾸지 않는 persistent(path-copying) R-Tree 입니다.
+ *
+ * add와 delete는 루트에서 바뀌는 leaf까지의 경로에 있는 노드만 새로 만들고 나머지 서브트리는 이전 버전과 공유한
+ * 뒤, 새 루트를 AtomicReference에 compareAndSet으로 게시합니다. 노드에 parent 포인터가 없어 여러 버전이 같은
+ * 서브트리를 공유할 수 있습니다. 다른 쓰기 스레드가 먼저 게시했으면 새 루트에서 다시 시도합니다.
+ *
+ * search와 nearest는 호출 시점의 루트를 잡고 잠금 없이 순회하므로 쓰기와 서로 기다리지 않습니다. snapshot()은
+ * 그 시점의 트리를 그대로 보여주는 읽기 전용 Snapshot을 O(1)에 반환하며, 이후의 수정은 Snapshot에 보이지 않습니다.
+ * search가 반환하는 iterator도 만든 시점의 버전을 순회하므로 도중에 트리가 바뀌어도 예외 없이 끝까지 읽을 수 있습니다.
+ *
+ * 삭제 후 최소 채움 미만이 된 노드는 FlatRTree처럼 떼어내 엔트리를 원래 레벨에 다시 삽입합니다.
+ * RTreeObserver는 지원하지 않습니다.
+ */
+public class PersistentRTree implements RTree {
+
+	private final int maxEntries;
+	private final int minEntries;
+	private final SplitStrategy splitStrategy;
+	private final AtomicReference<Snapshot> current;
+
+	// Node 클래스. 만든 뒤에는 바뀌지 않음. leaf이면 points, 내부 노드이면 children만 사용하며 배열 길이가 곧 엔트리 수.
+	static final class Node {
+		final Point[] points;
+		final Node[] children;
+		final double minX;
+		final double minY;
+		final double maxX;
+		final double maxY;
+
+		Node(Point[] points) {
+			this.points = points;
+			this.children = null;
+			double x0 = Double.POSITIVE_INFINITY, y0 = Double.POSITIVE_INFINITY;
+			double x1 = Double.NEGATIVE_INFINITY, y1 = Double.NEGATIVE_INFINITY;
+			for (Point p : points) {
+				x0 = Math.min(x0, p.getX());
+				y0 = Math.min(y0, p.getY());
+				x1 = Math.max(x1, p.getX());
+				y1 = Math.max(y1, p.getY());
+			}
+			this.minX = x0;
+			this.minY = y0;
+			this.maxX = x1;
+			this.maxY = y1;
+		}
+
+		Node(Node[] children) {
+			this.points = null;
+			this.children = children;
+			double x0 = Double.POSITIVE_INFINITY, y0 = Double.POSITIVE_INFINITY;
+			double x1 = Double.NEGATIVE_INFINITY, y1 = Double.NEGATIVE_INFINITY;
+			for (Node c : children) {
+				x0 = Math.min(x0, c.minX);
+				y0 = Math.min(y0, c.minY);
+				x1 = Math.max(x1, c.maxX);
+				y1 = Math.max(y1, c.maxY);
+			}
+			this.minX = x0;
+			this.minY = y0;
+			this.maxX = x1;
+			this.maxY = y1;
+		}
+
+		boolean isLeaf() {
+			return children == null;
+		}
+
+		int count() {
+			return children == null ? points.length : children.length;
+		}
+	}
+
+	/**
+	 * 한 시점의 트리입니다. 바뀌지 않으므로 여러 스레드가 잠금 없이 함께 읽을 수 있습니다.
+	 */
+	public static final class Snapshot {
+		final Node root;
+		// 루트의 레벨 (leaf = 0).
+		final int height;
+		final int size;
+
+		Snapshot(Node root, int height, int size) {
+			this.root = root;
+			this.height = height;
+			this.size = size;
+		}
+
+		/**
+		 * rectangle 범위 안의 Point를 lazy하게 순회합니다.
+		 *
+		 * @param rectangle
+		 * @return 범위 안의 Point iterator
+		 */
+		public Iterator<Point> search(Rectangle rectangle) {
+			return new SearchIterator(root, rectangle);
+		}
+
+		/**
+		 * source에서 가까운 순서로 최대 maxCount개의 Point를 반환합니다.
+		 *
+		 * @param source
+		 * @param maxCount
+		 * @return 가까운 순서의 Point iterator
+		 */
+		public Iterator<Point> nearest(Point source, int maxCount) {
+			return PersistentRTree.nearest(root, source, maxCount);
+		}
+
+		/**
+		 * @param point
+		 * @return 같은 좌표의 Point가 있으면 true
+		 */
+		public boolean contains(Point point) {
+			return PersistentRTree.contains(root, point.getX(), point.getY());
+		}
+
+		/**
+		 * @return Point 수
+		 */
+		public int size() {
+			return size;
+		}
+
+		public boolean isEmpty() {
+			return size == 0;
+		}
+	}
+
+	/**
+	 * M=32, m=16, quadratic split을 사용하는 트리를 생성합니다.
+	 */
+	public PersistentRTree() {
+		this(FlatRTree.DEFAULT_MAX_ENTRIES, FlatRTree.DEFAULT_MAX_ENTRIES / 2, SplitStrategy.QUADRATIC);
+	}
+
+	/**
+	 * @param maxEntries    노드의 최대 엔트리 수 (M >= 2)
+	 * @param minEntries    루트가 아닌 노드의 최소 엔트리 수 (1 <= m <= M/2)
+	 * @param splitStrategy 넘친 노드의 분할 알고리즘
+	 */
+	public PersistentRTree(int maxEntries, int minEntries, SplitStrategy splitStrategy) {
+		if (maxEntries < 2 || minEntries < 1 || minEntries > maxEntries / 2) {
+			throw new IllegalArgumentException(
+					"노드 용량이 잘못되었습니다: M=" + maxEntries + ", m=" + minEntries + " (2 <= M, 1 <= m <= M/2)");
+		}
+		if (splitStrategy == null) {
+			throw new IllegalArgumentException("splitStrategy가 null입니다.");
+		}
+		this.maxEntries = maxEntries;
+		this.minEntries = minEntries;
+		this.splitStrategy = splitStrategy;
+		this.current = new AtomicReference<>(new Snapshot(new Node(new Point[0]), 0, 0));
+	}
+
+	/**
+	 * 현재 트리를 O(1)에 반환합니다. 이후의 add, delete는 반환된 Snapshot에 영향을 주지 않습니다.
+	 *
+	 * @return 현재 시점의 Snapshot
+	 */
+	public Snapshot snapshot() {
+		return current.get();
+	}
+
+	/**
+	 * @return Point 수
+	 */
+	public int size() {
+		return current.get().size;
+	}
+
+	@Override
+	public void add(Point point) {
+		while (true) {
+			Snapshot before = current.get();
+			if (contains(before.root, point.getX(), point.getY())) {
+				return;
+			}
+			Snapshot after = insert(before, point, 0);
+			after = new Snapshot(after.root, after.height, before.size + 1);
+			if (current.compareAndSet(before, after)) {
+				return;
+			}
+		}
+	}
+
+	@Override
+	public Iterator<Point> search(Rectangle rectangle) {
+		return current.get().search(rectangle);
+	}
+
+	@Override
+	public Iterator<Point> nearest(Point source, int maxCount) {
+		return current.get().nearest(source, maxCount);
+	}
+
+	@Override
+	public void delete(Point point) {
+		while (true) {
+			Snapshot before = current.get();
+			Snapshot after = remove(before, point.getX(), point.getY());
+			if (after == null || current.compareAndSet(before, after)) {
+				return;
+			}
+		}
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return current.get().size == 0;
+	}
+
+	// contains 헬퍼 메서드. (x, y)를 MBR에 포함하는 서브트리만 따라 내려가며 같은 좌표의 점을 찾음.
+	private static boolean contains(Node node, double x, double y) {
+		if (node.isLeaf()) {
+			for (Point p : node.points) {
+				if (p.getX() == x && p.getY() == y) {
+					return true;
+				}
+			}
+			return false;
+		}
+		for (Node c : node.children) {
+			if (c.minX <= x && c.maxX >= x && c.minY <= y && c.maxY >= y && contains(c, x, y)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// insert 메서드. entry(Point 또는 서브트리)를 level 레벨 노드에 넣은 새 버전을 반환. size는 호출자가 정함.
+	// 루트가 분할되면 두 노드를 자식으로 하는 새 루트를 만들어 높이를 1 늘림.
+	private Snapshot insert(Snapshot snapshot, Object entry, int level) {
+		Node[] result = insert(snapshot.root, snapshot.height, entry, level);
+		if (result.length == 1) {
+			return new Snapshot(result[0], snapshot.height, snapshot.size);
+		}
+		return new Snapshot(new Node(result), snapshot.height + 1, snapshot.size);
+	}
+
+	// insert 헬퍼 메서드. node를 대신할 새 노드 하나, 또는 분할된 두 노드를 반환. node 자체는 바꾸지 않음.
+	private Node[] insert(Node node, int nodeLevel, Object entry, int level) {
+		if (nodeLevel == level) {
+			if (node.isLeaf()) {
+				Point[] points = Arrays.copyOf(node.points, node.points.length + 1);
+				points[points.length - 1] = (Point) entry;
+				return points.length > maxEntries ? splitLeaf(points) : new Node[] { new Node(points) };
+			}
+			Node[] children = Arrays.copyOf(node.children, node.children.length + 1);
+			children[children.length - 1] = (Node) entry;
+			return children.length > maxEntries ? splitInternal(children) : new Node[] { new Node(children) };
+		}
+
+		double eMinX, eMinY, eMaxX, eMaxY;
+		if (entry instanceof Point) {
+			Point p = (Point) entry;
+			eMinX = eMaxX = p.getX();
+			eMinY = eMaxY = p.getY();
+		} else {
+			Node n = (Node) entry;
+			eMinX = n.minX;
+			eMinY = n.minY;
+			eMaxX = n.maxX;
+			eMaxY = n.maxY;
+		}
+		int best = chooseSubtree(node.children, eMinX, eMinY, eMaxX, eMaxY);
+		Node[] replaced = insert(node.children[best], nodeLevel - 1, entry, level);
+
+		Node[] children = Arrays.copyOf(node.children, node.children.length + replaced.length - 1);
+		children[best] = replaced[0];
+		if (replaced.length == 2) {
+			children[children.length - 1] = replaced[1];
+		}
+		return children.length > maxEntries ? splitInternal(children) : new Node[] { new Node(children) };
+	}
+
+	// chooseSubtree 헬퍼 메서드. 면적 증가(동률이면 면적)가 가장 작은 자식의 번호.
+	private static int chooseSubtree(Node[] children, double minX, double minY, double maxX, double maxY) {
+		int best = 0;
+		double bestEnlargement = Double.POSITIVE_INFINITY;
+		double bestArea = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < children.length; i++) {
+			Node c = children[i];
+			double area = (c.maxX - c.minX) * (c.maxY - c.minY);
+			double enlarged = (Math.max(c.maxX, maxX) - Math.min(c.minX, minX))
+					* (Math.max(c.maxY, maxY) - Math.min(c.minY, minY));
+			double enlargement = enlarged - area;
+			if (enlargement < bestEnlargement || (enlargement == bestEnlargement && area < bestArea)) {
+				best = i;
+				bestEnlargement = enlargement;
+				bestArea = area;
+			}
+		}
+		return best;
+	}
+
+	// splitLeaf 메서드. M + 1개의 점을 splitStrategy로 나눈 두 leaf.
+	private Node[] splitLeaf(Point[] points) {
+		int n = points.length;
+		double[] xs = new double[n];
+		double[] ys = new double[n];
+		for (int i = 0; i < n; i++) {
+			xs[i] = points[i].getX();
+			ys[i] = points[i].getY();
+		}
+		boolean[] second = split(xs, ys, xs, ys, n);
+		Point[] a = new Point[count(second, false)];
+		Point[] b = new Point[n - a.length];
+		for (int i = 0, ia = 0, ib = 0; i < n; i++) {
+			if (second[i]) {
+				b[ib++] = points[i];
+			} else {
+				a[ia++] = points[i];
+			}
+		}
+		return new Node[] { new Node(a), new Node(b) };
+	}
+
+	// splitInternal 메서드. M + 1개의 자식을 splitStrategy로 나눈 두 내부 노드.
+	private Node[] splitInternal(Node[] children) {
+		int n = children.length;
+		double[] minX = new double[n];
+		double[] minY = new double[n];
+		double[] maxX = new double[n];
+		double[] maxY = new double[n];
+		for (int i = 0; i < n; i++) {
+			minX[i] = children[i].minX;
+			minY[i] = children[i].minY;
+			maxX[i] = children[i].maxX;
+			maxY[i] = children[i].maxY;
+		}
+		boolean[] second = split(minX, minY, maxX, maxY, n);
+		Node[] a = new Node[count(second, false)];
+		Node[] b = new Node[n - a.length];
+		for (int i = 0, ia = 0, ib = 0; i < n; i++) {
+			if (second[i]) {
+				b[ib++] = children[i];
+			} else {
+				a[ia++] = children[i];
+			}
+		}
+		return new Node[] { new Node(a), new Node(b) };
+	}
+
+	private boolean[] split(double[] minX, double[] minY, double[] maxX, double[] maxY, int n) {
+		boolean[] second = splitStrategy.split(minX, minY, maxX, maxY, n, minEntries);
+		int b = count(second, true);
+		if (b < minEntries || n - b < minEntries) {
+			throw new IllegalStateException(
+					splitStrategy.getClass().getSimpleName() + "가 최소 채움(m=" + minEntries + ")을 지키지 않았습니다.");
+		}
+		return second;
+	}
+
+	private static int count(boolean[] flags, boolean value) {
+		int count = 0;
+		for (boolean f : flags) {
+			if (f == value) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	// remove 메서드. (x, y)를 지운 새 버전을 반환. 없으면 null.
+	// 최소 채움 미만이 된 노드는 부모에서 떼어내고, 그 엔트리를 원래 레벨에 다시 삽입한 뒤 자식이 하나뿐인 루트를 줄임.
+	private Snapshot remove(Snapshot snapshot, double x, double y) {
+		List<Object> orphans = new ArrayList<>();
+		List<Integer> orphanLevels = new ArrayList<>();
+		Node root = remove(snapshot.root, snapshot.height, x, y, orphans, orphanLevels);
+		if (root == null) {
+			return null;
+		}
+		if (snapshot.size == 1) {
+			return new Snapshot(new Node(new Point[0]), 0, 0);
+		}
+
+		Snapshot result = new Snapshot(root, snapshot.height, snapshot.size - 1);
+		for (int i = 0; i < orphans.size(); i++) {
+			result = insert(result, orphans.get(i), orphanLevels.get(i));
+		}
+		root = result.root;
+		int height = result.height;
+		while (!root.isLeaf() && root.children.length == 1) {
+			root = root.children[0];
+			height--;
+		}
+		return new Snapshot(root, height, result.size);
+	}
+
+	// remove 헬퍼 메서드. node에서 (x, y)를 지운 새 노드를 반환. 서브트리에 없으면 null.
+	// 자식이 최소 채움 미만이 되면 그 자식을 빼고 엔트리를 orphans에 (들어갈 레벨과 함께) 모음.
+	private Node remove(Node node, int nodeLevel, double x, double y, List<Object> orphans,
+			List<Integer> orphanLevels) {
+		if (node.isLeaf()) {
+			for (int i = 0; i < node.points.length; i++) {
+				Point p = node.points[i];
+				if (p.getX() == x && p.getY() == y) {
+					Point[] points = new Point[node.points.length - 1];
+					System.arraycopy(node.points, 0, points, 0, i);
+					System.arraycopy(node.points, i + 1, points, i, points.length - i);
+					return new Node(points);
+				}
+			}
+			return null;
+		}
+		for (int i = 0; i < node.children.length; i++) {
+			Node c = node.children[i];
+			if (c.minX > x || c.maxX < x || c.minY > y || c.maxY < y) {
+				continue;
+			}
+			Node replaced = remove(c, nodeLevel - 1, x, y, orphans, orphanLevels);
+			if (replaced == null) {
+				continue;
+			}
+			if (replaced.count() >= minEntries) {
+				Node[] children = node.children.clone();
+				children[i] = replaced;
+				return new Node(children);
+			}
+			if (replaced.isLeaf()) {
+				for (Point p : replaced.points) {
+					orphans.add(p);
+					orphanLevels.add(0);
+				}
+			} else {
+				for (Node orphan : replaced.children) {
+					orphans.add(orphan);
+					orphanLevels.add(nodeLevel - 1);
+				}
+			}
+			Node[] children = new Node[node.children.length - 1];
+			System.arraycopy(node.children, 0, children, 0, i);
+			System.arraycopy(node.children, i + 1, children, i, children.length - i);
+			return new Node(children);
+		}
+		return null;
+	}
+
+	// nearest 헬퍼 메서드. 노드와 점을 MINDIST^2 순서로 꺼내는 best-first 탐색.
+	private static Iterator<Point> nearest(Node root, Point source, int maxCount) {
+		double sx = source.getX();
+		double sy = source.getY();
+		List<Point> result = new ArrayList<>();
+		DistanceHeap<Object> heap = new DistanceHeap<>(64);
+		heap.add(0, root);
+		while (!heap.isEmpty() && result.size() < maxCount) {
+			Object top = heap.poll();
+			if (top instanceof Point) {
+				result.add((Point) top);
+				continue;
+			}
+			Node node = (Node) top;
+			if (node.isLeaf()) {
+				for (Point p : node.points) {
+					double dx = p.getX() - sx;
+					double dy = p.getY() - sy;
+					heap.add(dx * dx + dy * dy, p);
+				}
+			} else {
+				for (Node c : node.children) {
+					double dx = Math.max(0, Math.max(c.minX - sx, sx - c.maxX));
+					double dy = Math.max(0, Math.max(c.minY - sy, sy - c.maxY));
+					heap.add(dx * dx + dy * dy, c);
+				}
+			}
+		}
+		return result.iterator();
+	}
+
+	// SearchIterator 클래스. 바뀌지 않는 노드를 스택으로 순회하므로 트리가 수정되어도 만든 시점의 결과를 반환.
+	private static final class SearchIterator implements Iterator<Point> {
+		private final double qMinX;
+		private final double qMinY;
+		private final double qMaxX;
+		private final double qMaxY;
+		private final ArrayDeque<Node> stack = new ArrayDeque<>();
+		private Point[] leaf;
+		private int index;
+		private Point next;
+
+		SearchIterator(Node root, Rectangle rectangle) {
+			qMinX = rectangle.getLeftTop().getX();
+			qMinY = rectangle.getLeftTop().getY();
+			qMaxX = rectangle.getRightBottom().getX();
+			qMaxY = rectangle.getRightBottom().getY();
+			if (root.count() > 0) {
+				stack.push(root);
+			}
+			advance();
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next != null;
+		}
+
+		@Override
+		public Point next() {
+			if (next == null) {
+				throw new NoSuchElementException();
+			}
+			Point result = next;
+			advance();
+			return result;
+		}
+
+		// advance 메서드. 현재 leaf의 남은 점을 확인하고, 다 보면 스택에서 겹치는 노드를 꺼내 내려감.
+		private void advance() {
+			while (true) {
+				if (leaf != null) {
+					while (index < leaf.length) {
+						Point p = leaf[index++];
+						double x = p.getX();
+						double y = p.getY();
+						if (x >= qMinX && x <= qMaxX && y >= qMinY && y <= qMaxY) {
+							next = p;
+							return;
+						}
+					}
+					leaf = null;
+				}
+				if (stack.isEmpty()) {
+					next = null;
+					return;
+				}
+				Node node = stack.pop();
+				if (node.isLeaf()) {
+					leaf = node.points;
+					index = 0;
+					continue;
+				}
+				for (Node c : node.children) {
+					if (c.minX <= qMaxX && c.maxX >= qMinX && c.minY <= qMaxY && c.maxY >= qMinY) {
+						stack.push(c);
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,148 @@
+package org.dfpl.dbp.rtree.team1;
+
+/**
+ * 정확한 (x, y) 좌표에서 값(RTreeImpl에서는 점이 들어있는 leaf)으로 가는 해시 색인입니다.
+ *
+ * 키는 두 좌표의 long 비트 패턴이며, 박싱 없이 long 배열 두 개와 값 배열 하나에 선형 탐사(linear probing)로
+ * 저장합니다. 삭제는 뒤따르는 엔트리를 당겨와(backward shift) 삭제 표시를 남기지 않습니다. 트리의 좌표 비교(==)와
+ * 맞추기 위해 -0.0은 0.0과 같은 키로 보고, NaN 좌표는 넣지 않습니다(== 비교로는 찾을 수 없는 점이므로). 스레드
+ * 안전하지 않습니다.
+ */
+final class PointIndex<T> {
+
+	private static final int MIN_CAPACITY = 16;
+
+	private long[] xs;
+	private long[] ys;
+	private Object[] values;
+	private int mask;
+	private int size;
+
+	PointIndex() {
+		allocate(MIN_CAPACITY);
+	}
+
+	// get 메서드. (x, y)의 값. 없으면 null.
+	@SuppressWarnings("unchecked")
+	T get(double x, double y) {
+		if (Double.isNaN(x) || Double.isNaN(y)) {
+			return null;
+		}
+		long kx = bits(x);
+		long ky = bits(y);
+		for (int i = slot(kx, ky);; i = (i + 1) & mask) {
+			Object value = values[i];
+			if (value == null) {
+				return null;
+			}
+			if (xs[i] == kx && ys[i] == ky) {
+				return (T) value;
+			}
+		}
+	}
+
+	// put 메서드. (x, y)의 값을 value로 정함. 이미 있으면 값만 바꿈.
+	void put(double x, double y, T value) {
+		if (Double.isNaN(x) || Double.isNaN(y)) {
+			return;
+		}
+		long kx = bits(x);
+		long ky = bits(y);
+		int i = slot(kx, ky);
+		while (values[i] != null) {
+			if (xs[i] == kx && ys[i] == ky) {
+				values[i] = value;
+				return;
+			}
+			i = (i + 1) & mask;
+		}
+		xs[i] = kx;
+		ys[i] = ky;
+		values[i] = value;
+		// 채움 50%를 넘으면 두 배로 늘림
+		if (++size > (mask + 1) / 2) {
+			resize((mask + 1) * 2);
+		}
+	}
+
+	// remove 메서드. (x, y)를 지움. 없으면 아무것도 하지 않음.
+	void remove(double x, double y) {
+		if (Double.isNaN(x) || Double.isNaN(y)) {
+			return;
+		}
+		long kx = bits(x);
+		long ky = bits(y);
+		int i = slot(kx, ky);
+		while (true) {
+			if (values[i] == null) {
+				return;
+			}
+			if (xs[i] == kx && ys[i] == ky) {
+				break;
+			}
+			i = (i + 1) & mask;
+		}
+		// 빈자리 뒤의 엔트리 중 원래 자리에서 빈자리를 지나 밀려난 것을 당겨와 탐사 사슬이 끊기지 않게 함
+		int hole = i;
+		for (int j = (hole + 1) & mask; values[j] != null; j = (j + 1) & mask) {
+			int home = slot(xs[j], ys[j]);
+			if (((j - home) & mask) >= ((j - hole) & mask)) {
+				xs[hole] = xs[j];
+				ys[hole] = ys[j];
+				values[hole] = values[j];
+				hole = j;
+			}
+		}
+		values[hole] = null;
+		size--;
+	}
+
+	// clear 메서드. 모두 지우고 처음 크기로 되돌림.
+	void clear() {
+		allocate(MIN_CAPACITY);
+	}
+
+	int size() {
+		return size;
+	}
+
+	// bits 헬퍼 메서드. 좌표의 키. -0.0 + 0.0 == 0.0 이므로 두 0이 같은 비트가 됨.
+	private static long bits(double v) {
+		return Double.doubleToRawLongBits(v + 0.0);
+	}
+
+	private int slot(long kx, long ky) {
+		long h = kx * 0x9E3779B97F4A7C15L + ky;
+		h ^= h >>> 32;
+		h *= 0xD6E8FEB86659FD93L;
+		h ^= h >>> 32;
+		return (int) h & mask;
+	}
+
+	private void allocate(int capacity) {
+		xs = new long[capacity];
+		ys = new long[capacity];
+		values = new Object[capacity];
+		mask = capacity - 1;
+		size = 0;
+	}
+
+	private void resize(int capacity) {
+		long[] oldXs = xs;
+		long[] oldYs = ys;
+		Object[] oldValues = values;
+		allocate(capacity);
+		for (int i = 0; i < oldValues.length; i++) {
+			if (oldValues[i] != null) {
+				int j = slot(oldXs[i], oldYs[i]);
+				while (values[j] != null) {
+					j = (j + 1) & mask;
+				}
+				xs[j] = oldXs[i];
+				ys[j] = oldYs[i];
+				values[j] = oldValues[i];
+				size++;
+			}
+		}
+	}
+}
@@ -0,0 +1,138 @@
+package org.dfpl.dbp.rtree.team1;
+
+/**
+ * Guttman의 quadratic split 입니다.
+ *
+ * incremental이 false이면 기존 RTreeImpl.splitNode처럼 엔트리를 배정할 때마다 두 그룹의 MBR을 멤버 전체로부터
+ * 다시 계산합니다(O(M^3)). true이면 배정된 엔트리만 합쳐 MBR을 갱신합니다(O(M^2)). 두 방식의 결과는 같습니다.
+ */
+final class QuadraticSplit implements SplitStrategy {
+
+	private final boolean incremental;
+
+	QuadraticSplit(boolean incremental) {
+		this.incremental = incremental;
+	}
+
+	@Override
+	public boolean[] split(double[] minX, double[] minY, double[] maxX, double[] maxY, int count, int minEntries) {
+		boolean[] second = new boolean[count];
+		boolean[] assigned = new boolean[count];
+
+		// 1. PickSeeds: 함께 묶었을 때 낭비 면적이 가장 큰 두 엔트리
+		int seed1 = 0;
+		int seed2 = 1;
+		double maxWaste = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < count; i++) {
+			for (int j = i + 1; j < count; j++) {
+				double merged = (Math.max(maxX[i], maxX[j]) - Math.min(minX[i], minX[j]))
+						* (Math.max(maxY[i], maxY[j]) - Math.min(minY[i], minY[j]));
+				double waste = merged - area(minX, minY, maxX, maxY, i) - area(minX, minY, maxX, maxY, j);
+				if (waste > maxWaste) {
+					maxWaste = waste;
+					seed1 = i;
+					seed2 = j;
+				}
+			}
+		}
+		assigned[seed1] = true;
+		assigned[seed2] = true;
+		second[seed2] = true;
+		double[] g1 = { minX[seed1], minY[seed1], maxX[seed1], maxY[seed1] };
+		double[] g2 = { minX[seed2], minY[seed2], maxX[seed2], maxY[seed2] };
+		int size1 = 1;
+		int size2 = 1;
+		int remaining = count - 2;
+
+		while (remaining > 0) {
+			// 최소 채움을 지키기 위해 남은 엔트리를 한쪽에 몰아줌
+			if (size1 + remaining == minEntries || size2 + remaining == minEntries) {
+				boolean toSecond = size2 + remaining == minEntries && size1 + remaining != minEntries;
+				for (int i = 0; i < count; i++) {
+					if (!assigned[i]) {
+						assigned[i] = true;
+						second[i] = toSecond;
+					}
+				}
+				break;
+			}
+
+			// 2. PickNext: 두 그룹에 대한 면적 증가 차이가 가장 큰 엔트리
+			int next = -1;
+			double maxDiff = Double.NEGATIVE_INFINITY;
+			for (int i = 0; i < count; i++) {
+				if (assigned[i]) {
+					continue;
+				}
+				double diff = Math.abs(enlargement(g1, minX, minY, maxX, maxY, i)
+						- enlargement(g2, minX, minY, maxX, maxY, i));
+				if (diff > maxDiff) {
+					maxDiff = diff;
+					next = i;
+				}
+			}
+
+			double cost1 = enlargement(g1, minX, minY, maxX, maxY, next);
+			double cost2 = enlargement(g2, minX, minY, maxX, maxY, next);
+			double area1 = (g1[2] - g1[0]) * (g1[3] - g1[1]);
+			double area2 = (g2[2] - g2[0]) * (g2[3] - g2[1]);
+			boolean toSecond;
+			if (cost1 != cost2) {
+				toSecond = cost2 < cost1;
+			} else if (area1 != area2) {
+				toSecond = area2 < area1;
+			} else {
+				toSecond = size1 > size2;
+			}
+
+			assigned[next] = true;
+			second[next] = toSecond;
+			remaining--;
+			if (toSecond) {
+				size2++;
+			} else {
+				size1++;
+			}
+
+			if (incremental) {
+				include(toSecond ? g2 : g1, minX, minY, maxX, maxY, next);
+			} else {
+				recompute(g1, second, assigned, false, minX, minY, maxX, maxY, count);
+				recompute(g2, second, assigned, true, minX, minY, maxX, maxY, count);
+			}
+		}
+		return second;
+	}
+
+	private static double area(double[] minX, double[] minY, double[] maxX, double[] maxY, int i) {
+		return (maxX[i] - minX[i]) * (maxY[i] - minY[i]);
+	}
+
+	// enlargement 헬퍼 메서드. 그룹 MBR g(minX, minY, maxX, maxY)에 엔트리 i를 합칠 때 면적 증가량.
+	static double enlargement(double[] g, double[] minX, double[] minY, double[] maxX, double[] maxY, int i) {
+		double area = (g[2] - g[0]) * (g[3] - g[1]);
+		double merged = (Math.max(g[2], maxX[i]) - Math.min(g[0], minX[i]))
+				* (Math.max(g[3], maxY[i]) - Math.min(g[1], minY[i]));
+		return merged - area;
+	}
+
+	// include 헬퍼 메서드. 그룹 MBR g에 엔트리 i를 합침.
+	static void include(double[] g, double[] minX, double[] minY, double[] maxX, double[] maxY, int i) {
+		g[0] = Math.min(g[0], minX[i]);
+		g[1] = Math.min(g[1], minY[i]);
+		g[2] = Math.max(g[2], maxX[i]);
+		g[3] = Math.max(g[3], maxY[i]);
+	}
+
+	// recompute 헬퍼 메서드. 지금까지 해당 그룹에 배정된 엔트리 전체로 그룹 MBR을 다시 계산.
+	private static void recompute(double[] g, boolean[] second, boolean[] assigned, boolean group, double[] minX,
+			double[] minY, double[] maxX, double[] maxY, int count) {
+		g[0] = g[1] = Double.POSITIVE_INFINITY;
+		g[2] = g[3] = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < count; i++) {
+			if (assigned[i] && second[i] == group) {
+				include(g, minX, minY, maxX, maxY, i);
+			}
+		}
+	}
+}
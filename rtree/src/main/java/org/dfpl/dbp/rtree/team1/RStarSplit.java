@@ -0,0 +1,104 @@
+package org.dfpl.dbp.rtree.team1;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * R*-tree 분할 (Beckmann et al. 1990) 입니다.
+ *
+ * 1. ChooseSplitAxis: 축마다 하한/상한 기준으로 정렬한 모든 분할의 둘레(margin) 합을 구해 가장 작은 축을 고름.
+ * 2. ChooseSplitIndex: 그 축에서 두 그룹의 겹침 면적이 최소인 분할 (동률이면 면적 합이 최소).
+ * 그룹 경계는 앞/뒤 누적 MBR(prefix/suffix)로 구하므로 정렬을 포함해 O(M log M) 입니다.
+ */
+final class RStarSplit implements SplitStrategy {
+
+	@Override
+	public boolean[] split(double[] minX, double[] minY, double[] maxX, double[] maxY, int count, int minEntries) {
+		// 1. ChooseSplitAxis
+		int bestAxis = 0;
+		double bestMargin = Double.POSITIVE_INFINITY;
+		for (int axis = 0; axis < 2; axis++) {
+			double margin = 0;
+			for (int byUpper = 0; byUpper < 2; byUpper++) {
+				Integer[] order = sort(minX, minY, maxX, maxY, count, axis, byUpper == 1);
+				double[][] pre = prefixBounds(minX, minY, maxX, maxY, order, false);
+				double[][] suf = prefixBounds(minX, minY, maxX, maxY, order, true);
+				for (int k = minEntries; k <= count - minEntries; k++) {
+					margin += margin(pre, k) + margin(suf, count - k);
+				}
+			}
+			if (margin < bestMargin) {
+				bestMargin = margin;
+				bestAxis = axis;
+			}
+		}
+
+		// 2. ChooseSplitIndex
+		Integer[] bestOrder = null;
+		int bestK = minEntries;
+		double bestOverlap = Double.POSITIVE_INFINITY;
+		double bestArea = Double.POSITIVE_INFINITY;
+		for (int byUpper = 0; byUpper < 2; byUpper++) {
+			Integer[] order = sort(minX, minY, maxX, maxY, count, bestAxis, byUpper == 1);
+			double[][] pre = prefixBounds(minX, minY, maxX, maxY, order, false);
+			double[][] suf = prefixBounds(minX, minY, maxX, maxY, order, true);
+			for (int k = minEntries; k <= count - minEntries; k++) {
+				int j = count - k;
+				double w = Math.min(pre[2][k], suf[2][j]) - Math.max(pre[0][k], suf[0][j]);
+				double h = Math.min(pre[3][k], suf[3][j]) - Math.max(pre[1][k], suf[1][j]);
+				double overlap = (w <= 0 || h <= 0) ? 0 : w * h;
+				double area = (pre[2][k] - pre[0][k]) * (pre[3][k] - pre[1][k])
+						+ (suf[2][j] - suf[0][j]) * (suf[3][j] - suf[1][j]);
+				if (overlap < bestOverlap || (overlap == bestOverlap && area < bestArea)) {
+					bestOverlap = overlap;
+					bestArea = area;
+					bestOrder = order;
+					bestK = k;
+				}
+			}
+		}
+
+		// 3. 정렬 순서에서 bestK번째 이후를 두 번째 그룹으로
+		boolean[] second = new boolean[count];
+		for (int i = bestK; i < count; i++) {
+			second[bestOrder[i]] = true;
+		}
+		return second;
+	}
+
+	// sort 헬퍼 메서드. axis(0=x, 1=y) 방향으로 하한(또는 상한) 기준 정렬한 엔트리 번호, 동률은 반대쪽 경계로.
+	private static Integer[] sort(double[] minX, double[] minY, double[] maxX, double[] maxY, int count, int axis,
+			boolean byUpper) {
+		double[] lo = axis == 0 ? minX : minY;
+		double[] hi = axis == 0 ? maxX : maxY;
+		Comparator<Integer> lower = Comparator.comparingDouble(i -> lo[i]);
+		Comparator<Integer> upper = Comparator.comparingDouble(i -> hi[i]);
+		Integer[] order = new Integer[count];
+		for (int i = 0; i < count; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, byUpper ? upper.thenComparing(lower) : lower.thenComparing(upper));
+		return order;
+	}
+
+	// prefixBounds 헬퍼 메서드. [0..3][k] = order의 앞에서(reverse면 뒤에서) k개 엔트리의 minX, minY, maxX, maxY.
+	private static double[][] prefixBounds(double[] minX, double[] minY, double[] maxX, double[] maxY, Integer[] order,
+			boolean reverse) {
+		int n = order.length;
+		double[][] b = new double[4][n + 1];
+		b[0][0] = b[1][0] = Double.POSITIVE_INFINITY;
+		b[2][0] = b[3][0] = Double.NEGATIVE_INFINITY;
+		for (int k = 1; k <= n; k++) {
+			int e = order[reverse ? n - k : k - 1];
+			b[0][k] = Math.min(b[0][k - 1], minX[e]);
+			b[1][k] = Math.min(b[1][k - 1], minY[e]);
+			b[2][k] = Math.max(b[2][k - 1], maxX[e]);
+			b[3][k] = Math.max(b[3][k - 1], maxY[e]);
+		}
+		return b;
+	}
+
+	private static double margin(double[][] b, int k) {
+		return (b[2][k] - b[0][k]) + (b[3][k] - b[1][k]);
+	}
+}
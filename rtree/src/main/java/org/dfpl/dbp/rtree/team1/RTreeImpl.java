@@ -1,63 +1,115 @@
 package org.dfpl.dbp.rtree.team1;
 
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Iterator;
 import java.util.List;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.LinkedList;
-import java.util.PriorityQueue;
-
-import java.awt.Color;
-import java.awt.Graphics;
-import java.awt.Graphics2D;
-import java.awt.RenderingHints;
-import javax.swing.JFrame;
-import javax.swing.JPanel;
-import javax.swing.SwingUtilities;
-import javax.swing.JOptionPane;
-
-// RTreeImpl 클래스. RTree 인터페이스를 구현하고 GUI 및 모든 로직을 포함.
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// RTreeImpl 클래스. RTree 인터페이스를 구현하는 GUI 없는 R-Tree 엔진.
+// 시각화가 필요하면 RTreeObserver(예: RTreeVisualizer)를 등록해 이벤트를 받음.
 public class RTreeImpl implements RTree {
 
-    private static final int MAX_ENTRIES = 4;
-    private static final int MIN_ENTRIES = 2;
+    // 기본값은 과제 요구사항인 4-way (M=4, m=2). 다른 용량은 builder()로 지정.
+    static final int DEFAULT_MAX_ENTRIES = 4;
+
+    // R* 모드에서 넘친 노드의 엔트리 중 강제 재삽입할 비율 (R* 논문 권장값 30%).
+    static final double RSTAR_REINSERT_FRACTION = 0.3;
+    // R* 모드에서 겹침 증가를 계산할 후보 자식 수. 자식이 더 많으면 면적 증가가 작은 순으로 자름.
+    static final int RSTAR_CHOOSE_CANDIDATES = 32;
+    // parallelSearch/parallelNearest에서 서브트리를 별도 작업으로 나누는 최소 예상 점 수.
+    static final int DEFAULT_PARALLEL_THRESHOLD = 16384;
+    // parallelNearest에서 작업 하나가 맡는 서브트리는 예상 점 수가 k의 이 배수 이상이어야 함.
+    // 서브트리가 k개를 겨우 채우면 그 k번째 거리가 전체 k번째 거리보다 훨씬 커서 bound가 가지치기를 못함.
+    static final int PARALLEL_KNN_TASK_FACTOR = 4;
+
+    // KNN에서 거리가 같은 점의 순서. nearest와 parallelNearest가 같은 점을 같은 순서로 반환하도록 함.
+    private static final Comparator<Point> POINT_ORDER = Comparator.comparingDouble(Point::getX)
+            .thenComparingDouble(Point::getY);
+
+    // save/load 스냅샷 형식. 분할 알고리즘은 이 목록의 번호로 저장하므로 순서를 바꾸면 안 됨.
+    private static final int SNAPSHOT_MAGIC = 0x52544931; // "RTI1"
+    private static final int SNAPSHOT_VERSION = 2;
+    private static final int SNAPSHOT_HEADER_BYTES = 39;
+    private static final int SNAPSHOT_NODE_BYTES = 37;
+    private static final int SNAPSHOT_BUFFER_BYTES = 1 << 20;
+    private static final int SNAPSHOT_POINT_INDEX = 1;
+    private static final int SNAPSHOT_REINSERT = 2;
+    private static final List<SplitStrategy> SNAPSHOT_STRATEGIES = List.of(SplitStrategy.QUADRATIC,
+            SplitStrategy.INCREMENTAL_QUADRATIC, SplitStrategy.LINEAR, SplitStrategy.RSTAR);
+
+    // InsertionMode 열거형. 삽입 시 하위 노드 선택과 분할 규칙.
+    //  - GUTTMAN: 면적 증가 최소 chooseLeaf + quadratic split (기존 동작).
+    //  - RSTAR: R*-tree (Beckmann et al.). leaf 바로 위에서는 겹침 증가 최소로 하위 노드를 고르고,
+    //    레벨마다 첫 오버플로우는 엔트리 30%를 강제 재삽입, 그 다음부터는 둘레(margin) 기반 분할.
+    //    삽입은 조금 느리지만 MBR 겹침이 줄어 범위 검색이 방문하는 노드 수가 줄어듦.
+    public enum InsertionMode {
+        GUTTMAN, RSTAR
+    }
+
+    // CondenseMode 열거형. 삭제로 최소 채움 미만이 된 노드의 처리.
+    //  - MERGE: 첫 번째 형제와 병합하거나 형제의 마지막 엔트리를 빌려옴 (기존 동작). 빠르지만 공간적으로 먼 엔트리가
+    //    섞여 삭제/삽입이 반복되면 MBR이 커지고 겹침이 늘어남.
+    //  - REINSERT: Guttman의 CondenseTree. 미달 노드를 떼어내고 그 엔트리를 원래 레벨에 삽입 규칙(chooseLeaf 또는
+    //    R* chooseSubtree)으로 다시 넣음. 삭제가 조금 느리지만 엔트리가 가까운 노드로 돌아가 겹침이 유지됨.
+    public enum CondenseMode {
+        MERGE, REINSERT
+    }
+
+    // 노드 용량. leaf와 내부 노드를 따로 지정할 수 있음.
+    private final int maxLeafEntries;
+    private final int minLeafEntries;
+    private final int maxInternalEntries;
+    private final int minInternalEntries;
+    private final InsertionMode insertionMode;
+    private final SplitStrategy splitStrategy;
+    private final int parallelThreshold;
+    private final CondenseMode condenseMode;
+    // 좌표 -> 점이 들어있는 leaf. Builder.pointIndex(true)일 때만 만들고, 점이 leaf에 들어가거나 다른 leaf로 옮겨질 때마다 갱신.
+    private final PointIndex<Node> pointIndex;
+
+    // R* 모드에서 이번 add 동안 강제 재삽입을 이미 한 레벨(leaf = 0)의 비트 집합.
+    private long reinsertedLevels;
 
     private Node root;
     private int size;
+    // add/delete로 트리가 바뀐 횟수. 검색 iterator가 순회 중 변경을 감지하는 데 사용.
+    private int modCount;
 
-    private JFrame guiFrame;
-    private RTreePanel guiPanel;
-    private volatile Rectangle currentSearchRect;
-    private volatile Point currentKnnSource;
-    private volatile List<Point> highlightedPoints = Collections.synchronizedList(new ArrayList<>());
-    private boolean firstDeleteCall = true;
-
-    // 시각화 강조용 필드
-    private volatile Point lastInsertedPoint;
-    private volatile Rectangle lastExpandedMbr;
-    private volatile Node splitGroup1;
-    private volatile Node splitGroup2;
-    private volatile List<Node> prunedNodes = Collections.synchronizedList(new ArrayList<>());
-
-    // KNN 시각화
-    private volatile List<Node> knnVisitedNodes = Collections.synchronizedList(new ArrayList<>());
-    private volatile java.util.Map<Node, Integer> knnVisitOrder = Collections.synchronizedMap(new java.util.HashMap<>());
-    private volatile Node knnCurrentNode; // 현재 방문 중인 노드
-    private volatile double knnCurrentBestDist = Double.POSITIVE_INFINITY;
-    private volatile List<Point> knnCandidatePoints = Collections.synchronizedList(new ArrayList<>()); // 후보 점들
-    private volatile java.util.Map<Point, Double> knnResultDistances = Collections.synchronizedMap(new java.util.HashMap<>()); // 최종 결과 점들의 거리
-    private volatile Point knnNewlyFoundPoint; // 새로 발견된 점 (선 그리기용)
-
-    // Delete 시각화
-    private volatile Point deletingPoint;
-    private volatile Node deletingLeafNode; // 삭제 대상이 속한 리프
-    private volatile Rectangle oldMbrBeforeDelete;
-    private volatile Rectangle shrinkingMbr;
-    private volatile List<Node> underflowNodes = Collections.synchronizedList(new ArrayList<>()); // 언더플로우 노드
+    // 등록된 옵저버. null이면 이벤트를 만들지 않음.
+    private RTreeObserver observer;
 
     // Node 내부 클래스. 트리의 노드(가지 또는 나뭇잎)를 정의.
     class Node {
-        Rectangle mbr;
+        // MBR 좌표. 비어있으면 minX = +inf, maxX = -inf. 삽입/분할/삭제 중에는 객체를 만들지 않고 제자리에서 갱신.
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        // 서브트리에 있는 점의 수. recalcMbr가 MBR과 함께 다시 계산하므로 MBR을 맞추는 모든 경로에서 함께 맞춰짐.
+        int pointCount;
         boolean leaf;
         List<Node> children;
         List<Point> points;
@@ -66,990 +118,1350 @@ public class RTreeImpl implements RTree {
         public Node(boolean leaf, Node parent) {
             this.leaf = leaf;
             this.parent = parent;
-            this.mbr = createInvalidMbr();
             if (leaf) {
-                this.points = new ArrayList<>(MAX_ENTRIES + 1);
+                this.points = new ArrayList<>(maxLeafEntries + 1);
                 this.children = null;
             } else {
-                this.children = new ArrayList<>(MAX_ENTRIES + 1);
+                this.children = new ArrayList<>(maxInternalEntries + 1);
                 this.points = null;
             }
         }
 
+        // getMbr 메서드. 현재 MBR의 복사본 (비어있으면 +inf/-inf 사각형). 시각화와 테스트용.
         public Rectangle getMbr() {
-            if (!hasValidMbr()) {
-                return createInvalidMbr();
-            }
-            return this.mbr;
-        }
-
-        public Rectangle getEntryMbr(Object entry) {
-            if (entry instanceof Point) {
-                Point p = (Point) entry;
-                return new Rectangle(p, p);
-            } else if (entry instanceof Node) {
-                return ((Node) entry).getMbr();
-            }
-            return createInvalidMbr();
+            return new Rectangle(new Point(minX, minY), new Point(maxX, maxY));
         }
 
         public boolean hasValidMbr() {
-            return mbr.getLeftTop().getX() != Double.POSITIVE_INFINITY;
+            return minX != Double.POSITIVE_INFINITY;
         }
 
         public void recalcMbr() {
+            minX = Double.POSITIVE_INFINITY;
+            minY = Double.POSITIVE_INFINITY;
+            maxX = Double.NEGATIVE_INFINITY;
+            maxY = Double.NEGATIVE_INFINITY;
             if (leaf) {
-                if (points.isEmpty()) {
-                    this.mbr = createInvalidMbr();
-                    return;
-                }
-                Point p = points.get(0);
-                double minX = p.getX(), minY = p.getY(), maxX = p.getX(), maxY = p.getY();
-                for (int i = 1; i < points.size(); i++) {
-                    p = points.get(i);
+                pointCount = points.size();
+                for (int i = 0; i < points.size(); i++) {
+                    Point p = points.get(i);
                     minX = Math.min(minX, p.getX());
                     minY = Math.min(minY, p.getY());
                     maxX = Math.max(maxX, p.getX());
                     maxY = Math.max(maxY, p.getY());
                 }
-                this.mbr = new Rectangle(new Point(minX, minY), new Point(maxX, maxY));
             } else {
-                if (children.isEmpty()) {
-                    this.mbr = createInvalidMbr();
-                    return;
-                }
-
-                Node c = children.stream().filter(Node::hasValidMbr).findFirst().orElse(null);
-                if(c == null) {
-                    this.mbr = createInvalidMbr();
-                    return;
-                }
-
-                double minX = c.mbr.getLeftTop().getX();
-                double minY = c.mbr.getLeftTop().getY();
-                double maxX = c.mbr.getRightBottom().getX();
-                double maxY = c.mbr.getRightBottom().getY();
-
+                pointCount = 0;
                 for (int i = 0; i < children.size(); i++) {
-                    c = children.get(i);
+                    Node c = children.get(i);
+                    pointCount += c.pointCount;
                     if (!c.hasValidMbr())
                         continue;
-                    minX = Math.min(minX, c.mbr.getLeftTop().getX());
-                    minY = Math.min(minY, c.mbr.getLeftTop().getY());
-                    maxX = Math.max(maxX, c.mbr.getRightBottom().getX());
-                    maxY = Math.max(maxY, c.mbr.getRightBottom().getY());
+                    minX = Math.min(minX, c.minX);
+                    minY = Math.min(minY, c.minY);
+                    maxX = Math.max(maxX, c.maxX);
+                    maxY = Math.max(maxY, c.maxY);
                 }
-                this.mbr = new Rectangle(new Point(minX, minY), new Point(maxX, maxY));
             }
         }
     }
 
-    // RTreePanel 내부 클래스. Swing의 JPanel을 상속받아 R-Tree를 화면에 그림.
-    class RTreePanel extends JPanel {
-        private final int PADDING = 60;
-        // 계층별 MBR 색상
-        private final Color COLOR_ROOT = new Color(148, 0, 211);   // 보라 (Purple)
-        private final Color COLOR_INTERNAL = new Color(0, 0, 255); // 파랑 (Blue)
-        private final Color COLOR_LEAF = new Color(0, 128, 0);     // 초록 (Green)
-        private double dataMaxX = 200;
-        private double dataMaxY = 200;
+    // Builder 클래스. 노드 용량(fan-out)과 최소 채움을 지정해 RTreeImpl을 생성.
+    //
+    // 용량 선택 가이드 (rtree-jmh CapacityBenchmark, 균일 분포 1e6 점, 짧은 측정이라 오차 범위가 큼):
+    //  - search(선택도 0.001)는 M이 클수록 빨라짐. M=4 대비 M=32는 약 2.4배, M=128은 약 5배.
+    //  - nearest(k=10)는 M=4 ~ 32에서 비슷하고 M=128에서 느려짐. 노드마다 모든 엔트리를 큐에 넣기 때문.
+    //  - add는 M=16 이상에서 거의 같음. Quadratic split은 O(M^2)이지만 분할은 드물게 일어남.
+    //  - 범용으로는 M=32 ~ 64를 권장. m은 지정하지 않으면 M/2이며, 삽입/삭제가 잦으면 M의 30~40%로 낮춰
+    //    분할과 병합 횟수를 줄일 수 있음.
+    public static class Builder {
+        private int maxLeafEntries = DEFAULT_MAX_ENTRIES;
+        private int minLeafEntries = -1;
+        private int maxInternalEntries = DEFAULT_MAX_ENTRIES;
+        private int minInternalEntries = -1;
+        private InsertionMode insertionMode = InsertionMode.GUTTMAN;
+        private SplitStrategy splitStrategy;
+        private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+        private boolean pointIndex;
+        private CondenseMode condenseMode = CondenseMode.MERGE;
+
+        private Builder() {
+        }
+
+        // leaf와 내부 노드의 최대 엔트리 수를 함께 지정. 최소 채움은 M/2.
+        public Builder maxEntries(int max) {
+            return leafCapacity(max, -1).internalCapacity(max, -1);
+        }
+
+        // leaf 노드의 최대/최소 엔트리 수. min이 음수이면 max/2.
+        public Builder leafCapacity(int max, int min) {
+            this.maxLeafEntries = max;
+            this.minLeafEntries = min;
+            return this;
+        }
+
+        // 내부 노드의 최대/최소 자식 수. min이 음수이면 max/2.
+        public Builder internalCapacity(int max, int min) {
+            this.maxInternalEntries = max;
+            this.minInternalEntries = min;
+            return this;
+        }
+
+        // 삽입 규칙. 기본값은 GUTTMAN.
+        public Builder insertionMode(InsertionMode mode) {
+            if (mode == null) {
+                throw new IllegalArgumentException("insertionMode가 null입니다.");
+            }
+            this.insertionMode = mode;
+            return this;
+        }
 
-        @Override
-        protected void paintComponent(Graphics g) {
-            super.paintComponent(g);
-            Graphics2D g2d = (Graphics2D) g;
-            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        // 분할 알고리즘. 지정하지 않으면 GUTTMAN 모드는 SplitStrategy.QUADRATIC, RSTAR 모드는 SplitStrategy.RSTAR.
+        // 삽입 지연이 중요한 트리는 LINEAR 또는 INCREMENTAL_QUADRATIC을 사용.
+        public Builder splitStrategy(SplitStrategy strategy) {
+            if (strategy == null) {
+                throw new IllegalArgumentException("splitStrategy가 null입니다.");
+            }
+            this.splitStrategy = strategy;
+            return this;
+        }
 
-            int panelWidth = getWidth();
-            int panelHeight = getHeight();
-            double scaleX = (panelWidth - 2 * PADDING) / dataMaxX;
-            double scaleY = (panelHeight - 2 * PADDING) / dataMaxY;
-            double scale = Math.min(scaleX, scaleY);
-            int yOffset = panelHeight - PADDING;
+        // parallelSearch/parallelNearest의 작업 분할 기준. 예상 점 수가 이 값 이상인 서브트리만 자식별 작업으로 나누고,
+        // 그보다 작은 서브트리는 한 작업 안에서 순차로 검색. 작을수록 작업이 잘게 나뉘지만 작업 생성 비용이 늘어남.
+        public Builder parallelThreshold(int points) {
+            if (points < 1) {
+                throw new IllegalArgumentException("parallelThreshold는 1 이상이어야 합니다: " + points);
+            }
+            this.parallelThreshold = points;
+            return this;
+        }
 
-            // ========== 레이어 1: 배경 (격자 + 축) ==========
-            drawGrid(g2d, scale, yOffset, panelWidth, panelHeight);
+        // 정확한 좌표 -> leaf 해시 색인(PointIndex) 사용 여부. 기본값은 false.
+        // 켜면 add의 중복 확인과 delete의 leaf 찾기가 findLeaf 순회 대신 해시 조회 한 번이 되고, 점마다 약 40바이트를 더 씀.
+        public Builder pointIndex(boolean enabled) {
+            this.pointIndex = enabled;
+            return this;
+        }
 
-            // ========== 레이어 2: 기본 MBR (계층별 색상) ==========
-            if (root != null) {
-                drawDepthMBR(g2d, root, 0, scale, yOffset);
+        // 삭제 후 미달 노드 처리 방식. 기본값은 MERGE. 삭제와 삽입이 계속 섞이는 트리는 REINSERT를 사용.
+        public Builder condenseMode(CondenseMode mode) {
+            if (mode == null) {
+                throw new IllegalArgumentException("condenseMode는 null일 수 없습니다.");
             }
+            this.condenseMode = mode;
+            return this;
+        }
 
-            // ========== 레이어 3: 효과 레이어 ==========
+        public RTreeImpl build() {
+            return new RTreeImpl(this);
+        }
 
-            // 3-1. Split 그룹 강조
-            if (splitGroup1 != null && splitGroup1.hasValidMbr()) {
-                drawSplitOverlay(g2d, splitGroup1, new Color(0, 180, 255, 70), scale, yOffset, "Group 1");
-            }
-            if (splitGroup2 != null && splitGroup2.hasValidMbr()) {
-                drawSplitOverlay(g2d, splitGroup2, new Color(255, 120, 200, 70), scale, yOffset, "Group 2");
-            }
+        // 지정한 용량으로 STR bulk load한 트리를 생성.
+        public RTreeImpl bulkLoad(Collection<Point> points) {
+            RTreeImpl tree = build();
+            tree.load(points);
+            return tree;
+        }
+    }
 
-            // 3-2. Range Search 영역 + Pruned 표시
-            if (currentSearchRect != null) {
-                drawPrunedNodes(g2d, scale, yOffset);
-                drawSearchArea(g2d, scale, yOffset);
-            }
+    // builder 메서드. 용량을 지정한 트리를 만들기 위한 Builder를 반환.
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // RTreeImpl 생성자. 4-way (M=4, m=2) 트리를 생성.
+    public RTreeImpl() {
+        this(new Builder());
+    }
+
+    // RTreeImpl 생성자. 비어있는 leaf 하나를 루트로 갖는 트리를 생성.
+    private RTreeImpl(Builder builder) {
+        this.maxLeafEntries = builder.maxLeafEntries;
+        this.minLeafEntries = builder.minLeafEntries < 0 ? builder.maxLeafEntries / 2 : builder.minLeafEntries;
+        this.maxInternalEntries = builder.maxInternalEntries;
+        this.minInternalEntries = builder.minInternalEntries < 0 ? builder.maxInternalEntries / 2
+                : builder.minInternalEntries;
+        checkCapacity("leaf", maxLeafEntries, minLeafEntries);
+        checkCapacity("internal", maxInternalEntries, minInternalEntries);
+        this.insertionMode = builder.insertionMode;
+        if (builder.splitStrategy != null) {
+            this.splitStrategy = builder.splitStrategy;
+        } else {
+            this.splitStrategy = insertionMode == InsertionMode.RSTAR ? SplitStrategy.RSTAR : SplitStrategy.QUADRATIC;
+        }
+        this.parallelThreshold = builder.parallelThreshold;
+        this.pointIndex = builder.pointIndex ? new PointIndex<>() : null;
+        this.condenseMode = builder.condenseMode;
 
-            // 3-3. KNN 방문 노드 + 거리 원 + Pruned 표시
-            drawKNNVisualization(g2d, scale, yOffset);
+        this.root = new Node(true, null);
+        this.size = 0;
+    }
 
-            // 3-4. 삭제 대상 리프 강조
-            if (deletingLeafNode != null) {
-                drawDeletingLeaf(g2d, scale, yOffset);
+    // checkCapacity 헬퍼 메서드. 분할 결과가 항상 최소 채움을 만족하려면 2 <= M, 1 <= m <= M/2 이어야 함.
+    private static void checkCapacity(String kind, int max, int min) {
+        if (max < 2 || min < 1 || min > max / 2) {
+            throw new IllegalArgumentException(
+                    kind + " 노드 용량이 잘못되었습니다: M=" + max + ", m=" + min + " (2 <= M, 1 <= m <= M/2)");
+        }
+    }
+
+    // bulkLoad 메서드. STR(Sort-Tile-Recursive)로 노드를 아래에서 위로 가득 채워 4-way 트리를 생성. O(n log n).
+    // 같은 x, y를 갖는 Point는 하나만 남김. 만들어진 트리는 이후 add/delete를 그대로 사용할 수 있음.
+    public static RTreeImpl bulkLoad(Collection<Point> points) {
+        return builder().bulkLoad(points);
+    }
+
+    // save 메서드. 노드 구조와 MBR을 그대로 바이너리 스냅샷 파일에 저장. load로 분할이나 recalcMbr 없이 다시 만들 수 있음.
+    // 형식(빅엔디안, SNAPSHOT_VERSION 2):
+    //  헤더 [magic:4][version:4][maxLeaf:4][minLeaf:4][maxInternal:4][minInternal:4][insertionMode:1][splitStrategy:1]
+    //       [flags:1][parallelThreshold:4][size:4][height:4]
+    //  flags는 bit 0 = pointIndex, bit 1 = CondenseMode.REINSERT
+    //  (버전 1은 flags 바이트가 없는 38바이트 헤더이며 load는 두 버전을 모두 읽음)
+    //  노드 전위 순서 [leaf:1][count:4][minX:8][minY:8][maxX:8][maxY:8] + leaf이면 count x [x:8][y:8]
+    // splitStrategy는 SplitStrategy의 상수만 저장할 수 있음. 옵저버는 저장하지 않음.
+    public void save(Path file) throws IOException {
+        int strategy = SNAPSHOT_STRATEGIES.indexOf(splitStrategy);
+        if (strategy < 0) {
+            throw new IllegalStateException("SplitStrategy 상수가 아닌 분할 알고리즘은 스냅샷에 저장할 수 없습니다.");
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buf = ByteBuffer.allocateDirect(
+                    Math.max(SNAPSHOT_BUFFER_BYTES, SNAPSHOT_NODE_BYTES + 16 * (maxLeafEntries + 1)));
+            buf.putInt(SNAPSHOT_MAGIC).putInt(SNAPSHOT_VERSION);
+            buf.putInt(maxLeafEntries).putInt(minLeafEntries).putInt(maxInternalEntries).putInt(minInternalEntries);
+            int flags = (pointIndex != null ? SNAPSHOT_POINT_INDEX : 0)
+                    | (condenseMode == CondenseMode.REINSERT ? SNAPSHOT_REINSERT : 0);
+            buf.put((byte) insertionMode.ordinal()).put((byte) strategy).put((byte) flags);
+            buf.putInt(parallelThreshold).putInt(size).putInt(height());
+            saveNode(root, channel, buf, new double[2 * (maxLeafEntries + 1)]);
+            drain(channel, buf);
+        }
+    }
+
+    // load 메서드. save로 만든 스냅샷에서 같은 옵션과 같은 노드 구조의 트리를 만듦.
+    // 형식이 다르거나 잘린 파일이면 IOException.
+    public static RTreeImpl load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buf = ByteBuffer.allocateDirect(SNAPSHOT_BUFFER_BYTES);
+            buf.flip();
+            fill(channel, buf, 8);
+            int version = buf.getInt() == SNAPSHOT_MAGIC ? buf.getInt() : -1;
+            if (version != 1 && version != SNAPSHOT_VERSION) {
+                throw new IOException("RTreeImpl 스냅샷이 아니거나 지원하지 않는 버전입니다: " + file);
+            }
+            fill(channel, buf, SNAPSHOT_HEADER_BYTES - (version == 1 ? 9 : 8));
+            Builder builder = builder().leafCapacity(buf.getInt(), buf.getInt())
+                    .internalCapacity(buf.getInt(), buf.getInt());
+            int mode = buf.get();
+            int strategy = buf.get();
+            if (mode < 0 || mode >= InsertionMode.values().length || strategy < 0
+                    || strategy >= SNAPSHOT_STRATEGIES.size()) {
+                throw new IOException("스냅샷 헤더가 잘못되었습니다: " + file);
+            }
+            builder.insertionMode(InsertionMode.values()[mode]).splitStrategy(SNAPSHOT_STRATEGIES.get(strategy));
+            if (version > 1) {
+                int flags = buf.get();
+                builder.pointIndex((flags & SNAPSHOT_POINT_INDEX) != 0).condenseMode(
+                        (flags & SNAPSHOT_REINSERT) != 0 ? CondenseMode.REINSERT : CondenseMode.MERGE);
+            }
+            RTreeImpl tree;
+            try {
+                tree = builder.parallelThreshold(buf.getInt()).build();
+            } catch (IllegalArgumentException e) {
+                throw new IOException("스냅샷 헤더가 잘못되었습니다: " + file, e);
             }
+            int size = buf.getInt();
+            int height = buf.getInt();
+            if (buf.capacity() < SNAPSHOT_NODE_BYTES + 16 * (tree.maxLeafEntries + 1)) {
+                ByteBuffer larger = ByteBuffer.allocateDirect(SNAPSHOT_NODE_BYTES + 16 * (tree.maxLeafEntries + 1));
+                larger.put(buf).flip();
+                buf = larger;
+            }
+            int[] points = new int[1];
+            tree.root = tree.loadNode(null, 1, height, channel, buf, new double[2 * (tree.maxLeafEntries + 1)],
+                    points);
+            if (points[0] != size) {
+                throw new IOException("스냅샷의 점 개수가 헤더와 다릅니다: " + points[0] + " != " + size);
+            }
+            tree.size = size;
+            tree.rebuildPointIndex();
+            return tree;
+        }
+    }
 
-            // 3-5. 삭제 전 MBR (shrink 애니메이션)
-            if (oldMbrBeforeDelete != null && shrinkingMbr != null) {
-                drawShrinkAnimation(g2d, scale, yOffset);
+    // saveNode 헬퍼 메서드. node와 서브트리를 전위 순서로 buf에 쓰고, buf가 차면 channel로 내보냄.
+    // leaf의 좌표는 coords에 모아 DoubleBuffer로 한 번에 씀.
+    private static void saveNode(Node node, FileChannel channel, ByteBuffer buf, double[] coords) throws IOException {
+        int count = node.leaf ? node.points.size() : node.children.size();
+        int bytes = SNAPSHOT_NODE_BYTES + (node.leaf ? 16 * count : 0);
+        if (buf.remaining() < bytes) {
+            drain(channel, buf);
+        }
+        buf.put((byte) (node.leaf ? 1 : 0)).putInt(count);
+        buf.putDouble(node.minX).putDouble(node.minY).putDouble(node.maxX).putDouble(node.maxY);
+        if (node.leaf) {
+            for (int i = 0; i < count; i++) {
+                Point p = node.points.get(i);
+                coords[2 * i] = p.getX();
+                coords[2 * i + 1] = p.getY();
             }
+            buf.asDoubleBuffer().put(coords, 0, 2 * count);
+            buf.position(buf.position() + 16 * count);
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            saveNode(node.children.get(i), channel, buf, coords);
+        }
+    }
 
-            // 3-6. 확장된 MBR 강조 (Split 없을 때만)
-            if (lastExpandedMbr != null && splitGroup1 == null && splitGroup2 == null) {
-                drawExpandedMBR(g2d, scale, yOffset);
+    // loadNode 헬퍼 메서드. 전위 순서의 노드 하나와 서브트리를 읽음. MBR은 파일 값을 그대로 사용.
+    private Node loadNode(Node parent, int depth, int height, FileChannel channel, ByteBuffer buf, double[] coords,
+            int[] points) throws IOException {
+        fill(channel, buf, SNAPSHOT_NODE_BYTES);
+        boolean leaf = buf.get() != 0;
+        int count = buf.getInt();
+        if (leaf != (depth == height) || count < 0 || count > (leaf ? maxLeafEntries : maxInternalEntries)) {
+            throw new IOException("스냅샷의 노드 구조가 잘못되었습니다 (깊이 " + depth + ")");
+        }
+        Node node = new Node(leaf, parent);
+        node.minX = buf.getDouble();
+        node.minY = buf.getDouble();
+        node.maxX = buf.getDouble();
+        node.maxY = buf.getDouble();
+        if (leaf) {
+            fill(channel, buf, 16 * count);
+            buf.asDoubleBuffer().get(coords, 0, 2 * count);
+            buf.position(buf.position() + 16 * count);
+            for (int i = 0; i < count; i++) {
+                node.points.add(new Point(coords[2 * i], coords[2 * i + 1]));
             }
+            node.pointCount = count;
+            points[0] += count;
+        } else {
+            for (int i = 0; i < count; i++) {
+                Node child = loadNode(node, depth + 1, height, channel, buf, coords, points);
+                node.children.add(child);
+                node.pointCount += child.pointCount;
+            }
+        }
+        return node;
+    }
+
+    // drain 헬퍼 메서드. buf에 쓴 내용을 모두 channel로 내보내고 buf를 비움.
+    private static void drain(FileChannel channel, ByteBuffer buf) throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+        buf.clear();
+    }
 
-            // ========== 레이어 4: 모든 점 ==========
-            if (root != null) {
-                drawAllPoints(g2d, root, scale, yOffset);
+    // fill 헬퍼 메서드. 읽기 모드의 buf에 최소 bytes바이트가 남도록 channel에서 더 읽음.
+    private static void fill(FileChannel channel, ByteBuffer buf, int bytes) throws IOException {
+        if (buf.remaining() >= bytes) {
+            return;
+        }
+        buf.compact();
+        while (buf.position() < bytes) {
+            if (channel.read(buf) < 0) {
+                throw new EOFException("스냅샷 파일이 잘렸습니다.");
             }
+        }
+        buf.flip();
+    }
 
-            // ========== 레이어 5: 하이라이트 점 ==========
-            drawHighlightedPoints(g2d, scale, yOffset);
+    // setObserver 메서드. 삽입/분할/가지치기/방문 이벤트를 받을 옵저버를 등록(null이면 해제).
+    public void setObserver(RTreeObserver observer) {
+        this.observer = observer;
+    }
 
-            // ========== 레이어 6: 애니메이션 요소 ==========
+    // getRoot 메서드. 시각화 등 같은 패키지의 읽기 전용 순회를 위해 루트를 반환.
+    Node getRoot() {
+        return root;
+    }
+
+    // add 메서드. 중복이 아니면 포인트를 삽입.
+    @Override
+    public void add(Point point) {
+        if (locate(point) != null) {
+            return;
+        }
 
-            // 6-1. 새로 삽입된 점
-            if (lastInsertedPoint != null) {
-                drawNewPoint(g2d, scale, yOffset);
+        if (insertionMode == InsertionMode.RSTAR) {
+            Node leaf = chooseSubtreeRStar(point, 0);
+            if (observer != null) {
+                observer.insertStarted(point, mbrSnapshot(leaf));
+            }
+            reinsertedLevels = 0;
+            addEntry(leaf, point);
+            overflowTreatment(leaf, 0);
+        } else {
+            Node leaf = chooseLeaf(root, point);
+            if (observer != null) {
+                observer.insertStarted(point, mbrSnapshot(leaf));
             }
+            insert(leaf, point);
+        }
+        this.size++;
+        this.modCount++;
+
+        if (observer != null) {
+            observer.inserted(point);
+        }
+    }
 
-            // 6-2. 삭제 중인 점
-            if (deletingPoint != null) {
-                drawDeletingPoint(g2d, scale, yOffset);
+    // addAll 메서드. 여러 포인트를 한 번에 삽입. 트리에 이미 있거나 목록 안에서 겹치는 좌표는 하나만 남김.
+    // 목록을 Hilbert 곡선 순서로 정렬해 연속한 점을 같은 leaf에 모으고(run), run이 끝날 때만 분할과 조상 MBR 갱신을
+    // 한 번에 처리함. 다음 leaf는 루트가 아니라 직전 leaf의 조상 중 점을 포함하는 가장 낮은 노드부터 고름.
+    // 빈 트리에는 STR bulk load를 사용. 옵저버가 있으면 점마다 이벤트를 보내기 위해 add를 반복.
+    // R* 모드에서도 강제 재삽입 없이 분할만 사용함.
+    public void addAll(Collection<Point> points) {
+        if (observer != null) {
+            for (Point p : points) {
+                add(p);
             }
+            return;
+        }
+        if (points.isEmpty()) {
+            return;
+        }
+        if (size == 0) {
+            load(points);
+            modCount++;
+            return;
         }
 
-        // 격자 그리기
-        private void drawGrid(Graphics2D g, double scale, int yOffset, int panelWidth, int panelHeight) {
-            g.setColor(new Color(220, 220, 220));
-            g.setStroke(new java.awt.BasicStroke(1));
+        List<Point> batch = points instanceof List ? (List<Point>) points : new ArrayList<>(points);
+        long[] order = SpaceFillingCurves.hilbertSort(batch);
+        Node leaf = null;
+        Node hint = null;
+        int group = 0;
+        for (int i = 0; i < order.length; i++) {
+            if (SpaceFillingCurves.keyOf(order[i]) != SpaceFillingCurves.keyOf(order[group])) {
+                group = i;
+            }
+            Point point = batch.get(SpaceFillingCurves.indexOf(order[i]));
+            // 같은 좌표는 Hilbert 순번이 같으므로 같은 순번 묶음 안에서만 비교. run 중인 leaf의 조상 MBR은
+            // 아직 갱신 전이라 findLeaf는 이번 run의 점을 못 찾지만, 그런 중복은 이 비교에서 걸러짐.
+            if (duplicateBefore(batch, order, group, i, point) || locate(point) != null) {
+                continue;
+            }
+            // 부모 MBR 밖의 점은 chooseChild가 현재 leaf를 골라도 멀리 떨어져 있으므로 run을 끝냄
+            if (leaf != null && leaf.parent != null
+                    && (!rectContains(leaf.parent, point) || chooseChild(leaf.parent, point) != leaf)) {
+                hint = leaf.parent;
+                flushRun(leaf);
+                leaf = null;
+            }
+            if (leaf == null) {
+                Node start = hint;
+                while (start != null && !rectContains(start, point)) {
+                    start = start.parent;
+                }
+                leaf = chooseLeaf(start != null ? start : root, point);
+            }
+            leaf.points.add(point);
+            indexPoint(leaf, point);
+            leaf.minX = Math.min(leaf.minX, point.getX());
+            leaf.minY = Math.min(leaf.minY, point.getY());
+            leaf.maxX = Math.max(leaf.maxX, point.getX());
+            leaf.maxY = Math.max(leaf.maxY, point.getY());
+            leaf.pointCount++;
+            size++;
+            // run이 너무 길면 분할 비용(quadratic은 엔트리 수의 세제곱)이 커지므로 2M에서 끊음
+            if (leaf.points.size() >= 2 * maxLeafEntries) {
+                hint = leaf.parent;
+                flushRun(leaf);
+                leaf = null;
+            }
+        }
+        if (leaf != null) {
+            flushRun(leaf);
+        }
+        modCount++;
+    }
 
-            // 세로선 + X축 눈금
-            for (int i = 0; i <= 200; i += 20) {
-                int x = (int) (i * scale) + PADDING;
-                g.drawLine(x, PADDING, x, yOffset);
-                g.setColor(Color.DARK_GRAY);
-                g.drawString(String.valueOf(i), x - 8, yOffset + 15);
-                g.setColor(new Color(220, 220, 220));
+    // duplicateBefore 헬퍼 메서드. order[from..to) 안에 point와 같은 좌표가 있으면 true.
+    private static boolean duplicateBefore(List<Point> batch, long[] order, int from, int to, Point point) {
+        for (int j = from; j < to; j++) {
+            Point q = batch.get(SpaceFillingCurves.indexOf(order[j]));
+            if (q.getX() == point.getX() && q.getY() == point.getY()) {
+                return true;
             }
+        }
+        return false;
+    }
 
-            // 가로선 + Y축 눈금
-            for (int i = 0; i <= 200; i += 20) {
-                int y = yOffset - (int) (i * scale);
-                g.drawLine(PADDING, y, panelWidth - PADDING, y);
-                g.setColor(Color.DARK_GRAY);
-                g.drawString(String.valueOf(i), PADDING - 25, y + 4);
-                g.setColor(new Color(220, 220, 220));
+    // flushRun 메서드. run이 끝난 leaf가 넘쳤으면 M 이하가 될 때까지 나누고, 새 노드를 부모에 붙이며 루트까지
+    // 한 번만 올라가 MBR을 갱신. 부모가 넘치면 같은 방식으로 나누고, 루트가 나뉘면 새 루트를 만듦.
+    private void flushRun(Node leaf) {
+        List<Node> created = new ArrayList<>();
+        splitOverflow(leaf, created);
+        Node n = leaf;
+        while (n.parent != null) {
+            Node parent = n.parent;
+            for (Node s : created) {
+                addEntry(parent, s);
+            }
+            created.clear();
+            parent.recalcMbr();
+            splitOverflow(parent, created);
+            n = parent;
+        }
+        while (!created.isEmpty()) {
+            Node newRoot = new Node(false, null);
+            addEntry(newRoot, n);
+            for (Node s : created) {
+                addEntry(newRoot, s);
             }
+            created.clear();
+            newRoot.recalcMbr();
+            root = newRoot;
+            splitOverflow(newRoot, created);
+            n = newRoot;
+        }
+    }
 
-            // 축 그리기
-            g.setColor(Color.BLACK);
-            g.setStroke(new java.awt.BasicStroke(2));
-            g.drawLine(PADDING, yOffset, panelWidth - PADDING, yOffset); // X축
-            g.drawLine(PADDING, PADDING, PADDING, yOffset); // Y축
-            g.setStroke(new java.awt.BasicStroke(1));
+    // splitOverflow 헬퍼 메서드. node가 최대 엔트리 수 이하가 될 때까지 splitNode를 반복하고, 새로 생긴 노드를 created에 모음.
+    private void splitOverflow(Node node, List<Node> created) {
+        if (entryCount(node) <= maxEntries(node)) {
+            return;
         }
+        Node[] groups = splitNode(node);
+        splitOverflow(groups[0], created);
+        created.add(groups[1]);
+        splitOverflow(groups[1], created);
+    }
 
-        // ========== 레이어별 그리기 메서드 ==========
+    // search 메서드. 범위 검색을 수행.
+    @Override
+    // 결과를 미리 모으지 않고, 반환한 iterator가 next()를 호출할 때마다 다음 결과까지만 트리를 순회함.
+    // 순회 도중 add/delete로 트리가 바뀌면 ConcurrentModificationException을 던짐.
+    public Iterator<Point> search(Rectangle rectangle) {
+        if (observer != null) {
+            observer.searchStarted(rectangle);
+        }
+        return new SearchIterator(rectangle);
+    }
 
-        // 계층별 MBR 그리기 (Root=보라, Internal=파랑, Leaf=초록, 모두 투명하게)
-        private void drawDepthMBR(Graphics2D g, Node node, int depth, double scale, int yOffset) {
-            if (node == null || !node.hasValidMbr()) return;
+    // searchStream 메서드. search와 같은 lazy 순회를 Stream으로 반환. limit/findFirst/anyMatch 등은 필요한 만큼만 순회.
+    public Stream<Point> searchStream(Rectangle rectangle) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(search(rectangle),
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
 
-            // 좌표 계산
-            Rectangle mbr = node.getMbr();
-            int x = (int) (mbr.getLeftTop().getX() * scale) + PADDING;
-            int y = yOffset - (int) (mbr.getRightBottom().getY() * scale);
-            int w = (int) ((mbr.getRightBottom().getX() - mbr.getLeftTop().getX()) * scale);
-            int h = (int) ((mbr.getRightBottom().getY() - mbr.getLeftTop().getY()) * scale);
+    // count 메서드. rectangle 안의 점 개수. MBR이 범위 안에 완전히 들어가는 서브트리는 내려가지 않고 pointCount를
+    // 더하므로, 범위 경계에 걸친 노드만 방문함. 옵저버 이벤트는 보내지 않음.
+    public long count(Rectangle rectangle) {
+        if (rectangle == null) {
+            return 0;
+        }
+        return count(root, rectangle.getLeftTop().getX(), rectangle.getLeftTop().getY(),
+                rectangle.getRightBottom().getX(), rectangle.getRightBottom().getY());
+    }
 
-            if (node == root) {
-                // Root: 아주 투명한 보라색
-                g.setColor(new Color(148, 0, 211, 20));
-                g.fillRect(x, y, w, h);
-                g.setColor(new Color(148, 0, 211, 100));
-                g.setStroke(new java.awt.BasicStroke(1.5f));
-                g.drawRect(x, y, w, h);
-                g.setStroke(new java.awt.BasicStroke(1));
-            } else if (node.leaf) {
-                // Leaf: 아주 투명한 초록색
-                g.setColor(new Color(0, 180, 0, 25));
-                g.fillRect(x, y, w, h);
-                g.setColor(new Color(0, 150, 0, 120));
-                g.setStroke(new java.awt.BasicStroke(1.0f));
-                g.drawRect(x, y, w, h);
-                g.setStroke(new java.awt.BasicStroke(1));
-            } else {
-                // Internal: 아주 투명한 파란색
-                g.setColor(new Color(0, 120, 255, 20));
-                g.fillRect(x, y, w, h);
-                g.setColor(new Color(0, 100, 255, 100));
-                g.setStroke(new java.awt.BasicStroke(1.0f));
-                g.drawRect(x, y, w, h);
-                g.setStroke(new java.awt.BasicStroke(1));
-            }
-
-            // 자식 노드 재귀 호출
-            if (!node.leaf && node.children != null) {
-                for (Node child : node.children) {
-                    drawDepthMBR(g, child, depth + 1, scale, yOffset);
+    private static long count(Node node, double minX, double minY, double maxX, double maxY) {
+        if (node.minX >= minX && node.minY >= minY && node.maxX <= maxX && node.maxY <= maxY) {
+            return node.pointCount;
+        }
+        long count = 0;
+        if (node.leaf) {
+            for (int i = 0; i < node.points.size(); i++) {
+                Point p = node.points.get(i);
+                if (p.getX() >= minX && p.getX() <= maxX && p.getY() >= minY && p.getY() <= maxY) {
+                    count++;
                 }
             }
+            return count;
+        }
+        for (int i = 0; i < node.children.size(); i++) {
+            Node child = node.children.get(i);
+            if (child.minX <= maxX && child.maxX >= minX && child.minY <= maxY && child.maxY >= minY) {
+                count += count(child, minX, minY, maxX, maxY);
+            }
         }
+        return count;
+    }
 
-        // Split 오버레이
-        private void drawSplitOverlay(Graphics2D g, Node node, Color color, double scale, int yOffset, String label) {
-            Rectangle mbr = node.getMbr();
-            int x = (int) (mbr.getLeftTop().getX() * scale) + PADDING;
-            int y = yOffset - (int) (mbr.getRightBottom().getY() * scale);
-            int w = (int) ((mbr.getRightBottom().getX() - mbr.getLeftTop().getX()) * scale);
-            int h = (int) ((mbr.getRightBottom().getY() - mbr.getLeftTop().getY()) * scale);
-
-            g.setColor(color);
-            g.fillRect(x, y, w, h);
-            g.setColor(new Color(color.getRed(), color.getGreen(), color.getBlue(), 200));
-            g.setStroke(new java.awt.BasicStroke(2));
-            g.drawRect(x, y, w, h);
-            g.setStroke(new java.awt.BasicStroke(1));
-
-            g.setColor(Color.BLACK);
-            g.setFont(new java.awt.Font("SansSerif", java.awt.Font.BOLD, 12));
-            g.drawString(label, x + w/2 - 20, y + h/2);
-        }
-
-        // Range Search 영역
-        private void drawSearchArea(Graphics2D g, double scale, int yOffset) {
-            int x = (int) (currentSearchRect.getLeftTop().getX() * scale) + PADDING;
-            int y = yOffset - (int) (currentSearchRect.getRightBottom().getY() * scale);
-            int w = (int) ((currentSearchRect.getRightBottom().getX() - currentSearchRect.getLeftTop().getX()) * scale);
-            int h = (int) ((currentSearchRect.getRightBottom().getY() - currentSearchRect.getLeftTop().getY()) * scale);
-
-            g.setColor(new Color(100, 150, 255, 50));
-            g.fillRect(x, y, w, h);
-            g.setColor(new Color(0, 100, 255));
-            g.setStroke(new java.awt.BasicStroke(2));
-            g.drawRect(x, y, w, h);
-            g.setStroke(new java.awt.BasicStroke(1));
-        }
-
-        // Range Search의 Pruned 노드 표시 + 점들 표시
-        private void drawPrunedNodes(Graphics2D g, double scale, int yOffset) {
-            g.setFont(new java.awt.Font("SansSerif", java.awt.Font.BOLD, 10));
-            for (Node pruned : new ArrayList<>(prunedNodes)) {
-                if (!pruned.hasValidMbr()) continue;
-
-                Rectangle mbr = pruned.getMbr();
-                int x = (int) (mbr.getLeftTop().getX() * scale) + PADDING;
-                int y = yOffset - (int) (mbr.getRightBottom().getY() * scale);
-                int w = (int) ((mbr.getRightBottom().getX() - mbr.getLeftTop().getX()) * scale);
-                int h = (int) ((mbr.getRightBottom().getY() - mbr.getLeftTop().getY()) * scale);
-
-                // 회색 빗금 패턴
-                g.setColor(new Color(150, 150, 150, 80));
-                g.fillRect(x, y, w, h);
-
-                // 빗금
-                g.setColor(new Color(100, 100, 100, 150));
-                g.setStroke(new java.awt.BasicStroke(1));
-                for (int i = 0; i < w + h; i += 10) {
-                    int x1 = x + Math.min(i, w);
-                    int y1 = y + Math.max(0, i - w);
-                    int x2 = x + Math.max(0, i - h);
-                    int y2 = y + Math.min(i, h);
-                    g.drawLine(x1, y1, x2, y2);
-                }
+    // searchBatch 메서드. 여러 범위 검색을 트리 한 번의 순회로 처리하고, 질의마다 결과 리스트를 입력 순서대로 반환.
+    // 각 리스트는 같은 사각형으로 search를 호출한 결과와 같은 순서. 옵저버 이벤트는 보내지 않음.
+    public List<List<Point>> searchBatch(List<Rectangle> rectangles) {
+        List<List<Point>> results = new ArrayList<>(rectangles.size());
+        for (int i = 0; i < rectangles.size(); i++) {
+            results.add(new ArrayList<>());
+        }
+        searchBatch(rectangles, (point, query) -> results.get(query).add(point));
+        return results;
+    }
 
-                // X 표시
-                g.setColor(new Color(200, 0, 0));
-                g.setStroke(new java.awt.BasicStroke(3));
-                g.drawLine(x + 5, y + 5, x + w - 5, y + h - 5);
-                g.drawLine(x + w - 5, y + 5, x + 5, y + h - 5);
-                g.setStroke(new java.awt.BasicStroke(1));
-
-                // "PRUNED" 텍스트
-                g.setColor(Color.RED);
-                g.drawString("PRUNED", x + w/2 - 25, y + h/2);
-
-                // Pruned 노드 안의 점들도 회색으로 표시
-                drawPrunedPoints(g, pruned, scale, yOffset);
-            }
-        }
-
-        // Delete 시각화: 삭제 대상 리프 강조
-        private void drawDeletingLeaf(Graphics2D g, double scale, int yOffset) {
-            if (deletingLeafNode == null || !deletingLeafNode.hasValidMbr()) return;
-
-            Rectangle mbr = deletingLeafNode.getMbr();
-            int x = (int) (mbr.getLeftTop().getX() * scale) + PADDING;
-            int y = yOffset - (int) (mbr.getRightBottom().getY() * scale);
-            int w = (int) ((mbr.getRightBottom().getX() - mbr.getLeftTop().getX()) * scale);
-            int h = (int) ((mbr.getRightBottom().getY() - mbr.getLeftTop().getY()) * scale);
-
-            // 노란 테두리 강조
-            g.setColor(new Color(255, 200, 0, 100));
-            g.fillRect(x, y, w, h);
-            g.setColor(new Color(255, 200, 0));
-            g.setStroke(new java.awt.BasicStroke(3));
-            g.drawRect(x, y, w, h);
-            g.setStroke(new java.awt.BasicStroke(1));
-        }
-
-        // KNN 시각화 (수정본: MBR 가림 현상 해결 + 탐색 범위 명확화)
-        private void drawKNNVisualization(Graphics2D g, double scale, int yOffset) {
-            if (currentKnnSource == null) return;
-
-            int qx = (int) (currentKnnSource.getX() * scale) + PADDING;
-            int qy = yOffset - (int) (currentKnnSource.getY() * scale);
-
-            // 1. 탐색 반경 원 (Search Wavefront)
-            if (knnCurrentBestDist < Double.POSITIVE_INFINITY && knnCurrentBestDist > 0) {
-                int radius = (int) (knnCurrentBestDist * scale);
-
-                // 내부를 아주 옅게 칠해서 뒤를 가리지 않음
-                g.setColor(new Color(0, 100, 255, 10));
-                g.fillOval(qx - radius, qy - radius, 2 * radius, 2 * radius);
-
-                // 테두리는 선명하게
-                g.setColor(new Color(0, 50, 200));
-                g.setStroke(new java.awt.BasicStroke(1.5f, java.awt.BasicStroke.CAP_BUTT, java.awt.BasicStroke.JOIN_MITER, 10, new float[]{10, 5}, 0));
-                g.drawOval(qx - radius, qy - radius, 2 * radius, 2 * radius);
-                g.setStroke(new java.awt.BasicStroke(1));
-
-                // 거리 텍스트
-                g.setFont(new java.awt.Font("SansSerif", java.awt.Font.BOLD, 11));
-                g.drawString(String.format("Dist: %.1f", knnCurrentBestDist), qx + radius + 5, qy);
-            }
-
-            // 2. Pruned nodes (가지치기 된 노드) + 해당 점들 표시
-            g.setFont(new java.awt.Font("SansSerif", java.awt.Font.BOLD, 10));
-            for (Node pruned : new ArrayList<>(prunedNodes)) {
-                if (!pruned.hasValidMbr()) continue;
-                Rectangle mbr = pruned.getMbr();
-                int x = (int) (mbr.getLeftTop().getX() * scale) + PADDING;
-                int y = yOffset - (int) (mbr.getRightBottom().getY() * scale);
-                int w = (int) ((mbr.getRightBottom().getX() - mbr.getLeftTop().getX()) * scale);
-                int h = (int) ((mbr.getRightBottom().getY() - mbr.getLeftTop().getY()) * scale);
-
-                // 회색 투명도 조절
-                g.setColor(new Color(100, 100, 100, 50));
-                g.fillRect(x, y, w, h);
-                g.setColor(new Color(200, 0, 0));
-                g.drawLine(x, y, x + w, y + h);
-                g.drawLine(x + w, y, x, y + h);
-                g.drawString("PRUNED", x + w/2 - 20, y + h/2);
-
-                // Pruned 노드 안의 점들도 회색으로 표시
-                drawPrunedPoints(g, pruned, scale, yOffset);
-            }
-
-            // 3. 방문한 노드들 (테두리만 그려서 뒤 MBR 보이게)
-            g.setFont(new java.awt.Font("SansSerif", java.awt.Font.BOLD, 12));
-            for (Node visited : new ArrayList<>(knnVisitedNodes)) {
-                if (!visited.hasValidMbr() || visited == knnCurrentNode) continue;
-
-                Rectangle mbr = visited.getMbr();
-                int x = (int) (mbr.getLeftTop().getX() * scale) + PADDING;
-                int y = yOffset - (int) (mbr.getRightBottom().getY() * scale);
-                int w = (int) ((mbr.getRightBottom().getX() - mbr.getLeftTop().getX()) * scale);
-                int h = (int) ((mbr.getRightBottom().getY() - mbr.getLeftTop().getY()) * scale);
-
-                // 채우기 없음! 테두리만
-                g.setColor(new Color(255, 140, 0, 180));
-                g.setStroke(new java.awt.BasicStroke(2));
-                g.drawRect(x, y, w, h);
-                g.setStroke(new java.awt.BasicStroke(1));
-
-                // 방문 순서 번호
-                Integer order = knnVisitOrder.get(visited);
-                if (order != null) {
-                    g.setColor(new Color(255, 69, 0)); // 진한 오렌지
-                    g.drawString("#" + order, x + 5, y + 15);
-                }
+    // searchBatch 메서드 오버로딩. 결과를 모으지 않고 (Point, 질의 번호)마다 consumer를 호출.
+    // 한 질의의 결과는 search와 같은 순서로 전달되지만, 서로 다른 질의의 결과는 섞여서 전달됨.
+    // consumer 안에서 add/delete를 호출하면 안 됨(순회가 끝난 뒤 ConcurrentModificationException).
+    public void searchBatch(List<Rectangle> rectangles, ObjIntConsumer<Point> consumer) {
+        int n = rectangles.size();
+        if (n == 0 || !root.hasValidMbr()) {
+            return;
+        }
+        double[] bounds = new double[n * 4];
+        for (int q = 0; q < n; q++) {
+            Rectangle r = rectangles.get(q);
+            bounds[q * 4] = r.getLeftTop().getX();
+            bounds[q * 4 + 1] = r.getLeftTop().getY();
+            bounds[q * 4 + 2] = r.getRightBottom().getX();
+            bounds[q * 4 + 3] = r.getRightBottom().getY();
+        }
+        // 레벨마다 아직 겹치는 질의 번호를 담는 버퍼. 같은 레벨의 노드들이 재사용하므로 순회 중 할당이 없음.
+        int levels = height();
+        int[][] active = new int[levels][n];
+        int count = 0;
+        for (int q = 0; q < n; q++) {
+            if (intersects(root, bounds, q)) {
+                active[0][count++] = q;
             }
+        }
+        int expectedModCount = modCount;
+        if (count > 0) {
+            searchBatch(root, active, 0, count, bounds, consumer);
+        }
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
 
-            // 4. 현재 방문 중인 노드 (강조)
-            if (knnCurrentNode != null && knnCurrentNode.hasValidMbr()) {
-                Rectangle mbr = knnCurrentNode.getMbr();
-                int x = (int) (mbr.getLeftTop().getX() * scale) + PADDING;
-                int y = yOffset - (int) (mbr.getRightBottom().getY() * scale);
-                int w = (int) ((mbr.getRightBottom().getX() - mbr.getLeftTop().getX()) * scale);
-                int h = (int) ((mbr.getRightBottom().getY() - mbr.getLeftTop().getY()) * scale);
-
-                // 현재 노드는 아주 옅게 채워서 강조
-                g.setColor(new Color(255, 100, 0, 40));
-                g.fillRect(x, y, w, h);
-
-                // 굵은 테두리
-                g.setColor(new Color(255, 0, 0));
-                g.setStroke(new java.awt.BasicStroke(3));
-                g.drawRect(x, y, w, h);
-                g.setStroke(new java.awt.BasicStroke(1));
-
-                g.setColor(Color.RED);
-                g.drawString("VISITING", x + 5, y - 5);
-            }
-
-            // 5. 후보 점들 (초록색)
-            for (Point candidate : new ArrayList<>(knnCandidatePoints)) {
-                int px = (int) (candidate.getX() * scale) + PADDING;
-                int py = yOffset - (int) (candidate.getY() * scale);
-                g.setColor(new Color(0, 180, 0));
-                g.fillOval(px - 4, py - 4, 8, 8);
-            }
-
-            // 6. 새로 발견된 점 연결선
-            if (knnNewlyFoundPoint != null) {
-                int px = (int) (knnNewlyFoundPoint.getX() * scale) + PADDING;
-                int py = yOffset - (int) (knnNewlyFoundPoint.getY() * scale);
-
-                g.setColor(Color.RED);
-                g.setStroke(new java.awt.BasicStroke(2));
-                g.drawLine(qx, qy, px, py);
-                g.setStroke(new java.awt.BasicStroke(1));
-
-                // 거리 표시
-                double dist = currentKnnSource.distance(knnNewlyFoundPoint);
-                g.setFont(new java.awt.Font("SansSerif", java.awt.Font.BOLD, 11));
-                g.setColor(Color.RED);
-                g.drawString(String.format("%.2f", dist), (qx + px) / 2 + 5, (qy + py) / 2 - 5);
-            }
-
-            // 7. Query Point (중심점)
-            g.setColor(Color.RED);
-            g.fillOval(qx - 6, qy - 6, 12, 12);
-            g.setColor(Color.WHITE);
-            g.setFont(new java.awt.Font("SansSerif", java.awt.Font.BOLD, 10));
-            g.drawString("S", qx - 3, qy + 4);
-        }
-
-        // Pruned 노드 안의 점들을 회색으로 표시
-        private void drawPrunedPoints(Graphics2D g, Node node, double scale, int yOffset) {
-            if (node.leaf && node.points != null) {
-                // 리프 노드면 점들 표시
-                for (Point p : node.points) {
-                    int px = (int) (p.getX() * scale) + PADDING;
-                    int py = yOffset - (int) (p.getY() * scale);
-
-                    // 회색 X 표시
-                    g.setColor(new Color(120, 120, 120));
-                    g.fillOval(px - 4, py - 4, 8, 8);
-                    g.setColor(new Color(80, 80, 80));
-                    g.setStroke(new java.awt.BasicStroke(2));
-                    g.drawLine(px - 3, py - 3, px + 3, py + 3);
-                    g.drawLine(px - 3, py + 3, px + 3, py - 3);
-                    g.setStroke(new java.awt.BasicStroke(1));
-                }
-            } else if (!node.leaf && node.children != null) {
-                // 내부 노드면 자식들 재귀 탐색
-                for (Node child : node.children) {
-                    drawPrunedPoints(g, child, scale, yOffset);
+    // searchBatch 헬퍼 메서드. active[depth]의 앞 count개 질의가 node와 겹침. 자식마다 겹치는 질의만 골라 내려감.
+    private void searchBatch(Node node, int[][] active, int depth, int count, double[] bounds,
+            ObjIntConsumer<Point> consumer) {
+        int[] in = active[depth];
+        if (node.leaf) {
+            for (int i = 0; i < node.points.size(); i++) {
+                Point p = node.points.get(i);
+                double x = p.getX();
+                double y = p.getY();
+                for (int j = 0; j < count; j++) {
+                    int b = in[j] * 4;
+                    if (x >= bounds[b] && x <= bounds[b + 2] && y >= bounds[b + 1] && y <= bounds[b + 3]) {
+                        consumer.accept(p, in[j]);
+                    }
                 }
             }
+            return;
         }
-
-        // Shrink 애니메이션
-        private void drawShrinkAnimation(Graphics2D g, double scale, int yOffset) {
-            // 이전 MBR (점선)
-            int x1 = (int) (oldMbrBeforeDelete.getLeftTop().getX() * scale) + PADDING;
-            int y1 = yOffset - (int) (oldMbrBeforeDelete.getRightBottom().getY() * scale);
-            int w1 = (int) ((oldMbrBeforeDelete.getRightBottom().getX() - oldMbrBeforeDelete.getLeftTop().getX()) * scale);
-            int h1 = (int) ((oldMbrBeforeDelete.getRightBottom().getY() - oldMbrBeforeDelete.getLeftTop().getY()) * scale);
-            g.setColor(new Color(255, 100, 100, 150));
-            g.setStroke(new java.awt.BasicStroke(2, java.awt.BasicStroke.CAP_BUTT, java.awt.BasicStroke.JOIN_MITER, 10, new float[]{5}, 0));
-            g.drawRect(x1, y1, w1, h1);
-
-            // 새 MBR (실선)
-            int x2 = (int) (shrinkingMbr.getLeftTop().getX() * scale) + PADDING;
-            int y2 = yOffset - (int) (shrinkingMbr.getRightBottom().getY() * scale);
-            int w2 = (int) ((shrinkingMbr.getRightBottom().getX() - shrinkingMbr.getLeftTop().getX()) * scale);
-            int h2 = (int) ((shrinkingMbr.getRightBottom().getY() - shrinkingMbr.getLeftTop().getY()) * scale);
-            g.setColor(new Color(0, 200, 0));
-            g.setStroke(new java.awt.BasicStroke(2));
-            g.drawRect(x2, y2, w2, h2);
-            g.setStroke(new java.awt.BasicStroke(1));
-        }
-
-        // 확장된 MBR 강조
-        private void drawExpandedMBR(Graphics2D g, double scale, int yOffset) {
-            int x = (int) (lastExpandedMbr.getLeftTop().getX() * scale) + PADDING;
-            int y = yOffset - (int) (lastExpandedMbr.getRightBottom().getY() * scale);
-            int w = (int) ((lastExpandedMbr.getRightBottom().getX() - lastExpandedMbr.getLeftTop().getX()) * scale);
-            int h = (int) ((lastExpandedMbr.getRightBottom().getY() - lastExpandedMbr.getLeftTop().getY()) * scale);
-
-            g.setColor(new Color(255, 200, 0));
-            g.setStroke(new java.awt.BasicStroke(3));
-            g.drawRect(x, y, w, h);
-            g.setStroke(new java.awt.BasicStroke(1));
-        }
-
-        // 모든 점 그리기
-        private void drawAllPoints(Graphics2D g, Node node, double scale, int yOffset) {
-            if (node == null) return;
-
-            if (node.leaf && node.points != null) {
-                for (Point p : node.points) {
-                    int px = (int) (p.getX() * scale) + PADDING;
-                    int py = yOffset - (int) (p.getY() * scale);
-                    g.setColor(Color.BLACK);
-                    g.fillOval(px - 2, py - 2, 4, 4);
-                }
-            } else if (node.children != null) {
-                for (Node child : node.children) {
-                    drawAllPoints(g, child, scale, yOffset);
+        int[] out = active[depth + 1];
+        for (int i = 0; i < node.children.size(); i++) {
+            Node child = node.children.get(i);
+            int m = 0;
+            for (int j = 0; j < count; j++) {
+                if (intersects(child, bounds, in[j])) {
+                    out[m++] = in[j];
                 }
             }
+            if (m > 0) {
+                searchBatch(child, active, depth + 1, m, bounds, consumer);
+            }
         }
+    }
 
-        // 하이라이트 점들
-        private void drawHighlightedPoints(Graphics2D g, double scale, int yOffset) {
-            List<Point> points = new ArrayList<>(highlightedPoints);
-            g.setFont(new java.awt.Font("SansSerif", java.awt.Font.BOLD, 11));
+    // intersects 헬퍼 메서드. 노드 MBR과 q번째 질의 사각형이 겹치는지 확인 (비어있으면 false).
+    private static boolean intersects(Node n, double[] bounds, int q) {
+        int b = q * 4;
+        return bounds[b] <= n.maxX && bounds[b + 2] >= n.minX && bounds[b + 1] <= n.maxY && bounds[b + 3] >= n.minY;
+    }
+
+    // distanceJoin 메서드. 이 트리의 점 p와 other 트리의 점 q 중 거리가 distance 이하인 모든 쌍을 consumer(p, q)로 전달.
+    // 두 트리를 함께 내려가며 MBR 사이 거리가 distance보다 먼 노드 쌍은 버림(synchronized traversal).
+    // 높이가 다르면 leaf에 먼저 닿은 쪽은 멈추고 다른 쪽만 내려감. other가 this이면 (p, p)와 양방향 쌍이 모두 나옴.
+    // consumer 안에서 두 트리의 add/delete를 호출하면 안 됨(순회가 끝난 뒤 ConcurrentModificationException).
+    public void distanceJoin(RTreeImpl other, double distance, BiConsumer<Point, Point> consumer) {
+        if (!(distance >= 0)) {
+            throw new IllegalArgumentException("distance는 0 이상이어야 합니다: " + distance);
+        }
+        if (!root.hasValidMbr() || !other.root.hasValidMbr()) {
+            return;
+        }
+        int expectedModCount = modCount;
+        int otherExpectedModCount = other.modCount;
+        double d2 = distance * distance;
+        if (rectDistanceSq(root, other.root) <= d2) {
+            distanceJoin(root, other.root, d2, consumer);
+        }
+        if (modCount != expectedModCount || other.modCount != otherExpectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
 
-            // Range Search: 순서 없이 강조만
-            if (currentSearchRect != null) {
-                for (Point p : points) {
-                    int x = (int) (p.getX() * scale) + PADDING;
-                    int y = yOffset - (int) (p.getY() * scale);
-                    g.setColor(new Color(255, 0, 0));
-                    g.fillOval(x - 5, y - 5, 10, 10);
-                    g.setColor(Color.BLACK);
-                    g.setStroke(new java.awt.BasicStroke(2));
-                    g.drawOval(x - 5, y - 5, 10, 10);
-                    g.setStroke(new java.awt.BasicStroke(1));
+    // distanceJoin 헬퍼 메서드. a와 b의 MBR 거리는 이미 d2 이하. 상대 노드와 거리 d2 이내인 자식만 골라 짝지음.
+    private static void distanceJoin(Node a, Node b, double d2, BiConsumer<Point, Point> consumer) {
+        if (a.leaf && b.leaf) {
+            for (int i = 0; i < a.points.size(); i++) {
+                Point p = a.points.get(i);
+                if (rectMinDistanceSq(b, p) > d2) {
+                    continue;
+                }
+                for (int j = 0; j < b.points.size(); j++) {
+                    Point q = b.points.get(j);
+                    double dx = p.getX() - q.getX();
+                    double dy = p.getY() - q.getY();
+                    if (dx * dx + dy * dy <= d2) {
+                        consumer.accept(p, q);
+                    }
+                }
+            }
+        } else if (b.leaf) {
+            for (int i = 0; i < a.children.size(); i++) {
+                Node child = a.children.get(i);
+                if (rectDistanceSq(child, b) <= d2) {
+                    distanceJoin(child, b, d2, consumer);
+                }
+            }
+        } else if (a.leaf) {
+            for (int j = 0; j < b.children.size(); j++) {
+                Node child = b.children.get(j);
+                if (rectDistanceSq(a, child) <= d2) {
+                    distanceJoin(a, child, d2, consumer);
                 }
             }
-            // KNN: 순서 + 거리 표시
-            else if (currentKnnSource != null) {
-                int idx = 1;
-                for (Point p : points) {
-                    int x = (int) (p.getX() * scale) + PADDING;
-                    int y = yOffset - (int) (p.getY() * scale);
-
-                    // 점 크게 표시
-                    g.setColor(new Color(0, 100, 255));
-                    g.fillOval(x - 7, y - 7, 14, 14);
-                    g.setColor(Color.WHITE);
-                    g.setFont(new java.awt.Font("SansSerif", java.awt.Font.BOLD, 12));
-                    String label = String.valueOf(idx++);
-                    int labelWidth = g.getFontMetrics().stringWidth(label);
-                    g.drawString(label, x - labelWidth/2, y + 4);
-
-                    // 거리 표시
-                    Double dist = knnResultDistances.get(p);
-                    if (dist != null) {
-                        g.setColor(Color.BLACK);
-                        g.setFont(new java.awt.Font("SansSerif", java.awt.Font.PLAIN, 10));
-                        g.drawString(String.format("%.2f", dist), x + 10, y + 15);
+        } else {
+            // 상대 MBR에서 먼 자식을 먼저 걸러 자식 쌍 비교 횟수를 줄임
+            List<Node> near = new ArrayList<>(b.children.size());
+            for (int j = 0; j < b.children.size(); j++) {
+                Node child = b.children.get(j);
+                if (rectDistanceSq(a, child) <= d2) {
+                    near.add(child);
+                }
+            }
+            for (int i = 0; i < a.children.size(); i++) {
+                Node left = a.children.get(i);
+                if (rectDistanceSq(left, b) > d2) {
+                    continue;
+                }
+                for (int j = 0; j < near.size(); j++) {
+                    Node right = near.get(j);
+                    if (rectDistanceSq(left, right) <= d2) {
+                        distanceJoin(left, right, d2, consumer);
                     }
                 }
             }
         }
+    }
 
-        // 새로 삽입된 점
-        private void drawNewPoint(Graphics2D g, double scale, int yOffset) {
-            int x = (int) (lastInsertedPoint.getX() * scale) + PADDING;
-            int y = yOffset - (int) (lastInsertedPoint.getY() * scale);
-
-            // 바깥 펄스
-            g.setColor(new Color(0, 255, 0, 100));
-            g.fillOval(x - 12, y - 12, 24, 24);
-            // 안쪽 점
-            g.setColor(new Color(0, 255, 0));
-            g.fillOval(x - 5, y - 5, 10, 10);
-            g.setColor(Color.BLACK);
-            g.setStroke(new java.awt.BasicStroke(2));
-            g.drawOval(x - 5, y - 5, 10, 10);
-            g.setStroke(new java.awt.BasicStroke(1));
+    // nearest 메서드. KNN 검색을 수행. nearestIterator에서 앞의 maxCount개를 꺼냄.
+    @Override
+    public Iterator<Point> nearest(Point source, int maxCount) {
+        if (observer != null) {
+            observer.knnStarted(source, maxCount);
         }
 
-        // 삭제 중인 점
-        private void drawDeletingPoint(Graphics2D g, double scale, int yOffset) {
-            int x = (int) (deletingPoint.getX() * scale) + PADDING;
-            int y = yOffset - (int) (deletingPoint.getY() * scale);
+        NearestIterator iterator = new NearestIterator(source);
+        List<Point> result = new ArrayList<>(Math.max(0, Math.min(maxCount, size)));
+        while (result.size() < maxCount && iterator.hasNext()) {
+            result.add(iterator.next());
+        }
 
-            g.setColor(new Color(255, 0, 0));
-            g.setStroke(new java.awt.BasicStroke(3));
-            g.drawLine(x - 7, y - 7, x + 7, y + 7);
-            g.drawLine(x + 7, y - 7, x - 7, y + 7);
-            g.setStroke(new java.awt.BasicStroke(1));
+        if (observer != null) {
+            iterator.reportPruned();
+            observer.knnFinished(source, Collections.unmodifiableList(result));
         }
+        return result.iterator();
     }
 
-    // DistSpat 내부 클래스. KNN 검색 시 우선순위 큐(PQ)에 거리와 객체를 함께 저장.
-    private class DistSpat implements Comparable<DistSpat> {
-        final double dist;
-        final Object item;
-        DistSpat(Object item, double dist) { this.item = item; this.dist = dist; }
-        @Override public int compareTo(DistSpat other) { return Double.compare(this.dist, other.dist); }
+    // nearestIterator 메서드. source에서 가까운 순서로 모든 Point를 하나씩 반환하는 iterator. 개수 k를 미리 정하지 않음.
+    // 옵저버에는 visited/candidates/found 이벤트만 보냄 (knnStarted/knnFinished는 nearest에서만).
+    public NearestIterator nearestIterator(Point source) {
+        return new NearestIterator(source);
     }
 
-    // RTreeImpl 생성자. Assignment45가 new RTreeImpl()을 호출할 때 GUI 창을 생성.
-    public RTreeImpl() {
-        this.root = new Node(true, null);
-        this.size = 0;
+    // NearestIterator 클래스. Hjaltason & Samet의 점진적 최근접 이웃(distance browsing) 검색.
+    // 힙 하나에 노드(키 = MINDIST^2)와 Point(키 = 거리^2)를 함께 넣고, 맨 위가 Point가 될 때까지 노드를 펼침.
+    // 힙에 남은 노드는 이미 반환한 점보다 가깝지 않으므로 필요한 만큼만 트리를 방문함.
+    // 거리 비교는 모두 제곱으로 하고, distance()를 호출할 때만 제곱근을 계산.
+    // 거리가 같은 점은 (x, y) 순서로 반환하므로 결과가 트리 모양과 상관없이 정해짐(parallelNearest도 같은 순서).
+    // 순회 도중 add/delete로 트리가 바뀌면 ConcurrentModificationException을 던짐.
+    public final class NearestIterator implements Iterator<Point> {
+        private final Point source;
+        // 이벤트를 보낼 옵저버. parallelNearest의 작업에서는 null.
+        private final RTreeObserver observer;
+        private final DistanceHeap<Object> heap = new DistanceHeap<>(64);
+        private final int expectedModCount = modCount;
+        private double lastDistanceSquared = Double.NaN;
+        // 거리가 tieDistanceSquared로 같은 점들을 (x, y) 순서로 정렬한 목록과 다음에 반환할 위치
+        private final List<Point> ties = new ArrayList<>();
+        private int tieIndex;
+        private double tieDistanceSquared;
+
+        private NearestIterator(Point source) {
+            this(source, root, RTreeImpl.this.observer);
+        }
+
+        private NearestIterator(Point source, Node start, RTreeObserver observer) {
+            this.source = source;
+            this.observer = observer;
+            if (start.hasValidMbr()) {
+                heap.add(0, start);
+            }
+        }
 
-        SwingUtilities.invokeLater(() -> {
-            this.guiFrame = new JFrame("R-Tree 시각화 (Assignment 45) - Quadratic Split");
-            this.guiPanel = new RTreePanel();
-            this.guiFrame.add(this.guiPanel);
-            this.guiFrame.setSize(800, 800);
-            this.guiFrame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-            this.guiFrame.setVisible(true);
-        });
-    }
+        @Override
+        public boolean hasNext() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (tieIndex < ties.size()) {
+                return true;
+            }
+            ties.clear();
+            tieIndex = 0;
+            while (!heap.isEmpty() && !(heap.peek() instanceof Point)) {
+                expand((Node) heap.poll());
+            }
+            if (heap.isEmpty()) {
+                return false;
+            }
+            // 같은 거리의 점을 모두 모음. MINDIST가 그 거리와 같은 노드에도 같은 거리의 점이 있을 수 있으므로 펼침.
+            tieDistanceSquared = heap.peekKey();
+            while (!heap.isEmpty() && heap.peekKey() == tieDistanceSquared) {
+                Object item = heap.poll();
+                if (item instanceof Point) {
+                    ties.add((Point) item);
+                } else {
+                    expand((Node) item);
+                }
+            }
+            if (ties.size() > 1) {
+                ties.sort(POINT_ORDER);
+            }
+            return true;
+        }
 
-    // updateGUI 헬퍼 메서드. GUI를 갱신할 때 스레드 문제를 해결(EDT에서 실행).
-    private void updateGUI() {
-        if (this.guiPanel != null) {
-            SwingUtilities.invokeLater(() -> {
-                guiPanel.repaint();
-            });
+        @Override
+        public Point next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            lastDistanceSquared = tieDistanceSquared;
+            Point p = ties.get(tieIndex++);
+            if (observer != null) {
+                observer.found(p, distance());
+            }
+            return p;
         }
-    }
 
-    // add 메서드. 포인트를 삽입하고, Thread.sleep으로 애니메이션 효과를 줌.
-    @Override
-    public void add(Point point) {
-        this.currentSearchRect = null;
-        this.currentKnnSource = null;
-        this.highlightedPoints.clear();
-        this.prunedNodes.clear();
-        this.knnVisitedNodes.clear();
-        this.splitGroup1 = null;
-        this.splitGroup2 = null;
-        this.deletingPoint = null;
-        this.shrinkingMbr = null;
-
-        if (findLeaf(root, point) != null) {
-            return;
+        // distance 메서드. 마지막으로 반환한 Point와 source 사이의 거리.
+        public double distance() {
+            return Math.sqrt(distanceSquared());
         }
 
-        Node leaf = chooseLeaf(root, point);
+        // distanceSquared 메서드. 마지막으로 반환한 Point와 source 사이 거리의 제곱.
+        public double distanceSquared() {
+            if (Double.isNaN(lastDistanceSquared)) {
+                throw new IllegalStateException("next()를 먼저 호출해야 합니다.");
+            }
+            return lastDistanceSquared;
+        }
 
-        // 확장되는 MBR 저장 (삽입 전)
-        if (leaf.hasValidMbr()) {
-            this.lastExpandedMbr = new Rectangle(leaf.mbr.getLeftTop(), leaf.mbr.getRightBottom());
+        // nextDistanceSquared 헬퍼 메서드. hasNext()가 true일 때 다음에 반환할 점의 거리 제곱.
+        private double nextDistanceSquared() {
+            return tieDistanceSquared;
         }
 
-        // 새로 삽입되는 점 강조
-        this.lastInsertedPoint = point;
+        // expand 헬퍼 메서드. leaf이면 Point들을, 내부 노드이면 자식 노드들을 힙에 넣음.
+        private void expand(Node node) {
+            if (observer != null) {
+                observer.visited(mbrSnapshot(node), node.leaf);
+            }
+            if (node.leaf) {
+                for (int i = 0; i < node.points.size(); i++) {
+                    Point p = node.points.get(i);
+                    double dx = p.getX() - source.getX();
+                    double dy = p.getY() - source.getY();
+                    heap.add(dx * dx + dy * dy, p);
+                }
+                if (observer != null) {
+                    observer.candidates(Collections.unmodifiableList(new ArrayList<>(node.points)));
+                }
+            } else {
+                for (int i = 0; i < node.children.size(); i++) {
+                    Node child = node.children.get(i);
+                    if (child.hasValidMbr()) {
+                        heap.add(rectMinDistanceSq(child, source), child);
+                    }
+                }
+            }
+        }
 
-        insert(leaf, point);
-        this.size++;
-        updateGUI();
+        // reportPruned 헬퍼 메서드. 검색을 멈춘 시점에 힙에 남아 펼치지 않은 노드를 옵저버에 가지치기로 알림.
+        private void reportPruned() {
+            for (int i = 0; i < heap.size(); i++) {
+                Object item = heap.valueAt(i);
+                if (item instanceof Node) {
+                    observer.pruned(mbrSnapshot((Node) item));
+                }
+            }
+        }
+    }
+
+    // 병렬 검색 (fork/join)
+    // -----------------------------------------------------------------
+    // 큰 범위 검색과 KNN을 ForkJoinPool 작업으로 나눠 실행. 예상 점 수가 parallelThreshold 이상인 서브트리는
+    // 자식마다 작업을 만들고, 작은 서브트리는 한 작업 안에서 순차로 검색.
+    // 옵저버 이벤트는 보내지 않으며, 검색하는 동안 add/delete를 호출하면 안 됨(끝난 뒤 변경이 감지되면
+    // ConcurrentModificationException). 여러 스레드에서 읽기만 하는 것은 안전.
+
+    // parallelSearch 메서드. search와 같은 결과를 같은 순서로 반환. 공용 ForkJoinPool을 사용.
+    public Iterator<Point> parallelSearch(Rectangle rectangle) {
+        return parallelSearch(rectangle, ForkJoinPool.commonPool());
+    }
 
-        try {
-            Thread.sleep(1500);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
+    // parallelSearch 메서드 오버로딩. 지정한 pool에서 실행.
+    public Iterator<Point> parallelSearch(Rectangle rectangle, ForkJoinPool pool) {
+        int expectedModCount = modCount;
+        List<Point> result = pool.invoke(new SearchTask(root, height() - 1, rectangle));
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
         }
+        return result.iterator();
+    }
 
-        // 강조 해제
-        this.lastInsertedPoint = null;
-        this.lastExpandedMbr = null;
-        this.splitGroup1 = null;
-        this.splitGroup2 = null;
-        updateGUI();
+    // parallelNearest 메서드. nearest와 같은 점을 같은 순서로 반환 (거리, 같으면 x, y 순서).
+    // 작업들은 지금까지 찾은 k번째 거리의 최솟값을 공유하고, 그보다 먼 노드는 펼치지 않음.
+    public Iterator<Point> parallelNearest(Point source, int maxCount) {
+        return parallelNearest(source, maxCount, ForkJoinPool.commonPool());
     }
 
-    // search 메서드. 범위 검색을 수행하고, Task 1 완료를 JOptionPane으로 알림.
-    @Override
-    public Iterator<Point> search(Rectangle rectangle) {
-        // Task 1 완료 모달 먼저 (현재 트리 결과를 보여주면서)
-        JOptionPane.showMessageDialog(guiFrame,
-                "Task 1 complete\n\nPress OK to start Range Search...",
-                "Task 1 Complete", JOptionPane.INFORMATION_MESSAGE);
-
-        // 확인 누르면 초기화 + 검색 시작
-        this.currentSearchRect = null;
-        this.currentKnnSource = null;
-        this.highlightedPoints.clear();
-        this.prunedNodes.clear();
-        this.knnVisitedNodes.clear();
-        this.knnCandidatePoints.clear();
-        this.lastInsertedPoint = null;
-        this.lastExpandedMbr = null;
-        this.splitGroup1 = null;
-        this.splitGroup2 = null;
-
-        List<Point> result = new ArrayList<>();
-        this.currentSearchRect = rectangle;
-        this.highlightedPoints.clear();
-        this.prunedNodes.clear();
-
-        // 1. 검색 영역 표시
-        updateGUI();
-        try { Thread.sleep(800); } catch (InterruptedException e) {}
-
-        // 2. Pruned 노드를 수집하면서 검색 (애니메이션)
-        searchRecursiveWithPruning(root, rectangle, result);
-
-        // 3. 최종 결과 표시
-        this.highlightedPoints.addAll(result);
-        updateGUI();
-        try { Thread.sleep(1000); } catch (InterruptedException e) {}
-
-        // Task 2 완료 모달 (Range Search 결과를 보여주면서)
-        JOptionPane.showMessageDialog(guiFrame,
-                "Task 2 complete\n\nFound " + result.size() + " points\n\nPress OK to continue...",
-                "Task 2 Complete", JOptionPane.INFORMATION_MESSAGE);
+    // parallelNearest 메서드 오버로딩. 지정한 pool에서 실행.
+    public Iterator<Point> parallelNearest(Point source, int maxCount, ForkJoinPool pool) {
+        if (maxCount <= 0 || size == 0) {
+            return Collections.emptyIterator();
+        }
+        int expectedModCount = modCount;
+        AtomicLong bound = new AtomicLong(Double.doubleToLongBits(Double.POSITIVE_INFINITY));
+        Candidates found = pool.invoke(new NearestTask(root, height() - 1, source, maxCount, bound));
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+        return Arrays.asList(found.points).subList(0, found.count).iterator();
+    }
 
-        return result.iterator();
+    // estimatedPoints 헬퍼 메서드. level(leaf = 0) 노드 아래의 예상 점 수. 노드가 평균 (M + m) / 2만큼 차 있다고 가정.
+    private double estimatedPoints(int level) {
+        double points = (maxLeafEntries + minLeafEntries) / 2.0;
+        for (int i = 0; i < level; i++) {
+            points *= (maxInternalEntries + minInternalEntries) / 2.0;
+        }
+        return points;
     }
 
-    // Pruning 시각화를 포함한 검색
-    private void searchRecursiveWithPruning(Node node, Rectangle rectangle, List<Point> result) {
+    // collect 헬퍼 메서드. 재귀로 범위 안의 점을 result에 모음. SearchIterator와 같은 깊이 우선 순서.
+    private void collect(Node node, Rectangle range, List<Point> result) {
         if (node.leaf) {
-            // Leaf 노드 도달 → 점들 하나씩 추가
-            for (Point p : node.points) {
-                if (rectContains(rectangle, p)) {
+            for (int i = 0; i < node.points.size(); i++) {
+                Point p = node.points.get(i);
+                if (rectContains(range, p)) {
                     result.add(p);
-                    this.highlightedPoints.clear();
-                    this.highlightedPoints.addAll(result);
-                    updateGUI();
-                    try { Thread.sleep(400); } catch (InterruptedException e) {}
                 }
             }
-        } else {
-            for (Node child : node.children) {
-                if (rectIntersects(child.getMbr(), rectangle)) {
-                    // 검색 범위와 겹침 → 재귀 탐색
-                    searchRecursiveWithPruning(child, rectangle, result);
+            return;
+        }
+        for (int i = 0; i < node.children.size(); i++) {
+            Node child = node.children.get(i);
+            if (rectIntersects(child, range)) {
+                collect(child, range, result);
+            }
+        }
+    }
+
+    // SearchTask 클래스. 큰 서브트리는 겹치는 자식마다 작업을 나누고, 결과를 자식 순서대로 이어 붙임.
+    @SuppressWarnings("serial")
+    private final class SearchTask extends RecursiveTask<List<Point>> {
+        private final Node node;
+        private final int level;
+        private final Rectangle range;
+
+        SearchTask(Node node, int level, Rectangle range) {
+            this.node = node;
+            this.level = level;
+            this.range = range;
+        }
+
+        @Override
+        protected List<Point> compute() {
+            if (node.leaf || estimatedPoints(level) < parallelThreshold) {
+                List<Point> result = new ArrayList<>();
+                collect(node, range, result);
+                return result;
+            }
+            List<SearchTask> tasks = new ArrayList<>(node.children.size());
+            for (int i = 0; i < node.children.size(); i++) {
+                Node child = node.children.get(i);
+                if (rectIntersects(child, range)) {
+                    tasks.add(new SearchTask(child, level - 1, range));
+                }
+            }
+            invokeAll(tasks);
+            List<Point> result = new ArrayList<>();
+            for (SearchTask task : tasks) {
+                result.addAll(task.join());
+            }
+            return result;
+        }
+    }
+
+    // Candidates 클래스. 거리 오름차순으로 정렬된 최대 k개의 점.
+    private static final class Candidates {
+        final Point[] points;
+        final double[] distances;
+        int count;
+
+        Candidates(int k) {
+            points = new Point[k];
+            distances = new double[k];
+        }
+
+        void add(Point p, double distanceSq) {
+            points[count] = p;
+            distances[count] = distanceSq;
+            count++;
+        }
+
+        // merge 메서드. 정렬된 두 목록을 합쳐 가까운 k개만 남김. 거리가 같으면 NearestIterator처럼 (x, y) 순서.
+        static Candidates merge(Candidates a, Candidates b, int k) {
+            Candidates merged = new Candidates(k);
+            int i = 0, j = 0;
+            while (merged.count < k && (i < a.count || j < b.count)) {
+                if (j >= b.count || (i < a.count && (a.distances[i] < b.distances[j] || a.distances[i] == b.distances[j]
+                        && POINT_ORDER.compare(a.points[i], b.points[j]) <= 0))) {
+                    merged.add(a.points[i], a.distances[i]);
+                    i++;
                 } else {
-                    // Pruned 노드 기록 + 시각화
-                    prunedNodes.add(child);
-                    collectAllDescendants(child, prunedNodes);
-                    updateGUI();
-                    try { Thread.sleep(500); } catch (InterruptedException e) {}
+                    merged.add(b.points[j], b.distances[j]);
+                    j++;
                 }
             }
+            return merged;
         }
     }
 
-    // 모든 자손 노드 수집 (pruning 표시용)
-    private void collectAllDescendants(Node node, List<Node> list) {
-        if (!node.leaf && node.children != null) {
-            for (Node child : node.children) {
-                list.add(child);
-                collectAllDescendants(child, list);
+    // NearestTask 클래스. 큰 서브트리는 자식마다 작업을 나누고, 작은 서브트리는 NearestIterator와 같은
+    // best-first 탐색으로 가까운 k개를 찾음. k개를 찾으면 k번째 거리로 공유 bound를 줄이며,
+    // bound보다 먼 노드와 점은 다른 작업이 찾은 k개보다 멀기 때문에 건너뜀.
+    @SuppressWarnings("serial")
+    private final class NearestTask extends RecursiveTask<Candidates> {
+        private final Node node;
+        private final int level;
+        private final Point source;
+        private final int k;
+        // 0 이상인 double은 비트 패턴의 대소가 값의 대소와 같으므로 long으로 최솟값을 갱신.
+        private final AtomicLong bound;
+
+        NearestTask(Node node, int level, Point source, int k, AtomicLong bound) {
+            this.node = node;
+            this.level = level;
+            this.source = source;
+            this.k = k;
+            this.bound = bound;
+        }
+
+        private double bound() {
+            return Double.longBitsToDouble(bound.get());
+        }
+
+        @Override
+        protected Candidates compute() {
+            // 앞선 작업이 bound를 줄였으면 시작하기 전에 다시 확인
+            if (rectMinDistanceSq(node, source) > bound()) {
+                return new Candidates(0);
+            }
+            if (node.leaf || estimatedPoints(level) < parallelThreshold
+                    || estimatedPoints(level - 1) < (double) k * PARALLEL_KNN_TASK_FACTOR) {
+                return searchSequential();
+            }
+            // 가까운 자식부터 실행되도록 MINDIST 순으로 정렬. 먼저 끝난 작업이 bound를 줄여 뒤의 작업을 가지치기함.
+            List<Node> children = new ArrayList<>(node.children.size());
+            for (int i = 0; i < node.children.size(); i++) {
+                Node child = node.children.get(i);
+                if (child.hasValidMbr()) {
+                    children.add(child);
+                }
             }
+            children.sort(Comparator.comparingDouble(child -> rectMinDistanceSq(child, source)));
+            List<NearestTask> tasks = new ArrayList<>(children.size());
+            for (Node child : children) {
+                tasks.add(new NearestTask(child, level - 1, source, k, bound));
+            }
+            invokeAll(tasks);
+            Candidates result = new Candidates(k);
+            for (NearestTask task : tasks) {
+                result = Candidates.merge(result, task.join(), k);
+            }
+            return result;
+        }
+
+        // searchSequential 헬퍼 메서드. nearest와 같은 순서가 되도록 옵저버 없는 NearestIterator로 서브트리를 훑음.
+        private Candidates searchSequential() {
+            Candidates result = new Candidates(k);
+            NearestIterator it = new NearestIterator(source, node, null);
+            // bound와 거리가 같은 점은 (x, y) 순서로 앞설 수 있으므로 더 먼 점만 건너뜀
+            while (result.count < k && it.hasNext() && it.nextDistanceSquared() <= bound()) {
+                Point p = it.next();
+                result.add(p, it.distanceSquared());
+            }
+            if (result.count == k) {
+                long bits = Double.doubleToLongBits(result.distances[k - 1]);
+                bound.accumulateAndGet(bits, Math::min);
+            }
+            return result;
         }
     }
 
-    // nearest 메서드. KNN 검색을 수행하고, Task 2 완료를 JOptionPane으로 알림.
+    // delete 메서드. 포인트가 있으면 삭제하고 트리를 재조정.
     @Override
-    public Iterator<Point> nearest(Point source, int maxCount) {
-        // Task 2 완료 모달 먼저 (Range Search 결과를 보여주면서)
-        JOptionPane.showMessageDialog(guiFrame,
-                "Task 2 complete\n\nPress OK to start KNN search...",
-                "Task 2 Complete", JOptionPane.INFORMATION_MESSAGE);
-
-        // 확인 누르면 초기화 + KNN 검색 시작
-        this.currentSearchRect = null;
-        this.prunedNodes.clear();
-        this.knnVisitedNodes.clear();
-        this.knnVisitOrder.clear();
-        this.knnCandidatePoints.clear();
-        this.knnResultDistances.clear();
-        this.knnNewlyFoundPoint = null;
-        this.knnCurrentNode = null;
-        this.highlightedPoints.clear();
-        this.lastInsertedPoint = null;
-        this.lastExpandedMbr = null;
-        this.splitGroup1 = null;
-        this.splitGroup2 = null;
-        this.knnCurrentBestDist = Double.POSITIVE_INFINITY;
-        this.currentKnnSource = source;
-
-        PriorityQueue<DistSpat> pq = new PriorityQueue<>();
-        pq.add(new DistSpat(root, 0.0));
-        List<Point> result = new ArrayList<>();
-        int visitOrder = 1;
-
-        while (!pq.isEmpty() && result.size() < maxCount) {
-            DistSpat current = pq.poll();
-
-            if (current.item instanceof Point) {
-                // Point pop: 결과에 추가
-                Point p = (Point) current.item;
-                result.add(p);
-                double dist = source.distance(p);
-
-                // 새로 발견된 점 시각화 (Source에서 선 그리기)
-                this.knnNewlyFoundPoint = p;
-                this.knnCandidatePoints.remove(p);
-                updateGUI();
-                try { Thread.sleep(1000); } catch (InterruptedException e) {}
-
-                // bestDist 업데이트 + 원 그리기
-                this.knnCurrentBestDist = dist;
-                this.knnResultDistances.put(p, dist);
-                this.knnNewlyFoundPoint = null;
-
-                // 결과 표시
-                this.highlightedPoints.clear();
-                this.highlightedPoints.addAll(result);
-                updateGUI();
-                try { Thread.sleep(800); } catch (InterruptedException e) {}
+    public void delete(Point point) {
+        Node leaf = locate(point);
+        if (leaf == null) {
+            return;
+        }
+        Point toRemove = null;
+        for(Point p : leaf.points) {
+            if(p.getX() == point.getX() && p.getY() == point.getY()) {
+                toRemove = p;
+                break;
+            }
+        }
+        if (toRemove == null) {
+            return;
+        }
 
-            } else {
-                // Node pop: 현재 방문 노드 강조
-                Node node = (Node) current.item;
-                this.knnCurrentNode = node;
-                knnVisitedNodes.add(node);
-                knnVisitOrder.put(node, visitOrder++);
-                updateGUI();
-                try { Thread.sleep(700); } catch (InterruptedException e) {}
+        Rectangle oldMbr = null;
+        if (observer != null) {
+            oldMbr = mbrSnapshot(leaf);
+            observer.deleteStarted(point, oldMbr);
+        }
 
-                if (node.leaf) {
-                    // Leaf 도달 → 점들을 후보로 추가
-                    for (Point p : node.points) {
-                        this.knnCandidatePoints.add(p);
-                        pq.add(new DistSpat(p, rectMinDistance(new Rectangle(p,p), source)));
+        leaf.points.remove(toRemove);
+        if (pointIndex != null) {
+            pointIndex.remove(point.getX(), point.getY());
+        }
+        leaf.recalcMbr();
+
+        if (observer != null) {
+            observer.deleted(point, oldMbr, mbrSnapshot(leaf));
+        }
+
+        // Tree 재조정
+        condenseTree(leaf);
+        this.size--;
+        this.modCount++;
+
+        if (size == 0) {
+            root = new Node(true, null);
+        }
+
+        if (observer != null) {
+            observer.deleteFinished(point);
+        }
+    }
+
+    // deleteWithin 메서드. rectangle 안의 점을 트리 한 번의 순회로 모두 지우고 지운 개수를 반환.
+    // 범위에 완전히 들어가는 서브트리는 내려가지 않고 통째로 떼어내며, 최소 채움 미만이 된 노드의 병합/재분배와
+    // MBR 갱신은 올라오는 길에 노드마다 한 번만 처리함. REINSERT 모드에서는 미달 노드를 모아 두었다가 순회가 끝난 뒤
+    // 엔트리를 다시 삽입. 옵저버 이벤트는 보내지 않음.
+    public int deleteWithin(Rectangle rectangle) {
+        return deleteWithin(rectangle, null);
+    }
+
+    // deleteWithin 메서드 오버로딩. rectangle 안의 점 중 predicate가 true인 점만 지움 (null이면 모두).
+    // predicate가 있으면 범위에 완전히 들어가는 서브트리도 점마다 확인해야 하므로 통째로 떼어내지 않음.
+    public int deleteWithin(Rectangle rectangle, Predicate<? super Point> predicate) {
+        if (rectangle == null) {
+            return 0;
+        }
+        int height = height();
+        // 떼어내 다시 삽입할 미달 노드. 인덱스가 노드의 레벨(leaf = 0). MERGE 모드에서는 형제가 없는 노드만 모임.
+        List<List<Node>> orphans = new ArrayList<>(height);
+        for (int i = 0; i < height; i++) {
+            orphans.add(new ArrayList<>());
+        }
+        int removed = deleteWithin(root, height - 1, rectangle.getLeftTop().getX(), rectangle.getLeftTop().getY(),
+                rectangle.getRightBottom().getX(), rectangle.getRightBottom().getY(), predicate, orphans);
+        if (removed == 0) {
+            return 0;
+        }
+        this.size -= removed;
+        this.modCount++;
+        // 한 번에 여러 레벨이 비거나 자식 하나만 남을 수 있으므로 반복해서 루트 높이를 줄임
+        shrinkRoot();
+        if (size == 0) {
+            root = new Node(true, null);
+        } else {
+            reinsertAll(orphans);
+            shrinkRoot();
+        }
+        return removed;
+    }
+
+    // deleteWithin 헬퍼 메서드. level 레벨의 node 서브트리에서 범위 안의 점을 지우고 지운 개수를 반환. 자식을 먼저
+    // 처리한 뒤 최소 채움 미만이 된 자식을 고치고(REINSERT 모드이면 떼어내 orphans에 모으고) node의 MBR과 점 개수를
+    // 한 번 다시 계산함. node 자신의 미달은 부모가 처리.
+    private int deleteWithin(Node node, int level, double minX, double minY, double maxX, double maxY,
+            Predicate<? super Point> predicate, List<List<Node>> orphans) {
+        if (node.leaf) {
+            List<Point> points = node.points;
+            int kept = 0;
+            for (int i = 0; i < points.size(); i++) {
+                Point p = points.get(i);
+                if (p.getX() >= minX && p.getX() <= maxX && p.getY() >= minY && p.getY() <= maxY
+                        && (predicate == null || predicate.test(p))) {
+                    if (pointIndex != null) {
+                        pointIndex.remove(p.getX(), p.getY());
                     }
-                    updateGUI();
-                    try { Thread.sleep(600); } catch (InterruptedException e) {}
                 } else {
-                    // 내부 노드 → 자식들 PQ에 추가 + Pruning 체크
-                    for (Node child : node.children) {
-                        if (child.hasValidMbr()) {
-                            double minDist = rectMinDistance(child.getMbr(), source);
-                            // Pruning: bestDist보다 멀면 탐색 안 함
-                            if (result.size() == maxCount && minDist > knnCurrentBestDist) {
-                                prunedNodes.add(child);
-                                collectAllDescendants(child, prunedNodes);
-                                updateGUI();
-                                try { Thread.sleep(500); } catch (InterruptedException e) {}
-                            } else {
-                                pq.add(new DistSpat(child, minDist));
-                            }
+                    points.set(kept++, p);
+                }
+            }
+            int removed = points.size() - kept;
+            if (removed > 0) {
+                points.subList(kept, points.size()).clear();
+                node.recalcMbr();
+            }
+            return removed;
+        }
+        int removed = 0;
+        boolean underflow = false;
+        for (int i = 0; i < node.children.size();) {
+            Node child = node.children.get(i);
+            if (child.maxX < minX || child.minX > maxX || child.maxY < minY || child.minY > maxY) {
+                i++;
+                continue;
+            }
+            if (predicate == null && child.minX >= minX && child.maxX <= maxX && child.minY >= minY
+                    && child.maxY <= maxY) {
+                removed += child.pointCount;
+                unindexSubtree(child);
+                node.children.remove(i);
+                child.parent = null;
+                continue;
+            }
+            int r = deleteWithin(child, level - 1, minX, minY, maxX, maxY, predicate, orphans);
+            if (r > 0) {
+                removed += r;
+                underflow |= entryCount(child) < minEntries(child);
+            }
+            i++;
+        }
+        if (removed > 0) {
+            if (underflow && condenseMode == CondenseMode.MERGE) {
+                fixUnderflowChildren(node, level, orphans);
+            } else if (underflow) {
+                for (int i = node.children.size() - 1; i >= 0; i--) {
+                    Node child = node.children.get(i);
+                    if (entryCount(child) < minEntries(child)) {
+                        node.children.remove(i);
+                        if (child.pointCount > 0) {
+                            orphans.get(level - 1).add(child);
                         }
                     }
                 }
-
-                // 현재 노드 처리 완료
-                this.knnCurrentNode = null;
             }
+            node.recalcMbr();
         }
+        return removed;
+    }
 
-        // 최종 결과 표시 (모든 보조 요소 제거, 결과만 남김)
-        this.knnVisitedNodes.clear();
-        this.knnVisitOrder.clear();
-        this.knnCandidatePoints.clear();
-        this.prunedNodes.clear();
-        this.highlightedPoints.clear();
-        this.highlightedPoints.addAll(result);
-        // knnCurrentBestDist와 knnResultDistances는 유지 (원과 거리 표시)
-        updateGUI();
-        try { Thread.sleep(1000); } catch (InterruptedException e) {}
-
-        // Task 3 완료 모달 (KNN 결과를 보여주면서)
-        JOptionPane.showMessageDialog(guiFrame,
-                "Task 3 complete\n\nFound " + result.size() + " nearest points\n\nPress OK to continue...",
-                "Task 3 Complete", JOptionPane.INFORMATION_MESSAGE);
-
-        return result.iterator();
+    // fixUnderflowChildren 헬퍼 메서드. parent의 자식 중 최소 채움 미만인 노드를 handleUnderflow로 형제와 병합 또는 재분배하고,
+    // 병합이 한 번이라도 일어났으면 true. 여러 점을 한꺼번에 지우면 형제가 없어 고치지 못한 미달 노드가 남을 수 있는데,
+    // 그 부모가 병합되거나 형제에게서 자식을 빌려오면 형제가 생기므로 handleUnderflow가 건드린 내부 노드의 자식도 다시 확인.
+    // 형제가 없는 미달 자식은 isOrphan이면 떼어내 orphans에 모음.
+    private boolean fixUnderflowChildren(Node parent, int level, List<List<Node>> orphans) {
+        boolean merged = false;
+        int i = 0;
+        while (i < parent.children.size()) {
+            Node child = parent.children.get(i);
+            if (entryCount(child) >= minEntries(child)) {
+                i++;
+                continue;
+            }
+            if (parent.children.size() == 1 && entryCount(child) > 0) {
+                if (isOrphan(child)) {
+                    parent.children.remove(child);
+                    orphans.get(level - 1).add(child);
+                    merged = true;
+                }
+                // 그 밖에는 루트 축소나 부모 레벨의 병합에서 처리
+                break;
+            }
+            // handleUnderflow와 같은 형제(자기 자신이 아닌 첫 번째 자식). 없으면 빈 child가 떼어내짐.
+            Node sibling = parent.children.size() > 1 ? parent.children.get(i == 0 ? 1 : 0) : null;
+            handleUnderflow(child);
+            if (parent.children.contains(child)) {
+                // 재분배. child 안에서 병합이 일어나 다시 미달이 되었으면 같은 자리를 한 번 더 확인.
+                if (child.leaf || !fixUnderflowChildren(child, level - 1, orphans)) {
+                    i++;
+                } else {
+                    child.recalcMbr();
+                }
+            } else {
+                merged = true;
+                if (sibling != null && !sibling.leaf && fixUnderflowChildren(sibling, level - 1, orphans)) {
+                    sibling.recalcMbr();
+                }
+                // 병합으로 자식 목록이 바뀌었으므로 처음부터 다시 훑음
+                i = 0;
+            }
+        }
+        return merged;
     }
 
-    // delete 메서드. 포인트를 삭제하고, 첫 호출 시 Task 3 완료를 알림.
-    @Override
-    public void delete(Point point) {
-        if (firstDeleteCall) {
-            firstDeleteCall = false;
-
-            // Task 3 완료 모달 먼저 (KNN 결과를 보여주면서)
-            JOptionPane.showMessageDialog(guiFrame,
-                    "Task 3 complete\n\nPress OK to start deletion...",
-                    "Task 3 Complete", JOptionPane.INFORMATION_MESSAGE);
-
-            // 확인 누르면 초기화
-            this.currentSearchRect = null;
-            this.currentKnnSource = null;
-            this.highlightedPoints.clear();
-            this.prunedNodes.clear();
-            this.knnVisitedNodes.clear();
-            this.knnVisitOrder.clear();
-            this.knnCandidatePoints.clear();
-            this.lastInsertedPoint = null;
-            this.lastExpandedMbr = null;
-            this.splitGroup1 = null;
-            this.splitGroup2 = null;
-            updateGUI();
-        }
-
-        Node leaf = findLeaf(root, point);
-        if (leaf == null) {
+    // unindexSubtree 헬퍼 메서드. 통째로 떼어낸 서브트리의 점을 색인에서 지움.
+    private void unindexSubtree(Node node) {
+        if (pointIndex == null) {
             return;
         }
-        Point toRemove = null;
-        for(Point p : leaf.points) {
-            if(p.getX() == point.getX() && p.getY() == point.getY()) {
-                toRemove = p;
-                break;
+        if (node.leaf) {
+            for (int i = 0; i < node.points.size(); i++) {
+                pointIndex.remove(node.points.get(i).getX(), node.points.get(i).getY());
+            }
+        } else {
+            for (int i = 0; i < node.children.size(); i++) {
+                unindexSubtree(node.children.get(i));
             }
         }
-        if (toRemove == null) {
-            return;
-        }
-
-        // 1. 삭제 대상 점 + 리프 강조
-        this.deletingPoint = point;
-        this.deletingLeafNode = leaf;
-        updateGUI();
-        try { Thread.sleep(600); } catch (InterruptedException e) {}
-
-        // 2. 삭제 전 MBR 저장
-        this.oldMbrBeforeDelete = new Rectangle(leaf.mbr.getLeftTop(), leaf.mbr.getRightBottom());
+    }
 
-        // 3. 점 제거
-        leaf.points.remove(toRemove);
-        leaf.recalcMbr();
+    // quality 메서드. 높이, 노드 수, 채움, MBR 면적, 형제 MBR 겹침을 계산한 TreeQuality. 트리 전체를 한 번 훑음.
+    public TreeQuality quality() {
+        // counts: 노드, leaf / sums: leaf 채움, 내부 채움, 면적, 겹침
+        int[] counts = new int[2];
+        double[] sums = new double[4];
+        quality(root, counts, sums);
+        int internal = counts[0] - counts[1];
+        return new TreeQuality(height(), counts[0], counts[1], sums[0] / counts[1],
+                internal > 0 ? sums[1] / internal : 0, sums[2], sums[3]);
+    }
 
-        // 4. Shrink 애니메이션 (old MBR → new MBR)
-        if (leaf.hasValidMbr()) {
-            this.shrinkingMbr = new Rectangle(leaf.mbr.getLeftTop(), leaf.mbr.getRightBottom());
+    private void quality(Node node, int[] counts, double[] sums) {
+        counts[0]++;
+        if (node.leaf) {
+            counts[1]++;
+            sums[0] += (double) node.points.size() / maxLeafEntries;
+            return;
         }
-        this.deletingPoint = null; // 점은 사라졌으니 X 표시 제거
-        updateGUI();
-        try { Thread.sleep(700); } catch (InterruptedException e) {}
-
-        // 5. Tree 재조정
-        condenseTree(leaf);
-        this.size--;
-
-        if (size == 0) {
-            root = new Node(true, null);
+        sums[1] += (double) node.children.size() / maxInternalEntries;
+        List<Node> children = node.children;
+        for (int i = 0; i < children.size(); i++) {
+            Node a = children.get(i);
+            sums[2] += rectArea(a);
+            for (int j = i + 1; j < children.size(); j++) {
+                Node b = children.get(j);
+                sums[3] += intersectionArea(a.minX, a.minY, a.maxX, a.maxY, b.minX, b.minY, b.maxX, b.maxY);
+            }
+            quality(a, counts, sums);
         }
-
-        // 6. 강조 해제
-        this.deletingLeafNode = null;
-        this.shrinkingMbr = null;
-        this.oldMbrBeforeDelete = null;
-        updateGUI();
     }
 
-    // isEmpty 메서드. 모든 Task 완료 후 최종 결과를 JOptionPane으로 알림.
+    // isEmpty 메서드. 트리에 포인트가 없으면 true.
     @Override
     public boolean isEmpty() {
-        updateGUI();
-        boolean result = (this.size == 0);
-
-        JOptionPane.showMessageDialog(guiFrame,
-                "Task 4 complete" ,
-                "Task 4 complete", JOptionPane.INFORMATION_MESSAGE);
-
-        return result;
+        return this.size == 0;
     }
 
     // chooseLeaf 메서드. 면적 증가(enlargement)가 가장 적은 하위 노드를 선택.
@@ -1057,17 +1469,22 @@ public class RTreeImpl implements RTree {
         if (node.leaf) {
             return node;
         }
+        return chooseLeaf(chooseChild(node, point), point);
+    }
+
+    // chooseChild 헬퍼 메서드. 내부 노드의 자식 중 면적 증가가 가장 적은(동률이면 면적이 작은) 자식.
+    private static Node chooseChild(Node node, Point point) {
         Node bestChild = null;
         double minEnlargement = Double.POSITIVE_INFINITY;
 
         for (Node child : node.children) {
-            double enlargement = rectEnlargement(child.getMbr(), point);
+            double enlargement = rectEnlargement(child, point);
 
             if (enlargement < minEnlargement) {
                 minEnlargement = enlargement;
                 bestChild = child;
             } else if (enlargement == minEnlargement) {
-                if (bestChild == null || rectArea(child.getMbr()) < rectArea(bestChild.getMbr())) {
+                if (bestChild == null || rectArea(child) < rectArea(bestChild)) {
                     bestChild = child;
                 }
             }
@@ -1075,14 +1492,15 @@ public class RTreeImpl implements RTree {
         if (bestChild == null) {
             bestChild = node.children.get(0);
         }
-        return chooseLeaf(bestChild, point);
+        return bestChild;
     }
 
     // insert 메서드. 리프에 삽입 후, 오버플로우 시 splitNode를 호출.
     private void insert(Node leaf, Point point) {
         leaf.points.add(point);
+        indexPoint(leaf, point);
         leaf.recalcMbr();
-        if (leaf.points.size() > MAX_ENTRIES) {
+        if (leaf.points.size() > maxLeafEntries) {
             Node[] newNodes = splitNode(leaf);
             adjustTree(newNodes[0], newNodes[1]);
         } else {
@@ -1090,171 +1508,44 @@ public class RTreeImpl implements RTree {
         }
     }
 
+    // splitNode 메서드. 넘친 노드의 엔트리를 splitStrategy로 두 그룹으로 나눔. node는 첫 번째 그룹으로 재사용하고
+    // 두 번째 그룹은 새 노드로 만들어 반환. 부모에 연결하는 것은 호출한 쪽에서 처리.
     private Node[] splitNode(Node node) {
-        List entries;
-        if (node.leaf) {
-            entries = new ArrayList<>(node.points);
-        } else {
-            entries = new ArrayList<>(node.children);
-        }
+        List<?> entries = node.leaf ? new ArrayList<>(node.points) : new ArrayList<>(node.children);
+        int count = entries.size();
+        double[] minX = new double[count], minY = new double[count], maxX = new double[count], maxY = new double[count];
+        for (int i = 0; i < count; i++) {
+            Object e = entries.get(i);
+            minX[i] = entryMinX(e);
+            minY[i] = entryMinY(e);
+            maxX[i] = entryMaxX(e);
+            maxY[i] = entryMaxY(e);
+        }
+        int minEntries = node.leaf ? minLeafEntries : minInternalEntries;
+        boolean[] second = splitStrategy.split(minX, minY, maxX, maxY, count, minEntries);
+
         Node group1 = node;
         Node group2 = new Node(node.leaf, node.parent);
-        Object[] seeds = pickSeeds(entries, node);
-        Object seed1 = seeds[0];
-        Object seed2 = seeds[1];
-
         if (node.leaf) {
             group1.points.clear();
-            group1.points.add((Point) seed1);
-            group2.points.add((Point) seed2);
         } else {
             group1.children.clear();
-            group1.children.add((Node) seed1);
-            ((Node)seed1).parent = group1;
-            group2.children.add((Node) seed2);
-            ((Node)seed2).parent = group2;
         }
-
-        // IMPORTANT: make sure MBRs reflect the seed assignments before pickNext
-        group1.recalcMbr();
-        group2.recalcMbr();
-
-        entries.remove(seed1);
-        entries.remove(seed2);
-
-        while (!entries.isEmpty()) {
-            // Ensure minimum entries (m = MIN_ENTRIES) constraint
-            if (group1.leaf) {
-                if (group1.points.size() + entries.size() == MIN_ENTRIES) {
-                    // give all remaining entries to group1
-                    for (Object e : new ArrayList<>(entries)) {
-                        group1.points.add((Point) e);
-                    }
-                    entries.clear();
-                    break;
-                }
-                if (group2.points.size() + entries.size() == MIN_ENTRIES) {
-                    for (Object e : new ArrayList<>(entries)) {
-                        group2.points.add((Point) e);
-                    }
-                    entries.clear();
-                    break;
-                }
-            } else {
-                if (group1.children.size() + entries.size() == MIN_ENTRIES) {
-                    for (Object e : new ArrayList<>(entries)) {
-                        group1.children.add((Node) e);
-                        ((Node)e).parent = group1;
-                    }
-                    entries.clear();
-                    break;
-                }
-                if (group2.children.size() + entries.size() == MIN_ENTRIES) {
-                    for (Object e : new ArrayList<>(entries)) {
-                        group2.children.add((Node) e);
-                        ((Node)e).parent = group2;
-                    }
-                    entries.clear();
-                    break;
-                }
-            }
-
-            Object nextEntry = pickNext(entries, group1, group2, node);
-            Rectangle mbr1 = group1.getMbr();
-            Rectangle mbr2 = group2.getMbr();
-            Rectangle entryMbr = node.getEntryMbr(nextEntry);
-
-            double cost1 = rectEnlargement(mbr1, entryMbr);
-            double cost2 = rectEnlargement(mbr2, entryMbr);
-
-            if (cost1 < cost2) {
-                if (node.leaf) group1.points.add((Point) nextEntry);
-                else { group1.children.add((Node) nextEntry); ((Node)nextEntry).parent = group1; }
-            } else if (cost2 < cost1) {
-                if (node.leaf) group2.points.add((Point) nextEntry);
-                else { group2.children.add((Node) nextEntry); ((Node)nextEntry).parent = group2; }
-            } else {
-                if (rectArea(mbr1) < rectArea(mbr2)) {
-                    if (node.leaf) group1.points.add((Point) nextEntry);
-                    else { group1.children.add((Node) nextEntry); ((Node)nextEntry).parent = group1; }
-                } else if (rectArea(mbr2) < rectArea(mbr1)) {
-                    if (node.leaf) group2.points.add((Point) nextEntry);
-                    else { group2.children.add((Node) nextEntry); ((Node)nextEntry).parent = group2; }
-                } else {
-                    int size1 = node.leaf ? group1.points.size() : group1.children.size();
-                    int size2 = node.leaf ? group2.points.size() : group2.children.size();
-                    if (size1 <= size2) {
-                        if (node.leaf) group1.points.add((Point) nextEntry);
-                        else { group1.children.add((Node) nextEntry); ((Node)nextEntry).parent = group1; }
-                    } else {
-                        if (node.leaf) group2.points.add((Point) nextEntry);
-                        else { group2.children.add((Node) nextEntry); ((Node)nextEntry).parent = group2; }
-                    }
-                }
-            }
-
-            // keep MBRs up-to-date so the next iteration's cost calculations are accurate
-            group1.recalcMbr();
-            group2.recalcMbr();
-            entries.remove(nextEntry);
+        for (int i = 0; i < count; i++) {
+            addEntry(second[i] ? group2 : group1, entries.get(i));
+        }
+        if (entryCount(group1) < minEntries || entryCount(group2) < minEntries) {
+            throw new IllegalStateException(splitStrategy.getClass().getSimpleName()
+                    + "가 최소 채움(m=" + minEntries + ")을 지키지 않았습니다.");
         }
         group1.recalcMbr();
         group2.recalcMbr();
 
-        // Split visualization
-        this.splitGroup1 = group1;
-        this.splitGroup2 = group2;
-        updateGUI();
-        try { Thread.sleep(1000); } catch (InterruptedException e) {}
-
-        return new Node[] { group1, group2 };
-    }
-
-    // pickSeeds 헬퍼 메서드. Quadratic Split의 첫 단계로, 가장 낭비되는 공간이 큰 두 시드를 고름.
-    private Object[] pickSeeds(List entries, Node node) {
-        Object seed1 = null;
-        Object seed2 = null;
-        double maxWastedArea = Double.NEGATIVE_INFINITY;
-
-        for (int i = 0; i < entries.size(); i++) {
-            for (int j = i + 1; j < entries.size(); j++) {
-                Object e1 = entries.get(i);
-                Object e2 = entries.get(j);
-                Rectangle mbr1 = node.getEntryMbr(e1);
-                Rectangle mbr2 = node.getEntryMbr(e2);
-
-                Rectangle mergedMbr = rectMerge(mbr1, mbr2);
-                double wastedArea = rectArea(mergedMbr) - rectArea(mbr1) - rectArea(mbr2);
-
-                if (wastedArea > maxWastedArea) {
-                    maxWastedArea = wastedArea;
-                    seed1 = e1;
-                    seed2 = e2;
-                }
-            }
+        if (observer != null) {
+            observer.split(mbrSnapshot(group1), mbrSnapshot(group2));
         }
-        return new Object[] { seed1, seed2 };
-    }
-
-    // pickNext 헬퍼 메서드. Quadratic Split의 두 번째 단계로, 그룹 선호도 차이가 가장 큰 엔트리를 고름.
-    private Object pickNext(List entries, Node group1, Node group2, Node node) {
-        Object nextEntry = null;
-        double maxDiff = Double.NEGATIVE_INFINITY;
-        Rectangle mbr1 = group1.getMbr();
-        Rectangle mbr2 = group2.getMbr();
 
-        for (Object entry : entries) {
-            Rectangle entryMbr = node.getEntryMbr(entry);
-            double cost1 = rectEnlargement(mbr1, entryMbr);
-            double cost2 = rectEnlargement(mbr2, entryMbr);
-            double diff = Math.abs(cost1 - cost2);
-
-            if (diff > maxDiff) {
-                maxDiff = diff;
-                nextEntry = entry;
-            }
-        }
-        return nextEntry;
+        return new Node[] { group1, group2 };
     }
 
     // adjustTree 메서드. 삽입/분할 후 트리를 재조정. (루트 MBR 버그 수정된 버전)
@@ -1272,7 +1563,7 @@ public class RTreeImpl implements RTree {
             }
             parent.recalcMbr();
 
-            if (parent.children.size() > MAX_ENTRIES) {
+            if (parent.children.size() > maxInternalEntries) {
                 Node[] splitParents = splitNode(parent);
                 n = splitParents[0];
                 nn = splitParents[1];
@@ -1297,18 +1588,88 @@ public class RTreeImpl implements RTree {
         }
     }
 
-    // searchRecursive 헬퍼 메서드. MBR이 겹치는지(intersects) 확인하여 가지치기(Pruning)를 수행.
-    private void searchRecursive(Node node, Rectangle rectangle, List<Point> result) {
-        if (node.leaf) {
-            for (Point p : node.points) {
-                if (rectContains(rectangle, p)) {
-                    result.add(p);
-                }
+    // SearchIterator 내부 클래스. 명시적 스택으로 트리를 깊이 우선 순회하며, MBR이 겹치지 않는 자식은 가지치기(Pruning).
+    // 재귀 순회와 같은 순서로 결과를 내고, 옵저버가 있으면 결과를 꺼낼 때마다 matched/pruned 이벤트를 보냄.
+    // 마지막 결과 다음에 hasNext()가 false를 반환할 때 searchFinished를 보냄.
+    private class SearchIterator implements Iterator<Point> {
+        private final Rectangle range;
+        private final ArrayDeque<Node> stack = new ArrayDeque<>();
+        private final int expectedModCount = modCount;
+        private List<Point> leafPoints;
+        private int index;
+        private Point next;
+        private int count;
+        private boolean finished;
+
+        SearchIterator(Rectangle range) {
+            this.range = range;
+            stack.push(root);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !finished) {
+                advance();
             }
-        } else {
-            for (Node child : node.children) {
-                if (rectIntersects(child.getMbr(), rectangle)) {
-                    searchRecursive(child, rectangle, result);
+            return next != null;
+        }
+
+        @Override
+        public Point next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Point p = next;
+            next = null;
+            return p;
+        }
+
+        private void advance() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            while (true) {
+                if (leafPoints != null) {
+                    while (index < leafPoints.size()) {
+                        Point p = leafPoints.get(index++);
+                        if (rectContains(range, p)) {
+                            next = p;
+                            count++;
+                            if (observer != null) {
+                                observer.matched(p);
+                            }
+                            return;
+                        }
+                    }
+                    leafPoints = null;
+                }
+                if (stack.isEmpty()) {
+                    finished = true;
+                    if (observer != null) {
+                        observer.searchFinished(range, count);
+                    }
+                    return;
+                }
+                Node node = stack.pop();
+                if (node.leaf) {
+                    leafPoints = node.points;
+                    index = 0;
+                    continue;
+                }
+                if (observer != null) {
+                    for (int i = 0; i < node.children.size(); i++) {
+                        Node child = node.children.get(i);
+                        if (!rectIntersects(child, range)) {
+                            observer.pruned(mbrSnapshot(child));
+                        }
+                    }
+                }
+                // 앞쪽 자식부터 꺼내도록 뒤에서부터 push
+                for (int i = node.children.size() - 1; i >= 0; i--) {
+                    Node child = node.children.get(i);
+                    if (rectIntersects(child, range)) {
+                        stack.push(child);
+                    }
                 }
             }
         }
@@ -1325,7 +1686,7 @@ public class RTreeImpl implements RTree {
             return null;
         }
         for (Node child : node.children) {
-            if (rectContains(child.getMbr(), point)) {
+            if (rectContains(child, point)) {
                 Node result = findLeaf(child, point);
                 if (result != null) {
                     return result;
@@ -1335,18 +1696,68 @@ public class RTreeImpl implements RTree {
         return null;
     }
 
+    // locate 메서드. point와 같은 좌표가 들어있는 leaf (없으면 null). 색인이 있으면 해시 조회, 없으면 findLeaf.
+    private Node locate(Point point) {
+        return pointIndex != null ? pointIndex.get(point.getX(), point.getY()) : findLeaf(root, point);
+    }
+
+    // indexPoint 헬퍼 메서드. point가 leaf에 들어갔음을 색인에 기록. 다른 leaf에서 옮겨온 점이면 값만 바뀜.
+    private void indexPoint(Node leaf, Point point) {
+        if (pointIndex != null) {
+            pointIndex.put(point.getX(), point.getY(), leaf);
+        }
+    }
+
+    // rebuildPointIndex 메서드. 노드를 새로 만든 뒤(load, 스냅샷) 모든 leaf를 훑어 색인을 다시 만듦.
+    private void rebuildPointIndex() {
+        if (pointIndex == null) {
+            return;
+        }
+        pointIndex.clear();
+        ArrayDeque<Node> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            if (node.leaf) {
+                for (int i = 0; i < node.points.size(); i++) {
+                    indexPoint(node, node.points.get(i));
+                }
+            } else {
+                for (int i = 0; i < node.children.size(); i++) {
+                    stack.push(node.children.get(i));
+                }
+            }
+        }
+    }
+
+    // pointIndex 메서드. 테스트에서 색인과 트리가 일치하는지 확인하기 위한 접근자 (꺼져 있으면 null).
+    PointIndex<Node> pointIndex() {
+        return pointIndex;
+    }
+
     // condenseTree 메서드. 삭제 후 트리를 압축(언더플로우 처리, MBR 축소).
     private void condenseTree(Node node) {
+        if (condenseMode == CondenseMode.REINSERT) {
+            condenseByReinsert(node);
+            return;
+        }
+        // 형제가 없어 병합할 수 없는 미달 노드. 인덱스가 노드의 레벨(leaf = 0).
+        List<List<Node>> orphans = new ArrayList<>();
         Node n = node;
         while (n != root) {
             Node parent = n.parent;
-            if (n.leaf && n.points.size() < MIN_ENTRIES) {
+            // handleUnderflow가 n을 그대로 두는 경우(재분배)에도 MBR과 점 개수가 맞도록 먼저 갱신
+            n.recalcMbr();
+            List<Node> level = new ArrayList<>(0);
+            if (entryCount(n) < minEntries(n) && isOrphan(n)) {
+                parent.children.remove(n);
+                level.add(n);
+            } else if (n.leaf && n.points.size() < minLeafEntries) {
                 handleUnderflow(n);
-            } else if (!n.leaf && n.children.size() < MIN_ENTRIES) {
+            } else if (!n.leaf && n.children.size() < minInternalEntries) {
                 handleUnderflow(n);
-            } else {
-                n.recalcMbr();
             }
+            orphans.add(level);
             if(parent == null) break;
 
             // handleUnderflow에서 n이 제거됐는지 확인 후 부모로 이동.
@@ -1357,16 +1768,99 @@ public class RTreeImpl implements RTree {
             }
         }
 
-        // 루트 높이 축소 로직.
-        if (!root.leaf && root.children.size() == 1) {
-            Node oldRoot = root;
+        root.recalcMbr();
+
+        // 루트 높이 축소 로직. 빈 노드를 떼어내면 한 번에 여러 레벨이 줄 수 있음.
+        shrinkRoot();
+        reinsertAll(orphans);
+        shrinkRoot();
+    }
+
+    // isOrphan 헬퍼 메서드. 내부 노드의 최소 채움이 1이면 자식이 하나뿐인 내부 노드가 생길 수 있음. 그 자식이 미달이면
+    // 병합할 형제가 없으므로 떼어내 엔트리를 다시 삽입해야 함. 부모가 루트이면 루트 축소로, 부모도 미달이면 부모가 형제와
+    // 병합될 때 해결되므로 제외. 빈 노드는 handleUnderflow가 떼어냄.
+    private boolean isOrphan(Node node) {
+        Node parent = node.parent;
+        return parent != null && parent != root && parent.children.size() == 1 && entryCount(node) > 0
+                && entryCount(parent) >= minEntries(parent);
+    }
+
+    // condenseByReinsert 메서드. Guttman의 CondenseTree. node에서 루트까지 올라가며 최소 채움 미만인 노드를 부모에서 떼어내고
+    // 나머지 노드의 MBR을 줄인 뒤, 떼어낸 노드의 엔트리를 원래 레벨에 다시 삽입. 높은 레벨의 엔트리부터 넣음.
+    private void condenseByReinsert(Node node) {
+        List<List<Node>> eliminated = new ArrayList<>();
+        Node n = node;
+        while (n != root) {
+            Node parent = n.parent;
+            List<Node> level = new ArrayList<>(1);
+            if (entryCount(n) < minEntries(n)) {
+                parent.children.remove(n);
+                level.add(n);
+            } else {
+                n.recalcMbr();
+            }
+            eliminated.add(level);
+            n = parent;
+        }
+        root.recalcMbr();
+        reinsertAll(eliminated);
+        shrinkRoot();
+    }
+
+    // reinsertAll 헬퍼 메서드. orphans.get(level)의 노드들이 갖고 있던 엔트리를 위 레벨부터 level 레벨에 다시 넣음.
+    private void reinsertAll(List<List<Node>> orphans) {
+        for (int level = orphans.size() - 1; level >= 0; level--) {
+            for (Node orphan : orphans.get(level)) {
+                List<?> entries = orphan.leaf ? orphan.points : orphan.children;
+                for (int i = 0; i < entries.size(); i++) {
+                    reinsert(entries.get(i), level);
+                }
+            }
+        }
+    }
+
+    // reinsert 헬퍼 메서드. 떼어낸 노드의 entry(점 또는 노드)를 level 레벨(leaf = 0)의 노드에 삽입 규칙대로 다시 넣음.
+    // 한꺼번에 여러 노드를 지워 트리가 낮아졌으면 그 레벨이 없으므로, 노드 entry를 풀어 자식을 한 레벨 아래에 넣음.
+    private void reinsert(Object entry, int level) {
+        if (level > height() - 1) {
+            Node n = (Node) entry;
+            List<?> entries = n.leaf ? n.points : n.children;
+            for (int i = 0; i < entries.size(); i++) {
+                reinsert(entries.get(i), level - 1);
+            }
+            return;
+        }
+        if (insertionMode == InsertionMode.RSTAR) {
+            reinsertedLevels = 0;
+            insertRStar(entry, level);
+            return;
+        }
+        Node node = root;
+        for (int lv = height() - 1; lv > level; lv--) {
+            node = leastAreaEnlargement(node, entryMinX(entry), entryMinY(entry), entryMaxX(entry), entryMaxY(entry));
+        }
+        addEntry(node, entry);
+        node.recalcMbr();
+        if (entryCount(node) > maxEntries(node)) {
+            Node[] halves = splitNode(node);
+            adjustTree(halves[0], halves[1]);
+        } else {
+            adjustTree(node, null);
+        }
+    }
+
+    // shrinkRoot 헬퍼 메서드. 자식이 하나뿐인 내부 루트를 그 자식으로 바꾸기를 반복하고, 자식이 없는 내부 루트는 빈 leaf로 바꿈.
+    private void shrinkRoot() {
+        while (!root.leaf && root.children.size() == 1) {
             root = root.children.get(0);
             root.parent = null;
-            oldRoot.children.clear();
+        }
+        if (!root.leaf && root.children.isEmpty()) {
+            root = new Node(true, null);
         }
     }
 
-    // handleUnderflow 헬퍼 메서드. m=2개 미만인 노드를 형제와 병합(Merge) 또는 재분배(Redistribution).
+    // handleUnderflow 헬퍼 메서드. 최소 채움(m) 미만인 노드를 형제와 병합(Merge) 또는 재분배(Redistribution).
     private void handleUnderflow(Node node) {
         Node parent = node.parent;
         if (parent == null) return;
@@ -1378,23 +1872,32 @@ public class RTreeImpl implements RTree {
             }
         }
         if (sibling == null) {
+            // m = 1이면 자식이 하나뿐인 내부 노드가 생길 수 있음. 형제가 없는 빈 노드는 부모에서 떼어내고,
+            // 비게 된 부모는 다음 레벨에서 같은 방식으로 처리. 비지 않은 노드는 부모가 형제와 합쳐질 때 함께 옮겨짐.
+            if (entryCount(node) == 0) {
+                parent.children.remove(node);
+            }
             return;
         }
 
         if (node.leaf) {
-            // 1. 합병 가능한 경우 (두 노드를 합쳐도 MAX_ENTRIES 이하)
-            if (sibling.points.size() + node.points.size() <= MAX_ENTRIES) {
-                sibling.points.addAll(node.points);
+            // 1. 합병 가능한 경우 (두 노드를 합쳐도 maxLeafEntries 이하)
+            if (sibling.points.size() + node.points.size() <= maxLeafEntries) {
+                for (int i = 0; i < node.points.size(); i++) {
+                    sibling.points.add(node.points.get(i));
+                    indexPoint(sibling, node.points.get(i));
+                }
                 parent.children.remove(node);
                 node.points.clear();
                 sibling.recalcMbr();
             }
             // 2. 합병 불가능한 경우 -> 재분배(Redistribution)
             else {
-                // 형제한테서 빌려와서 MIN_ENTRIES 개수 맞추기
-                while (node.points.size() < MIN_ENTRIES && sibling.points.size() > MIN_ENTRIES) {
+                // 형제한테서 빌려와서 minLeafEntries 개수 맞추기
+                while (node.points.size() < minLeafEntries && sibling.points.size() > minLeafEntries) {
                     Point borrow = sibling.points.remove(sibling.points.size() - 1);
                     node.points.add(0, borrow);
+                    indexPoint(node, borrow);
                 }
                 node.recalcMbr();
                 sibling.recalcMbr();
@@ -1402,9 +1905,10 @@ public class RTreeImpl implements RTree {
         } else {
             // 내부 노드 처리
             // 1. 합병 가능한 경우
-            if (sibling.children.size() + node.children.size() <= MAX_ENTRIES) {
-                sibling.children.addAll(node.children);
-                for (Node child : node.children) {
+            if (sibling.children.size() + node.children.size() <= maxInternalEntries) {
+                for (int i = 0; i < node.children.size(); i++) {
+                    Node child = node.children.get(i);
+                    sibling.children.add(child);
                     child.parent = sibling;
                 }
                 parent.children.remove(node);
@@ -1413,8 +1917,8 @@ public class RTreeImpl implements RTree {
             }
             // 2. 합병 불가능한 경우 -> 재분배(Redistribution)
             else {
-                // 형제한테서 빌려와서 MIN_ENTRIES 개수 맞추기
-                while (node.children.size() < MIN_ENTRIES && sibling.children.size() > MIN_ENTRIES) {
+                // 형제한테서 빌려와서 minInternalEntries 개수 맞추기
+                while (node.children.size() < minInternalEntries && sibling.children.size() > minInternalEntries) {
                     Node borrow = sibling.children.remove(sibling.children.size() - 1);
                     borrow.parent = node; // 부모 변경 중요!
                     node.children.add(0, borrow);
@@ -1425,28 +1929,333 @@ public class RTreeImpl implements RTree {
         }
     }
 
+    // -----------------------------------------------------------------
+    // R*-tree 삽입 (Beckmann et al. 1990)
+    // -----------------------------------------------------------------
+
+    // height 헬퍼 메서드. leaf만 있는 트리의 높이는 1.
+    private int height() {
+        int h = 1;
+        for (Node n = root; !n.leaf; n = n.children.get(0)) {
+            h++;
+        }
+        return h;
+    }
+
+    // insertRStar 메서드. entry(Point 또는 Node)를 아래에서부터 센 level(leaf = 0)의 노드에 넣음.
+    private void insertRStar(Object entry, int level) {
+        Node node = chooseSubtreeRStar(entry, level);
+        addEntry(node, entry);
+        overflowTreatment(node, level);
+    }
+
+    // chooseSubtreeRStar 메서드. 자식이 leaf인 단계에서는 겹침(overlap) 증가가 가장 작은 자식을,
+    // 그 위에서는 기존 chooseLeaf처럼 면적 증가가 가장 작은 자식을 선택.
+    private Node chooseSubtreeRStar(Object entry, int level) {
+        double minX = entryMinX(entry), minY = entryMinY(entry);
+        double maxX = entryMaxX(entry), maxY = entryMaxY(entry);
+        Node node = root;
+        for (int lv = height() - 1; lv > level; lv--) {
+            node = (lv - 1 == 0)
+                    ? leastOverlapEnlargement(node, minX, minY, maxX, maxY)
+                    : leastAreaEnlargement(node, minX, minY, maxX, maxY);
+        }
+        return node;
+    }
+
+    // leastAreaEnlargement 헬퍼 메서드. 면적 증가가 최소인 자식 (동률이면 면적이 작은 쪽).
+    private Node leastAreaEnlargement(Node node, double minX, double minY, double maxX, double maxY) {
+        Node best = null;
+        double bestEnlargement = Double.POSITIVE_INFINITY;
+        double bestArea = Double.POSITIVE_INFINITY;
+        for (Node child : node.children) {
+            double area = rectArea(child);
+            double enlargement = unionArea(child, minX, minY, maxX, maxY) - area;
+            if (enlargement < bestEnlargement || (enlargement == bestEnlargement && area < bestArea)) {
+                best = child;
+                bestEnlargement = enlargement;
+                bestArea = area;
+            }
+        }
+        return best;
+    }
+
+    // leastOverlapEnlargement 헬퍼 메서드. 형제들과의 겹침 증가가 최소인 자식 (동률이면 면적 증가, 면적 순).
+    // entry를 이미 감싸는 자식이 있으면 겹침/면적 증가가 0이므로 그 중 면적이 가장 작은 자식을 바로 반환.
+    // 자식이 많으면 면적 증가가 작은 RSTAR_CHOOSE_CANDIDATES개만 후보로 봄 (R* 논문의 근사).
+    private Node leastOverlapEnlargement(Node node, double minX, double minY, double maxX, double maxY) {
+        List<Node> children = node.children;
+        Node containing = null;
+        double containingArea = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < children.size(); i++) {
+            Node c = children.get(i);
+            if (c.minX <= minX && c.minY <= minY && c.maxX >= maxX && c.maxY >= maxY && rectArea(c) < containingArea) {
+                containing = c;
+                containingArea = rectArea(c);
+            }
+        }
+        if (containing != null) {
+            return containing;
+        }
+
+        List<Node> candidates = children;
+        if (children.size() > RSTAR_CHOOSE_CANDIDATES) {
+            candidates = new ArrayList<>(children);
+            candidates.sort(Comparator.comparingDouble(c -> unionArea(c, minX, minY, maxX, maxY) - rectArea(c)));
+            candidates = candidates.subList(0, RSTAR_CHOOSE_CANDIDATES);
+        }
+        Node best = null;
+        double bestOverlap = Double.POSITIVE_INFINITY;
+        double bestEnlargement = Double.POSITIVE_INFINITY;
+        double bestArea = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < candidates.size(); i++) {
+            Node c = candidates.get(i);
+            double nMinX = Math.min(c.minX, minX), nMinY = Math.min(c.minY, minY);
+            double nMaxX = Math.max(c.maxX, maxX), nMaxY = Math.max(c.maxY, maxY);
+            double overlap = 0;
+            for (int j = 0; j < children.size(); j++) {
+                Node o = children.get(j);
+                if (o == c) continue;
+                overlap += intersectionArea(nMinX, nMinY, nMaxX, nMaxY, o.minX, o.minY, o.maxX, o.maxY)
+                        - intersectionArea(c.minX, c.minY, c.maxX, c.maxY, o.minX, o.minY, o.maxX, o.maxY);
+            }
+            double area = rectArea(c);
+            double enlargement = (nMaxX - nMinX) * (nMaxY - nMinY) - area;
+            if (overlap < bestOverlap
+                    || (overlap == bestOverlap && (enlargement < bestEnlargement
+                    || (enlargement == bestEnlargement && area < bestArea)))) {
+                best = c;
+                bestOverlap = overlap;
+                bestEnlargement = enlargement;
+                bestArea = area;
+            }
+        }
+        return best;
+    }
+
+    // overflowTreatment 메서드. 넘친 노드는 그 레벨에서 이번 삽입 중 처음이면 강제 재삽입, 아니면 분할.
+    // 넘치지 않는 노드에 도달하면 루트까지 MBR만 갱신.
+    private void overflowTreatment(Node node, int level) {
+        Node n = node;
+        int lv = level;
+        while (entryCount(n) > maxEntries(n)) {
+            long bit = 1L << lv;
+            if (n != root && (reinsertedLevels & bit) == 0) {
+                reinsertedLevels |= bit;
+                List<Object> removed = pickReinsertEntries(n);
+                for (Node p = n; p != null; p = p.parent) {
+                    p.recalcMbr();
+                }
+                for (Object e : removed) {
+                    insertRStar(e, lv);
+                }
+                return;
+            }
+
+            Node[] halves = splitNode(n);
+            if (n == root) {
+                Node newRoot = new Node(false, null);
+                newRoot.children.add(halves[0]);
+                newRoot.children.add(halves[1]);
+                halves[0].parent = newRoot;
+                halves[1].parent = newRoot;
+                newRoot.recalcMbr();
+                this.root = newRoot;
+                return;
+            }
+            Node parent = n.parent;
+            parent.children.add(halves[1]);
+            halves[1].parent = parent;
+            parent.recalcMbr();
+            n = parent;
+            lv++;
+        }
+        for (Node p = n; p != null; p = p.parent) {
+            p.recalcMbr();
+        }
+    }
+
+    // pickReinsertEntries 헬퍼 메서드. 노드 중심에서 가장 먼 RSTAR_REINSERT_FRACTION만큼의 엔트리를 떼어내
+    // 가까운 것부터 다시 넣도록(close reinsert) 거리 오름차순으로 반환.
+    private List<Object> pickReinsertEntries(Node node) {
+        List<Object> entries = new ArrayList<>(node.leaf ? node.points : node.children);
+        int count = Math.max(1, (int) Math.round(entries.size() * RSTAR_REINSERT_FRACTION));
+        double cx = centerX(node);
+        double cy = centerY(node);
+        entries.sort(Comparator.comparingDouble(e -> {
+            double dx = (entryMinX(e) + entryMaxX(e)) / 2 - cx;
+            double dy = (entryMinY(e) + entryMaxY(e)) / 2 - cy;
+            return dx * dx + dy * dy;
+        }));
+        List<Object> removed = new ArrayList<>(entries.subList(entries.size() - count, entries.size()));
+        if (node.leaf) {
+            node.points.removeAll(removed);
+        } else {
+            node.children.removeAll(removed);
+        }
+        return removed;
+    }
+
+    // addEntry 헬퍼 메서드. entry(Point 또는 Node)를 node에 넣고 부모 포인터(점이면 색인)를 맞춤. MBR은 호출한 쪽에서 갱신.
+    private void addEntry(Node node, Object entry) {
+        if (node.leaf) {
+            node.points.add((Point) entry);
+            indexPoint(node, (Point) entry);
+        } else {
+            Node child = (Node) entry;
+            node.children.add(child);
+            child.parent = node;
+        }
+    }
+
+    private static int entryCount(Node node) {
+        return node.leaf ? node.points.size() : node.children.size();
+    }
+
+    private int maxEntries(Node node) {
+        return node.leaf ? maxLeafEntries : maxInternalEntries;
+    }
+
+    private int minEntries(Node node) {
+        return node.leaf ? minLeafEntries : minInternalEntries;
+    }
+
+    // entryMinX/entryMinY/entryMaxX/entryMaxY 헬퍼 메서드. Point는 크기 0인 사각형으로 봄.
+    private static double entryMinX(Object e) {
+        return e instanceof Point ? ((Point) e).getX() : ((Node) e).minX;
+    }
+
+    private static double entryMinY(Object e) {
+        return e instanceof Point ? ((Point) e).getY() : ((Node) e).minY;
+    }
+
+    private static double entryMaxX(Object e) {
+        return e instanceof Point ? ((Point) e).getX() : ((Node) e).maxX;
+    }
+
+    private static double entryMaxY(Object e) {
+        return e instanceof Point ? ((Point) e).getY() : ((Node) e).maxY;
+    }
+
+    // unionArea 헬퍼 메서드. node의 MBR에 사각형을 합친 MBR의 면적.
+    private static double unionArea(Node node, double minX, double minY, double maxX, double maxY) {
+        return (Math.max(node.maxX, maxX) - Math.min(node.minX, minX))
+                * (Math.max(node.maxY, maxY) - Math.min(node.minY, minY));
+    }
+
+    // intersectionArea 헬퍼 메서드. 두 사각형이 겹치는 부분의 면적 (겹치지 않으면 0).
+    private static double intersectionArea(double aMinX, double aMinY, double aMaxX, double aMaxY, double bMinX,
+            double bMinY, double bMaxX, double bMaxY) {
+        double w = Math.min(aMaxX, bMaxX) - Math.max(aMinX, bMinX);
+        double h = Math.min(aMaxY, bMaxY) - Math.max(aMinY, bMinY);
+        return (w <= 0 || h <= 0) ? 0 : w * h;
+    }
+
     // -----------------------------------------------------------------
     // 5. Rectangle 헬퍼 메서드
     // -----------------------------------------------------------------
 
-    // createInvalidMbr 헬퍼 메서드. 비어있는 MBR을 정의.
-    private Rectangle createInvalidMbr() {
-        return new Rectangle(
-                new Point(Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY),
-                new Point(Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY));
+    // load 메서드. 중복을 제거한 뒤 leaf 레벨부터 STR로 묶어 루트 하나가 남을 때까지 올라감.
+    private void load(Collection<Point> points) {
+        List<Point> sorted = new ArrayList<>(points);
+        sorted.sort(Comparator.comparingDouble(Point::getX).thenComparingDouble(Point::getY));
+        List<Point> unique = new ArrayList<>(sorted.size());
+        for (Point p : sorted) {
+            Point last = unique.isEmpty() ? null : unique.get(unique.size() - 1);
+            if (last == null || last.getX() != p.getX() || last.getY() != p.getY()) {
+                unique.add(p);
+            }
+        }
+        if (unique.isEmpty()) {
+            this.root = new Node(true, null);
+            this.size = 0;
+            rebuildPointIndex();
+            return;
+        }
+
+        // 1. leaf 레벨
+        List<Node> level = new ArrayList<>();
+        for (List<Point> group : strGroups(unique, maxLeafEntries, minLeafEntries, Point::getX, Point::getY)) {
+            Node leaf = new Node(true, null);
+            leaf.points.addAll(group);
+            leaf.recalcMbr();
+            level.add(leaf);
+        }
+
+        // 2. 내부 노드 레벨 (자식 MBR의 중심으로 다시 STR)
+        while (level.size() > 1) {
+            List<Node> parents = new ArrayList<>();
+            for (List<Node> group : strGroups(level, maxInternalEntries, minInternalEntries, RTreeImpl::centerX,
+                    RTreeImpl::centerY)) {
+                Node parent = new Node(false, null);
+                for (Node child : group) {
+                    parent.children.add(child);
+                    child.parent = parent;
+                }
+                parent.recalcMbr();
+                parents.add(parent);
+            }
+            level = parents;
+        }
+        this.root = level.get(0);
+        this.size = unique.size();
+        rebuildPointIndex();
+    }
+
+    // strGroups 헬퍼 메서드. x로 정렬해 sqrt(노드 수)개의 세로 슬라이스로 자르고, 슬라이스마다 y로 정렬해 capacity씩 묶음.
+    // 마지막 묶음이 minEntries보다 작으면 바로 앞 묶음과 반씩 나눠 최소 채움 조건을 지킴.
+    private static <T> List<List<T>> strGroups(List<T> entries, int capacity, int minEntries, ToDoubleFunction<T> x,
+            ToDoubleFunction<T> y) {
+        int n = entries.size();
+        int nodeCount = (n + capacity - 1) / capacity;
+        int sliceCount = (int) Math.ceil(Math.sqrt(nodeCount));
+        int sliceSize = ((nodeCount + sliceCount - 1) / sliceCount) * capacity;
+
+        List<T> byX = new ArrayList<>(entries);
+        byX.sort(Comparator.comparingDouble(x));
+
+        List<List<T>> groups = new ArrayList<>(nodeCount);
+        for (int start = 0; start < n; start += sliceSize) {
+            List<T> slice = new ArrayList<>(byX.subList(start, Math.min(n, start + sliceSize)));
+            slice.sort(Comparator.comparingDouble(y));
+            for (int from = 0; from < slice.size(); from += capacity) {
+                groups.add(new ArrayList<>(slice.subList(from, Math.min(slice.size(), from + capacity))));
+            }
+        }
+
+        int last = groups.size() - 1;
+        if (last > 0 && groups.get(last).size() < minEntries) {
+            List<T> merged = new ArrayList<>(groups.get(last - 1));
+            merged.addAll(groups.get(last));
+            int half = merged.size() - merged.size() / 2;
+            groups.set(last - 1, new ArrayList<>(merged.subList(0, half)));
+            groups.set(last, new ArrayList<>(merged.subList(half, merged.size())));
+        }
+        return groups;
+    }
+
+    private static double centerX(Node node) {
+        return (node.minX + node.maxX) / 2;
+    }
+
+    private static double centerY(Node node) {
+        return (node.minY + node.maxY) / 2;
     }
 
-    // rectArea 헬퍼 메서드. 사각형의 면적을 계산.
-    private double rectArea(Rectangle r) {
-        if (r.getLeftTop().getX() == Double.POSITIVE_INFINITY) {
+    // mbrSnapshot 헬퍼 메서드. 옵저버에 넘길 노드 MBR의 복사본 (비어있으면 null).
+    private Rectangle mbrSnapshot(Node node) {
+        return node.hasValidMbr() ? node.getMbr() : null;
+    }
+
+    // rectArea 헬퍼 메서드. 노드 MBR의 면적을 계산 (비어있으면 0).
+    private static double rectArea(Node n) {
+        if (!n.hasValidMbr()) {
             return 0;
         }
-        double width = r.getRightBottom().getX() - r.getLeftTop().getX();
-        double height = r.getRightBottom().getY() - r.getLeftTop().getY();
-        return width * height;
+        return (n.maxX - n.minX) * (n.maxY - n.minY);
     }
 
-    // rectContains 헬퍼 메서드. 사각형이 점을 포하는지 확인.
+    // rectContains 헬퍼 메서드. 사각형이 점을 포함하는지 확인.
     private boolean rectContains(Rectangle r, Point p) {
         if (r == null || p == null || r.getLeftTop().getX() == Double.POSITIVE_INFINITY) {
             return false;
@@ -1457,86 +2266,47 @@ public class RTreeImpl implements RTree {
                 p.getY() <= r.getRightBottom().getY();
     }
 
-    // rectIntersects 헬퍼 메서드. 두 사각형이 겹치는지 확인.
-    private boolean rectIntersects(Rectangle r1, Rectangle r2) {
-        if (r1 == null || r2 == null) return false;
-        if (r1.getLeftTop().getX() == Double.POSITIVE_INFINITY ||
-                r2.getLeftTop().getX() == Double.POSITIVE_INFINITY) {
-            return false;
-        }
-        return !(r2.getRightBottom().getX() < r1.getLeftTop().getX() ||
-                r2.getLeftTop().getX() > r1.getRightBottom().getX() ||
-                r2.getRightBottom().getY() < r1.getLeftTop().getY() ||
-                r2.getLeftTop().getY() > r1.getRightBottom().getY());
+    // rectContains 헬퍼 메서드 오버로딩. 노드 MBR이 점을 포함하는지 확인 (비어있으면 false).
+    private static boolean rectContains(Node n, Point p) {
+        return p.getX() >= n.minX && p.getX() <= n.maxX && p.getY() >= n.minY && p.getY() <= n.maxY;
     }
 
-    // rectEnlargement 헬퍼 메서드. 점을 포할 때 면적 증가량을 계산.
-    private double rectEnlargement(Rectangle r, Point p) {
-        if (p == null) return 0;
-        if (r.getLeftTop().getX() == Double.POSITIVE_INFINITY) {
-            return 0;
-        }
-        double newMinX = Math.min(r.getLeftTop().getX(), p.getX());
-        double newMinY = Math.min(r.getLeftTop().getY(), p.getY());
-        double newMaxX = Math.max(r.getRightBottom().getX(), p.getX());
-        double newMaxY = Math.max(r.getRightBottom().getY(), p.getY());
-        double newArea = (newMaxX - newMinX) * (newMaxY - newMinY);
-        return newArea - rectArea(r);
+    // rectIntersects 헬퍼 메서드. 노드 MBR과 사각형이 겹치는지 확인 (비어있으면 false).
+    private static boolean rectIntersects(Node n, Rectangle r) {
+        if (r == null) return false;
+        return !(r.getRightBottom().getX() < n.minX ||
+                r.getLeftTop().getX() > n.maxX ||
+                r.getRightBottom().getY() < n.minY ||
+                r.getLeftTop().getY() > n.maxY);
     }
 
-    // rectEnlargement 헬퍼 메서드 오버로딩. 사각형을 포할 때 면적 증가량을 계산.
-    private double rectEnlargement(Rectangle r1, Rectangle r2) {
-        if (r2 == null || r2.getLeftTop().getX() == Double.POSITIVE_INFINITY) {
+    // rectEnlargement 헬퍼 메서드. 노드 MBR이 점을 포함하도록 늘릴 때 면적 증가량을 계산.
+    private static double rectEnlargement(Node n, Point p) {
+        if (p == null || !n.hasValidMbr()) {
             return 0;
         }
-        if (r1.getLeftTop().getX() == Double.POSITIVE_INFINITY) {
-            return rectArea(r2);
-        }
-        double newMinX = Math.min(r1.getLeftTop().getX(), r2.getLeftTop().getX());
-        double newMinY = Math.min(r1.getLeftTop().getY(), r2.getLeftTop().getY());
-        double newMaxX = Math.max(r1.getRightBottom().getX(), r2.getRightBottom().getX());
-        double newMaxY = Math.max(r1.getRightBottom().getY(), r2.getRightBottom().getY());
-        double newArea = (newMaxX - newMinX) * (newMaxY - newMinY);
-        return newArea - rectArea(r1);
+        double newArea = (Math.max(n.maxX, p.getX()) - Math.min(n.minX, p.getX()))
+                * (Math.max(n.maxY, p.getY()) - Math.min(n.minY, p.getY()));
+        return newArea - rectArea(n);
     }
 
-    // rectMerge 헬퍼 메서드. 두 사각형을 병합(merge)하여 새 MBR을 반환.
-    private Rectangle rectMerge(Rectangle r1, Rectangle r2) {
-        if (r1.getLeftTop().getX() == Double.POSITIVE_INFINITY &&
-                r2.getLeftTop().getX() == Double.POSITIVE_INFINITY) {
-            return createInvalidMbr();
-        }
-        if (r1.getLeftTop().getX() == Double.POSITIVE_INFINITY) {
-            return new Rectangle(r2.getLeftTop(), r2.getRightBottom());
-        }
-        if (r2.getLeftTop().getX() == Double.POSITIVE_INFINITY) {
-            return new Rectangle(r1.getLeftTop(), r1.getRightBottom());
+    // rectMinDistanceSq 헬퍼 메서드. 노드 MBR과 점 사이의 최소 거리(MINDIST)의 제곱을 계산.
+    private static double rectMinDistanceSq(Node n, Point p) {
+        if (!n.hasValidMbr()) {
+            return Double.POSITIVE_INFINITY;
         }
-        double newMinX = Math.min(r1.getLeftTop().getX(), r2.getLeftTop().getX());
-        double newMinY = Math.min(r1.getLeftTop().getY(), r2.getLeftTop().getY());
-        double newMaxX = Math.max(r1.getRightBottom().getX(), r2.getRightBottom().getX());
-        double newMaxY = Math.max(r1.getRightBottom().getY(), r2.getRightBottom().getY());
-        return new Rectangle(new Point(newMinX, newMinY), new Point(newMaxX, newMaxY));
+        double dx = Math.max(0, Math.max(n.minX - p.getX(), p.getX() - n.maxX));
+        double dy = Math.max(0, Math.max(n.minY - p.getY(), p.getY() - n.maxY));
+        return dx * dx + dy * dy;
     }
 
-    // rectMinDistance 헬퍼 메서드. 사각형과 점 사이의 최소 거리(MINDIST)를 계산.
-    private double rectMinDistance(Rectangle r, Point p) {
-        if (r.getLeftTop().getX() == Double.POSITIVE_INFINITY) {
+    // rectDistanceSq 헬퍼 메서드. 두 노드 MBR 사이 최소 거리의 제곱 (겹치면 0, 어느 한쪽이 비어있으면 +inf).
+    private static double rectDistanceSq(Node a, Node b) {
+        if (!a.hasValidMbr() || !b.hasValidMbr()) {
             return Double.POSITIVE_INFINITY;
         }
-        double dx = 0;
-        double dy = 0;
-        if (p.getX() < r.getLeftTop().getX()) {
-            dx = r.getLeftTop().getX() - p.getX();
-        } else if (p.getX() > r.getRightBottom().getX()) {
-            dx = p.getX() - r.getRightBottom().getX();
-        }
-        if (p.getY() < r.getLeftTop().getY()) {
-            dy = r.getLeftTop().getY() - p.getY();
-        } else if (p.getY() > r.getRightBottom().getY()) {
-            dy = p.getY() - r.getRightBottom().getY();
-        }
-        if (dx == 0 && dy == 0) return 0.0;
-        return Math.sqrt(dx * dx + dy * dy);
+        double dx = Math.max(0, Math.max(a.minX - b.maxX, b.minX - a.maxX));
+        double dy = Math.max(0, Math.max(a.minY - b.maxY, b.minY - a.maxY));
+        return dx * dx + dy * dy;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,143 @@
+package org.dfpl.dbp.rtree.team1;
+
+import java.util.List;
+
+/**
+ * RTreeImpl 내부에서 일어나는 삽입, 분할, 가지치기, 방문 과정을 구독하는 옵저버입니다.
+ * 모든 메서드는 빈 기본 구현을 가지므로 필요한 이벤트만 재정의하면 됩니다.
+ * 옵저버가 등록되지 않은 트리는 이벤트 객체를 만들지 않습니다.
+ *
+ * 이벤트로 전달되는 Rectangle은 호출 시점의 MBR 복사본입니다.
+ */
+public interface RTreeObserver {
+
+	/**
+	 * point가 leaf에 삽입되기 직전에 호출됩니다.
+	 *
+	 * @param point
+	 * @param leafMbr 삽입 전 leaf의 MBR (비어있는 leaf이면 null)
+	 */
+	default void insertStarted(Point point, Rectangle leafMbr) {
+	}
+
+	/**
+	 * point의 삽입과 트리 재조정이 끝난 뒤 호출됩니다.
+	 *
+	 * @param point
+	 */
+	default void inserted(Point point) {
+	}
+
+	/**
+	 * 노드가 두 그룹으로 분할될 때 호출됩니다.
+	 *
+	 * @param group1
+	 * @param group2
+	 */
+	default void split(Rectangle group1, Rectangle group2) {
+	}
+
+	/**
+	 * 범위 검색이 시작될 때 호출됩니다.
+	 *
+	 * @param range
+	 */
+	default void searchStarted(Rectangle range) {
+	}
+
+	/**
+	 * 범위 검색 또는 KNN 검색에서 노드가 가지치기될 때 호출됩니다.
+	 *
+	 * @param mbr 가지치기된 노드의 MBR
+	 */
+	default void pruned(Rectangle mbr) {
+	}
+
+	/**
+	 * 범위 검색에서 결과 Point가 발견될 때 호출됩니다.
+	 *
+	 * @param point
+	 */
+	default void matched(Point point) {
+	}
+
+	/**
+	 * 범위 검색이 끝났을 때 호출됩니다.
+	 *
+	 * @param range
+	 * @param count 발견된 Point 수
+	 */
+	default void searchFinished(Rectangle range, int count) {
+	}
+
+	/**
+	 * KNN 검색이 시작될 때 호출됩니다.
+	 *
+	 * @param source
+	 * @param maxCount
+	 */
+	default void knnStarted(Point source, int maxCount) {
+	}
+
+	/**
+	 * KNN 검색에서 노드를 우선순위 큐에서 꺼내 방문할 때 호출됩니다.
+	 *
+	 * @param mbr  방문한 노드의 MBR
+	 * @param leaf leaf 노드 여부
+	 */
+	default void visited(Rectangle mbr, boolean leaf) {
+	}
+
+	/**
+	 * KNN 검색에서 leaf의 Point들이 후보로 추가될 때 호출됩니다.
+	 *
+	 * @param points 후보 Point들 (읽기 전용)
+	 */
+	default void candidates(List<Point> points) {
+	}
+
+	/**
+	 * KNN 검색에서 다음으로 가까운 Point가 확정될 때 호출됩니다.
+	 *
+	 * @param point
+	 * @param distance source로부터의 거리
+	 */
+	default void found(Point point, double distance) {
+	}
+
+	/**
+	 * KNN 검색이 끝났을 때 호출됩니다.
+	 *
+	 * @param source
+	 * @param result 가까운 순서의 결과 (읽기 전용)
+	 */
+	default void knnFinished(Point source, List<Point> result) {
+	}
+
+	/**
+	 * point가 들어있는 leaf를 찾은 뒤, 제거하기 직전에 호출됩니다.
+	 *
+	 * @param point
+	 * @param leafMbr
+	 */
+	default void deleteStarted(Point point, Rectangle leafMbr) {
+	}
+
+	/**
+	 * point가 leaf에서 제거되고 leaf의 MBR이 축소된 뒤 호출됩니다.
+	 *
+	 * @param point
+	 * @param oldLeafMbr 제거 전 MBR
+	 * @param newLeafMbr 제거 후 MBR (leaf가 비었으면 null)
+	 */
+	default void deleted(Point point, Rectangle oldLeafMbr, Rectangle newLeafMbr) {
+	}
+
+	/**
+	 * 삭제 후 트리 재조정(condense)이 끝났을 때 호출됩니다.
+	 *
+	 * @param point
+	 */
+	default void deleteFinished(Point point) {
+	}
+}
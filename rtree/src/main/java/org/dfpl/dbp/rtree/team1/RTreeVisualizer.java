@@ -0,0 +1,821 @@
+package org.dfpl.dbp.rtree.team1;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.HashMap;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import javax.swing.JFrame;
+import javax.swing.JPanel;
+import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
+
+// RTreeVisualizer 클래스. RTreeImpl의 이벤트를 구독해 Swing 창에 애니메이션으로 보여주는 옵저버.
+// 애니메이션 지연(Thread.sleep)은 모두 이 클래스에 있으므로, 등록하지 않으면 트리는 GUI 없이 동작함.
+public class RTreeVisualizer implements RTreeObserver {
+
+    private final RTreeImpl tree;
+    private JFrame guiFrame;
+    private RTreePanel guiPanel;
+
+    private volatile Rectangle currentSearchRect;
+    private volatile Point currentKnnSource;
+    private final List<Point> highlightedPoints = Collections.synchronizedList(new ArrayList<>());
+    private boolean deleteStarted = false;
+
+    // 삽입/분할 강조
+    private volatile Point lastInsertedPoint;
+    private volatile Rectangle lastExpandedMbr;
+    private volatile Rectangle splitGroup1;
+    private volatile Rectangle splitGroup2;
+    private final List<Rectangle> prunedMbrs = Collections.synchronizedList(new ArrayList<>());
+
+    // KNN 시각화
+    private final List<Rectangle> knnVisitedMbrs = Collections.synchronizedList(new ArrayList<>());
+    private final Map<Rectangle, Integer> knnVisitOrder = Collections.synchronizedMap(new HashMap<>());
+    private volatile Rectangle knnCurrentMbr; // 현재 방문 중인 노드
+    private volatile double knnCurrentBestDist = Double.POSITIVE_INFINITY;
+    private final List<Point> knnCandidatePoints = Collections.synchronizedList(new ArrayList<>()); // 후보 점들
+    private final Map<Point, Double> knnResultDistances = Collections.synchronizedMap(new HashMap<>()); // 최종 결과 점들의 거리
+    private volatile Point knnNewlyFoundPoint; // 새로 발견된 점 (선 그리기용)
+    private int knnVisitCounter;
+
+    // Delete 시각화
+    private volatile Point deletingPoint;
+    private volatile Rectangle deletingLeafMbr; // 삭제 대상이 속한 리프
+    private volatile Rectangle oldMbrBeforeDelete;
+    private volatile Rectangle shrinkingMbr;
+
+    // 생성자. 창을 띄우고 tree의 옵저버로 등록.
+    public RTreeVisualizer(RTreeImpl tree) {
+        this.tree = tree;
+        try {
+            SwingUtilities.invokeAndWait(() -> {
+                this.guiFrame = new JFrame("R-Tree 시각화 (Assignment 45) - Quadratic Split");
+                this.guiPanel = new RTreePanel();
+                this.guiFrame.add(this.guiPanel);
+                this.guiFrame.setSize(800, 800);
+                this.guiFrame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+                this.guiFrame.setVisible(true);
+            });
+        } catch (Exception e) {
+            throw new IllegalStateException("GUI 창을 생성할 수 없습니다.", e);
+        }
+        tree.setObserver(this);
+    }
+
+    // announce 메서드. 현재 화면을 유지한 채 모달 대화상자로 진행 상황을 알림.
+    public void announce(String title, String message) {
+        updateGUI();
+        JOptionPane.showMessageDialog(guiFrame, message, title, JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    // updateGUI 헬퍼 메서드. GUI를 갱신할 때 스레드 문제를 해결(EDT에서 실행).
+    private void updateGUI() {
+        if (this.guiPanel != null) {
+            SwingUtilities.invokeLater(() -> {
+                guiPanel.repaint();
+            });
+        }
+    }
+
+    // pause 헬퍼 메서드. 화면 갱신 후 애니메이션 단계만큼 대기.
+    private void pause(long millis) {
+        updateGUI();
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // clearAll 헬퍼 메서드. 이전 작업의 강조 표시를 모두 제거.
+    private void clearAll() {
+        this.currentSearchRect = null;
+        this.currentKnnSource = null;
+        this.highlightedPoints.clear();
+        this.prunedMbrs.clear();
+        this.knnVisitedMbrs.clear();
+        this.knnVisitOrder.clear();
+        this.knnCandidatePoints.clear();
+        this.knnResultDistances.clear();
+        this.knnNewlyFoundPoint = null;
+        this.knnCurrentMbr = null;
+        this.knnCurrentBestDist = Double.POSITIVE_INFINITY;
+        this.lastInsertedPoint = null;
+        this.lastExpandedMbr = null;
+        this.splitGroup1 = null;
+        this.splitGroup2 = null;
+        this.deletingPoint = null;
+        this.deletingLeafMbr = null;
+        this.oldMbrBeforeDelete = null;
+        this.shrinkingMbr = null;
+    }
+
+    // ========== 삽입 ==========
+
+    @Override
+    public void insertStarted(Point point, Rectangle leafMbr) {
+        clearAll();
+        // 확장되는 MBR 저장 (삽입 전) + 새로 삽입되는 점 강조
+        this.lastExpandedMbr = leafMbr;
+        this.lastInsertedPoint = point;
+    }
+
+    @Override
+    public void split(Rectangle group1, Rectangle group2) {
+        this.splitGroup1 = group1;
+        this.splitGroup2 = group2;
+        pause(1000);
+    }
+
+    @Override
+    public void inserted(Point point) {
+        pause(1500);
+        // 강조 해제
+        this.lastInsertedPoint = null;
+        this.lastExpandedMbr = null;
+        this.splitGroup1 = null;
+        this.splitGroup2 = null;
+        updateGUI();
+    }
+
+    // ========== 범위 검색 ==========
+
+    @Override
+    public void searchStarted(Rectangle range) {
+        clearAll();
+        // 1. 검색 영역 표시
+        this.currentSearchRect = range;
+        pause(800);
+    }
+
+    @Override
+    public void pruned(Rectangle mbr) {
+        if (mbr == null) return;
+        // Pruned 노드 기록 + 시각화
+        prunedMbrs.add(mbr);
+        pause(500);
+    }
+
+    @Override
+    public void matched(Point point) {
+        this.highlightedPoints.add(point);
+        pause(400);
+    }
+
+    @Override
+    public void searchFinished(Rectangle range, int count) {
+        pause(1000);
+    }
+
+    // ========== KNN ==========
+
+    @Override
+    public void knnStarted(Point source, int maxCount) {
+        clearAll();
+        this.knnVisitCounter = 1;
+        this.currentKnnSource = source;
+    }
+
+    @Override
+    public void visited(Rectangle mbr, boolean leaf) {
+        if (mbr == null) return;
+        // Node pop: 현재 방문 노드 강조
+        this.knnCurrentMbr = mbr;
+        knnVisitedMbrs.add(mbr);
+        knnVisitOrder.put(mbr, knnVisitCounter++);
+        pause(700);
+    }
+
+    @Override
+    public void candidates(List<Point> points) {
+        // Leaf 도달 → 점들을 후보로 추가
+        this.knnCandidatePoints.addAll(points);
+        pause(600);
+        this.knnCurrentMbr = null;
+    }
+
+    @Override
+    public void found(Point point, double distance) {
+        // 새로 발견된 점 시각화 (Source에서 선 그리기)
+        this.knnCurrentMbr = null;
+        this.knnNewlyFoundPoint = point;
+        this.knnCandidatePoints.remove(point);
+        pause(1000);
+
+        // bestDist 업데이트 + 원 그리기
+        this.knnCurrentBestDist = distance;
+        this.knnResultDistances.put(point, distance);
+        this.knnNewlyFoundPoint = null;
+
+        // 결과 표시
+        this.highlightedPoints.add(point);
+        pause(800);
+    }
+
+    @Override
+    public void knnFinished(Point source, List<Point> result) {
+        // 최종 결과 표시 (모든 보조 요소 제거, 결과만 남김)
+        this.knnCurrentMbr = null;
+        this.knnVisitedMbrs.clear();
+        this.knnVisitOrder.clear();
+        this.knnCandidatePoints.clear();
+        this.prunedMbrs.clear();
+        this.highlightedPoints.clear();
+        this.highlightedPoints.addAll(result);
+        // knnCurrentBestDist와 knnResultDistances는 유지 (원과 거리 표시)
+        pause(1000);
+    }
+
+    // ========== 삭제 ==========
+
+    @Override
+    public void deleteStarted(Point point, Rectangle leafMbr) {
+        if (!deleteStarted) {
+            deleteStarted = true;
+            clearAll();
+        }
+        // 1. 삭제 대상 점 + 리프 강조
+        this.deletingPoint = point;
+        this.deletingLeafMbr = leafMbr;
+        pause(600);
+    }
+
+    @Override
+    public void deleted(Point point, Rectangle oldLeafMbr, Rectangle newLeafMbr) {
+        // Shrink 애니메이션 (old MBR → new MBR)
+        this.oldMbrBeforeDelete = oldLeafMbr;
+        this.shrinkingMbr = newLeafMbr;
+        this.deletingPoint = null; // 점은 사라졌으니 X 표시 제거
+        pause(700);
+    }
+
+    @Override
+    public void deleteFinished(Point point) {
+        // 강조 해제
+        this.deletingLeafMbr = null;
+        this.shrinkingMbr = null;
+        this.oldMbrBeforeDelete = null;
+        updateGUI();
+    }
+
+    // RTreePanel 내부 클래스. Swing의 JPanel을 상속받아 R-Tree를 화면에 그림.
+    @SuppressWarnings("serial")
+    class RTreePanel extends JPanel {
+        private final int PADDING = 60;
+        private double dataMaxX = 200;
+        private double dataMaxY = 200;
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            Graphics2D g2d = (Graphics2D) g;
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+            int panelWidth = getWidth();
+            int panelHeight = getHeight();
+            double scaleX = (panelWidth - 2 * PADDING) / dataMaxX;
+            double scaleY = (panelHeight - 2 * PADDING) / dataMaxY;
+            double scale = Math.min(scaleX, scaleY);
+            int yOffset = panelHeight - PADDING;
+            RTreeImpl.Node root = tree.getRoot();
+
+            // ========== 레이어 1: 배경 (격자 + 축) ==========
+            drawGrid(g2d, scale, yOffset, panelWidth, panelHeight);
+
+            // ========== 레이어 2: 기본 MBR (계층별 색상) ==========
+            if (root != null) {
+                drawDepthMBR(g2d, root, root, scale, yOffset);
+            }
+
+            // ========== 레이어 3: 효과 레이어 ==========
+
+            // 3-1. Split 그룹 강조
+            Rectangle group1 = splitGroup1;
+            Rectangle group2 = splitGroup2;
+            if (group1 != null) {
+                drawSplitOverlay(g2d, group1, new Color(0, 180, 255, 70), scale, yOffset, "Group 1");
+            }
+            if (group2 != null) {
+                drawSplitOverlay(g2d, group2, new Color(255, 120, 200, 70), scale, yOffset, "Group 2");
+            }
+
+            // 3-2. Range Search 영역 + Pruned 표시
+            if (currentSearchRect != null) {
+                drawPrunedNodes(g2d, root, scale, yOffset);
+                drawSearchArea(g2d, scale, yOffset);
+            }
+
+            // 3-3. KNN 방문 노드 + 거리 원 + Pruned 표시
+            drawKNNVisualization(g2d, root, scale, yOffset);
+
+            // 3-4. 삭제 대상 리프 강조
+            if (deletingLeafMbr != null) {
+                drawDeletingLeaf(g2d, scale, yOffset);
+            }
+
+            // 3-5. 삭제 전 MBR (shrink 애니메이션)
+            if (oldMbrBeforeDelete != null && shrinkingMbr != null) {
+                drawShrinkAnimation(g2d, scale, yOffset);
+            }
+
+            // 3-6. 확장된 MBR 강조 (Split 없을 때만)
+            if (lastExpandedMbr != null && group1 == null && group2 == null) {
+                drawExpandedMBR(g2d, scale, yOffset);
+            }
+
+            // ========== 레이어 4: 모든 점 ==========
+            if (root != null) {
+                drawAllPoints(g2d, root, scale, yOffset);
+            }
+
+            // ========== 레이어 5: 하이라이트 점 ==========
+            drawHighlightedPoints(g2d, scale, yOffset);
+
+            // ========== 레이어 6: 애니메이션 요소 ==========
+
+            // 6-1. 새로 삽입된 점
+            if (lastInsertedPoint != null) {
+                drawNewPoint(g2d, scale, yOffset);
+            }
+
+            // 6-2. 삭제 중인 점
+            if (deletingPoint != null) {
+                drawDeletingPoint(g2d, scale, yOffset);
+            }
+        }
+
+        // 격자 그리기
+        private void drawGrid(Graphics2D g, double scale, int yOffset, int panelWidth, int panelHeight) {
+            g.setColor(new Color(220, 220, 220));
+            g.setStroke(new java.awt.BasicStroke(1));
+
+            // 세로선 + X축 눈금
+            for (int i = 0; i <= 200; i += 20) {
+                int x = (int) (i * scale) + PADDING;
+                g.drawLine(x, PADDING, x, yOffset);
+                g.setColor(Color.DARK_GRAY);
+                g.drawString(String.valueOf(i), x - 8, yOffset + 15);
+                g.setColor(new Color(220, 220, 220));
+            }
+
+            // 가로선 + Y축 눈금
+            for (int i = 0; i <= 200; i += 20) {
+                int y = yOffset - (int) (i * scale);
+                g.drawLine(PADDING, y, panelWidth - PADDING, y);
+                g.setColor(Color.DARK_GRAY);
+                g.drawString(String.valueOf(i), PADDING - 25, y + 4);
+                g.setColor(new Color(220, 220, 220));
+            }
+
+            // 축 그리기
+            g.setColor(Color.BLACK);
+            g.setStroke(new java.awt.BasicStroke(2));
+            g.drawLine(PADDING, yOffset, panelWidth - PADDING, yOffset); // X축
+            g.drawLine(PADDING, PADDING, PADDING, yOffset); // Y축
+            g.setStroke(new java.awt.BasicStroke(1));
+        }
+
+        // ========== 레이어별 그리기 메서드 ==========
+
+        // 계층별 MBR 그리기 (Root=보라, Internal=파랑, Leaf=초록, 모두 투명하게)
+        private void drawDepthMBR(Graphics2D g, RTreeImpl.Node node, RTreeImpl.Node root, double scale, int yOffset) {
+            if (node == null || !node.hasValidMbr()) return;
+
+            // 좌표 계산
+            Rectangle mbr = node.getMbr();
+            int x = (int) (mbr.getLeftTop().getX() * scale) + PADDING;
+            int y = yOffset - (int) (mbr.getRightBottom().getY() * scale);
+            int w = (int) ((mbr.getRightBottom().getX() - mbr.getLeftTop().getX()) * scale);
+            int h = (int) ((mbr.getRightBottom().getY() - mbr.getLeftTop().getY()) * scale);
+
+            if (node == root) {
+                // Root: 아주 투명한 보라색
+                g.setColor(new Color(148, 0, 211, 20));
+                g.fillRect(x, y, w, h);
+                g.setColor(new Color(148, 0, 211, 100));
+                g.setStroke(new java.awt.BasicStroke(1.5f));
+                g.drawRect(x, y, w, h);
+                g.setStroke(new java.awt.BasicStroke(1));
+            } else if (node.leaf) {
+                // Leaf: 아주 투명한 초록색
+                g.setColor(new Color(0, 180, 0, 25));
+                g.fillRect(x, y, w, h);
+                g.setColor(new Color(0, 150, 0, 120));
+                g.setStroke(new java.awt.BasicStroke(1.0f));
+                g.drawRect(x, y, w, h);
+                g.setStroke(new java.awt.BasicStroke(1));
+            } else {
+                // Internal: 아주 투명한 파란색
+                g.setColor(new Color(0, 120, 255, 20));
+                g.fillRect(x, y, w, h);
+                g.setColor(new Color(0, 100, 255, 100));
+                g.setStroke(new java.awt.BasicStroke(1.0f));
+                g.drawRect(x, y, w, h);
+                g.setStroke(new java.awt.BasicStroke(1));
+            }
+
+            // 자식 노드 재귀 호출
+            if (!node.leaf && node.children != null) {
+                for (RTreeImpl.Node child : new ArrayList<>(node.children)) {
+                    drawDepthMBR(g, child, root, scale, yOffset);
+                }
+            }
+        }
+
+        // Split 오버레이
+        private void drawSplitOverlay(Graphics2D g, Rectangle mbr, Color color, double scale, int yOffset, String label) {
+            int x = (int) (mbr.getLeftTop().getX() * scale) + PADDING;
+            int y = yOffset - (int) (mbr.getRightBottom().getY() * scale);
+            int w = (int) ((mbr.getRightBottom().getX() - mbr.getLeftTop().getX()) * scale);
+            int h = (int) ((mbr.getRightBottom().getY() - mbr.getLeftTop().getY()) * scale);
+
+            g.setColor(color);
+            g.fillRect(x, y, w, h);
+            g.setColor(new Color(color.getRed(), color.getGreen(), color.getBlue(), 200));
+            g.setStroke(new java.awt.BasicStroke(2));
+            g.drawRect(x, y, w, h);
+            g.setStroke(new java.awt.BasicStroke(1));
+
+            g.setColor(Color.BLACK);
+            g.setFont(new java.awt.Font("SansSerif", java.awt.Font.BOLD, 12));
+            g.drawString(label, x + w/2 - 20, y + h/2);
+        }
+
+        // Range Search 영역
+        private void drawSearchArea(Graphics2D g, double scale, int yOffset) {
+            Rectangle searchRect = currentSearchRect;
+            if (searchRect == null) return;
+            int x = (int) (searchRect.getLeftTop().getX() * scale) + PADDING;
+            int y = yOffset - (int) (searchRect.getRightBottom().getY() * scale);
+            int w = (int) ((searchRect.getRightBottom().getX() - searchRect.getLeftTop().getX()) * scale);
+            int h = (int) ((searchRect.getRightBottom().getY() - searchRect.getLeftTop().getY()) * scale);
+
+            g.setColor(new Color(100, 150, 255, 50));
+            g.fillRect(x, y, w, h);
+            g.setColor(new Color(0, 100, 255));
+            g.setStroke(new java.awt.BasicStroke(2));
+            g.drawRect(x, y, w, h);
+            g.setStroke(new java.awt.BasicStroke(1));
+        }
+
+        // Range Search의 Pruned 노드 표시 + 점들 표시
+        private void drawPrunedNodes(Graphics2D g, RTreeImpl.Node root, double scale, int yOffset) {
+            g.setFont(new java.awt.Font("SansSerif", java.awt.Font.BOLD, 10));
+            for (Rectangle mbr : new ArrayList<>(prunedMbrs)) {
+                int x = (int) (mbr.getLeftTop().getX() * scale) + PADDING;
+                int y = yOffset - (int) (mbr.getRightBottom().getY() * scale);
+                int w = (int) ((mbr.getRightBottom().getX() - mbr.getLeftTop().getX()) * scale);
+                int h = (int) ((mbr.getRightBottom().getY() - mbr.getLeftTop().getY()) * scale);
+
+                // 회색 빗금 패턴
+                g.setColor(new Color(150, 150, 150, 80));
+                g.fillRect(x, y, w, h);
+
+                // 빗금
+                g.setColor(new Color(100, 100, 100, 150));
+                g.setStroke(new java.awt.BasicStroke(1));
+                for (int i = 0; i < w + h; i += 10) {
+                    int x1 = x + Math.min(i, w);
+                    int y1 = y + Math.max(0, i - w);
+                    int x2 = x + Math.max(0, i - h);
+                    int y2 = y + Math.min(i, h);
+                    g.drawLine(x1, y1, x2, y2);
+                }
+
+                // X 표시
+                g.setColor(new Color(200, 0, 0));
+                g.setStroke(new java.awt.BasicStroke(3));
+                g.drawLine(x + 5, y + 5, x + w - 5, y + h - 5);
+                g.drawLine(x + w - 5, y + 5, x + 5, y + h - 5);
+                g.setStroke(new java.awt.BasicStroke(1));
+
+                // "PRUNED" 텍스트
+                g.setColor(Color.RED);
+                g.drawString("PRUNED", x + w/2 - 25, y + h/2);
+
+                // Pruned 노드 안의 점들도 회색으로 표시
+                drawPrunedPoints(g, root, mbr, scale, yOffset);
+            }
+        }
+
+        // Delete 시각화: 삭제 대상 리프 강조
+        private void drawDeletingLeaf(Graphics2D g, double scale, int yOffset) {
+            Rectangle mbr = deletingLeafMbr;
+            if (mbr == null) return;
+
+            int x = (int) (mbr.getLeftTop().getX() * scale) + PADDING;
+            int y = yOffset - (int) (mbr.getRightBottom().getY() * scale);
+            int w = (int) ((mbr.getRightBottom().getX() - mbr.getLeftTop().getX()) * scale);
+            int h = (int) ((mbr.getRightBottom().getY() - mbr.getLeftTop().getY()) * scale);
+
+            // 노란 테두리 강조
+            g.setColor(new Color(255, 200, 0, 100));
+            g.fillRect(x, y, w, h);
+            g.setColor(new Color(255, 200, 0));
+            g.setStroke(new java.awt.BasicStroke(3));
+            g.drawRect(x, y, w, h);
+            g.setStroke(new java.awt.BasicStroke(1));
+        }
+
+        // KNN 시각화 (수정본: MBR 가림 현상 해결 + 탐색 범위 명확화)
+        private void drawKNNVisualization(Graphics2D g, RTreeImpl.Node root, double scale, int yOffset) {
+            Point source = currentKnnSource;
+            if (source == null) return;
+
+            int qx = (int) (source.getX() * scale) + PADDING;
+            int qy = yOffset - (int) (source.getY() * scale);
+
+            // 1. 탐색 반경 원 (Search Wavefront)
+            if (knnCurrentBestDist < Double.POSITIVE_INFINITY && knnCurrentBestDist > 0) {
+                int radius = (int) (knnCurrentBestDist * scale);
+
+                // 내부를 아주 옅게 칠해서 뒤를 가리지 않음
+                g.setColor(new Color(0, 100, 255, 10));
+                g.fillOval(qx - radius, qy - radius, 2 * radius, 2 * radius);
+
+                // 테두리는 선명하게
+                g.setColor(new Color(0, 50, 200));
+                g.setStroke(new java.awt.BasicStroke(1.5f, java.awt.BasicStroke.CAP_BUTT, java.awt.BasicStroke.JOIN_MITER, 10, new float[]{10, 5}, 0));
+                g.drawOval(qx - radius, qy - radius, 2 * radius, 2 * radius);
+                g.setStroke(new java.awt.BasicStroke(1));
+
+                // 거리 텍스트
+                g.setFont(new java.awt.Font("SansSerif", java.awt.Font.BOLD, 11));
+                g.drawString(String.format("Dist: %.1f", knnCurrentBestDist), qx + radius + 5, qy);
+            }
+
+            // 2. Pruned nodes (가지치기 된 노드) + 해당 점들 표시
+            g.setFont(new java.awt.Font("SansSerif", java.awt.Font.BOLD, 10));
+            for (Rectangle mbr : new ArrayList<>(prunedMbrs)) {
+                int x = (int) (mbr.getLeftTop().getX() * scale) + PADDING;
+                int y = yOffset - (int) (mbr.getRightBottom().getY() * scale);
+                int w = (int) ((mbr.getRightBottom().getX() - mbr.getLeftTop().getX()) * scale);
+                int h = (int) ((mbr.getRightBottom().getY() - mbr.getLeftTop().getY()) * scale);
+
+                // 회색 투명도 조절
+                g.setColor(new Color(100, 100, 100, 50));
+                g.fillRect(x, y, w, h);
+                g.setColor(new Color(200, 0, 0));
+                g.drawLine(x, y, x + w, y + h);
+                g.drawLine(x + w, y, x, y + h);
+                g.drawString("PRUNED", x + w/2 - 20, y + h/2);
+
+                // Pruned 노드 안의 점들도 회색으로 표시
+                drawPrunedPoints(g, root, mbr, scale, yOffset);
+            }
+
+            // 3. 방문한 노드들 (테두리만 그려서 뒤 MBR 보이게)
+            Rectangle currentMbr = knnCurrentMbr;
+            g.setFont(new java.awt.Font("SansSerif", java.awt.Font.BOLD, 12));
+            for (Rectangle mbr : new ArrayList<>(knnVisitedMbrs)) {
+                if (mbr == currentMbr) continue;
+
+                int x = (int) (mbr.getLeftTop().getX() * scale) + PADDING;
+                int y = yOffset - (int) (mbr.getRightBottom().getY() * scale);
+                int w = (int) ((mbr.getRightBottom().getX() - mbr.getLeftTop().getX()) * scale);
+                int h = (int) ((mbr.getRightBottom().getY() - mbr.getLeftTop().getY()) * scale);
+
+                // 채우기 없음! 테두리만
+                g.setColor(new Color(255, 140, 0, 180));
+                g.setStroke(new java.awt.BasicStroke(2));
+                g.drawRect(x, y, w, h);
+                g.setStroke(new java.awt.BasicStroke(1));
+
+                // 방문 순서 번호
+                Integer order = knnVisitOrder.get(mbr);
+                if (order != null) {
+                    g.setColor(new Color(255, 69, 0)); // 진한 오렌지
+                    g.drawString("#" + order, x + 5, y + 15);
+                }
+            }
+
+            // 4. 현재 방문 중인 노드 (강조)
+            if (currentMbr != null) {
+                int x = (int) (currentMbr.getLeftTop().getX() * scale) + PADDING;
+                int y = yOffset - (int) (currentMbr.getRightBottom().getY() * scale);
+                int w = (int) ((currentMbr.getRightBottom().getX() - currentMbr.getLeftTop().getX()) * scale);
+                int h = (int) ((currentMbr.getRightBottom().getY() - currentMbr.getLeftTop().getY()) * scale);
+
+                // 현재 노드는 아주 옅게 채워서 강조
+                g.setColor(new Color(255, 100, 0, 40));
+                g.fillRect(x, y, w, h);
+
+                // 굵은 테두리
+                g.setColor(new Color(255, 0, 0));
+                g.setStroke(new java.awt.BasicStroke(3));
+                g.drawRect(x, y, w, h);
+                g.setStroke(new java.awt.BasicStroke(1));
+
+                g.setColor(Color.RED);
+                g.drawString("VISITING", x + 5, y - 5);
+            }
+
+            // 5. 후보 점들 (초록색)
+            for (Point candidate : new ArrayList<>(knnCandidatePoints)) {
+                int px = (int) (candidate.getX() * scale) + PADDING;
+                int py = yOffset - (int) (candidate.getY() * scale);
+                g.setColor(new Color(0, 180, 0));
+                g.fillOval(px - 4, py - 4, 8, 8);
+            }
+
+            // 6. 새로 발견된 점 연결선
+            Point newlyFound = knnNewlyFoundPoint;
+            if (newlyFound != null) {
+                int px = (int) (newlyFound.getX() * scale) + PADDING;
+                int py = yOffset - (int) (newlyFound.getY() * scale);
+
+                g.setColor(Color.RED);
+                g.setStroke(new java.awt.BasicStroke(2));
+                g.drawLine(qx, qy, px, py);
+                g.setStroke(new java.awt.BasicStroke(1));
+
+                // 거리 표시
+                double dist = source.distance(newlyFound);
+                g.setFont(new java.awt.Font("SansSerif", java.awt.Font.BOLD, 11));
+                g.setColor(Color.RED);
+                g.drawString(String.format("%.2f", dist), (qx + px) / 2 + 5, (qy + py) / 2 - 5);
+            }
+
+            // 7. Query Point (중심점)
+            g.setColor(Color.RED);
+            g.fillOval(qx - 6, qy - 6, 12, 12);
+            g.setColor(Color.WHITE);
+            g.setFont(new java.awt.Font("SansSerif", java.awt.Font.BOLD, 10));
+            g.drawString("S", qx - 3, qy + 4);
+        }
+
+        // Pruned 영역 안의 점들을 회색으로 표시
+        private void drawPrunedPoints(Graphics2D g, RTreeImpl.Node node, Rectangle pruned, double scale, int yOffset) {
+            if (node == null || !node.hasValidMbr()) return;
+            if (node.leaf && node.points != null) {
+                // 리프 노드면 영역 안의 점들 표시
+                for (Point p : new ArrayList<>(node.points)) {
+                    if (p.getX() < pruned.getLeftTop().getX() || p.getX() > pruned.getRightBottom().getX()
+                            || p.getY() < pruned.getLeftTop().getY() || p.getY() > pruned.getRightBottom().getY()) {
+                        continue;
+                    }
+                    int px = (int) (p.getX() * scale) + PADDING;
+                    int py = yOffset - (int) (p.getY() * scale);
+
+                    // 회색 X 표시
+                    g.setColor(new Color(120, 120, 120));
+                    g.fillOval(px - 4, py - 4, 8, 8);
+                    g.setColor(new Color(80, 80, 80));
+                    g.setStroke(new java.awt.BasicStroke(2));
+                    g.drawLine(px - 3, py - 3, px + 3, py + 3);
+                    g.drawLine(px - 3, py + 3, px + 3, py - 3);
+                    g.setStroke(new java.awt.BasicStroke(1));
+                }
+            } else if (!node.leaf && node.children != null) {
+                // 내부 노드면 자식들 재귀 탐색
+                for (RTreeImpl.Node child : new ArrayList<>(node.children)) {
+                    drawPrunedPoints(g, child, pruned, scale, yOffset);
+                }
+            }
+        }
+
+        // Shrink 애니메이션
+        private void drawShrinkAnimation(Graphics2D g, double scale, int yOffset) {
+            Rectangle oldMbr = oldMbrBeforeDelete;
+            Rectangle newMbr = shrinkingMbr;
+            if (oldMbr == null || newMbr == null) return;
+
+            // 이전 MBR (점선)
+            int x1 = (int) (oldMbr.getLeftTop().getX() * scale) + PADDING;
+            int y1 = yOffset - (int) (oldMbr.getRightBottom().getY() * scale);
+            int w1 = (int) ((oldMbr.getRightBottom().getX() - oldMbr.getLeftTop().getX()) * scale);
+            int h1 = (int) ((oldMbr.getRightBottom().getY() - oldMbr.getLeftTop().getY()) * scale);
+            g.setColor(new Color(255, 100, 100, 150));
+            g.setStroke(new java.awt.BasicStroke(2, java.awt.BasicStroke.CAP_BUTT, java.awt.BasicStroke.JOIN_MITER, 10, new float[]{5}, 0));
+            g.drawRect(x1, y1, w1, h1);
+
+            // 새 MBR (실선)
+            int x2 = (int) (newMbr.getLeftTop().getX() * scale) + PADDING;
+            int y2 = yOffset - (int) (newMbr.getRightBottom().getY() * scale);
+            int w2 = (int) ((newMbr.getRightBottom().getX() - newMbr.getLeftTop().getX()) * scale);
+            int h2 = (int) ((newMbr.getRightBottom().getY() - newMbr.getLeftTop().getY()) * scale);
+            g.setColor(new Color(0, 200, 0));
+            g.setStroke(new java.awt.BasicStroke(2));
+            g.drawRect(x2, y2, w2, h2);
+            g.setStroke(new java.awt.BasicStroke(1));
+        }
+
+        // 확장된 MBR 강조
+        private void drawExpandedMBR(Graphics2D g, double scale, int yOffset) {
+            Rectangle mbr = lastExpandedMbr;
+            if (mbr == null) return;
+            int x = (int) (mbr.getLeftTop().getX() * scale) + PADDING;
+            int y = yOffset - (int) (mbr.getRightBottom().getY() * scale);
+            int w = (int) ((mbr.getRightBottom().getX() - mbr.getLeftTop().getX()) * scale);
+            int h = (int) ((mbr.getRightBottom().getY() - mbr.getLeftTop().getY()) * scale);
+
+            g.setColor(new Color(255, 200, 0));
+            g.setStroke(new java.awt.BasicStroke(3));
+            g.drawRect(x, y, w, h);
+            g.setStroke(new java.awt.BasicStroke(1));
+        }
+
+        // 모든 점 그리기
+        private void drawAllPoints(Graphics2D g, RTreeImpl.Node node, double scale, int yOffset) {
+            if (node == null) return;
+
+            if (node.leaf && node.points != null) {
+                for (Point p : new ArrayList<>(node.points)) {
+                    int px = (int) (p.getX() * scale) + PADDING;
+                    int py = yOffset - (int) (p.getY() * scale);
+                    g.setColor(Color.BLACK);
+                    g.fillOval(px - 2, py - 2, 4, 4);
+                }
+            } else if (node.children != null) {
+                for (RTreeImpl.Node child : new ArrayList<>(node.children)) {
+                    drawAllPoints(g, child, scale, yOffset);
+                }
+            }
+        }
+
+        // 하이라이트 점들
+        private void drawHighlightedPoints(Graphics2D g, double scale, int yOffset) {
+            List<Point> points = new ArrayList<>(highlightedPoints);
+            g.setFont(new java.awt.Font("SansSerif", java.awt.Font.BOLD, 11));
+
+            // Range Search: 순서 없이 강조만
+            if (currentSearchRect != null) {
+                for (Point p : points) {
+                    int x = (int) (p.getX() * scale) + PADDING;
+                    int y = yOffset - (int) (p.getY() * scale);
+                    g.setColor(new Color(255, 0, 0));
+                    g.fillOval(x - 5, y - 5, 10, 10);
+                    g.setColor(Color.BLACK);
+                    g.setStroke(new java.awt.BasicStroke(2));
+                    g.drawOval(x - 5, y - 5, 10, 10);
+                    g.setStroke(new java.awt.BasicStroke(1));
+                }
+            }
+            // KNN: 순서 + 거리 표시
+            else if (currentKnnSource != null) {
+                int idx = 1;
+                for (Point p : points) {
+                    int x = (int) (p.getX() * scale) + PADDING;
+                    int y = yOffset - (int) (p.getY() * scale);
+
+                    // 점 크게 표시
+                    g.setColor(new Color(0, 100, 255));
+                    g.fillOval(x - 7, y - 7, 14, 14);
+                    g.setColor(Color.WHITE);
+                    g.setFont(new java.awt.Font("SansSerif", java.awt.Font.BOLD, 12));
+                    String label = String.valueOf(idx++);
+                    int labelWidth = g.getFontMetrics().stringWidth(label);
+                    g.drawString(label, x - labelWidth/2, y + 4);
+
+                    // 거리 표시
+                    Double dist = knnResultDistances.get(p);
+                    if (dist != null) {
+                        g.setColor(Color.BLACK);
+                        g.setFont(new java.awt.Font("SansSerif", java.awt.Font.PLAIN, 10));
+                        g.drawString(String.format("%.2f", dist), x + 10, y + 15);
+                    }
+                }
+            }
+        }
+
+        // 새로 삽입된 점
+        private void drawNewPoint(Graphics2D g, double scale, int yOffset) {
+            Point point = lastInsertedPoint;
+            if (point == null) return;
+            int x = (int) (point.getX() * scale) + PADDING;
+            int y = yOffset - (int) (point.getY() * scale);
+
+            // 바깥 펄스
+            g.setColor(new Color(0, 255, 0, 100));
+            g.fillOval(x - 12, y - 12, 24, 24);
+            // 안쪽 점
+            g.setColor(new Color(0, 255, 0));
+            g.fillOval(x - 5, y - 5, 10, 10);
+            g.setColor(Color.BLACK);
+            g.setStroke(new java.awt.BasicStroke(2));
+            g.drawOval(x - 5, y - 5, 10, 10);
+            g.setStroke(new java.awt.BasicStroke(1));
+        }
+
+        // 삭제 중인 점
+        private void drawDeletingPoint(Graphics2D g, double scale, int yOffset) {
+            Point point = deletingPoint;
+            if (point == null) return;
+            int x = (int) (point.getX() * scale) + PADDING;
+            int y = yOffset - (int) (point.getY() * scale);
+
+            g.setColor(new Color(255, 0, 0));
+            g.setStroke(new java.awt.BasicStroke(3));
+            g.drawLine(x - 7, y - 7, x + 7, y + 7);
+            g.drawLine(x + 7, y - 7, x - 7, y + 7);
+            g.setStroke(new java.awt.BasicStroke(1));
+        }
+    }
+}
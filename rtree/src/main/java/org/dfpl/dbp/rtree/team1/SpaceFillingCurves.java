@@ -0,0 +1,98 @@
+package org.dfpl.dbp.rtree.team1;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 2차원 좌표를 1차원 순서로 바꾸는 공간 채움 곡선(Hilbert curve) 유틸리티입니다.
+ *
+ * 좌표를 2^ORDER x 2^ORDER 격자로 정규화한 뒤 Hilbert 곡선 위의 순번을 계산합니다. 곡선 순서로 정렬한 점은
+ * 앞뒤 점끼리 공간적으로 가까우므로, 일괄 삽입에서 연속한 점을 같은 leaf로 보낼 때 사용합니다.
+ */
+final class SpaceFillingCurves {
+
+	/** 축마다 격자 비트 수. 순번은 2 * ORDER = 32비트. */
+	static final int ORDER = 16;
+
+	private static final int SIDE = 1 << ORDER;
+
+	private SpaceFillingCurves() {
+	}
+
+	/**
+	 * 격자 좌표 (x, y)의 Hilbert 곡선 순번을 반환합니다.
+	 *
+	 * @param x 0 이상 2^ORDER 미만
+	 * @param y 0 이상 2^ORDER 미만
+	 * @return 0 이상 2^(2 * ORDER) 미만의 순번
+	 */
+	static long hilbertIndex(int x, int y) {
+		long d = 0;
+		for (int s = SIDE >>> 1; s > 0; s >>>= 1) {
+			int rx = (x & s) != 0 ? 1 : 0;
+			int ry = (y & s) != 0 ? 1 : 0;
+			d += (long) s * s * ((3 * rx) ^ ry);
+			// 사분면을 곡선 방향에 맞게 회전
+			if (ry == 0) {
+				if (rx == 1) {
+					x = SIDE - 1 - x;
+					y = SIDE - 1 - y;
+				}
+				int t = x;
+				x = y;
+				y = t;
+			}
+		}
+		return d;
+	}
+
+	/**
+	 * 실수 좌표 v를 [min, max] 범위 기준의 격자 좌표로 바꿉니다. 범위 밖의 값은 양 끝으로 자릅니다.
+	 */
+	static int gridCoordinate(double v, double min, double max) {
+		if (!(max > min)) {
+			return 0;
+		}
+		double t = (v - min) / (max - min);
+		if (t <= 0) {
+			return 0;
+		}
+		if (t >= 1) {
+			return SIDE - 1;
+		}
+		return (int) (t * (SIDE - 1));
+	}
+
+	/**
+	 * points를 Hilbert 순서로 정렬한 결과를 반환합니다. 격자는 points 전체를 감싸는 사각형 기준입니다.
+	 * 원소는 (순번 << 31) | 원래 인덱스 이며, keyOf/indexOf로 꺼냅니다. 같은 좌표의 점은 순번이 같습니다.
+	 */
+	static long[] hilbertSort(List<Point> points) {
+		int n = points.size();
+		double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < n; i++) {
+			Point p = points.get(i);
+			minX = Math.min(minX, p.getX());
+			minY = Math.min(minY, p.getY());
+			maxX = Math.max(maxX, p.getX());
+			maxY = Math.max(maxY, p.getY());
+		}
+		long[] packed = new long[n];
+		for (int i = 0; i < n; i++) {
+			Point p = points.get(i);
+			long key = hilbertIndex(gridCoordinate(p.getX(), minX, maxX), gridCoordinate(p.getY(), minY, maxY));
+			packed[i] = (key << 31) | i;
+		}
+		Arrays.sort(packed);
+		return packed;
+	}
+
+	static long keyOf(long packed) {
+		return packed >>> 31;
+	}
+
+	static int indexOf(long packed) {
+		return (int) (packed & Integer.MAX_VALUE);
+	}
+}
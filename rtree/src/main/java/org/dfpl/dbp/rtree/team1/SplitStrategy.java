@@ -0,0 +1,47 @@
+package org.dfpl.dbp.rtree.team1;
+
+/**
+ * 넘친 노드의 엔트리를 두 그룹으로 나누는 분할 알고리즘입니다.
+ * RTreeImpl.builder().splitStrategy(...)로 트리마다 지정합니다.
+ *
+ * 엔트리는 경계 좌표 배열로 전달됩니다. leaf의 Point는 minX == maxX, minY == maxY 입니다.
+ * 구현은 입력 배열을 수정하지 않아야 하며, 두 그룹 모두 minEntries개 이상을 갖도록 나눠야 합니다.
+ */
+public interface SplitStrategy {
+
+	/**
+	 * Guttman의 quadratic split. 그룹에 엔트리를 넣을 때마다 그룹 MBR을 멤버 전체로부터 다시 계산합니다.
+	 * 기존 RTreeImpl의 분할과 같은 결과를 내며, 비용은 O(M^3) 입니다.
+	 */
+	SplitStrategy QUADRATIC = new QuadraticSplit(false);
+
+	/**
+	 * QUADRATIC과 같은 규칙이지만 그룹 MBR을 누적해서 갱신합니다. 결과는 같고 비용은 O(M^2) 입니다.
+	 */
+	SplitStrategy INCREMENTAL_QUADRATIC = new QuadraticSplit(true);
+
+	/**
+	 * Guttman의 linear split. 축마다 가장 멀리 떨어진 두 엔트리를 시드로 잡고 나머지를 한 번씩만 배정합니다.
+	 * 비용은 O(M)이지만 quadratic보다 노드 MBR이 커질 수 있어, 삽입 지연이 중요한 트리에 적합합니다.
+	 */
+	SplitStrategy LINEAR = new LinearSplit();
+
+	/**
+	 * R*-tree 분할. 둘레(margin) 합이 가장 작은 축에서 겹침, 면적 순으로 가장 좋은 분할 위치를 고릅니다.
+	 * 비용은 O(M log M) 입니다.
+	 */
+	SplitStrategy RSTAR = new RStarSplit();
+
+	/**
+	 * count개 엔트리를 두 그룹으로 나눕니다.
+	 *
+	 * @param minX       엔트리별 최소 x
+	 * @param minY       엔트리별 최소 y
+	 * @param maxX       엔트리별 최대 x
+	 * @param maxY       엔트리별 최대 y
+	 * @param count      엔트리 수 (M + 1)
+	 * @param minEntries 그룹별 최소 엔트리 수 (m)
+	 * @return 길이 count의 배열. 두 번째 그룹으로 갈 엔트리는 true
+	 */
+	boolean[] split(double[] minX, double[] minY, double[] maxX, double[] maxY, int count, int minEntries);
+}
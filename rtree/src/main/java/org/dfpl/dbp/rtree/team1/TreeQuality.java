@@ -0,0 +1,75 @@
+package org.dfpl.dbp.rtree.team1;
+
+/**
+ * R-Tree 구조의 품질 지표입니다. RTreeImpl.quality()가 트리 전체를 한 번 훑어 만듭니다.
+ *
+ * 겹침(overlap)은 같은 부모를 가진 형제 노드 MBR 쌍마다 교집합 면적을 더한 값이며, 범위 검색과 nearest가 여러 경로로
+ * 내려가야 하는 정도를 나타냅니다. 면적(area)은 루트를 뺀 모든 노드 MBR 면적의 합입니다. 채움(utilization)은 노드의
+ * 엔트리 수를 최대 엔트리 수로 나눈 값의 평균입니다.
+ */
+public class TreeQuality {
+
+	private final int height;
+	private final int nodeCount;
+	private final int leafCount;
+	private final double leafUtilization;
+	private final double internalUtilization;
+	private final double area;
+	private final double overlap;
+
+	TreeQuality(int height, int nodeCount, int leafCount, double leafUtilization, double internalUtilization,
+			double area, double overlap) {
+		this.height = height;
+		this.nodeCount = nodeCount;
+		this.leafCount = leafCount;
+		this.leafUtilization = leafUtilization;
+		this.internalUtilization = internalUtilization;
+		this.area = area;
+		this.overlap = overlap;
+	}
+
+	// leaf만 있으면 1
+	public int getHeight() {
+		return height;
+	}
+
+	public int getNodeCount() {
+		return nodeCount;
+	}
+
+	public int getLeafCount() {
+		return leafCount;
+	}
+
+	// leaf 채움 평균 (0 ~ 1)
+	public double getLeafUtilization() {
+		return leafUtilization;
+	}
+
+	// 내부 노드 채움 평균 (0 ~ 1). 내부 노드가 없으면 0.
+	public double getInternalUtilization() {
+		return internalUtilization;
+	}
+
+	// 루트를 뺀 노드 MBR 면적의 합
+	public double getArea() {
+		return area;
+	}
+
+	// 형제 MBR 쌍의 교집합 면적의 합
+	public double getOverlap() {
+		return overlap;
+	}
+
+	// 겹침을 면적으로 나눈 값. 노드 크기와 점 분포에 덜 의존하므로 트리끼리 비교할 때 사용. 면적이 0이면 0.
+	public double getOverlapRatio() {
+		return area > 0 ? overlap / area : 0;
+	}
+
+	@Override
+	public String toString() {
+		return String.format(
+				"TreeQuality [height=%d, nodes=%d, leaves=%d, leafUtilization=%.3f, internalUtilization=%.3f, area=%.4g, overlap=%.4g, overlapRatio=%.4f]",
+				height, nodeCount, leafCount, leafUtilization, internalUtilization, area, overlap, getOverlapRatio());
+	}
+}
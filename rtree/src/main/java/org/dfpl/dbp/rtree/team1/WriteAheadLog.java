@@ -0,0 +1,167 @@
+package org.dfpl.dbp.rtree.team1;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * DurableRTree의 변경 기록 파일 하나입니다. 뒤에 덧붙이기만 합니다.
+ *
+ * 레코드는 [op:1][x:8][y:8][crc32:4] 21바이트이며, crc는 앞 17바이트의 CRC32 입니다. append는 메모리 버퍼에만
+ * 쓰고 순번(LSN)을 돌려주며, sync(lsn)가 버퍼를 파일에 쓰고 fsync 합니다. 여러 스레드가 동시에 sync를 부르면 먼저
+ * 들어간 스레드의 fsync 한 번이 그때까지 append된 레코드를 모두 내려쓰고, 기다리던 스레드는 자기 LSN이 이미
+ * 기록되었으면 바로 돌아갑니다(group commit).
+ */
+final class WriteAheadLog implements Closeable {
+
+	static final byte ADD = 1;
+	static final byte DELETE = 2;
+	static final int RECORD_BYTES = 21;
+
+	private static final int BUFFER_BYTES = 64 << 10;
+
+	private final FileChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+	private final CRC32 crc = new CRC32();
+	// sync끼리만 겹치지 않게 하는 잠금. append는 this로 잠그므로 fsync 중에도 계속 쌓을 수 있음.
+	private final Object syncLock = new Object();
+
+	// append된 마지막 LSN, 파일에 쓴 마지막 LSN, fsync까지 끝난 마지막 LSN
+	private long appendedLsn;
+	private long writtenLsn;
+	private volatile long durableLsn;
+	private long bytes;
+	private long syncs;
+
+	/**
+	 * file을 새로 만듭니다. 같은 이름의 파일이 있으면 비웁니다.
+	 */
+	WriteAheadLog(Path file) throws IOException {
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+	}
+
+	/**
+	 * file의 레코드를 순서대로 tree에 적용합니다. 잘렸거나 crc가 맞지 않는 레코드(쓰는 도중 멈춘 꼬리)를 만나면
+	 * 거기서 멈춥니다.
+	 *
+	 * @return 적용한 레코드 수
+	 */
+	static long replay(Path file, RTreeImpl tree) throws IOException {
+		long applied = 0;
+		CRC32 crc = new CRC32();
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER_BYTES);
+			boolean eof = false;
+			while (!eof) {
+				eof = channel.read(buf) < 0;
+				buf.flip();
+				while (buf.remaining() >= RECORD_BYTES) {
+					int start = buf.position();
+					crc.reset();
+					crc.update(buf.duplicate().limit(start + RECORD_BYTES - 4));
+					byte op = buf.get();
+					Point point = new Point(buf.getDouble(), buf.getDouble());
+					if (buf.getInt() != (int) crc.getValue()) {
+						return applied;
+					}
+					if (op == ADD) {
+						tree.add(point);
+					} else if (op == DELETE) {
+						tree.delete(point);
+					} else {
+						return applied;
+					}
+					applied++;
+				}
+				buf.compact();
+			}
+		}
+		return applied;
+	}
+
+	// append 메서드. 레코드를 버퍼에 쓰고 LSN을 반환. 버퍼가 차면 파일로 내보냄(fsync는 하지 않음).
+	synchronized long append(byte op, double x, double y) throws IOException {
+		if (buffer.remaining() < RECORD_BYTES) {
+			writeBuffer();
+		}
+		int start = buffer.position();
+		buffer.put(op).putDouble(x).putDouble(y);
+		crc.reset();
+		crc.update(buffer.duplicate().position(start).limit(start + RECORD_BYTES - 4));
+		buffer.putInt((int) crc.getValue());
+		bytes += RECORD_BYTES;
+		return ++appendedLsn;
+	}
+
+	// sync 메서드. lsn까지의 레코드가 저장 장치에 기록될 때까지 기다림. 이미 기록되었으면 바로 반환.
+	void sync(long lsn) throws IOException {
+		if (durableLsn >= lsn) {
+			return;
+		}
+		synchronized (syncLock) {
+			if (durableLsn >= lsn) {
+				return;
+			}
+			long target;
+			synchronized (this) {
+				writeBuffer();
+				target = writtenLsn;
+			}
+			channel.force(false);
+			synchronized (this) {
+				syncs++;
+			}
+			durableLsn = target;
+		}
+	}
+
+	// syncAll 메서드. 지금까지 append된 레코드를 모두 기록.
+	void syncAll() throws IOException {
+		long lsn;
+		synchronized (this) {
+			lsn = appendedLsn;
+		}
+		sync(lsn);
+	}
+
+	// flush 메서드. 버퍼를 파일에 쓰기만 하고 fsync는 하지 않음 (SyncPolicy.NONE).
+	synchronized void flush() throws IOException {
+		writeBuffer();
+	}
+
+	synchronized long bytes() {
+		return bytes;
+	}
+
+	synchronized long syncCount() {
+		return syncs;
+	}
+
+	@Override
+	public void close() throws IOException {
+		synchronized (syncLock) {
+			synchronized (this) {
+				if (!channel.isOpen()) {
+					return;
+				}
+				writeBuffer();
+				channel.close();
+			}
+		}
+	}
+
+	// writeBuffer 헬퍼 메서드. 버퍼의 레코드를 파일 끝에 씀. this 잠금 안에서 호출.
+	private void writeBuffer() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+		writtenLsn = appendedLsn;
+	}
+}
@@ -0,0 +1,159 @@
+package org.dfpl.dbp.rtree.team1;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * 작은 BufferPool 위의 PagedRTree가 전수 탐색과 같은 결과를 내고, 바뀐 페이지를 파일에 다시 쓰며, 상위 레벨 페이지를
+ * 내보내지 않는지 확인합니다.
+ */
+public class BufferPoolTest {
+
+    private static final int PAGE_SIZE = 256;
+
+    @TempDir
+    Path dir;
+
+    // 루트부터 leaf 바로 위 레벨까지의 내부 노드 페이지 번호
+    private static Set<Integer> internalPages(PagedRTree tree) throws IOException {
+        Set<Integer> pages = new HashSet<>();
+        List<Integer> level = List.of(tree.rootPage());
+        for (int depth = 0; depth < tree.height() - 1; depth++) {
+            List<Integer> next = new ArrayList<>();
+            for (int page : level) {
+                pages.add(page);
+                PagedRTree.Node node = tree.readNode(page);
+                for (int i = 0; i < node.count; i++) {
+                    next.add(node.child[i]);
+                }
+            }
+            level = next;
+        }
+        return pages;
+    }
+
+    @Test
+    public void writeBackAndReopen() throws IOException {
+        Path file = dir.resolve("tree.pages");
+        List<Point> points = RTreeImplTest.distinct(RTreeImplTest.clusteredPoints(71, 3000));
+        List<Point> remaining = new ArrayList<>(points);
+        BufferPool pool = new BufferPool(new FilePageStore(file, PAGE_SIZE), 32 * PAGE_SIZE);
+        try (PagedRTree tree = new PagedRTree(pool)) {
+            for (Point p : points) {
+                tree.add(p);
+            }
+            for (int i = 0; i < 800; i++) {
+                tree.delete(remaining.remove(remaining.size() - 1));
+            }
+            RTreeImplTest.assertSameAsBruteForce(tree, remaining, 72);
+            assertEquals(remaining.size(), PagedRTreeTest.assertValid(tree)[0]);
+            // 트리가 32 프레임보다 훨씬 크므로 내보내기와 다시 쓰기가 일어나고, 쉬는 동안에는 한도를 지킴
+            assertTrue(pool.evictions() > 0);
+            assertTrue(pool.writeBacks() > 0);
+            assertTrue(pool.hits() > pool.misses());
+            assertTrue(pool.residentPages() <= pool.capacity());
+            assertTrue(pool.retainedPages() <= pool.capacity() / 4);
+        }
+
+        // 캐시 없이 파일을 직접 읽어도 같은 트리
+        try (PagedRTree reopened = new PagedRTree(new FilePageStore(file, PAGE_SIZE))) {
+            RTreeImplTest.assertSameAsBruteForce(reopened, remaining, 73);
+            assertEquals(remaining.size(), PagedRTreeTest.assertValid(reopened)[0]);
+        }
+    }
+
+    @Test
+    public void upperLevelsStayResident() throws IOException {
+        Path file = dir.resolve("tree.pages");
+        // 1KB 페이지(leaf 63개, 내부 28개)로 내부 노드가 leaf보다 훨씬 적은 높이 3 이상의 트리
+        int pageSize = 1024;
+        List<Point> points = RTreeImplTest.distinct(RTreeImplTest.randomPoints(74, 20000));
+        int internalCount;
+        long nodeCount;
+        try (PagedRTree tree = new PagedRTree(new FilePageStore(file, pageSize))) {
+            for (Point p : points) {
+                tree.add(p);
+            }
+            assertTrue(tree.height() >= 3);
+            internalCount = internalPages(tree).size();
+            nodeCount = PagedRTreeTest.assertValid(tree)[1];
+        }
+
+        Set<Integer> readAfterWarmUp = new HashSet<>();
+        boolean[] warm = new boolean[1];
+        FilePageStore pages = new FilePageStore(file, pageSize) {
+            @Override
+            public void read(int id, ByteBuffer dst) throws IOException {
+                if (warm[0]) {
+                    readAfterWarmUp.add(id);
+                }
+                super.read(id, dst);
+            }
+        };
+        // 헤더와 내부 노드는 retain 한도(1/4) 안에 들어가지만 leaf는 다 들어가지 않는 크기
+        int frames = 4 * (internalCount + 1) + 4;
+        assertTrue(frames < nodeCount / 2);
+        BufferPool pool = new BufferPool(pages, (long) frames * pageSize);
+        try (PagedRTree tree = new PagedRTree(pool)) {
+            Set<Integer> internal = internalPages(tree);
+            assertEquals(internal.size() + 1, pool.retainedPages());
+
+            Random random = new Random(75);
+            warm[0] = true;
+            pool.resetStats();
+            for (int i = 0; i < 3000; i++) {
+                double x = random.nextDouble() * 900;
+                double y = random.nextDouble() * 900;
+                tree.search(new Rectangle(new Point(x, y), new Point(x + 60, y + 60))).forEachRemaining(p -> {
+                });
+                tree.nearest(new Point(x, y), 5).forEachRemaining(p -> {
+                });
+            }
+            assertTrue(pool.evictions() > 0, "leaves cycle through the pool");
+            for (int page : internal) {
+                assertFalse(readAfterWarmUp.contains(page), "internal page re-read: " + page);
+            }
+        }
+    }
+
+    @Test
+    public void shrinksBackAfterAllFramesPinned() throws IOException {
+        BufferPool pool = new BufferPool(new FilePageStore(dir.resolve("pinned.pages"), PAGE_SIZE),
+                BufferPool.MIN_FRAMES * PAGE_SIZE);
+        try (pool) {
+            int pages = pool.capacity() + 8;
+            for (int i = 0; i < pages; i++) {
+                pool.extend();
+            }
+            // 모든 페이지를 동시에 pin하면 내보낼 프레임이 없어 한도를 넘김
+            for (int i = 0; i < pages; i++) {
+                pool.pin(i).putInt(0, i);
+            }
+            assertEquals(pages, pool.residentPages());
+            for (int i = 0; i < pages; i++) {
+                pool.unpin(i, true);
+            }
+            // 다음 읽기 한 번으로 한도 안으로 돌아오고, 내보낸 페이지는 저장소에 다시 씀
+            pool.extend();
+            assertEquals(pool.capacity(), pool.residentPages());
+            for (int i = 0; i < pages; i++) {
+                assertEquals(i, pool.pin(i).getInt(0));
+                pool.unpin(i, false);
+                assertTrue(pool.residentPages() <= pool.capacity());
+            }
+        }
+    }
+}
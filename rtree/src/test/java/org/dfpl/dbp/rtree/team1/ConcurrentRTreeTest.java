@@ -0,0 +1,74 @@
+package org.dfpl.dbp.rtree.team1;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 읽기 스레드 여러 개와 쓰기 스레드 하나를 동시에 돌려, 한 번도 수정되지 않는 점들은 항상 검색되는지 확인합니다.
+ */
+public class ConcurrentRTreeTest {
+
+    @Test
+    public void concurrentReadersAndWriter() throws Exception {
+        List<Point> all = RTreeImplTest.distinct(RTreeImplTest.randomPoints(31, 6000));
+        List<Point> stable = new ArrayList<>(all.subList(0, 3000));
+        List<Point> churn = new ArrayList<>(all.subList(3000, all.size()));
+        ConcurrentRTree tree = new ConcurrentRTree(RTreeImpl.builder().maxEntries(8).build());
+        for (Point p : stable) {
+            tree.add(p);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(5);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            futures.add(pool.submit(() -> {
+                for (int round = 0; round < 3; round++) {
+                    for (Point p : churn) {
+                        tree.add(p);
+                    }
+                    for (Point p : churn) {
+                        tree.delete(p);
+                    }
+                }
+            }));
+            for (int t = 0; t < 4; t++) {
+                long seed = 40 + t;
+                futures.add(pool.submit(() -> {
+                    Random random = new Random(seed);
+                    for (int q = 0; q < 300; q++) {
+                        double x = random.nextInt(1000);
+                        double y = random.nextInt(1000);
+                        Rectangle r = new Rectangle(new Point(x, y), new Point(x + 100, y + 100));
+                        Set<String> found = RTreeImplTest.keys(tree.search(r));
+                        assertTrue(found.containsAll(RTreeImplTest.bruteForce(stable, r)));
+                        assertTrue(tree.count(r) >= RTreeImplTest.bruteForce(stable, r).size());
+                        assertEquals(5, RTreeImplTest.keys(tree.nearest(new Point(x, y), 5)).size());
+                    }
+                }));
+            }
+            for (Future<?> f : futures) {
+                f.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        RTreeImplTest.assertSameAsBruteForce(tree, stable, 32);
+        assertEquals(2 * 3 * churn.size() + stable.size(), tree.getWriteCount());
+        assertTrue(tree.getReadCount() >= 4 * 300 * 3);
+        assertTrue(tree.getContendedReadCount() <= tree.getReadCount());
+        tree.resetStats();
+        assertEquals(0, tree.getReadCount());
+    }
+}
@@ -0,0 +1,124 @@
+package org.dfpl.dbp.rtree.team1;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * DurableRTree를 닫지 않고 다시 열어(프로세스가 죽은 상황) 기록과 스냅샷으로 같은 트리가 복구되는지 확인합니다.
+ */
+public class DurableRTreeTest {
+
+    @TempDir
+    Path dir;
+
+    private static long logFiles(Path dir) throws IOException {
+        try (Stream<Path> list = Files.list(dir)) {
+            return list.filter(p -> p.getFileName().toString().endsWith(".log")).count();
+        }
+    }
+
+    @Test
+    public void recoverFromLogAndCheckpoints() throws IOException {
+        List<Point> points = RTreeImplTest.distinct(RTreeImplTest.randomPoints(61, 3000));
+        List<Point> remaining = new ArrayList<>(points);
+        // 레코드 500개마다 체크포인트
+        DurableRTree crashed = DurableRTree.builder(dir).tree(RTreeImpl.builder().maxEntries(8))
+                .checkpointBytes(500 * WriteAheadLog.RECORD_BYTES).open();
+        for (Point p : points) {
+            crashed.add(p);
+        }
+        for (int i = 0; i < 700; i++) {
+            crashed.delete(remaining.remove(remaining.size() - 1));
+        }
+        assertTrue(crashed.checkpointCount() >= 6);
+        assertTrue(Files.exists(dir.resolve(DurableRTree.SNAPSHOT_FILE)));
+        assertTrue(logFiles(dir) <= 2, "old logs removed");
+        RTreeImplTest.assertSameAsBruteForce(crashed, remaining, 62);
+
+        // close 없이 다시 열면 스냅샷 + 마지막 체크포인트 이후 기록으로 복구
+        try (DurableRTree recovered = DurableRTree.open(dir)) {
+            assertTrue(recovered.replayedRecords() > 0 && recovered.replayedRecords() < 500);
+            RTreeImplTest.assertSameAsBruteForce(recovered, remaining, 63);
+        }
+        crashed.close();
+    }
+
+    @Test
+    public void tornTailIsIgnored() throws IOException {
+        List<Point> points = RTreeImplTest.distinct(RTreeImplTest.randomPoints(64, 1000));
+        try (DurableRTree tree = DurableRTree.builder(dir).syncPolicy(DurableRTree.SyncPolicy.NONE).open()) {
+            for (Point p : points) {
+                tree.add(p);
+            }
+        }
+        // 마지막 레코드를 쓰다가 멈춘 것처럼 꼬리를 자르고, 그 뒤에 쓰레기를 덧붙임
+        Path log = dir.resolve("wal-1.log");
+        byte[] bytes = Files.readAllBytes(log);
+        Files.write(log, Arrays.copyOf(bytes, bytes.length - 5));
+        Files.write(dir.resolve("wal-2.log"), new byte[] { 1, 2, 3 }, StandardOpenOption.CREATE);
+
+        try (DurableRTree tree = DurableRTree.open(dir)) {
+            assertEquals(points.size() - 1, tree.replayedRecords());
+            RTreeImplTest.assertSameAsBruteForce(tree, points.subList(0, points.size() - 1), 65);
+            tree.add(points.get(points.size() - 1));
+        }
+        try (DurableRTree tree = DurableRTree.open(dir)) {
+            RTreeImplTest.assertSameAsBruteForce(tree, points, 66);
+        }
+    }
+
+    @Test
+    public void groupCommitAndIntervalSync() throws Exception {
+        List<Point> points = RTreeImplTest.distinct(RTreeImplTest.randomPoints(67, 2000));
+        // 레코드 200개마다 체크포인트. 여러 writer가 함께 한도를 넘어도 체크포인트는 한 번만 만들어짐
+        try (DurableRTree tree = DurableRTree.builder(dir).checkpointBytes(200 * WriteAheadLog.RECORD_BYTES).open()) {
+            Thread[] writers = new Thread[4];
+            for (int t = 0; t < writers.length; t++) {
+                int offset = t;
+                writers[t] = new Thread(() -> {
+                    for (int i = offset; i < points.size(); i += writers.length) {
+                        tree.add(points.get(i));
+                    }
+                });
+                writers[t].start();
+            }
+            for (Thread writer : writers) {
+                writer.join();
+            }
+            // EVERY_OP: 변경마다 fsync를 기다리지만 여러 변경이 fsync 한 번을 나눠 씀
+            assertTrue(tree.syncCount() <= points.size());
+            assertTrue(tree.checkpointCount() > 0 && tree.checkpointCount() <= points.size() / 200,
+                    "checkpoints: " + tree.checkpointCount());
+            RTreeImplTest.assertSameAsBruteForce(tree, points, 68);
+        }
+
+        Path intervalDir = dir.resolve("interval");
+        try (DurableRTree tree = DurableRTree.builder(intervalDir).syncPolicy(DurableRTree.SyncPolicy.INTERVAL)
+                .syncIntervalMillis(5).open()) {
+            for (Point p : points) {
+                tree.add(p);
+            }
+            long deadline = System.currentTimeMillis() + 5000;
+            while (tree.syncCount() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            assertTrue(tree.syncCount() > 0);
+            assertTrue(tree.syncCount() < points.size());
+        }
+        try (DurableRTree tree = DurableRTree.open(intervalDir)) {
+            RTreeImplTest.assertSameAsBruteForce(tree, points, 69);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package org.dfpl.dbp.rtree.team1;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * FlatRTree의 결과를 전수 탐색 결과와 비교하고, 배열 슬롯의 MBR과 트리 구조를 확인합니다.
+ */
+public class FlatRTreeTest {
+
+    // 모든 leaf의 깊이가 같고, 루트가 아닌 노드는 최소/최대 채움을 지키며, 부모 슬롯의 MBR이 자식을 정확히 감싸는지 확인.
+    static int assertValid(FlatRTree tree, int max, int min) {
+        FlatRTree.Node root = tree.getRoot();
+        return assertValid(root, root, 0, new int[] { -1 }, max, min);
+    }
+
+    private static int assertValid(FlatRTree.Node node, FlatRTree.Node root, int depth, int[] leafDepth, int max,
+            int min) {
+        assertTrue(node.count <= max, "overflow");
+        if (node != root) {
+            assertTrue(node.count >= min, "underflow");
+        }
+        if (node.leaf) {
+            if (leafDepth[0] < 0) {
+                leafDepth[0] = depth;
+            }
+            assertEquals(leafDepth[0], depth, "unbalanced");
+            return node.count;
+        }
+        int count = 0;
+        for (int i = 0; i < node.count; i++) {
+            FlatRTree.Node child = node.children[i];
+            assertTrue(child.parent == node, "parent pointer");
+            double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+            for (int j = 0; j < child.count; j++) {
+                minX = Math.min(minX, child.minX[j]);
+                minY = Math.min(minY, child.minY[j]);
+                maxX = Math.max(maxX, child.slotMaxX(j));
+                maxY = Math.max(maxY, child.slotMaxY(j));
+            }
+            assertEquals(minX, node.minX[i]);
+            assertEquals(minY, node.minY[i]);
+            assertEquals(maxX, node.maxX[i]);
+            assertEquals(maxY, node.maxY[i]);
+            count += assertValid(child, root, depth + 1, leafDepth, max, min);
+        }
+        return count;
+    }
+
+    @Test
+    public void addSearchNearestDelete() {
+        for (int max : new int[] { 4, 32 }) {
+            List<Point> points = RTreeImplTest.distinct(RTreeImplTest.clusteredPoints(21, 3000));
+            points.addAll(RTreeImplTest.randomPoints(22, 2000));
+            points = RTreeImplTest.distinct(points);
+            FlatRTree tree = new FlatRTree(max, max / 2, SplitStrategy.QUADRATIC);
+            for (Point p : points) {
+                tree.add(p);
+            }
+            tree.add(new Point(points.get(0).getX(), points.get(0).getY()));
+            assertEquals(points.size(), assertValid(tree, max, max / 2));
+            RTreeImplTest.assertSameAsBruteForce(tree, points, 23);
+
+            List<Point> remaining = new ArrayList<>(points);
+            for (int i = 0; i < points.size() * 3 / 4; i++) {
+                Point p = remaining.remove(remaining.size() - 1);
+                tree.delete(new Point(p.getX(), p.getY()));
+            }
+            tree.delete(new Point(-1, -1));
+            assertEquals(remaining.size(), assertValid(tree, max, max / 2));
+            RTreeImplTest.assertSameAsBruteForce(tree, remaining, 24);
+
+            for (Point p : remaining) {
+                tree.delete(p);
+            }
+            assertTrue(tree.isEmpty());
+            assertFalse(tree.search(new Rectangle(new Point(0, 0), new Point(1000, 1000))).hasNext());
+        }
+    }
+
+    @Test
+    public void splitStrategiesAndCapacity() {
+        List<Point> points = RTreeImplTest.distinct(RTreeImplTest.randomPoints(25, 4000));
+        for (SplitStrategy strategy : new SplitStrategy[] { SplitStrategy.LINEAR, SplitStrategy.RSTAR }) {
+            FlatRTree tree = new FlatRTree(16, 6, strategy);
+            for (Point p : points) {
+                tree.add(p);
+            }
+            assertEquals(points.size(), assertValid(tree, 16, 6));
+            RTreeImplTest.assertSameAsBruteForce(tree, points, 26);
+        }
+        assertThrows(IllegalArgumentException.class, () -> new FlatRTree(8, 5, SplitStrategy.QUADRATIC));
+        assertThrows(IllegalArgumentException.class, () -> new FlatRTree(8, 4, null));
+    }
+}
@@ -0,0 +1,137 @@
+package org.dfpl.dbp.rtree.team1;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * HilbertRTree의 결과를 전수 탐색 결과와 비교하고, 순번 정렬과 LHV, MBR, 채움을 확인합니다.
+ */
+public class HilbertRTreeTest {
+
+    private static final Rectangle WORLD = new Rectangle(new Point(0, 0), new Point(1000, 1000));
+
+    // 균형, 최소/최대 채움, 키 오름차순, 부모 키 = 자식 LHV, 부모 MBR = 자식 MBR 합을 확인. [점 수, 노드 수]를 반환.
+    static int[] assertValid(HilbertRTree tree, int max, int min) {
+        HilbertRTree.Node root = tree.getRoot();
+        int[] counts = new int[2];
+        assertValid(root, root, 0, new int[] { -1 }, max, min, counts);
+        return counts;
+    }
+
+    private static void assertValid(HilbertRTree.Node node, HilbertRTree.Node root, int depth, int[] leafDepth,
+            int max, int min, int[] counts) {
+        counts[1]++;
+        assertTrue(node.count <= max, "overflow");
+        if (node != root) {
+            assertTrue(node.count >= min, "underflow");
+        }
+        for (int i = 1; i < node.count; i++) {
+            assertTrue(node.keys[i - 1] <= node.keys[i], "unsorted keys");
+        }
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        if (node.leaf) {
+            if (leafDepth[0] < 0) {
+                leafDepth[0] = depth;
+            }
+            assertEquals(leafDepth[0], depth, "unbalanced");
+            counts[0] += node.count;
+            for (int i = 0; i < node.count; i++) {
+                Point p = (Point) node.entries[i];
+                minX = Math.min(minX, p.getX());
+                minY = Math.min(minY, p.getY());
+                maxX = Math.max(maxX, p.getX());
+                maxY = Math.max(maxY, p.getY());
+            }
+        } else {
+            for (int i = 0; i < node.count; i++) {
+                HilbertRTree.Node child = (HilbertRTree.Node) node.entries[i];
+                assertTrue(child.parent == node, "parent pointer");
+                assertEquals(child.lhv(), node.keys[i], "lhv");
+                minX = Math.min(minX, child.minX);
+                minY = Math.min(minY, child.minY);
+                maxX = Math.max(maxX, child.maxX);
+                maxY = Math.max(maxY, child.maxY);
+                assertValid(child, root, depth + 1, leafDepth, max, min, counts);
+            }
+        }
+        if (node.count > 0) {
+            assertEquals(minX, node.minX);
+            assertEquals(minY, node.minY);
+            assertEquals(maxX, node.maxX);
+            assertEquals(maxY, node.maxY);
+        }
+    }
+
+    @Test
+    public void addSearchNearestDelete() {
+        for (int max : new int[] { 3, 4, 32 }) {
+            List<Point> points = RTreeImplTest.distinct(RTreeImplTest.clusteredPoints(31, 3000));
+            points.addAll(RTreeImplTest.randomPoints(32, 2000));
+            points = RTreeImplTest.distinct(points);
+            HilbertRTree tree = new HilbertRTree(WORLD, max);
+            for (Point p : points) {
+                tree.add(p);
+            }
+            tree.add(new Point(points.get(0).getX(), points.get(0).getY()));
+            assertEquals(points.size(), assertValid(tree, max, max / 2)[0]);
+            RTreeImplTest.assertSameAsBruteForce(tree, points, 33);
+
+            List<Point> remaining = new ArrayList<>(points);
+            for (int i = 0; i < points.size() * 3 / 4; i++) {
+                Point p = remaining.remove((i * 7919) % remaining.size());
+                tree.delete(new Point(p.getX(), p.getY()));
+            }
+            tree.delete(new Point(-1, -1));
+            assertEquals(remaining.size(), assertValid(tree, max, max / 2)[0]);
+            RTreeImplTest.assertSameAsBruteForce(tree, remaining, 34);
+
+            for (Point p : remaining) {
+                tree.delete(p);
+            }
+            assertTrue(tree.isEmpty());
+            assertFalse(tree.search(WORLD).hasNext());
+        }
+    }
+
+    @Test
+    public void utilizationAndDeterminism() {
+        List<Point> points = RTreeImplTest.distinct(RTreeImplTest.randomPoints(35, 8000));
+        HilbertRTree a = new HilbertRTree(WORLD, 16);
+        HilbertRTree b = new HilbertRTree(WORLD, 16);
+        for (Point p : points) {
+            a.add(p);
+            b.add(new Point(p.getX(), p.getY()));
+        }
+        // 2-to-3 split이므로 leaf는 평균 2/3 이상 찬다
+        int[] counts = assertValid(a, 16, 8);
+        assertTrue(counts[0] >= counts[1] * 16 * 2 / 3 * 0.9, "utilization");
+        assertEquals(structure(a.getRoot()), structure(b.getRoot()));
+
+        // world 밖의 점도 격자 가장자리 순번으로 저장되고 검색된다
+        a.add(new Point(-50, 2000));
+        assertTrue(a.search(new Rectangle(new Point(-60, 1990), new Point(-40, 2010))).hasNext());
+        assertThrows(IllegalArgumentException.class, () -> new HilbertRTree(WORLD, 2));
+        assertThrows(IllegalArgumentException.class, () -> new HilbertRTree(null));
+    }
+
+    private static String structure(HilbertRTree.Node node) {
+        StringBuilder sb = new StringBuilder("(");
+        for (int i = 0; i < node.count; i++) {
+            if (node.leaf) {
+                Point p = (Point) node.entries[i];
+                sb.append(p.getX()).append(',').append(p.getY()).append(' ');
+            } else {
+                sb.append(structure((HilbertRTree.Node) node.entries[i]));
+            }
+        }
+        return sb.append(')').toString();
+    }
+}
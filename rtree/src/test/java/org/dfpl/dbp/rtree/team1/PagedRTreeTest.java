@@ -0,0 +1,139 @@
+package org.dfpl.dbp.rtree.team1;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * PagedRTree의 결과를 전수 탐색 결과와 비교하고, 페이지에 저장된 트리 구조와 다시 열기를 확인합니다.
+ */
+public class PagedRTreeTest {
+
+    // 256바이트 페이지: leaf 15개, 내부 6개. 작은 페이지로 높은 트리를 만들어 분할과 재삽입을 충분히 거치게 함.
+    private static final int PAGE_SIZE = 256;
+
+    @TempDir
+    Path dir;
+
+    // 모든 leaf의 깊이가 같고, 루트가 아닌 노드는 최소/최대 채움을 지키며, 부모 엔트리의 MBR이 자식을 정확히 감싸는지 확인.
+    // [점 수, 노드 페이지 수]를 반환.
+    static long[] assertValid(PagedRTree tree) throws IOException {
+        long[] counts = new long[2];
+        assertValid(tree, tree.rootPage(), 0, new int[] { -1 }, counts);
+        return counts;
+    }
+
+    private static double[] assertValid(PagedRTree tree, int page, int depth, int[] leafDepth, long[] counts)
+            throws IOException {
+        PagedRTree.Node node = tree.readNode(page);
+        counts[1]++;
+        int max = node.leaf ? tree.leafCapacity() : tree.internalCapacity();
+        assertTrue(node.count <= max, "overflow");
+        if (page != tree.rootPage()) {
+            assertTrue(node.count >= max * 2 / 5, "underflow");
+        }
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        if (node.leaf) {
+            if (leafDepth[0] < 0) {
+                leafDepth[0] = depth;
+            }
+            assertEquals(leafDepth[0], depth, "unbalanced");
+            assertEquals(tree.height() - 1, depth, "height");
+            counts[0] += node.count;
+        }
+        for (int i = 0; i < node.count; i++) {
+            if (!node.leaf) {
+                double[] b = assertValid(tree, node.child[i], depth + 1, leafDepth, counts);
+                assertEquals(b[0], node.minX[i]);
+                assertEquals(b[1], node.minY[i]);
+                assertEquals(b[2], node.maxX[i]);
+                assertEquals(b[3], node.maxY[i]);
+            }
+            minX = Math.min(minX, node.minX[i]);
+            minY = Math.min(minY, node.minY[i]);
+            maxX = Math.max(maxX, node.slotMaxX(i));
+            maxY = Math.max(maxY, node.slotMaxY(i));
+        }
+        return new double[] { minX, minY, maxX, maxY };
+    }
+
+    @Test
+    public void addSearchNearestDelete() throws IOException {
+        List<Point> points = RTreeImplTest.distinct(RTreeImplTest.clusteredPoints(51, 3000));
+        points.addAll(RTreeImplTest.randomPoints(52, 2000));
+        points = RTreeImplTest.distinct(points);
+        try (PagedRTree tree = new PagedRTree(new MappedPageStore(dir.resolve("tree.pages"), PAGE_SIZE))) {
+            for (Point p : points) {
+                tree.add(p);
+            }
+            tree.add(new Point(points.get(0).getX(), points.get(0).getY()));
+            assertEquals(points.size(), tree.size());
+            assertEquals(points.size(), assertValid(tree)[0]);
+            assertTrue(tree.height() >= 4);
+            RTreeImplTest.assertSameAsBruteForce(tree, points, 53);
+
+            List<Point> remaining = new ArrayList<>(points);
+            for (int i = 0; i < points.size() * 3 / 4; i++) {
+                Point p = remaining.remove((i * 7919) % remaining.size());
+                tree.delete(new Point(p.getX(), p.getY()));
+            }
+            tree.delete(new Point(-1, -1));
+            assertEquals(remaining.size(), tree.size());
+            assertEquals(remaining.size(), assertValid(tree)[0]);
+            RTreeImplTest.assertSameAsBruteForce(tree, remaining, 54);
+
+            for (Point p : remaining) {
+                tree.delete(p);
+            }
+            assertTrue(tree.isEmpty());
+            assertFalse(tree.search(new Rectangle(new Point(0, 0), new Point(1000, 1000))).hasNext());
+        }
+    }
+
+    @Test
+    public void reopenAndReusePages() throws IOException {
+        Path file = dir.resolve("reopen.pages");
+        List<Point> points = RTreeImplTest.distinct(RTreeImplTest.randomPoints(55, 4000));
+        long pagesAfterBuild;
+        try (PagedRTree tree = new PagedRTree(new MappedPageStore(file, PAGE_SIZE))) {
+            for (Point p : points) {
+                tree.add(p);
+            }
+            pagesAfterBuild = assertValid(tree)[1];
+        }
+        assertEquals(0, Files.size(file) % PAGE_SIZE);
+
+        // 헤더의 페이지 크기로 다시 열고, 지운 만큼 다시 넣어도 파일이 커지지 않아야 함(빈 페이지 재사용)
+        long before = Files.size(file);
+        try (PagedRTree tree = PagedRTree.open(file)) {
+            assertEquals(points.size(), tree.size());
+            RTreeImplTest.assertSameAsBruteForce(tree, points, 56);
+            for (int i = 0; i < 2000; i++) {
+                tree.delete(points.get(i));
+            }
+            for (int i = 0; i < 2000; i++) {
+                tree.add(points.get(i));
+            }
+            long[] counts = assertValid(tree);
+            assertEquals(points.size(), counts[0]);
+            assertTrue(counts[1] <= pagesAfterBuild * 3 / 2);
+        }
+        assertTrue(Files.size(file) <= before * 3 / 2, "free pages reused");
+
+        Files.write(file, new byte[PAGE_SIZE * 2]);
+        assertThrows(IOException.class, () -> new PagedRTree(new MappedPageStore(file, PAGE_SIZE)));
+        assertThrows(IllegalArgumentException.class,
+                () -> new PagedRTree(new MappedPageStore(dir.resolve("small.pages"), 128)));
+    }
+}
@@ -0,0 +1,169 @@
+package org.dfpl.dbp.rtree.team1;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * PersistentRTree의 결과를 전수 탐색 결과와 비교하고, Snapshot이 이후의 수정에 영향을 받지 않는지 확인합니다.
+ */
+public class PersistentRTreeTest {
+
+    private static final Rectangle ALL = new Rectangle(new Point(0, 0), new Point(1000, 1000));
+
+    // 모든 leaf의 깊이가 height와 같고, 루트가 아닌 노드는 최소/최대 채움을 지키며, 노드 MBR이 엔트리를 정확히 감싸는지 확인.
+    static int assertValid(PersistentRTree.Snapshot snapshot, int max, int min) {
+        int count = assertValid(snapshot.root, snapshot.root, snapshot.height, max, min);
+        assertEquals(snapshot.size, count);
+        return count;
+    }
+
+    private static int assertValid(PersistentRTree.Node node, PersistentRTree.Node root, int level, int max,
+            int min) {
+        assertTrue(node.count() <= max, "overflow");
+        if (node != root) {
+            assertTrue(node.count() >= min, "underflow");
+        }
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        int count = 0;
+        if (node.isLeaf()) {
+            assertEquals(0, level, "unbalanced");
+            for (Point p : node.points) {
+                minX = Math.min(minX, p.getX());
+                minY = Math.min(minY, p.getY());
+                maxX = Math.max(maxX, p.getX());
+                maxY = Math.max(maxY, p.getY());
+            }
+            count = node.points.length;
+        } else {
+            for (PersistentRTree.Node c : node.children) {
+                minX = Math.min(minX, c.minX);
+                minY = Math.min(minY, c.minY);
+                maxX = Math.max(maxX, c.maxX);
+                maxY = Math.max(maxY, c.maxY);
+                count += assertValid(c, root, level - 1, max, min);
+            }
+        }
+        assertEquals(minX, node.minX);
+        assertEquals(minY, node.minY);
+        assertEquals(maxX, node.maxX);
+        assertEquals(maxY, node.maxY);
+        return count;
+    }
+
+    @Test
+    public void addSearchNearestDelete() {
+        for (int max : new int[] { 4, 32 }) {
+            List<Point> points = RTreeImplTest.distinct(RTreeImplTest.clusteredPoints(51, 3000));
+            points.addAll(RTreeImplTest.randomPoints(52, 2000));
+            points = RTreeImplTest.distinct(points);
+            PersistentRTree tree = new PersistentRTree(max, max / 2, SplitStrategy.QUADRATIC);
+            for (Point p : points) {
+                tree.add(p);
+            }
+            tree.add(new Point(points.get(0).getX(), points.get(0).getY()));
+            assertEquals(points.size(), assertValid(tree.snapshot(), max, max / 2));
+            RTreeImplTest.assertSameAsBruteForce(tree, points, 53);
+
+            List<Point> remaining = new ArrayList<>(points);
+            for (int i = 0; i < points.size() * 3 / 4; i++) {
+                Point p = remaining.remove(remaining.size() - 1);
+                tree.delete(new Point(p.getX(), p.getY()));
+            }
+            tree.delete(new Point(-1, -1));
+            assertEquals(remaining.size(), assertValid(tree.snapshot(), max, max / 2));
+            RTreeImplTest.assertSameAsBruteForce(tree, remaining, 54);
+
+            for (Point p : remaining) {
+                tree.delete(p);
+            }
+            assertTrue(tree.isEmpty());
+            assertFalse(tree.search(ALL).hasNext());
+        }
+    }
+
+    @Test
+    public void snapshotIsolation() {
+        List<Point> points = RTreeImplTest.distinct(RTreeImplTest.randomPoints(55, 2000));
+        PersistentRTree tree = new PersistentRTree(8, 4, SplitStrategy.RSTAR);
+        for (Point p : points.subList(0, 1000)) {
+            tree.add(p);
+        }
+        PersistentRTree.Snapshot before = tree.snapshot();
+        Iterator<Point> pending = tree.search(ALL);
+        PersistentRTree.Node sharedRoot = before.root;
+
+        for (Point p : points.subList(1000, points.size())) {
+            tree.add(p);
+        }
+        for (Point p : points.subList(0, 500)) {
+            tree.delete(p);
+        }
+
+        // 이전 Snapshot과 수정 전에 만든 iterator는 수정 전 1000개를 그대로 봄
+        assertSame(sharedRoot, before.root);
+        assertEquals(1000, before.size());
+        assertValid(before, 8, 4);
+        assertEquals(RTreeImplTest.bruteForce(points.subList(0, 1000), ALL), RTreeImplTest.keys(before.search(ALL)));
+        assertEquals(RTreeImplTest.bruteForce(points.subList(0, 1000), ALL), RTreeImplTest.keys(pending));
+        assertTrue(before.contains(points.get(0)));
+        assertFalse(before.contains(points.get(1500)));
+
+        PersistentRTree.Snapshot after = tree.snapshot();
+        assertEquals(points.size() - 500, after.size());
+        assertValid(after, 8, 4);
+        assertFalse(after.contains(points.get(0)));
+        RTreeImplTest.assertSameAsBruteForce(tree, points.subList(500, points.size()), 56);
+    }
+
+    @Test
+    public void concurrentWritersAndReaders() throws Exception {
+        List<Point> points = RTreeImplTest.distinct(RTreeImplTest.randomPoints(57, 8000));
+        PersistentRTree tree = new PersistentRTree(16, 8, SplitStrategy.QUADRATIC);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 2; t++) {
+                List<Point> part = points.subList(t * points.size() / 2, (t + 1) * points.size() / 2);
+                futures.add(pool.submit(() -> {
+                    for (Point p : part) {
+                        tree.add(p);
+                    }
+                }));
+            }
+            for (int t = 0; t < 2; t++) {
+                futures.add(pool.submit(() -> {
+                    int last = 0;
+                    for (int q = 0; q < 200; q++) {
+                        PersistentRTree.Snapshot s = tree.snapshot();
+                        Set<String> found = RTreeImplTest.keys(s.search(ALL));
+                        // 각 Snapshot은 자기 size만큼의 점을 정확히 담고 있고, 버전은 뒤로 가지 않음
+                        assertEquals(s.size(), found.size());
+                        assertTrue(s.size() >= last);
+                        last = s.size();
+                    }
+                }));
+            }
+            for (Future<?> f : futures) {
+                f.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(points.size(), assertValid(tree.snapshot(), 16, 8));
+        RTreeImplTest.assertSameAsBruteForce(tree, points, 58);
+    }
+}
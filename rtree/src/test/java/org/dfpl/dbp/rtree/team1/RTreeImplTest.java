@@ -0,0 +1,894 @@
+package org.dfpl.dbp.rtree.team1;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * RTreeImpl의 결과를 전수 탐색(brute force) 결과와 비교합니다.
+ */
+public class RTreeImplTest {
+
+    static List<Point> randomPoints(long seed, int n) {
+        Random random = new Random(seed);
+        List<Point> points = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            points.add(new Point(random.nextInt(1000), random.nextInt(1000)));
+        }
+        return points;
+    }
+
+    static Set<String> keys(Iterator<Point> iterator) {
+        Set<String> keys = new TreeSet<>();
+        while (iterator.hasNext()) {
+            Point p = iterator.next();
+            keys.add(p.getX() + "," + p.getY());
+        }
+        return keys;
+    }
+
+    static Set<String> bruteForce(List<Point> points, Rectangle r) {
+        Set<String> keys = new TreeSet<>();
+        for (Point p : points) {
+            if (p.getX() >= r.getLeftTop().getX() && p.getX() <= r.getRightBottom().getX()
+                    && p.getY() >= r.getLeftTop().getY() && p.getY() <= r.getRightBottom().getY()) {
+                keys.add(p.getX() + "," + p.getY());
+            }
+        }
+        return keys;
+    }
+
+    static void assertSameAsBruteForce(RTree tree, List<Point> points, long seed) {
+        Random random = new Random(seed);
+        for (int q = 0; q < 50; q++) {
+            double x = random.nextInt(1000);
+            double y = random.nextInt(1000);
+            Rectangle r = new Rectangle(new Point(x, y), new Point(x + random.nextInt(300), y + random.nextInt(300)));
+            assertEquals(bruteForce(points, r), keys(tree.search(r)));
+        }
+        for (int q = 0; q < 20; q++) {
+            Point source = new Point(random.nextInt(1000), random.nextInt(1000));
+            List<Point> expected = new ArrayList<>(points);
+            expected.sort(Comparator.comparingDouble(source::distance));
+            Iterator<Point> iterator = tree.nearest(source, 10);
+            for (int i = 0; i < Math.min(10, expected.size()); i++) {
+                assertTrue(iterator.hasNext());
+                assertEquals(source.distance(expected.get(i)), source.distance(iterator.next()), 1e-9);
+            }
+            assertFalse(iterator.hasNext());
+        }
+    }
+
+    static List<Point> distinct(List<Point> points) {
+        Set<String> seen = new TreeSet<>();
+        List<Point> result = new ArrayList<>();
+        for (Point p : points) {
+            if (seen.add(p.getX() + "," + p.getY())) {
+                result.add(p);
+            }
+        }
+        return result;
+    }
+
+    @Test
+    public void addSearchNearestDelete() {
+        List<Point> points = distinct(randomPoints(1, 2000));
+        RTreeImpl tree = new RTreeImpl();
+        for (Point p : points) {
+            tree.add(p);
+        }
+        // 중복 삽입은 무시
+        tree.add(new Point(points.get(0).getX(), points.get(0).getY()));
+        assertSameAsBruteForce(tree, points, 2);
+
+        List<Point> remaining = new ArrayList<>(points);
+        for (int i = 0; i < points.size() / 2; i++) {
+            Point p = remaining.remove(remaining.size() - 1);
+            tree.delete(new Point(p.getX(), p.getY()));
+        }
+        assertSameAsBruteForce(tree, remaining, 3);
+        assertEquals(remaining.size(), assertValid(tree));
+
+        for (Point p : remaining) {
+            tree.delete(p);
+        }
+        assertTrue(tree.isEmpty());
+    }
+
+    // 모든 leaf의 깊이가 같고, 루트가 아닌 노드는 최소/최대 채움을 지키며, MBR이 자식을 정확히 감싸는지 확인.
+    static int assertValid(RTreeImpl tree) {
+        return assertValid(tree, 4, 2, 4, 2);
+    }
+
+    static int assertValid(RTreeImpl tree, int maxLeaf, int minLeaf, int maxInternal, int minInternal) {
+        RTreeImpl.Node root = tree.getRoot();
+        int[] leafDepth = { -1 };
+        return assertValid(root, root, 0, leafDepth, new int[] { maxLeaf, minLeaf, maxInternal, minInternal });
+    }
+
+    private static int assertValid(RTreeImpl.Node node, RTreeImpl.Node root, int depth, int[] leafDepth, int[] capacity) {
+        int entries = node.leaf ? node.points.size() : node.children.size();
+        assertTrue(entries <= (node.leaf ? capacity[0] : capacity[2]), "overflow");
+        if (node != root) {
+            assertTrue(entries >= (node.leaf ? capacity[1] : capacity[3]), "underflow");
+        }
+        if (node.leaf) {
+            if (leafDepth[0] < 0) {
+                leafDepth[0] = depth;
+            }
+            assertEquals(leafDepth[0], depth, "unbalanced");
+            for (Point p : node.points) {
+                assertTrue(p.getX() >= node.getMbr().getLeftTop().getX() && p.getX() <= node.getMbr().getRightBottom().getX());
+                assertTrue(p.getY() >= node.getMbr().getLeftTop().getY() && p.getY() <= node.getMbr().getRightBottom().getY());
+            }
+            assertEquals(entries, node.pointCount, "point count");
+            return entries;
+        }
+        int count = 0;
+        for (RTreeImpl.Node child : node.children) {
+            assertTrue(child.parent == node, "parent pointer");
+            Rectangle c = child.getMbr();
+            Rectangle m = node.getMbr();
+            assertTrue(c.getLeftTop().getX() >= m.getLeftTop().getX() && c.getRightBottom().getX() <= m.getRightBottom().getX());
+            assertTrue(c.getLeftTop().getY() >= m.getLeftTop().getY() && c.getRightBottom().getY() <= m.getRightBottom().getY());
+            count += assertValid(child, root, depth + 1, leafDepth, capacity);
+        }
+        assertEquals(count, node.pointCount, "point count");
+        return count;
+    }
+
+    @Test
+    public void bulkLoadBuildsValidPackedTree() {
+        List<Point> points = randomPoints(5, 5000);
+        points.add(new Point(points.get(0).getX(), points.get(0).getY()));
+        List<Point> unique = distinct(points);
+        RTreeImpl tree = RTreeImpl.bulkLoad(points);
+        assertEquals(unique.size(), assertValid(tree));
+        assertSameAsBruteForce(tree, unique, 6);
+
+        // 이후 add/delete도 정상 동작
+        List<Point> more = distinct(randomPoints(7, 1000));
+        List<Point> all = new ArrayList<>(unique);
+        for (Point p : more) {
+            tree.add(p);
+        }
+        all.addAll(more);
+        all = distinct(all);
+        for (int i = 0; i < 2000; i++) {
+            tree.delete(all.remove(all.size() - 1));
+        }
+        assertEquals(all.size(), assertValid(tree));
+        assertSameAsBruteForce(tree, all, 8);
+
+        assertTrue(RTreeImpl.bulkLoad(new ArrayList<>()).isEmpty());
+    }
+
+    @Test
+    public void configurableCapacity() {
+        List<Point> points = distinct(randomPoints(9, 5000));
+        RTreeImpl tree = RTreeImpl.builder().leafCapacity(32, 12).internalCapacity(16, 6).build();
+        for (Point p : points) {
+            tree.add(p);
+        }
+        assertEquals(points.size(), assertValid(tree, 32, 12, 16, 6));
+        assertSameAsBruteForce(tree, points, 10);
+
+        List<Point> remaining = new ArrayList<>(points);
+        for (int i = 0; i < 4000; i++) {
+            tree.delete(remaining.remove(remaining.size() - 1));
+        }
+        assertEquals(remaining.size(), assertValid(tree, 32, 12, 16, 6));
+        assertSameAsBruteForce(tree, remaining, 11);
+
+        RTreeImpl packed = RTreeImpl.builder().maxEntries(64).bulkLoad(points);
+        assertEquals(points.size(), assertValid(packed, 64, 32, 64, 32));
+        assertSameAsBruteForce(packed, points, 12);
+
+        assertThrows(IllegalArgumentException.class, () -> RTreeImpl.builder().leafCapacity(8, 5).build());
+        assertThrows(IllegalArgumentException.class, () -> RTreeImpl.builder().maxEntries(1).build());
+    }
+
+    static List<Point> clusteredPoints(long seed, int n) {
+        Random random = new Random(seed);
+        List<Point> points = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            int cx = 100 + 200 * random.nextInt(4);
+            int cy = 100 + 200 * random.nextInt(4);
+            points.add(new Point(cx + (int) (random.nextGaussian() * 30), cy + (int) (random.nextGaussian() * 30)));
+        }
+        return points;
+    }
+
+    @Test
+    public void rstarInsertionMode() {
+        for (int max : new int[] { 4, 16 }) {
+            List<Point> points = distinct(clusteredPoints(13, 5000));
+            points.addAll(distinct(randomPoints(14, 1000)));
+            points = distinct(points);
+            RTreeImpl tree = RTreeImpl.builder().maxEntries(max).insertionMode(RTreeImpl.InsertionMode.RSTAR).build();
+            for (Point p : points) {
+                tree.add(p);
+            }
+            assertEquals(points.size(), assertValid(tree, max, max / 2, max, max / 2));
+            assertSameAsBruteForce(tree, points, 15);
+
+            List<Point> remaining = new ArrayList<>(points);
+            for (int i = 0; i < points.size() / 2; i++) {
+                tree.delete(remaining.remove(remaining.size() - 1));
+            }
+            assertEquals(remaining.size(), assertValid(tree, max, max / 2, max, max / 2));
+            assertSameAsBruteForce(tree, remaining, 16);
+        }
+        assertThrows(IllegalArgumentException.class, () -> RTreeImpl.builder().insertionMode(null));
+    }
+
+    @Test
+    public void splitStrategies() {
+        List<Point> points = distinct(clusteredPoints(17, 4000));
+        SplitStrategy[] strategies = { SplitStrategy.QUADRATIC, SplitStrategy.INCREMENTAL_QUADRATIC,
+                SplitStrategy.LINEAR, SplitStrategy.RSTAR };
+        for (SplitStrategy strategy : strategies) {
+            for (int max : new int[] { 4, 32 }) {
+                RTreeImpl tree = RTreeImpl.builder().maxEntries(max).splitStrategy(strategy).build();
+                for (Point p : points) {
+                    tree.add(p);
+                }
+                assertEquals(points.size(), assertValid(tree, max, max / 2, max, max / 2));
+                assertSameAsBruteForce(tree, points, 18);
+            }
+        }
+
+        // 누적 MBR 갱신은 결과를 바꾸지 않음
+        RTreeImpl quadratic = RTreeImpl.builder().maxEntries(16).splitStrategy(SplitStrategy.QUADRATIC).build();
+        RTreeImpl incremental = RTreeImpl.builder().maxEntries(16).splitStrategy(SplitStrategy.INCREMENTAL_QUADRATIC)
+                .build();
+        for (Point p : points) {
+            quadratic.add(p);
+            incremental.add(p);
+        }
+        assertEquals(structure(quadratic.getRoot()), structure(incremental.getRoot()));
+    }
+
+    // structure 헬퍼 메서드. 노드 구성과 MBR을 문자열로 펼침.
+    static String structure(RTreeImpl.Node node) {
+        StringBuilder sb = new StringBuilder().append(node.getMbr().getLeftTop().getX()).append(',')
+                .append(node.getMbr().getLeftTop().getY()).append(',').append(node.getMbr().getRightBottom().getX())
+                .append(',').append(node.getMbr().getRightBottom().getY());
+        if (node.leaf) {
+            for (Point p : node.points) {
+                sb.append(' ').append(p.getX()).append(',').append(p.getY());
+            }
+        } else {
+            for (RTreeImpl.Node child : node.children) {
+                sb.append(" [").append(structure(child)).append(']');
+            }
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void lazySearchIterator() {
+        List<Point> points = distinct(randomPoints(27, 3000));
+        RTreeImpl tree = RTreeImpl.builder().maxEntries(8).build();
+        for (Point p : points) {
+            tree.add(p);
+        }
+        Rectangle all = new Rectangle(new Point(0, 0), new Point(1000, 1000));
+        Rectangle part = new Rectangle(new Point(100, 200), new Point(400, 500));
+
+        assertEquals(bruteForce(points, part), keys(tree.searchStream(part).iterator()));
+        assertEquals(points.size(), tree.searchStream(all).count());
+        assertEquals(100, tree.searchStream(all).limit(100).count());
+        assertTrue(tree.searchStream(part).anyMatch(p -> p.getX() >= 100));
+        assertFalse(tree.search(new Rectangle(new Point(2000, 2000), new Point(3000, 3000))).hasNext());
+
+        // 필요한 만큼만 순회: 첫 결과를 꺼낼 때 방문한 leaf는 하나뿐
+        int[] matched = { 0 };
+        tree.setObserver(new RTreeObserver() {
+            @Override
+            public void matched(Point point) {
+                matched[0]++;
+            }
+        });
+        Iterator<Point> iterator = tree.search(all);
+        iterator.next();
+        assertEquals(1, matched[0]);
+        tree.setObserver(null);
+
+        Iterator<Point> stale = tree.search(all);
+        stale.next();
+        tree.add(new Point(-1, -1));
+        assertThrows(ConcurrentModificationException.class, stale::next);
+        assertThrows(NoSuchElementException.class,
+                () -> tree.search(new Rectangle(new Point(-5, -5), new Point(-4, -4))).next());
+    }
+
+    @Test
+    public void incrementalNearestIterator() {
+        List<Point> points = distinct(clusteredPoints(28, 3000));
+        RTreeImpl tree = RTreeImpl.builder().maxEntries(16).build();
+        for (Point p : points) {
+            tree.add(p);
+        }
+        Point source = new Point(420, 380);
+        List<Point> expected = new ArrayList<>(points);
+        expected.sort(Comparator.comparingDouble(source::distance));
+
+        // k 없이 전부 가까운 순서로
+        RTreeImpl.NearestIterator iterator = tree.nearestIterator(source);
+        assertThrows(IllegalStateException.class, iterator::distance);
+        for (Point e : expected) {
+            Point p = iterator.next();
+            assertEquals(source.distance(e), source.distance(p), 1e-9);
+            assertEquals(source.distance(p), iterator.distance(), 1e-9);
+        }
+        assertFalse(iterator.hasNext());
+
+        // 나중에 거는 조건을 만족하는 첫 점
+        Point firstOdd = null;
+        for (RTreeImpl.NearestIterator it = tree.nearestIterator(source); it.hasNext();) {
+            Point p = it.next();
+            if (((int) p.getX()) % 7 == 3) {
+                firstOdd = p;
+                break;
+            }
+        }
+        Point expectedOdd = expected.stream().filter(p -> ((int) p.getX()) % 7 == 3).findFirst().get();
+        assertEquals(source.distance(expectedOdd), source.distance(firstOdd), 1e-9);
+
+        assertFalse(new RTreeImpl().nearestIterator(source).hasNext());
+        assertFalse(tree.nearest(source, 0).hasNext());
+        RTreeImpl.NearestIterator stale = tree.nearestIterator(source);
+        tree.delete(expected.get(0));
+        assertThrows(ConcurrentModificationException.class, stale::hasNext);
+    }
+
+    @Test
+    public void parallelNearestBreaksTiesLikeNearest() {
+        // 정수 격자의 점은 격자점이나 칸 중심에서 재면 거리가 같은 점이 많음. 거리, x, y 순서로 정확히 같아야 함
+        List<Point> points = new ArrayList<>();
+        for (int x = 0; x < 60; x++) {
+            for (int y = 0; y < 60; y++) {
+                points.add(new Point(x, y));
+            }
+        }
+        Collections.shuffle(points, new Random(35));
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (RTreeImpl.InsertionMode mode : RTreeImpl.InsertionMode.values()) {
+                RTreeImpl tree = RTreeImpl.builder().maxEntries(6).insertionMode(mode).parallelThreshold(8).build();
+                for (Point p : points) {
+                    tree.add(p);
+                }
+                Random random = new Random(36);
+                for (int q = 0; q < 60; q++) {
+                    double offset = q % 2 == 0 ? 0 : 0.5;
+                    Point source = new Point(random.nextInt(60) + offset, random.nextInt(60) + offset);
+                    int k = 1 + random.nextInt(150);
+                    List<Point> expected = new ArrayList<>(points);
+                    expected.sort(Comparator.comparingDouble((Point p) -> (p.getX() - source.getX())
+                            * (p.getX() - source.getX()) + (p.getY() - source.getY()) * (p.getY() - source.getY()))
+                            .thenComparingDouble(Point::getX).thenComparingDouble(Point::getY));
+                    expected = expected.subList(0, k);
+                    List<Point> sequential = new ArrayList<>();
+                    tree.nearest(source, k).forEachRemaining(sequential::add);
+                    List<Point> parallel = new ArrayList<>();
+                    tree.parallelNearest(source, k, pool).forEachRemaining(parallel::add);
+                    assertEquals(expected, sequential);
+                    assertEquals(sequential, parallel);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void parallelQueries() {
+        List<Point> points = distinct(clusteredPoints(29, 6000));
+        points.addAll(randomPoints(30, 4000));
+        points = distinct(points);
+        // 작은 threshold로 루트 아래 여러 레벨까지 작업을 나눔
+        RTreeImpl tree = RTreeImpl.builder().maxEntries(8).parallelThreshold(16).build();
+        for (Point p : points) {
+            tree.add(p);
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Random random = new Random(31);
+            for (int q = 0; q < 50; q++) {
+                double x = random.nextInt(1000);
+                double y = random.nextInt(1000);
+                Rectangle r = new Rectangle(new Point(x, y), new Point(x + random.nextInt(600), y + random.nextInt(600)));
+                List<Point> expected = new ArrayList<>();
+                tree.search(r).forEachRemaining(expected::add);
+                List<Point> actual = new ArrayList<>();
+                tree.parallelSearch(r, pool).forEachRemaining(actual::add);
+                assertEquals(expected, actual);
+            }
+            for (int q = 0; q < 50; q++) {
+                Point source = new Point(random.nextDouble() * 1000, random.nextDouble() * 1000);
+                int k = 1 + random.nextInt(200);
+                List<Point> expected = new ArrayList<>();
+                tree.nearest(source, k).forEachRemaining(expected::add);
+                List<Point> actual = new ArrayList<>();
+                tree.parallelNearest(source, k, pool).forEachRemaining(actual::add);
+                assertEquals(expected, actual);
+            }
+            assertFalse(tree.parallelNearest(new Point(1, 1), 0, pool).hasNext());
+            assertFalse(new RTreeImpl().parallelNearest(new Point(1, 1), 5, pool).hasNext());
+            assertFalse(new RTreeImpl().parallelSearch(new Rectangle(new Point(0, 0), new Point(1, 1)), pool).hasNext());
+            assertEquals(points.size(), keys(tree.parallelNearest(new Point(500, 500), points.size() + 10)).size());
+        } finally {
+            pool.shutdown();
+        }
+        assertThrows(IllegalArgumentException.class, () -> RTreeImpl.builder().parallelThreshold(0));
+    }
+
+    @Test
+    public void addAllBatches() {
+        for (RTreeImpl.InsertionMode mode : RTreeImpl.InsertionMode.values()) {
+            RTreeImpl tree = RTreeImpl.builder().maxEntries(8).insertionMode(mode).build();
+            List<Point> all = new ArrayList<>();
+            // 빈 트리(bulk load 경로)와 이미 채워진 트리에 여러 번 나눠 넣음. 목록 안의 중복과 트리와의 중복을 섞음.
+            for (int batch = 0; batch < 6; batch++) {
+                List<Point> points = batch % 2 == 0 ? randomPoints(35 + batch, 1500) : clusteredPoints(35 + batch, 1500);
+                points.add(new Point(points.get(0).getX(), points.get(0).getY()));
+                if (!all.isEmpty()) {
+                    points.add(new Point(all.get(0).getX(), all.get(0).getY()));
+                }
+                tree.addAll(points);
+                all.addAll(points);
+                all = distinct(all);
+                assertEquals(all.size(), assertValid(tree, 8, 4, 8, 4));
+            }
+            assertSameAsBruteForce(tree, all, 41);
+
+            // 이후 add/delete도 정상 동작
+            for (int i = 0; i < all.size() / 2; i++) {
+                tree.delete(all.remove(all.size() - 1));
+            }
+            assertEquals(all.size(), assertValid(tree, 8, 4, 8, 4));
+            assertSameAsBruteForce(tree, all, 42);
+        }
+
+        // 옵저버가 있으면 점마다 add 이벤트
+        RTreeImpl observed = RTreeImpl.builder().maxEntries(8).build();
+        observed.add(new Point(1, 1));
+        int[] inserted = new int[1];
+        observed.setObserver(new RTreeObserver() {
+            @Override
+            public void inserted(Point point) {
+                inserted[0]++;
+            }
+        });
+        observed.addAll(distinct(randomPoints(43, 300)));
+        assertEquals(distinct(randomPoints(43, 300)).size(), inserted[0]);
+        observed.addAll(new ArrayList<>());
+    }
+
+    @Test
+    public void searchBatch() {
+        List<Point> points = distinct(randomPoints(33, 5000));
+        RTreeImpl tree = RTreeImpl.builder().maxEntries(8).build();
+        for (Point p : points) {
+            tree.add(p);
+        }
+        // 인접한 타일, 겹치는 사각형, 트리 밖의 사각형을 섞음
+        List<Rectangle> rectangles = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            for (int j = 0; j < 10; j++) {
+                rectangles.add(new Rectangle(new Point(i * 100, j * 100), new Point(i * 100 + 100, j * 100 + 100)));
+            }
+        }
+        Random random = new Random(34);
+        for (int q = 0; q < 50; q++) {
+            double x = random.nextInt(1000);
+            double y = random.nextInt(1000);
+            rectangles.add(new Rectangle(new Point(x, y), new Point(x + random.nextInt(300), y + random.nextInt(300))));
+        }
+        rectangles.add(new Rectangle(new Point(2000, 2000), new Point(3000, 3000)));
+
+        List<List<Point>> results = tree.searchBatch(rectangles);
+        assertEquals(rectangles.size(), results.size());
+        int[] calls = new int[rectangles.size()];
+        tree.searchBatch(rectangles, (point, query) -> calls[query]++);
+        for (int q = 0; q < rectangles.size(); q++) {
+            List<Point> expected = new ArrayList<>();
+            tree.search(rectangles.get(q)).forEachRemaining(expected::add);
+            assertEquals(expected, results.get(q));
+            assertEquals(expected.size(), calls[q]);
+        }
+        assertTrue(results.get(rectangles.size() - 1).isEmpty());
+
+        assertTrue(tree.searchBatch(new ArrayList<>()).isEmpty());
+        assertTrue(new RTreeImpl().searchBatch(rectangles).get(0).isEmpty());
+        assertThrows(ConcurrentModificationException.class,
+                () -> tree.searchBatch(rectangles, (point, query) -> tree.delete(point)));
+    }
+
+    @Test
+    public void distanceJoin() {
+        List<Point> customers = distinct(clusteredPoints(41, 3000));
+        List<Point> stores = distinct(randomPoints(42, 400));
+        // 높이가 다른 두 트리도 함께 내려갈 수 있어야 함
+        RTreeImpl left = RTreeImpl.builder().maxEntries(4).bulkLoad(customers);
+        RTreeImpl right = RTreeImpl.builder().maxEntries(16).build();
+        for (Point p : stores) {
+            right.add(p);
+        }
+        for (double d : new double[] { 0, 5, 25.5 }) {
+            Set<String> expected = new TreeSet<>();
+            for (Point p : customers) {
+                for (Point q : stores) {
+                    double dx = p.getX() - q.getX();
+                    double dy = p.getY() - q.getY();
+                    if (dx * dx + dy * dy <= d * d) {
+                        expected.add(p + "-" + q);
+                    }
+                }
+            }
+            List<String> actual = new ArrayList<>();
+            left.distanceJoin(right, d, (p, q) -> actual.add(p + "-" + q));
+            assertEquals(expected.size(), actual.size());
+            assertEquals(expected, new TreeSet<>(actual));
+
+            List<String> swapped = new ArrayList<>();
+            right.distanceJoin(left, d, (q, p) -> swapped.add(p + "-" + q));
+            assertEquals(expected, new TreeSet<>(swapped));
+        }
+
+        int[] self = new int[1];
+        right.distanceJoin(right, 0, (p, q) -> self[0]++);
+        assertEquals(stores.size(), self[0]);
+        left.distanceJoin(new RTreeImpl(), 100, (p, q) -> self[0]++);
+        assertEquals(stores.size(), self[0]);
+        assertThrows(IllegalArgumentException.class, () -> left.distanceJoin(right, -1, (p, q) -> {
+        }));
+        assertThrows(ConcurrentModificationException.class,
+                () -> left.distanceJoin(right, 10, (p, q) -> right.delete(q)));
+    }
+
+    @Test
+    public void saveAndLoad(@TempDir Path dir) throws IOException {
+        List<Point> points = distinct(clusteredPoints(43, 3000));
+        RTreeImpl tree = RTreeImpl.builder().leafCapacity(12, 4).internalCapacity(6, 2)
+                .insertionMode(RTreeImpl.InsertionMode.RSTAR).splitStrategy(SplitStrategy.LINEAR).build();
+        for (Point p : points) {
+            tree.add(p);
+        }
+        Path file = dir.resolve("tree.snapshot");
+        tree.save(file);
+        RTreeImpl loaded = RTreeImpl.load(file);
+        assertEquals(structure(tree.getRoot()), structure(loaded.getRoot()));
+        assertEquals(points.size(), assertValid(loaded, 12, 4, 6, 2));
+        RTreeImpl indexed = RTreeImpl.builder().maxEntries(8).pointIndex(true).bulkLoad(points);
+        indexed.save(file);
+        assertIndexed(RTreeImpl.load(file));
+        assertSameAsBruteForce(loaded, points, 44);
+
+        // 옵션도 복원되므로 같은 변경을 하면 같은 트리가 됨
+        for (Point p : randomPoints(45, 500)) {
+            tree.add(p);
+            loaded.add(p);
+        }
+        for (int i = 0; i < 1000; i++) {
+            tree.delete(points.get(i));
+            loaded.delete(points.get(i));
+        }
+        assertEquals(structure(tree.getRoot()), structure(loaded.getRoot()));
+
+        new RTreeImpl().save(file);
+        assertTrue(RTreeImpl.load(file).isEmpty());
+
+        RTreeImpl custom = RTreeImpl.builder()
+                .splitStrategy((minX, minY, maxX, maxY, count, min) -> new boolean[count]).build();
+        assertThrows(IllegalStateException.class, () -> custom.save(dir.resolve("custom.snapshot")));
+        tree.save(file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 8));
+        assertThrows(IOException.class, () -> RTreeImpl.load(file));
+        bytes[0] = 0;
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> RTreeImpl.load(file));
+    }
+
+    @Test
+    public void countMatchesBruteForce() {
+        List<Point> points = distinct(clusteredPoints(46, 4000));
+        RTreeImpl guttman = RTreeImpl.builder().maxEntries(8).build();
+        RTreeImpl rstar = RTreeImpl.builder().maxEntries(8).insertionMode(RTreeImpl.InsertionMode.RSTAR).build();
+        RTreeImpl batch = RTreeImpl.builder().maxEntries(8).build();
+        for (Point p : points) {
+            guttman.add(p);
+            rstar.add(p);
+        }
+        batch.addAll(points);
+        List<RTreeImpl> trees = List.of(guttman, rstar, batch, RTreeImpl.builder().maxEntries(8).bulkLoad(points));
+
+        List<Point> remaining = new ArrayList<>(points.subList(0, points.size() / 2));
+        for (RTreeImpl tree : trees) {
+            for (Point p : points.subList(points.size() / 2, points.size())) {
+                tree.delete(p);
+            }
+            assertEquals(remaining.size(), assertValid(tree, 8, 4, 8, 4));
+            assertEquals(remaining.size(), tree.count(new Rectangle(new Point(-1, -1), new Point(1001, 1001))));
+            assertEquals(0, tree.count(new Rectangle(new Point(2000, 2000), new Point(3000, 3000))));
+            Random random = new Random(47);
+            for (int i = 0; i < 200; i++) {
+                double x = random.nextInt(1000), y = random.nextInt(1000);
+                Rectangle r = new Rectangle(new Point(x, y),
+                        new Point(x + random.nextInt(500), y + random.nextInt(500)));
+                assertEquals(bruteForce(remaining, r).size(), tree.count(r));
+            }
+        }
+    }
+
+    // 색인의 점 수가 트리와 같고, 모든 점이 자신이 들어있는 leaf로 색인되어 있는지 확인.
+    static void assertIndexed(RTreeImpl tree) {
+        PointIndex<RTreeImpl.Node> index = tree.pointIndex();
+        int points = 0;
+        List<RTreeImpl.Node> stack = new ArrayList<>(List.of(tree.getRoot()));
+        while (!stack.isEmpty()) {
+            RTreeImpl.Node node = stack.remove(stack.size() - 1);
+            if (node.leaf) {
+                for (Point p : node.points) {
+                    assertTrue(index.get(p.getX(), p.getY()) == node, "indexed leaf");
+                }
+                points += node.points.size();
+            } else {
+                stack.addAll(node.children);
+            }
+        }
+        assertEquals(points, index.size(), "index size");
+    }
+
+    @Test
+    public void pointIndexStaysInSync() {
+        List<Point> points = distinct(clusteredPoints(48, 3000));
+        List<Point> more = randomPoints(49, 1500);
+        for (RTreeImpl.InsertionMode mode : RTreeImpl.InsertionMode.values()) {
+            // 작은 용량으로 분할, 재삽입, 병합, 재분배가 자주 일어나게 함. 색인은 트리 구조를 바꾸지 않아야 함.
+            RTreeImpl plain = RTreeImpl.builder().maxEntries(4).insertionMode(mode).build();
+            RTreeImpl indexed = RTreeImpl.builder().maxEntries(4).insertionMode(mode).pointIndex(true).build();
+            for (Point p : points) {
+                plain.add(p);
+                indexed.add(p);
+            }
+            plain.addAll(more);
+            indexed.addAll(more);
+            assertEquals(structure(plain.getRoot()), structure(indexed.getRoot()));
+            assertIndexed(indexed);
+            for (int i = 0; i < points.size(); i += 2) {
+                plain.delete(points.get(i));
+                indexed.delete(points.get(i));
+            }
+            assertEquals(structure(plain.getRoot()), structure(indexed.getRoot()));
+            assertEquals(assertValid(plain), assertValid(indexed));
+            assertIndexed(indexed);
+        }
+
+        RTreeImpl loaded = RTreeImpl.builder().maxEntries(8).pointIndex(true).bulkLoad(points);
+        assertIndexed(loaded);
+        // -0.0과 0.0은 같은 좌표
+        loaded.add(new Point(0.0, 5000));
+        loaded.add(new Point(-0.0, 5000));
+        assertEquals(1, loaded.count(new Rectangle(new Point(-1, 4999), new Point(1, 5001))));
+        loaded.delete(new Point(-0.0, 5000));
+        assertEquals(points.size(), loaded.count(new Rectangle(new Point(-1, -1), new Point(1001, 5001))));
+        for (Point p : points) {
+            loaded.delete(p);
+        }
+        assertTrue(loaded.isEmpty());
+        assertIndexed(loaded);
+    }
+
+    @Test
+    public void deleteAllWithMinimumFillOne() {
+        // 내부 노드의 m=1이면 자식이 하나뿐인 내부 노드가 생김. 그 자식이 미달이 되어도 트리에 남지 않아야 함.
+        // M=3(leaf도 m=1)과 leaf만 m>1인 경우를 모두 확인
+        List<Point> points = distinct(randomPoints(0, 60));
+        int[][] capacities = { { 3, 1, 3, 1 }, { 6, 3, 3, 1 } };
+        for (int[] c : capacities) {
+            for (RTreeImpl.InsertionMode mode : RTreeImpl.InsertionMode.values()) {
+                RTreeImpl tree = RTreeImpl.builder().leafCapacity(c[0], c[1]).internalCapacity(c[2], c[3])
+                        .insertionMode(mode).pointIndex(true).build();
+                for (Point p : points) {
+                    tree.add(p);
+                }
+                List<Point> remaining = new ArrayList<>(points);
+                Collections.shuffle(remaining, new Random(0));
+                while (!remaining.isEmpty()) {
+                    tree.delete(remaining.remove(remaining.size() - 1));
+                    assertEquals(remaining.size(), assertValid(tree, c[0], c[1], c[2], c[3]));
+                    assertIndexed(tree);
+                }
+                assertTrue(tree.isEmpty());
+
+                for (Point p : points) {
+                    tree.add(p);
+                }
+                List<Point> kept = new ArrayList<>(points);
+                Rectangle half = new Rectangle(new Point(0, 0), new Point(500, 1000));
+                Set<String> inside = bruteForce(kept, half);
+                kept.removeIf(p -> inside.contains(p.getX() + "," + p.getY()));
+                assertEquals(inside.size(), tree.deleteWithin(half));
+                assertEquals(kept.size(), assertValid(tree, c[0], c[1], c[2], c[3]));
+                assertSameAsBruteForce(tree, kept, 0);
+            }
+        }
+    }
+
+    @Test
+    public void deleteWithinMatchesBruteForce() {
+        List<Point> points = distinct(clusteredPoints(50, 4000));
+        points.addAll(randomPoints(51, 2000));
+        points = distinct(points);
+        for (RTreeImpl.InsertionMode mode : RTreeImpl.InsertionMode.values()) {
+            RTreeImpl tree = RTreeImpl.builder().maxEntries(4).insertionMode(mode).pointIndex(true).build();
+            for (Point p : points) {
+                tree.add(p);
+            }
+            List<Point> remaining = new ArrayList<>(points);
+            Random random = new Random(52);
+            for (int i = 0; i < 30; i++) {
+                double x = random.nextInt(1000), y = random.nextInt(1000);
+                Rectangle r = new Rectangle(new Point(x, y),
+                        new Point(x + random.nextInt(300), y + random.nextInt(300)));
+                Set<String> inside = bruteForce(remaining, r);
+                if (i % 3 == 0) {
+                    // x가 짝수인 점만 지움
+                    Predicate<Point> even = p -> p.getX() % 2 == 0;
+                    remaining.removeIf(p -> inside.contains(p.getX() + "," + p.getY()) && even.test(p));
+                    assertEquals(inside.size() - bruteForce(remaining, r).size(), tree.deleteWithin(r, even));
+                } else {
+                    remaining.removeIf(p -> inside.contains(p.getX() + "," + p.getY()));
+                    assertEquals(inside.size(), tree.deleteWithin(r));
+                }
+                assertEquals(remaining.size(), assertValid(tree));
+                assertIndexed(tree);
+            }
+            assertSameAsBruteForce(tree, remaining, 53);
+            assertEquals(0, tree.deleteWithin(new Rectangle(new Point(2000, 2000), new Point(3000, 3000))));
+
+            // 전체를 지운 뒤에도 그대로 사용할 수 있음
+            assertEquals(remaining.size(), tree.deleteWithin(new Rectangle(new Point(-1, -1), new Point(1001, 1001))));
+            assertTrue(tree.isEmpty());
+            assertIndexed(tree);
+            for (Point p : points.subList(0, 100)) {
+                tree.add(p);
+            }
+            assertEquals(100, assertValid(tree));
+        }
+    }
+
+    @Test
+    public void reinsertCondense(@TempDir Path dir) throws IOException {
+        List<Point> points = distinct(clusteredPoints(54, 3000));
+        for (RTreeImpl.InsertionMode mode : RTreeImpl.InsertionMode.values()) {
+            RTreeImpl tree = RTreeImpl.builder().maxEntries(4).insertionMode(mode)
+                    .condenseMode(RTreeImpl.CondenseMode.REINSERT).pointIndex(true).build();
+            for (Point p : points) {
+                tree.add(p);
+            }
+            List<Point> remaining = new ArrayList<>(points);
+            for (int i = 0; i < 1500; i++) {
+                tree.delete(remaining.remove(remaining.size() - 1));
+            }
+            assertEquals(remaining.size(), assertValid(tree));
+            assertIndexed(tree);
+            assertSameAsBruteForce(tree, remaining, 55);
+
+            Random random = new Random(56);
+            for (int i = 0; i < 10; i++) {
+                double x = random.nextInt(1000), y = random.nextInt(1000);
+                Rectangle r = new Rectangle(new Point(x, y), new Point(x + random.nextInt(300), y + random.nextInt(300)));
+                Set<String> inside = bruteForce(remaining, r);
+                remaining.removeIf(p -> inside.contains(p.getX() + "," + p.getY()));
+                assertEquals(inside.size(), tree.deleteWithin(r));
+                assertEquals(remaining.size(), assertValid(tree));
+                assertIndexed(tree);
+            }
+            assertSameAsBruteForce(tree, remaining, 57);
+
+            // 스냅샷이 CondenseMode를 보존하므로 같은 삭제를 하면 같은 트리가 됨
+            Path file = dir.resolve("reinsert-" + mode + ".snapshot");
+            tree.save(file);
+            RTreeImpl loaded = RTreeImpl.load(file);
+            for (int i = 0; i < 500; i++) {
+                tree.delete(remaining.get(i));
+                loaded.delete(remaining.get(i));
+            }
+            assertEquals(structure(tree.getRoot()), structure(loaded.getRoot()));
+            assertIndexed(loaded);
+        }
+    }
+
+    @Test
+    public void reinsertCondenseKeepsOverlapBoundedUnderChurn() {
+        // 점의 1/4을 지우고 새 점을 같은 수만큼 넣기를 반복. MERGE는 먼 엔트리를 섞어 겹침이 계속 커지지만
+        // REINSERT는 처음 트리 수준을 넘지 않음.
+        double[] ratios = new double[2];
+        for (RTreeImpl.CondenseMode condense : RTreeImpl.CondenseMode.values()) {
+            Random random = new Random(58);
+            RTreeImpl tree = RTreeImpl.builder().maxEntries(8).condenseMode(condense).build();
+            List<Point> live = new ArrayList<>();
+            for (int i = 0; i < 8000; i++) {
+                Point p = new Point(random.nextDouble() * 1000, random.nextDouble() * 1000);
+                live.add(p);
+                tree.add(p);
+            }
+            TreeQuality initial = tree.quality();
+            for (int round = 0; round < 10; round++) {
+                Collections.shuffle(live, random);
+                for (int i = 0; i < 2000; i++) {
+                    tree.delete(live.remove(live.size() - 1));
+                }
+                for (int i = 0; i < 2000; i++) {
+                    Point p = new Point(random.nextDouble() * 1000, random.nextDouble() * 1000);
+                    live.add(p);
+                    tree.add(p);
+                }
+            }
+            assertEquals(live.size(), assertValid(tree, 8, 4, 8, 4));
+            TreeQuality quality = tree.quality();
+            ratios[condense.ordinal()] = quality.getOverlapRatio();
+            if (condense == RTreeImpl.CondenseMode.REINSERT) {
+                assertTrue(quality.getOverlapRatio() <= initial.getOverlapRatio(), quality + " vs " + initial);
+                assertTrue(quality.getLeafUtilization() >= 0.5, quality.toString());
+            }
+        }
+        assertTrue(ratios[1] < ratios[0] / 2, Arrays.toString(ratios));
+    }
+
+    @Test
+    public void observerReceivesEvents() {
+        List<String> events = new ArrayList<>();
+        RTreeImpl tree = new RTreeImpl();
+        tree.setObserver(new RTreeObserver() {
+            @Override
+            public void split(Rectangle group1, Rectangle group2) {
+                events.add("split");
+            }
+
+            @Override
+            public void inserted(Point point) {
+                events.add("inserted");
+            }
+
+            @Override
+            public void pruned(Rectangle mbr) {
+                events.add("pruned");
+            }
+        });
+        for (Point p : randomPoints(4, 20)) {
+            tree.add(p);
+        }
+        // search는 lazy이므로 결과를 끝까지 꺼내야 모든 이벤트가 발생
+        keys(tree.search(new Rectangle(new Point(0, 0), new Point(10, 10))));
+        assertTrue(events.contains("split"));
+        assertTrue(events.contains("inserted"));
+        assertTrue(events.contains("pruned"));
+    }
+}